@@ -0,0 +1,124 @@
+/*************************************************************************************
+ * Product: Adempiere ERP & CRM Smart Business Solution                              *
+ * This program is free software; you can redistribute it and/or modify it    		 *
+ * under the terms version 2 or later of the GNU General Public License as published *
+ * by the Free Software Foundation. This program is distributed in the hope   		 *
+ * that it will be useful, but WITHOUT ANY WARRANTY; without even the implied 		 *
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.           		 *
+ * See the GNU General Public License for more details.                       		 *
+ * You should have received a copy of the GNU General Public License along    		 *
+ * with this program; if not, write to the Free Software Foundation, Inc.,    		 *
+ * 59 Temple Place, Suite 330, Boston, MA 02111-1307 USA.                     		 *
+ * For the text or an alternative of this public license, you may reach us    		 *
+ * Copyright (C) 2012-2018 E.R.P. Consultores y Asociados, S.A. All Rights Reserved. *
+ * Contributor(s): Yamel Senih www.erpya.com				  		                 *
+ *************************************************************************************/
+package org.spin.base.util;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.spin.grpc.util.ListEntitiesResponse;
+
+/**
+ * A page of query from result set to transport: messages of entities (a builder by record and by value,
+ * serialized by marshaller) against records encoded while rows are read ({@link EncodedRecordsWriter}).
+ * Each operation is a page of rows, the allocation by row is measured with profiler of GC (-prof gc).
+ * @author Yamel Senih, ysenih@erpya.com , http://www.erpya.com
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EncodedRecordsWriterBenchmark {
+	/**	Rows by page	*/
+	@Param({"50", "1000"})
+	private int rowCount;
+	/**	Rows	*/
+	private RowsResultSet rows;
+	/**	References of columns by upper case name	*/
+	private Map<String, Integer> references;
+	/**	Transport	*/
+	private final OutputStream transport = new DiscardOutputStream();
+	
+	@Setup
+	public void setup() {
+		rows = new RowsResultSet(rowCount);
+		references = RowsResultSet.getReferences();
+	}
+	
+	/**
+	 * Entities added to builder of response, then the response is serialized
+	 * @return size sent
+	 * @throws SQLException
+	 * @throws IOException
+	 */
+	@Benchmark
+	public int entityMessages() throws SQLException, IOException {
+		ResultSet resultSet = rows.open();
+		EntityConversionPlan plan = EntityConversionPlan.forReferences(resultSet.getMetaData(), references);
+		ListEntitiesResponse.Builder builder = ListEntitiesResponse.newBuilder();
+		while(resultSet.next()) {
+			builder.addRecords(plan.convert(resultSet).build());
+		}
+		ListEntitiesResponse response = builder.build();
+		response.writeTo(transport);
+		return response.getSerializedSize();
+	}
+	
+	/**
+	 * Records encoded on buffers of thread, then the buffers are copied to transport
+	 * @return size sent
+	 * @throws SQLException
+	 * @throws IOException
+	 */
+	@Benchmark
+	public int encodedRecords() throws SQLException, IOException {
+		ResultSet resultSet = rows.open();
+		EntityConversionPlan plan = EntityConversionPlan.forReferences(resultSet.getMetaData(), references);
+		EncodedRecordsWriter writer = EncodedRecordsWriter.start(ListEntitiesResponse.RECORDS_FIELD_NUMBER);
+		while(resultSet.next()) {
+			writer.addRecord();
+			plan.write(resultSet, writer);
+		}
+		EncodedRecords records = writer.finish();
+		try {
+			records.writeTo(transport);
+			return records.getSize();
+		} finally {
+			records.release();
+		}
+	}
+	
+	/**
+	 * Transport that discard bytes
+	 */
+	private static final class DiscardOutputStream extends OutputStream {
+		@Override
+		public void write(int value) {
+			//	Discarded
+		}
+		
+		@Override
+		public void write(byte[] bytes, int offset, int length) {
+			//	Discarded
+		}
+	}
+}
@@ -0,0 +1,111 @@
+/*************************************************************************************
+ * Product: Adempiere ERP & CRM Smart Business Solution                              *
+ * This program is free software; you can redistribute it and/or modify it    		 *
+ * under the terms version 2 or later of the GNU General Public License as published *
+ * by the Free Software Foundation. This program is distributed in the hope   		 *
+ * that it will be useful, but WITHOUT ANY WARRANTY; without even the implied 		 *
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.           		 *
+ * See the GNU General Public License for more details.                       		 *
+ * You should have received a copy of the GNU General Public License along    		 *
+ * with this program; if not, write to the Free Software Foundation, Inc.,    		 *
+ * 59 Temple Place, Suite 330, Boston, MA 02111-1307 USA.                     		 *
+ * For the text or an alternative of this public license, you may reach us    		 *
+ * Copyright (C) 2012-2018 E.R.P. Consultores y Asociados, S.A. All Rights Reserved. *
+ * Contributor(s): Yamel Senih www.erpya.com				  		                 *
+ *************************************************************************************/
+package org.spin.base.util;
+
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.compiere.util.Util;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.spin.grpc.util.Entity;
+
+/**
+ * Conversion of a page of query to entities: lookup of column by name for each cell (before {@link EntityConversionPlan})
+ * against the plan resolved once by query. Each operation is a page of rows, rows by second = ops by second * rows.
+ * The references of columns are given by a map instead of dictionary (it does not need database).
+ * @author Yamel Senih, ysenih@erpya.com , http://www.erpya.com
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EntityConversionPlanBenchmark {
+	/**	Rows by page	*/
+	@Param({"50", "1000"})
+	private int rowCount;
+	/**	Rows	*/
+	private RowsResultSet rows;
+	/**	References of columns by upper case name	*/
+	private Map<String, Integer> references;
+	
+	@Setup
+	public void setup() {
+		rows = new RowsResultSet(rowCount);
+		references = RowsResultSet.getReferences();
+	}
+	
+	/**
+	 * Conversion of each cell with lookup of column by upper case name and display type
+	 * @param blackhole
+	 * @throws SQLException
+	 */
+	@Benchmark
+	public void lookupByCell(Blackhole blackhole) throws SQLException {
+		ResultSet resultSet = rows.open();
+		while(resultSet.next()) {
+			Entity.Builder builder = Entity.newBuilder();
+			RecordWriter writer = RecordWriter.forEntity(builder);
+			ResultSetMetaData metaData = resultSet.getMetaData();
+			for (int index = 1; index <= metaData.getColumnCount(); index++) {
+				String columnName = metaData.getColumnName(index);
+				if(RecordCount.isCountColumn(columnName)) {
+					continue;
+				}
+				Integer referenceId = references.get(columnName.toUpperCase());
+				//	Display Columns
+				if(referenceId == null) {
+					String value = resultSet.getString(index);
+					if(!Util.isEmpty(value)) {
+						writer.setString(columnName, value);
+					}
+					continue;
+				}
+				writer.setValue(columnName, resultSet.getObject(index), referenceId);
+			}
+			blackhole.consume(builder.build());
+		}
+	}
+	
+	/**
+	 * Conversion with plan of query
+	 * @param blackhole
+	 * @throws SQLException
+	 */
+	@Benchmark
+	public void conversionPlan(Blackhole blackhole) throws SQLException {
+		ResultSet resultSet = rows.open();
+		EntityConversionPlan plan = EntityConversionPlan.forReferences(resultSet.getMetaData(), references);
+		while(resultSet.next()) {
+			blackhole.consume(plan.convert(resultSet).build());
+		}
+	}
+}
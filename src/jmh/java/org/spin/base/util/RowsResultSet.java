@@ -0,0 +1,157 @@
+/*************************************************************************************
+ * Product: Adempiere ERP & CRM Smart Business Solution                              *
+ * This program is free software; you can redistribute it and/or modify it    		 *
+ * under the terms version 2 or later of the GNU General Public License as published *
+ * by the Free Software Foundation. This program is distributed in the hope   		 *
+ * that it will be useful, but WITHOUT ANY WARRANTY; without even the implied 		 *
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.           		 *
+ * See the GNU General Public License for more details.                       		 *
+ * You should have received a copy of the GNU General Public License along    		 *
+ * with this program; if not, write to the Free Software Foundation, Inc.,    		 *
+ * 59 Temple Place, Suite 330, Boston, MA 02111-1307 USA.                     		 *
+ * For the text or an alternative of this public license, you may reach us    		 *
+ * Copyright (C) 2012-2018 E.R.P. Consultores y Asociados, S.A. All Rights Reserved. *
+ * Contributor(s): Yamel Senih www.erpya.com				  		                 *
+ *************************************************************************************/
+package org.spin.base.util;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.math.BigDecimal;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.Timestamp;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.compiere.util.DisplayType;
+
+/**
+ * Result set on memory for benchmarks, it has rows like a list of orders (key, UUID, text, dates, amounts,
+ * flags, lookups and a display column). Only the methods used for read rows are supported.
+ * @author Yamel Senih, ysenih@erpya.com , http://www.erpya.com
+ */
+final class RowsResultSet implements InvocationHandler {
+	/**	Columns	*/
+	private static final String[] COLUMN_NAMES = {"C_Order_ID", "UUID", "DocumentNo", "Description", "DateOrdered",
+			"GrandTotal", "TotalLines", "IsActive", "C_BPartner_ID", "DisplayColumn_C_BPartner_ID"};
+	/**	Rows	*/
+	private final Object[][] rows;
+	/**	Result set and metadata	*/
+	private final ResultSet resultSet;
+	private final ResultSetMetaData metaData;
+	/**	Current row	*/
+	private int current = -1;
+	/**	Last value read is null	*/
+	private boolean wasNull = false;
+	
+	/**
+	 * Create rows
+	 * @param rowCount
+	 */
+	RowsResultSet(int rowCount) {
+		rows = new Object[rowCount][];
+		long time = Timestamp.valueOf("2020-01-01 00:00:00").getTime();
+		for(int index = 0; index < rowCount; index++) {
+			rows[index] = new Object[] {
+				1000000 + index,
+				"a4b5c6d7-" + index + "-4e2f-9a1b-0c3d5e7f9a1b",
+				"SO-" + (100000 + index),
+				index % 3 == 0? null: "Order of customer " + index,
+				new Timestamp(time + index * 86400000L),
+				new BigDecimal(index * 37).movePointLeft(2).add(new BigDecimal("1250.50")),
+				new BigDecimal(index * 31).movePointLeft(2).add(new BigDecimal("1000.00")),
+				"Y",
+				new BigDecimal(50000 + index % 100),
+				"Customer " + (index % 100)
+			};
+		}
+		ClassLoader loader = RowsResultSet.class.getClassLoader();
+		resultSet = (ResultSet) Proxy.newProxyInstance(loader, new Class<?>[] {ResultSet.class}, this);
+		metaData = (ResultSetMetaData) Proxy.newProxyInstance(loader, new Class<?>[] {ResultSetMetaData.class}, this);
+	}
+	
+	/**
+	 * References of columns by upper case name (same of columns of table), the display column does not have reference
+	 * @return
+	 */
+	static Map<String, Integer> getReferences() {
+		Map<String, Integer> references = new HashMap<>();
+		references.put("C_ORDER_ID", DisplayType.ID);
+		references.put("UUID", DisplayType.String);
+		references.put("DOCUMENTNO", DisplayType.String);
+		references.put("DESCRIPTION", DisplayType.Text);
+		references.put("DATEORDERED", DisplayType.Date);
+		references.put("GRANDTOTAL", DisplayType.Amount);
+		references.put("TOTALLINES", DisplayType.Amount);
+		references.put("ISACTIVE", DisplayType.YesNo);
+		references.put("C_BPARTNER_ID", DisplayType.Search);
+		return references;
+	}
+	
+	/**
+	 * Get result set before first row
+	 * @return
+	 */
+	ResultSet open() {
+		current = -1;
+		return resultSet;
+	}
+	
+	@Override
+	public Object invoke(Object proxy, Method method, Object[] arguments) throws Throwable {
+		switch (method.getName()) {
+			case "next":
+				return ++current < rows.length;
+			case "getMetaData":
+				return metaData;
+			case "getColumnCount":
+				return COLUMN_NAMES.length;
+			case "getColumnName":
+			case "getColumnLabel":
+				return COLUMN_NAMES[(Integer) arguments[0] - 1];
+			case "getObject":
+				return getValue(arguments[0]);
+			case "getString":
+				Object value = getValue(arguments[0]);
+				return value == null? null: value.toString();
+			case "getInt":
+				Object number = getValue(arguments[0]);
+				return number == null? 0: ((Number) number).intValue();
+			case "wasNull":
+				return wasNull;
+			case "close":
+				return null;
+			case "hashCode":
+				return System.identityHashCode(proxy);
+			case "equals":
+				return proxy == arguments[0];
+			default:
+				throw new UnsupportedOperationException(method.getName());
+		}
+	}
+	
+	/**
+	 * Get value of current row by index (1 based) or column name
+	 * @param column
+	 * @return
+	 */
+	private Object getValue(Object column) {
+		int index;
+		if(column instanceof Integer) {
+			index = (Integer) column - 1;
+		} else {
+			index = -1;
+			for(int position = 0; position < COLUMN_NAMES.length; position++) {
+				if(COLUMN_NAMES[position].equalsIgnoreCase((String) column)) {
+					index = position;
+					break;
+				}
+			}
+		}
+		Object value = rows[current][index];
+		wasNull = value == null;
+		return value;
+	}
+}
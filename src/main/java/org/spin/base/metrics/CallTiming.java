@@ -0,0 +1,209 @@
+/*************************************************************************************
+ * Product: Adempiere ERP & CRM Smart Business Solution                              *
+ * This program is free software; you can redistribute it and/or modify it    		 *
+ * under the terms version 2 or later of the GNU General Public License as published *
+ * by the Free Software Foundation. This program is distributed in the hope   		 *
+ * that it will be useful, but WITHOUT ANY WARRANTY; without even the implied 		 *
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.           		 *
+ * See the GNU General Public License for more details.                       		 *
+ * You should have received a copy of the GNU General Public License along    		 *
+ * with this program; if not, write to the Free Software Foundation, Inc.,    		 *
+ * 59 Temple Place, Suite 330, Boston, MA 02111-1307 USA.                     		 *
+ * For the text or an alternative of this public license, you may reach us    		 *
+ * Copyright (C) 2012-2018 E.R.P. Consultores y Asociados, S.A. All Rights Reserved. *
+ * Contributor(s): Yamel Senih www.erpya.com				  		                 *
+ *************************************************************************************/
+package org.spin.base.metrics;
+
+import io.grpc.Context;
+
+/**
+ * Timing of phases for a single call. It is attached to the gRPC context by
+ * the metrics interceptor and the utility layers report into it:
+ * <pre>
+ * try (CallTiming.Scope scope = CallTiming.start(Phase.SQL)) {
+ * 	...
+ * }
+ * </pre>
+ * The time of each phase is exclusive: a nested phase pause the outer phase,
+ * then the sum of phases is never more than the call time.
+ * A instance is confined to a call, gRPC never run two events of same call at the same time.
+ * @author Yamel Senih, ysenih@erpya.com , http://www.erpya.com
+ */
+public class CallTiming {
+	/**	Key on gRPC context	*/
+	public static final Context.Key<CallTiming> KEY = Context.key("adempiere-call-timing");
+	/**	Scope that do nothing, used outside of a call	*/
+	private static final Scope NO_SCOPE = () -> {};
+	/**	Max nested phases	*/
+	private static final int MAX_DEPTH = 16;
+
+	/**
+	 * Phases of a call
+	 */
+	public enum Phase {
+		CONTEXT("context"),
+		SQL("sql"),
+		CONVERSION("conversion"),
+		SERIALIZATION("serialization");
+
+		private final String phaseName;
+
+		Phase(String phaseName) {
+			this.phaseName = phaseName;
+		}
+
+		public String getPhaseName() {
+			return phaseName;
+		}
+	}
+
+	/**
+	 * Scope of a phase, close it for finish the phase
+	 */
+	public interface Scope extends AutoCloseable {
+		@Override
+		void close();
+	}
+
+	/**	Full method name	*/
+	private final String methodName;
+	/**	Session of call (AD_Session_ID), it is set when context is resolved	*/
+	private int sessionId = 0;
+	/**	Start of call	*/
+	private final long startTime;
+	/**	Elapsed by phase (nanoseconds)	*/
+	private final long[] elapsed = new long[Phase.values().length];
+	/**	Active phases	*/
+	private final Phase[] stack = new Phase[MAX_DEPTH];
+	/**	Depth of active phases	*/
+	private int depth = 0;
+	/**	Start of current phase segment	*/
+	private long segmentStart;
+	/**	Scope returned by begin, one for call	*/
+	private final Scope scope = this::end;
+
+	/**
+	 * Default constructor
+	 * @param methodName
+	 */
+	public CallTiming(String methodName) {
+		this.methodName = methodName;
+		this.startTime = System.nanoTime();
+	}
+
+	/**
+	 * Get timing of current call
+	 * @return null if is not inside a call
+	 */
+	public static CallTiming current() {
+		return KEY.get();
+	}
+
+	/**
+	 * Start a phase on current call
+	 * @param phase
+	 * @return scope, must be closed
+	 */
+	public static Scope start(Phase phase) {
+		CallTiming timing = KEY.get();
+		if(timing == null) {
+			return NO_SCOPE;
+		}
+		return timing.begin(phase);
+	}
+
+	/**
+	 * Begin a phase
+	 * @param phase
+	 * @return
+	 */
+	public Scope begin(Phase phase) {
+		if(depth >= MAX_DEPTH) {
+			return NO_SCOPE;
+		}
+		long now = System.nanoTime();
+		if(depth > 0) {
+			elapsed[stack[depth - 1].ordinal()] += now - segmentStart;
+		}
+		stack[depth++] = phase;
+		segmentStart = now;
+		return scope;
+	}
+
+	/**
+	 * End current phase
+	 */
+	public void end() {
+		if(depth <= 0) {
+			return;
+		}
+		long now = System.nanoTime();
+		elapsed[stack[--depth].ordinal()] += now - segmentStart;
+		segmentStart = now;
+	}
+
+	/**
+	 * Add time to a phase measured outside of a scope
+	 * @param phase
+	 * @param nanoseconds
+	 */
+	public void add(Phase phase, long nanoseconds) {
+		elapsed[phase.ordinal()] += nanoseconds;
+	}
+
+	/**
+	 * Get elapsed time of phase
+	 * @param phase
+	 * @return nanoseconds
+	 */
+	public long getElapsed(Phase phase) {
+		return elapsed[phase.ordinal()];
+	}
+
+	/**
+	 * Get time since the call start
+	 * @return nanoseconds
+	 */
+	public long getTotalElapsed() {
+		return System.nanoTime() - startTime;
+	}
+
+	/**
+	 * Get full method name
+	 * @return
+	 */
+	public String getMethodName() {
+		return methodName;
+	}
+
+	/**
+	 * Get session of call, the UUID is not kept because it is a credential
+	 * @return AD_Session_ID, 0 if context is not resolved yet
+	 */
+	public int getSessionId() {
+		return sessionId;
+	}
+
+	/**
+	 * Set session of call
+	 * @param sessionId AD_Session_ID
+	 */
+	public void setSessionId(int sessionId) {
+		this.sessionId = sessionId;
+	}
+
+	/**
+	 * Summary for debug trailer, like: context=0.512ms;sql=12.100ms;...;total=15.020ms
+	 * @return
+	 */
+	public String getSummary() {
+		StringBuilder summary = new StringBuilder();
+		for(Phase phase : Phase.values()) {
+			summary.append(phase.getPhaseName()).append("=")
+				.append(String.format("%.3f", elapsed[phase.ordinal()] / 1_000_000.0)).append("ms;");
+		}
+		summary.append("total=").append(String.format("%.3f", getTotalElapsed() / 1_000_000.0)).append("ms");
+		return summary.toString();
+	}
+}
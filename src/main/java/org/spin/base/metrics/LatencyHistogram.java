@@ -0,0 +1,147 @@
+/*************************************************************************************
+ * Product: Adempiere ERP & CRM Smart Business Solution                              *
+ * This program is free software; you can redistribute it and/or modify it    		 *
+ * under the terms version 2 or later of the GNU General Public License as published *
+ * by the Free Software Foundation. This program is distributed in the hope   		 *
+ * that it will be useful, but WITHOUT ANY WARRANTY; without even the implied 		 *
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.           		 *
+ * See the GNU General Public License for more details.                       		 *
+ * You should have received a copy of the GNU General Public License along    		 *
+ * with this program; if not, write to the Free Software Foundation, Inc.,    		 *
+ * 59 Temple Place, Suite 330, Boston, MA 02111-1307 USA.                     		 *
+ * For the text or an alternative of this public license, you may reach us    		 *
+ * Copyright (C) 2012-2018 E.R.P. Consultores y Asociados, S.A. All Rights Reserved. *
+ * Contributor(s): Yamel Senih www.erpya.com				  		                 *
+ *************************************************************************************/
+package org.spin.base.metrics;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Lock free latency histogram with HDR style buckets: each power of two between
+ * 128 us and 67 s is split in two linear sub buckets, then the relative error is
+ * bounded (~25%) for all the range and the record cost is a binary search plus one
+ * atomic increment.
+ * @author Yamel Senih, ysenih@erpya.com , http://www.erpya.com
+ */
+public class LatencyHistogram {
+	/**	Lower power of two (128 us)	*/
+	private static final int MIN_EXPONENT = 7;
+	/**	Upper power of two (~67 s)	*/
+	private static final int MAX_EXPONENT = 26;
+	/**	Upper bounds in microseconds	*/
+	private static final long[] UPPER_BOUNDS;
+	static {
+		UPPER_BOUNDS = new long[(MAX_EXPONENT - MIN_EXPONENT) * 2 + 1];
+		int index = 0;
+		for(int exponent = MIN_EXPONENT; exponent < MAX_EXPONENT; exponent++) {
+			long base = 1L << exponent;
+			UPPER_BOUNDS[index++] = base;
+			UPPER_BOUNDS[index++] = base + (base >> 1);
+		}
+		UPPER_BOUNDS[index] = 1L << MAX_EXPONENT;
+	}
+	/**	Counts by bucket, last is overflow	*/
+	private final AtomicLongArray counts = new AtomicLongArray(UPPER_BOUNDS.length + 1);
+	/**	Sum of nanoseconds	*/
+	private final LongAdder sum = new LongAdder();
+
+	/**
+	 * Record a duration
+	 * @param nanoseconds
+	 */
+	public void record(long nanoseconds) {
+		if(nanoseconds < 0) {
+			nanoseconds = 0;
+		}
+		long microseconds = nanoseconds / 1000;
+		int index = Arrays.binarySearch(UPPER_BOUNDS, microseconds);
+		if(index < 0) {
+			index = -index - 1;
+		}
+		counts.incrementAndGet(index);
+		sum.add(nanoseconds);
+	}
+
+	/**
+	 * Get upper bounds of buckets in microseconds
+	 * @return
+	 */
+	public static long[] getUpperBounds() {
+		return UPPER_BOUNDS.clone();
+	}
+
+	/**
+	 * Get count of a bucket (not cumulative), index equals to bounds length is the overflow
+	 * @param index
+	 * @return
+	 */
+	public long getBucketCount(int index) {
+		return counts.get(index);
+	}
+
+	/**
+	 * Get total of records
+	 * @return
+	 */
+	public long getCount() {
+		long count = 0;
+		for(int index = 0; index < counts.length(); index++) {
+			count += counts.get(index);
+		}
+		return count;
+	}
+
+	/**
+	 * Get sum of records in nanoseconds
+	 * @return
+	 */
+	public long getSum() {
+		return sum.sum();
+	}
+
+	/**
+	 * Get approximated value for a quantile (upper bound of bucket) in microseconds
+	 * @param quantile between 0 and 1
+	 * @return
+	 */
+	public long getQuantile(double quantile) {
+		long count = getCount();
+		if(count == 0) {
+			return 0;
+		}
+		long rank = (long) Math.ceil(quantile * count);
+		long accumulated = 0;
+		for(int index = 0; index < UPPER_BOUNDS.length; index++) {
+			accumulated += counts.get(index);
+			if(accumulated >= rank) {
+				return UPPER_BOUNDS[index];
+			}
+		}
+		return Long.MAX_VALUE;
+	}
+
+	/**
+	 * Write histogram in Prometheus text format, bounds in seconds
+	 * @param output
+	 * @param name
+	 * @param labels labels already formatted (name="value",...) or empty
+	 */
+	public void writeTo(StringBuilder output, String name, String labels) {
+		String separator = labels.isEmpty()? "": ",";
+		long accumulated = 0;
+		for(int index = 0; index < UPPER_BOUNDS.length; index++) {
+			accumulated += counts.get(index);
+			output.append(name).append("_bucket{").append(labels).append(separator)
+				.append("le=\"").append(UPPER_BOUNDS[index] / 1_000_000.0).append("\"} ")
+				.append(accumulated).append('\n');
+		}
+		accumulated += counts.get(UPPER_BOUNDS.length);
+		output.append(name).append("_bucket{").append(labels).append(separator)
+			.append("le=\"+Inf\"} ").append(accumulated).append('\n');
+		output.append(name).append("_sum{").append(labels).append("} ").append(getSum() / 1_000_000_000.0).append('\n');
+		output.append(name).append("_count{").append(labels).append("} ").append(accumulated).append('\n');
+	}
+}
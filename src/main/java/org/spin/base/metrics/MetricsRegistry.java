@@ -0,0 +1,255 @@
+/*************************************************************************************
+ * Product: Adempiere ERP & CRM Smart Business Solution                              *
+ * This program is free software; you can redistribute it and/or modify it    		 *
+ * under the terms version 2 or later of the GNU General Public License as published *
+ * by the Free Software Foundation. This program is distributed in the hope   		 *
+ * that it will be useful, but WITHOUT ANY WARRANTY; without even the implied 		 *
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.           		 *
+ * See the GNU General Public License for more details.                       		 *
+ * You should have received a copy of the GNU General Public License along    		 *
+ * with this program; if not, write to the Free Software Foundation, Inc.,    		 *
+ * 59 Temple Place, Suite 330, Boston, MA 02111-1307 USA.                     		 *
+ * For the text or an alternative of this public license, you may reach us    		 *
+ * Copyright (C) 2012-2018 E.R.P. Consultores y Asociados, S.A. All Rights Reserved. *
+ * Contributor(s): Yamel Senih www.erpya.com				  		                 *
+ *************************************************************************************/
+package org.spin.base.metrics;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+
+/**
+ * Registry of server metrics, exported in Prometheus text format.
+ * Metrics are created once (by name and labels) and must be kept by caller,
+ * the hot path is only an increment.
+ * @author Yamel Senih, ysenih@erpya.com , http://www.erpya.com
+ */
+public class MetricsRegistry {
+	/**	Default instance	*/
+	private static final MetricsRegistry instance = new MetricsRegistry();
+	/**	Families by name	*/
+	private final Map<String, Family<?>> families = new ConcurrentHashMap<>();
+
+	/**	Types	*/
+	private static final String TYPE_COUNTER = "counter";
+	private static final String TYPE_GAUGE = "gauge";
+	private static final String TYPE_HISTOGRAM = "histogram";
+
+	/**
+	 * Get default instance
+	 * @return
+	 */
+	public static MetricsRegistry getInstance() {
+		return instance;
+	}
+
+	/**
+	 * Get or create a counter
+	 * @param name
+	 * @param help
+	 * @param labelNames
+	 * @param labelValues
+	 * @return
+	 */
+	public Counter counter(String name, String help, String[] labelNames, String... labelValues) {
+		return this.<Counter>getFamily(name, help, TYPE_COUNTER, labelNames)
+				.get(labelValues, labels -> new Counter());
+	}
+
+	/**
+	 * Get or create a gauge
+	 * @param name
+	 * @param help
+	 * @param labelNames
+	 * @param labelValues
+	 * @return
+	 */
+	public Gauge gauge(String name, String help, String[] labelNames, String... labelValues) {
+		return this.<Gauge>getFamily(name, help, TYPE_GAUGE, labelNames)
+				.get(labelValues, labels -> new Gauge(null));
+	}
+
+	/**
+	 * Register a gauge that read the value from a supplier on each scrape
+	 * @param name
+	 * @param help
+	 * @param supplier
+	 * @param labelNames
+	 * @param labelValues
+	 * @return
+	 */
+	public Gauge gauge(String name, String help, LongSupplier supplier, String[] labelNames, String... labelValues) {
+		return this.<Gauge>getFamily(name, help, TYPE_GAUGE, labelNames)
+				.get(labelValues, labels -> new Gauge(supplier));
+	}
+
+	/**
+	 * Get or create a latency histogram
+	 * @param name
+	 * @param help
+	 * @param labelNames
+	 * @param labelValues
+	 * @return
+	 */
+	public LatencyHistogram histogram(String name, String help, String[] labelNames, String... labelValues) {
+		return this.<LatencyHistogram>getFamily(name, help, TYPE_HISTOGRAM, labelNames)
+				.get(labelValues, labels -> new LatencyHistogram());
+	}
+
+	/**
+	 * Get family of metrics
+	 * @param name
+	 * @param help
+	 * @param type
+	 * @param labelNames
+	 * @return
+	 */
+	@SuppressWarnings("unchecked")
+	private <M> Family<M> getFamily(String name, String help, String type, String[] labelNames) {
+		Family<?> family = families.computeIfAbsent(name, key -> new Family<M>(name, help, type, labelNames));
+		if(!family.type.equals(type)) {
+			throw new IllegalArgumentException("Metric " + name + " already registered as " + family.type);
+		}
+		return (Family<M>) family;
+	}
+
+	/**
+	 * Export all metrics in Prometheus text format (version 0.0.4)
+	 * @return
+	 */
+	public String scrape() {
+		StringBuilder output = new StringBuilder(16 * 1024);
+		new TreeMap<>(families).values().forEach(family -> family.writeTo(output));
+		return output.toString();
+	}
+
+	/**
+	 * Escape label value
+	 * @param value
+	 * @return
+	 */
+	private static String escape(String value) {
+		if(value == null) {
+			return "";
+		}
+		return value.replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n");
+	}
+
+	/**
+	 * Metrics with same name and different labels
+	 */
+	private static class Family<M> {
+		private final String name;
+		private final String help;
+		private final String type;
+		private final String[] labelNames;
+		/**	Metrics by formatted labels	*/
+		private final Map<String, M> metrics = new ConcurrentHashMap<>();
+
+		private Family(String name, String help, String type, String[] labelNames) {
+			this.name = name;
+			this.help = help;
+			this.type = type;
+			this.labelNames = labelNames == null? new String[0]: labelNames;
+		}
+
+		/**
+		 * Get or create metric for labels
+		 * @param labelValues
+		 * @param factory
+		 * @return
+		 */
+		private M get(String[] labelValues, Function<String, M> factory) {
+			if(labelValues.length != labelNames.length) {
+				throw new IllegalArgumentException("Metric " + name + " requires " + labelNames.length + " labels");
+			}
+			StringBuilder labels = new StringBuilder();
+			for(int index = 0; index < labelNames.length; index++) {
+				if(index > 0) {
+					labels.append(",");
+				}
+				labels.append(labelNames[index]).append("=\"").append(escape(labelValues[index])).append("\"");
+			}
+			return metrics.computeIfAbsent(labels.toString(), factory);
+		}
+
+		/**
+		 * Write family
+		 * @param output
+		 */
+		private void writeTo(StringBuilder output) {
+			if(metrics.isEmpty()) {
+				return;
+			}
+			output.append("# HELP ").append(name).append(" ").append(help).append('\n');
+			output.append("# TYPE ").append(name).append(" ").append(type).append('\n');
+			new TreeMap<>(metrics).forEach((labels, metric) -> {
+				if(metric instanceof LatencyHistogram) {
+					((LatencyHistogram) metric).writeTo(output, name, labels);
+					return;
+				}
+				long value = 0;
+				if(metric instanceof Counter) {
+					value = ((Counter) metric).get();
+				} else if(metric instanceof Gauge) {
+					value = ((Gauge) metric).get();
+				}
+				output.append(name);
+				if(!labels.isEmpty()) {
+					output.append("{").append(labels).append("}");
+				}
+				output.append(" ").append(value).append('\n');
+			});
+		}
+	}
+
+	/**
+	 * Monotonic counter
+	 */
+	public static class Counter {
+		private final LongAdder value = new LongAdder();
+
+		public void increment() {
+			value.increment();
+		}
+
+		public void add(long amount) {
+			value.add(amount);
+		}
+
+		public long get() {
+			return value.sum();
+		}
+	}
+
+	/**
+	 * Gauge, it can be changed by caller or read from a supplier
+	 */
+	public static class Gauge {
+		private final LongAdder value = new LongAdder();
+		private final LongSupplier supplier;
+
+		private Gauge(LongSupplier supplier) {
+			this.supplier = supplier;
+		}
+
+		public void increment() {
+			value.increment();
+		}
+
+		public void decrement() {
+			value.decrement();
+		}
+
+		public long get() {
+			if(supplier != null) {
+				return supplier.getAsLong();
+			}
+			return value.sum();
+		}
+	}
+}
@@ -0,0 +1,272 @@
+/*************************************************************************************
+ * Product: Adempiere ERP & CRM Smart Business Solution                              *
+ * This program is free software; you can redistribute it and/or modify it    		 *
+ * under the terms version 2 or later of the GNU General Public License as published *
+ * by the Free Software Foundation. This program is distributed in the hope   		 *
+ * that it will be useful, but WITHOUT ANY WARRANTY; without even the implied 		 *
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.           		 *
+ * See the GNU General Public License for more details.                       		 *
+ * You should have received a copy of the GNU General Public License along    		 *
+ * with this program; if not, write to the Free Software Foundation, Inc.,    		 *
+ * 59 Temple Place, Suite 330, Boston, MA 02111-1307 USA.                     		 *
+ * For the text or an alternative of this public license, you may reach us    		 *
+ * Copyright (C) 2012-2018 E.R.P. Consultores y Asociados, S.A. All Rights Reserved. *
+ * Contributor(s): Yamel Senih www.erpya.com				  		                 *
+ *************************************************************************************/
+package org.spin.base.metrics;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import org.compiere.util.DB;
+import org.spin.base.metrics.MetricsRegistry.Counter;
+import org.spin.base.setup.SlowQuery;
+import org.spin.base.util.ValueUtil;
+
+/**
+ * Recorder of slow queries. The queries over threshold are kept on a ring buffer
+ * with SQL, parameters, rows, elapsed time, gRPC method and session.
+ * For SELECT on PostgreSQL the execution plan can be captured on a background thread,
+ * only one plan is captured at the same time and the others are discarded.
+ * @author Yamel Senih, ysenih@erpya.com , http://www.erpya.com
+ */
+public class SlowQueryLog {
+	/**	Logger			*/
+	private static final Logger logger = Logger.getLogger(SlowQueryLog.class.getName());
+	/**	Default instance	*/
+	private static final SlowQueryLog instance = new SlowQueryLog();
+	/**	Timeout for explain (seconds)	*/
+	private static final int EXPLAIN_TIMEOUT = 60;
+	/**	Max length of a parameter	*/
+	private static final int MAX_PARAMETER_LENGTH = 256;
+	/**	Setup	*/
+	private volatile SlowQuery setup = new SlowQuery();
+	/**	Ring buffer	*/
+	private Entry[] buffer = new Entry[0];
+	/**	Next position on buffer	*/
+	private long position = 0;
+	/**	Thread for explain	*/
+	private ThreadPoolExecutor explainExecutor;
+	/**	Recorded queries	*/
+	private final Counter slowQueries = MetricsRegistry.getInstance().counter("sql_slow_queries_total", "Queries slower than threshold.", null);
+
+	/**
+	 * Get default instance
+	 * @return
+	 */
+	public static SlowQueryLog getInstance() {
+		return instance;
+	}
+
+	/**
+	 * Set setup and reset buffer
+	 * @param setup
+	 */
+	public synchronized void setup(SlowQuery setup) {
+		this.setup = setup;
+		buffer = new Entry[setup.getBuffer_size()];
+		position = 0;
+		if(setup.isExplain()
+				&& explainExecutor == null) {
+			explainExecutor = new ThreadPoolExecutor(1, 1, 0, TimeUnit.SECONDS,
+					new ArrayBlockingQueue<Runnable>(1),
+					runnable -> {
+						Thread thread = new Thread(runnable, "slow-query-explain");
+						thread.setDaemon(true);
+						return thread;
+					},
+					new ThreadPoolExecutor.DiscardPolicy());
+		}
+	}
+
+	/**
+	 * Is enabled
+	 * @return
+	 */
+	public boolean isEnabled() {
+		return setup.isEnabled();
+	}
+
+	/**
+	 * Record a query if it is over threshold
+	 * @param sql
+	 * @param parameters
+	 * @param rowCount -1 if is unknown
+	 * @param elapsedNanoseconds
+	 */
+	public void record(String sql, List<Object> parameters, long rowCount, long elapsedNanoseconds) {
+		SlowQuery currentSetup = setup;
+		if(!currentSetup.isEnabled()
+				|| TimeUnit.NANOSECONDS.toMillis(elapsedNanoseconds) < currentSetup.getThreshold()) {
+			return;
+		}
+		CallTiming timing = CallTiming.current();
+		Entry entry = new Entry(sql, convertParameters(parameters), rowCount,
+				TimeUnit.NANOSECONDS.toMillis(elapsedNanoseconds),
+				timing == null? null: timing.getMethodName(),
+				timing == null? 0: timing.getSessionId());
+		add(entry);
+		slowQueries.increment();
+		logger.warning("Slow query (" + entry.getElapsed() + "ms, " + rowCount + " rows) on " + entry.getMethodName() + ": " + sql + " " + entry.getParameters());
+		//	Execution plan
+		if(currentSetup.isExplain()
+				&& explainExecutor != null
+				&& DB.isPostgreSQL()
+				&& sql.trim().toUpperCase().startsWith("SELECT")) {
+			List<Object> values = parameters == null? Collections.emptyList(): new ArrayList<>(parameters);
+			explainExecutor.execute(() -> explain(entry, values));
+		}
+	}
+
+	/**
+	 * Add to ring buffer
+	 * @param entry
+	 */
+	private synchronized void add(Entry entry) {
+		if(buffer.length == 0) {
+			return;
+		}
+		buffer[(int) (position++ % buffer.length)] = entry;
+	}
+
+	/**
+	 * Get recorded queries, newest first
+	 * @return
+	 */
+	public synchronized List<Entry> getEntries() {
+		List<Entry> entries = new ArrayList<>(buffer.length);
+		for(long index = position - 1; index >= 0 && index >= position - buffer.length; index--) {
+			entries.add(buffer[(int) (index % buffer.length)]);
+		}
+		return entries;
+	}
+
+	/**
+	 * Run EXPLAIN (ANALYZE, BUFFERS) and keep plan on entry.
+	 * It run on a transaction that is rolled back
+	 * @param entry
+	 * @param parameters
+	 */
+	private void explain(Entry entry, List<Object> parameters) {
+		String sql = "EXPLAIN (ANALYZE, BUFFERS) " + DB.getDatabase().convertStatement(entry.getSql());
+		StringBuilder plan = new StringBuilder();
+		Connection connection = null;
+		try {
+			connection = DB.createConnection(false, Connection.TRANSACTION_READ_COMMITTED);
+			try (PreparedStatement statement = connection.prepareStatement(sql)) {
+				statement.setQueryTimeout(EXPLAIN_TIMEOUT);
+				int parameterIndex = 1;
+				for(Object value : parameters) {
+					ValueUtil.setParameterFromObject(statement, value, parameterIndex++);
+				}
+				try (ResultSet resultSet = statement.executeQuery()) {
+					while(resultSet.next()) {
+						plan.append(resultSet.getString(1)).append('\n');
+					}
+				}
+			}
+			entry.executionPlan = plan.toString();
+		} catch (Exception e) {
+			logger.log(Level.WARNING, "Explain failed: " + e.getLocalizedMessage());
+		} finally {
+			if(connection != null) {
+				try {
+					connection.rollback();
+					connection.close();
+				} catch (Exception e) {
+					logger.log(Level.WARNING, e.getLocalizedMessage());
+				}
+			}
+		}
+	}
+
+	/**
+	 * Convert parameters to string
+	 * @param parameters
+	 * @return
+	 */
+	private static List<String> convertParameters(List<Object> parameters) {
+		if(parameters == null
+				|| parameters.isEmpty()) {
+			return Collections.emptyList();
+		}
+		List<String> values = new ArrayList<>(parameters.size());
+		for(Object parameter : parameters) {
+			String value = String.valueOf(parameter);
+			if(value.length() > MAX_PARAMETER_LENGTH) {
+				value = value.substring(0, MAX_PARAMETER_LENGTH) + "...";
+			}
+			values.add(value);
+		}
+		return values;
+	}
+
+	/**
+	 * Slow query recorded
+	 */
+	public static class Entry {
+		private final String sql;
+		private final List<String> parameters;
+		private final long rowCount;
+		private final long elapsed;
+		private final String methodName;
+		/**	AD_Session_ID, the UUID is a credential and it is not recorded	*/
+		private final int sessionId;
+		private final long logDate;
+		private volatile String executionPlan;
+
+		private Entry(String sql, List<String> parameters, long rowCount, long elapsed, String methodName, int sessionId) {
+			this.sql = sql;
+			this.parameters = parameters;
+			this.rowCount = rowCount;
+			this.elapsed = elapsed;
+			this.methodName = methodName;
+			this.sessionId = sessionId;
+			this.logDate = System.currentTimeMillis();
+		}
+
+		public String getSql() {
+			return sql;
+		}
+
+		public List<String> getParameters() {
+			return parameters;
+		}
+
+		public long getRowCount() {
+			return rowCount;
+		}
+
+		/**
+		 * @return elapsed time in milliseconds
+		 */
+		public long getElapsed() {
+			return elapsed;
+		}
+
+		public String getMethodName() {
+			return methodName;
+		}
+
+		public int getSessionId() {
+			return sessionId;
+		}
+
+		public long getLogDate() {
+			return logDate;
+		}
+
+		public String getExecutionPlan() {
+			return executionPlan;
+		}
+	}
+}
@@ -0,0 +1,152 @@
+/*************************************************************************************
+ * Product: ADempiere Bot                                                            *
+ * Copyright (C) 2012-2019 E.R.P. Consultores y Asociados, C.A.                      *
+ * Contributor(s): Yamel Senih ysenih@erpya.com                                      *
+ * This program is free software: you can redistribute it and/or modify              *
+ * it under the terms of the GNU General Public License as published by              *
+ * the Free Software Foundation, either version 3 of the License, or                 *
+ * (at your option) any later version.                                               *
+ * This program is distributed in the hope that it will be useful,                   *
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of                    *
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the                     *
+ * GNU General Public License for more details.                                      *
+ * You should have received a copy of the GNU General Public License                 *
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.            *
+ ************************************************************************************/
+package org.spin.base.setup;
+
+import java.util.Map;
+
+/**
+ * Admission control: concurrent calls allowed by session and by method.
+ * With adaptive limit the limit of each method is changed by observed latency (AIMD),
+ * between minimum_limit and the limit of method (or maximum_limit).
+ * @author Yamel Senih
+ */
+public class Admission {
+	/**	Is Enabled	*/
+	private boolean enabled;
+	/**	Concurrent calls by session, 0 is unlimited	*/
+	private int max_calls_per_session;
+	/**	Concurrent calls by method, the key can be full method name (data.UserInterface/ListBrowserItems) or method name (ListBrowserItems)	*/
+	private Map<String, Integer> method_limits;
+	/**	Change limit of methods by latency	*/
+	private boolean adaptive;
+	/**	Initial limit for adaptive methods	*/
+	private int initial_limit;
+	/**	Minimum limit for adaptive methods	*/
+	private int minimum_limit;
+	/**	Maximum limit for methods without limit	*/
+	private int maximum_limit;
+	/**	Latency over baseline * tolerance decrease the limit	*/
+	private double latency_tolerance;
+
+	/**	Default values	*/
+	public static final int DEFAULT_INITIAL_LIMIT = 20;
+	public static final int DEFAULT_MINIMUM_LIMIT = 2;
+	public static final int DEFAULT_MAXIMUM_LIMIT = 200;
+	public static final double DEFAULT_LATENCY_TOLERANCE = 2.0;
+
+	/**
+	 * Default constructor without parameters
+	 */
+	public Admission() {
+
+	}
+
+	/**
+	 * @return the enabled
+	 */
+	public final boolean isEnabled() {
+		return enabled;
+	}
+
+	/**
+	 * @return the max_calls_per_session
+	 */
+	public final int getMax_calls_per_session() {
+		return max_calls_per_session;
+	}
+
+	/**
+	 * @return the method_limits
+	 */
+	public final Map<String, Integer> getMethod_limits() {
+		return method_limits;
+	}
+
+	/**
+	 * Get limit for method
+	 * @param fullMethodName
+	 * @return 0 if it has not limit
+	 */
+	public final int getMethodLimit(String fullMethodName) {
+		if(method_limits == null
+				|| method_limits.isEmpty()) {
+			return 0;
+		}
+		Integer limit = method_limits.get(fullMethodName);
+		if(limit == null) {
+			limit = method_limits.get(fullMethodName.substring(fullMethodName.lastIndexOf('/') + 1));
+		}
+		if(limit == null) {
+			return 0;
+		}
+		return limit;
+	}
+
+	/**
+	 * @return the adaptive
+	 */
+	public final boolean isAdaptive() {
+		return adaptive;
+	}
+
+	/**
+	 * @return the initial_limit, default 20
+	 */
+	public final int getInitial_limit() {
+		if(initial_limit <= 0) {
+			return DEFAULT_INITIAL_LIMIT;
+		}
+		return initial_limit;
+	}
+
+	/**
+	 * @return the minimum_limit, default 2
+	 */
+	public final int getMinimum_limit() {
+		if(minimum_limit <= 0) {
+			return DEFAULT_MINIMUM_LIMIT;
+		}
+		return minimum_limit;
+	}
+
+	/**
+	 * @return the maximum_limit, default 200
+	 */
+	public final int getMaximum_limit() {
+		if(maximum_limit <= 0) {
+			return DEFAULT_MAXIMUM_LIMIT;
+		}
+		return maximum_limit;
+	}
+
+	/**
+	 * @return the latency_tolerance, default 2.0
+	 */
+	public final double getLatency_tolerance() {
+		if(latency_tolerance <= 1) {
+			return DEFAULT_LATENCY_TOLERANCE;
+		}
+		return latency_tolerance;
+	}
+
+	@Override
+	public String toString() {
+		return "Admission [enabled=" + enabled + ", max_calls_per_session=" + max_calls_per_session
+				+ ", method_limits=" + method_limits + ", adaptive=" + adaptive + ", initial_limit=" + initial_limit
+				+ ", minimum_limit=" + minimum_limit + ", maximum_limit=" + maximum_limit + ", latency_tolerance="
+				+ latency_tolerance + "]";
+	}
+}
@@ -0,0 +1,63 @@
+/*************************************************************************************
+ * Product: ADempiere Bot                                                            *
+ * Copyright (C) 2012-2019 E.R.P. Consultores y Asociados, C.A.                      *
+ * Contributor(s): Yamel Senih ysenih@erpya.com                                      *
+ * This program is free software: you can redistribute it and/or modify              *
+ * it under the terms of the GNU General Public License as published by              *
+ * the Free Software Foundation, either version 3 of the License, or                 *
+ * (at your option) any later version.                                               *
+ * This program is distributed in the hope that it will be useful,                   *
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of                    *
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the                     *
+ * GNU General Public License for more details.                                      *
+ * You should have received a copy of the GNU General Public License                 *
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.            *
+ ************************************************************************************/
+package org.spin.base.setup;
+
+/**
+ * Cache of record counts of lists (count_mode CACHED), by query and parameters
+ * @author Yamel Senih
+ */
+public class CountCache {
+	/**	Max counts on cache	*/
+	private int max_size;
+	/**	Time to live of a count (seconds), 0 is default	*/
+	private long time_to_live;
+
+	/**	Default values	*/
+	public static final int DEFAULT_MAX_SIZE = 5000;
+	public static final long DEFAULT_TIME_TO_LIVE = 60;
+
+	/**
+	 * Default constructor without parameters
+	 */
+	public CountCache() {
+
+	}
+
+	/**
+	 * @return the max_size, default 5000
+	 */
+	public final int getMax_size() {
+		if(max_size <= 0) {
+			return DEFAULT_MAX_SIZE;
+		}
+		return max_size;
+	}
+
+	/**
+	 * @return the time_to_live in seconds, default 60
+	 */
+	public final long getTime_to_live() {
+		if(time_to_live <= 0) {
+			return DEFAULT_TIME_TO_LIVE;
+		}
+		return time_to_live;
+	}
+
+	@Override
+	public String toString() {
+		return "CountCache [max_size=" + max_size + ", time_to_live=" + time_to_live + "]";
+	}
+}
@@ -0,0 +1,146 @@
+/*************************************************************************************
+ * Product: ADempiere Bot                                                            *
+ * Copyright (C) 2012-2019 E.R.P. Consultores y Asociados, C.A.                      *
+ * Contributor(s): Yamel Senih ysenih@erpya.com                                      *
+ * This program is free software: you can redistribute it and/or modify              *
+ * it under the terms of the GNU General Public License as published by              *
+ * the Free Software Foundation, either version 3 of the License, or                 *
+ * (at your option) any later version.                                               *
+ * This program is distributed in the hope that it will be useful,                   *
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of                    *
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the                     *
+ * GNU General Public License for more details.                                      *
+ * You should have received a copy of the GNU General Public License                 *
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.            *
+ ************************************************************************************/
+package org.spin.base.setup;
+
+import java.util.List;
+
+/**
+ * Bounded thread pool used for run a group of services (bulkhead)
+ * @author Yamel Senih
+ */
+public class Executor {
+	/**	Pool Name	*/
+	private String name;
+	/**	Services attended by this pool	*/
+	private List<String> services;
+	/**	Core threads	*/
+	private int core_pool_size;
+	/**	Maximum threads	*/
+	private int maximum_pool_size;
+	/**	Pending calls allowed before reject	*/
+	private int queue_size;
+	/**	Idle time for threads over core size (seconds)	*/
+	private long keep_alive_time;
+
+	/**	Default values	*/
+	public static final int DEFAULT_CORE_POOL_SIZE = 8;
+	public static final int DEFAULT_QUEUE_SIZE = 100;
+	public static final long DEFAULT_KEEP_ALIVE_TIME = 60;
+
+	/**
+	 * Default constructor
+	 * @param name
+	 * @param services
+	 * @param core_pool_size
+	 * @param maximum_pool_size
+	 * @param queue_size
+	 * @param keep_alive_time
+	 */
+	public Executor(String name, List<String> services, int core_pool_size, int maximum_pool_size, int queue_size, long keep_alive_time) {
+		this.name = name;
+		this.services = services;
+		this.core_pool_size = core_pool_size;
+		this.maximum_pool_size = maximum_pool_size;
+		this.queue_size = queue_size;
+		this.keep_alive_time = keep_alive_time;
+	}
+
+	/**
+	 * Default constructor without parameters
+	 */
+	public Executor() {
+
+	}
+
+	/**
+	 * @return the name, if it is not defined then is the services joined
+	 */
+	public final String getName() {
+		if((name == null
+				|| name.trim().length() == 0)
+				&& services != null) {
+			return String.join("-", services);
+		}
+		return name;
+	}
+
+	/**
+	 * @return the services
+	 */
+	public final List<String> getServices() {
+		return services;
+	}
+
+	/**
+	 * @return the core pool size, default 8
+	 */
+	public final int getCore_pool_size() {
+		if(core_pool_size <= 0) {
+			return DEFAULT_CORE_POOL_SIZE;
+		}
+		return core_pool_size;
+	}
+
+	/**
+	 * @return the maximum pool size, never less than core pool size
+	 */
+	public final int getMaximum_pool_size() {
+		return Math.max(maximum_pool_size, getCore_pool_size());
+	}
+
+	/**
+	 * @return the queue size, default 100
+	 */
+	public final int getQueue_size() {
+		if(queue_size <= 0) {
+			return DEFAULT_QUEUE_SIZE;
+		}
+		return queue_size;
+	}
+
+	/**
+	 * @return the keep alive time in seconds, default 60
+	 */
+	public final long getKeep_alive_time() {
+		if(keep_alive_time <= 0) {
+			return DEFAULT_KEEP_ALIVE_TIME;
+		}
+		return keep_alive_time;
+	}
+
+	/**
+	 * Validate if a service is attended by this pool
+	 * @param service
+	 * @return
+	 */
+	public final boolean isValidService(String service) {
+		if(service == null
+				|| service.trim().length() == 0
+				|| services == null) {
+			return false;
+		}
+		return getServices()
+			.stream()
+			.filter(serviceToFind -> serviceToFind != null && serviceToFind.equals(service)).findFirst().isPresent();
+	}
+
+	@Override
+	public String toString() {
+		return "Executor [name=" + name + ", services=" + services + ", core_pool_size=" + core_pool_size
+				+ ", maximum_pool_size=" + maximum_pool_size + ", queue_size=" + queue_size + ", keep_alive_time="
+				+ keep_alive_time + "]";
+	}
+}
@@ -0,0 +1,88 @@
+/*************************************************************************************
+ * Product: ADempiere Bot                                                            *
+ * Copyright (C) 2012-2019 E.R.P. Consultores y Asociados, C.A.                      *
+ * Contributor(s): Yamel Senih ysenih@erpya.com                                      *
+ * This program is free software: you can redistribute it and/or modify              *
+ * it under the terms of the GNU General Public License as published by              *
+ * the Free Software Foundation, either version 3 of the License, or                 *
+ * (at your option) any later version.                                               *
+ * This program is distributed in the hope that it will be useful,                   *
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of                    *
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the                     *
+ * GNU General Public License for more details.                                      *
+ * You should have received a copy of the GNU General Public License                 *
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.            *
+ ************************************************************************************/
+package org.spin.base.setup;
+
+/**
+ * Cache of record identifiers (UUID to ID and ID to UUID) by table
+ * @author Yamel Senih
+ */
+public class IdentifierCache {
+	/**	Max records by table	*/
+	private int max_size;
+	/**	Idle time for remove a record (seconds), 0 is default	*/
+	private long idle_timeout;
+	/**	Time for keep a record not found (seconds), 0 is default	*/
+	private long negative_timeout;
+
+	/**	Default values	*/
+	public static final int DEFAULT_MAX_SIZE = 10000;
+	public static final long DEFAULT_IDLE_TIMEOUT = 3600;
+	public static final long DEFAULT_NEGATIVE_TIMEOUT = 30;
+
+	/**
+	 * Default constructor
+	 * @param max_size
+	 * @param idle_timeout
+	 * @param negative_timeout
+	 */
+	public IdentifierCache(int max_size, long idle_timeout, long negative_timeout) {
+		this.max_size = max_size;
+		this.idle_timeout = idle_timeout;
+		this.negative_timeout = negative_timeout;
+	}
+
+	/**
+	 * Default constructor without parameters
+	 */
+	public IdentifierCache() {
+
+	}
+
+	/**
+	 * @return the max_size by table, default 10000
+	 */
+	public final int getMax_size() {
+		if(max_size <= 0) {
+			return DEFAULT_MAX_SIZE;
+		}
+		return max_size;
+	}
+
+	/**
+	 * @return the idle_timeout in seconds, default 3600
+	 */
+	public final long getIdle_timeout() {
+		if(idle_timeout <= 0) {
+			return DEFAULT_IDLE_TIMEOUT;
+		}
+		return idle_timeout;
+	}
+
+	/**
+	 * @return the negative_timeout in seconds, default 30
+	 */
+	public final long getNegative_timeout() {
+		if(negative_timeout <= 0) {
+			return DEFAULT_NEGATIVE_TIMEOUT;
+		}
+		return negative_timeout;
+	}
+
+	@Override
+	public String toString() {
+		return "IdentifierCache [max_size=" + max_size + ", idle_timeout=" + idle_timeout + ", negative_timeout=" + negative_timeout + "]";
+	}
+}
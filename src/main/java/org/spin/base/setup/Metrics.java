@@ -0,0 +1,106 @@
+/*************************************************************************************
+ * Product: ADempiere Bot                                                            *
+ * Copyright (C) 2012-2019 E.R.P. Consultores y Asociados, C.A.                      *
+ * Contributor(s): Yamel Senih ysenih@erpya.com                                      *
+ * This program is free software: you can redistribute it and/or modify              *
+ * it under the terms of the GNU General Public License as published by              *
+ * the Free Software Foundation, either version 3 of the License, or                 *
+ * (at your option) any later version.                                               *
+ * This program is distributed in the hope that it will be useful,                   *
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of                    *
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the                     *
+ * GNU General Public License for more details.                                      *
+ * You should have received a copy of the GNU General Public License                 *
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.            *
+ ************************************************************************************/
+package org.spin.base.setup;
+
+/**
+ * Embedded HTTP endpoint for scrape metrics (Prometheus text format)
+ * @author Yamel Senih
+ */
+public class Metrics {
+	/**	Is Enabled	*/
+	private boolean enabled;
+	/**	Host for bind, empty is all interfaces	*/
+	private String host;
+	/**	Port	*/
+	private int port;
+	/**	Path	*/
+	private String path;
+	/**	Return timing of phases as trailer when client send x-debug-timing header	*/
+	private boolean timing_trailer;
+
+	/**	Default values	*/
+	public static final int DEFAULT_PORT = 9464;
+	public static final String DEFAULT_PATH = "/metrics";
+
+	/**
+	 * Default constructor
+	 * @param enabled
+	 * @param host
+	 * @param port
+	 * @param path
+	 */
+	public Metrics(boolean enabled, String host, int port, String path) {
+		this.enabled = enabled;
+		this.host = host;
+		this.port = port;
+		this.path = path;
+	}
+
+	/**
+	 * Default constructor without parameters
+	 */
+	public Metrics() {
+
+	}
+
+	/**
+	 * @return the enabled
+	 */
+	public final boolean isEnabled() {
+		return enabled;
+	}
+
+	/**
+	 * @return the host
+	 */
+	public final String getHost() {
+		return host;
+	}
+
+	/**
+	 * @return the port, default 9464
+	 */
+	public final int getPort() {
+		if(port <= 0) {
+			return DEFAULT_PORT;
+		}
+		return port;
+	}
+
+	/**
+	 * @return the path, default /metrics
+	 */
+	public final String getPath() {
+		if(path == null
+				|| path.trim().length() == 0) {
+			return DEFAULT_PATH;
+		}
+		return path;
+	}
+
+	/**
+	 * @return the timing_trailer
+	 */
+	public final boolean isTiming_trailer() {
+		return timing_trailer;
+	}
+
+	@Override
+	public String toString() {
+		return "Metrics [enabled=" + enabled + ", host=" + host + ", port=" + port + ", path=" + path
+				+ ", timing_trailer=" + timing_trailer + "]";
+	}
+}
@@ -0,0 +1,97 @@
+/*************************************************************************************
+ * Product: ADempiere Bot                                                            *
+ * Copyright (C) 2012-2019 E.R.P. Consultores y Asociados, C.A.                      *
+ * Contributor(s): Yamel Senih ysenih@erpya.com                                      *
+ * This program is free software: you can redistribute it and/or modify              *
+ * it under the terms of the GNU General Public License as published by              *
+ * the Free Software Foundation, either version 3 of the License, or                 *
+ * (at your option) any later version.                                               *
+ * This program is distributed in the hope that it will be useful,                   *
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of                    *
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the                     *
+ * GNU General Public License for more details.                                      *
+ * You should have received a copy of the GNU General Public License                 *
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.            *
+ ************************************************************************************/
+package org.spin.base.setup;
+
+import java.util.Map;
+
+/**
+ * Page size of list services: the client send page_size and it is limited by maximum of method
+ * (or maximum_size), a page_size 0 is the default_size
+ * @author Yamel Senih
+ */
+public class Paging {
+	/**	Size used when client does not send page size	*/
+	private int default_size;
+	/**	Maximum size for methods without maximum	*/
+	private int maximum_size;
+	/**	Maximum by method, the key can be full method name (pos.Store/ListProductPrice) or method name (ListProductPrice)	*/
+	private Map<String, Integer> method_maximums;
+
+	/**	Default values	*/
+	public static final int DEFAULT_SIZE = 50;
+	public static final int DEFAULT_MAXIMUM_SIZE = 500;
+
+	/**
+	 * Default constructor without parameters
+	 */
+	public Paging() {
+
+	}
+
+	/**
+	 * @return the default_size, default 50
+	 */
+	public final int getDefault_size() {
+		if(default_size <= 0) {
+			return DEFAULT_SIZE;
+		}
+		return default_size;
+	}
+
+	/**
+	 * @return the maximum_size, default 500
+	 */
+	public final int getMaximum_size() {
+		if(maximum_size <= 0) {
+			return DEFAULT_MAXIMUM_SIZE;
+		}
+		return maximum_size;
+	}
+
+	/**
+	 * @return the method_maximums
+	 */
+	public final Map<String, Integer> getMethod_maximums() {
+		return method_maximums;
+	}
+
+	/**
+	 * Get maximum page size for method
+	 * @param fullMethodName it can be null
+	 * @return maximum of method or maximum_size
+	 */
+	public final int getMethodMaximum(String fullMethodName) {
+		if(fullMethodName == null
+				|| method_maximums == null
+				|| method_maximums.isEmpty()) {
+			return getMaximum_size();
+		}
+		Integer maximum = method_maximums.get(fullMethodName);
+		if(maximum == null) {
+			maximum = method_maximums.get(fullMethodName.substring(fullMethodName.lastIndexOf('/') + 1));
+		}
+		if(maximum == null
+				|| maximum <= 0) {
+			return getMaximum_size();
+		}
+		return maximum;
+	}
+
+	@Override
+	public String toString() {
+		return "Paging [default_size=" + default_size + ", maximum_size=" + maximum_size + ", method_maximums=" + method_maximums + "]";
+	}
+}
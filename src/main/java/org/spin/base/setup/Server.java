@@ -37,6 +37,26 @@ public class Server {
 	private String log_level;
 	/**	Embedded services	*/
 	private List<String> services;
+	/**	Thread pools for services	*/
+	private List<Executor> executors;
+	/**	Netty transport tuning	*/
+	private Transport transport;
+	/**	Metrics endpoint	*/
+	private Metrics metrics;
+	/**	Slow query recorder	*/
+	private SlowQuery slow_query;
+	/**	Admission control	*/
+	private Admission admission;
+	/**	Session context cache	*/
+	private SessionCache session_cache;
+	/**	Signed session tokens	*/
+	private SessionToken session_token;
+	/**	Cache of record identifiers	*/
+	private IdentifierCache identifier_cache;
+	/**	Page size of list services	*/
+	private Paging paging;
+	/**	Cache of record counts	*/
+	private CountCache count_cache;
 	/**
 	 * Default constructor
 	 * @param host
@@ -119,6 +139,129 @@ public class Server {
 		return services;
 	}
 
+	/**
+	 * Get Executors
+	 * @return
+	 */
+	public final List<Executor> getExecutors() {
+		return executors;
+	}
+	
+	/**
+	 * Get executor defined for a service
+	 * @param service
+	 * @return executor or null if service use default executor
+	 */
+	public final Executor getExecutor(String service) {
+		if(executors == null) {
+			return null;
+		}
+		return getExecutors()
+			.stream()
+			.filter(executor -> executor != null && executor.isValidService(service))
+			.findFirst()
+			.orElse(null);
+	}
+	
+	/**
+	 * Get Transport, never null
+	 * @return
+	 */
+	public final Transport getTransport() {
+		if(transport == null) {
+			transport = new Transport();
+		}
+		return transport;
+	}
+	
+	/**
+	 * Get Metrics endpoint setup, never null
+	 * @return
+	 */
+	public final Metrics getMetrics() {
+		if(metrics == null) {
+			metrics = new Metrics();
+		}
+		return metrics;
+	}
+	
+	/**
+	 * Get Slow query recorder setup, never null
+	 * @return
+	 */
+	public final SlowQuery getSlow_query() {
+		if(slow_query == null) {
+			slow_query = new SlowQuery();
+		}
+		return slow_query;
+	}
+	
+	/**
+	 * Get Admission control setup, never null
+	 * @return
+	 */
+	public final Admission getAdmission() {
+		if(admission == null) {
+			admission = new Admission();
+		}
+		return admission;
+	}
+	
+	/**
+	 * Get Session context cache setup, never null
+	 * @return
+	 */
+	public final SessionCache getSession_cache() {
+		if(session_cache == null) {
+			session_cache = new SessionCache();
+		}
+		return session_cache;
+	}
+	
+	/**
+	 * Get Signed session tokens setup, never null
+	 * @return
+	 */
+	public final SessionToken getSession_token() {
+		if(session_token == null) {
+			session_token = new SessionToken();
+		}
+		return session_token;
+	}
+	
+	/**
+	 * Get Cache of record identifiers setup, never null
+	 * @return
+	 */
+	public final IdentifierCache getIdentifier_cache() {
+		if(identifier_cache == null) {
+			identifier_cache = new IdentifierCache();
+		}
+		return identifier_cache;
+	}
+	
+	/**
+	 * Get Page size setup, never null
+	 * @return
+	 */
+	public final Paging getPaging() {
+		if(paging == null) {
+			paging = new Paging();
+		}
+		return paging;
+	}
+	
+	/**
+	 * Get Cache of record counts setup, never null
+	 * @return
+	 */
+	public final CountCache getCount_cache() {
+		if(count_cache == null) {
+			count_cache = new CountCache();
+		}
+		return count_cache;
+	}
+	
 	/**
 	 * Log Level
 	 * @return
@@ -147,6 +290,6 @@ public class Server {
 	public String toString() {
 		return "Server [host=" + host + ", port=" + port + ", certificate_chain_file=" + certificate_chain_file
 				+ ", private_key_file=" + private_key_file + ", trust_certificate_collection_file="
-				+ trust_certificate_collection_file + ", log_level=" + log_level + ", services=" + services + "]";
+				+ trust_certificate_collection_file + ", log_level=" + log_level + ", services=" + services + ", executors=" + executors + ", transport=" + transport + ", metrics=" + metrics + ", slow_query=" + slow_query + ", admission=" + admission + ", session_cache=" + session_cache + ", session_token=" + session_token + ", identifier_cache=" + identifier_cache + ", paging=" + paging + ", count_cache=" + count_cache + "]";
 	}
 }
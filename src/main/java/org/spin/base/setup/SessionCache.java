@@ -0,0 +1,154 @@
+/*************************************************************************************
+ * Product: ADempiere Bot                                                            *
+ * Copyright (C) 2012-2019 E.R.P. Consultores y Asociados, C.A.                      *
+ * Contributor(s): Yamel Senih ysenih@erpya.com                                      *
+ * This program is free software: you can redistribute it and/or modify              *
+ * it under the terms of the GNU General Public License as published by              *
+ * the Free Software Foundation, either version 3 of the License, or                 *
+ * (at your option) any later version.                                               *
+ * This program is distributed in the hope that it will be useful,                   *
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of                    *
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the                     *
+ * GNU General Public License for more details.                                      *
+ * You should have received a copy of the GNU General Public License                 *
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.            *
+ ************************************************************************************/
+package org.spin.base.setup;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Cache of session context: entries (least recently used is removed) and idle timeout.
+ * The store can be memory (default), peer (shared with other nodes) or a class name
+ * of a implementation of org.spin.base.store.SessionStore
+ * @author Yamel Senih
+ */
+public class SessionCache {
+	/**	Max sessions on cache	*/
+	private int max_size;
+	/**	Idle time for remove a session (seconds), 0 is default	*/
+	private long idle_timeout;
+	/**	Store of sessions	*/
+	private String store;
+	/**	Port for attend peers	*/
+	private int port;
+	/**	Address (interface) for attend peers	*/
+	private String bind_address;
+	/**	URL of peers, like http://node2:9465	*/
+	private List<String> peers;
+	/**	Secret shared with peers, used to sign requests and responses	*/
+	private String secret;
+	/**	Timeout for peers (milliseconds)	*/
+	private int timeout;
+
+	/**	Default values	*/
+	public static final int DEFAULT_MAX_SIZE = 2000;
+	public static final long DEFAULT_IDLE_TIMEOUT = 1800;
+	public static final String STORE_MEMORY = "memory";
+	public static final String STORE_PEER = "peer";
+	public static final int DEFAULT_PORT = 9465;
+	public static final String DEFAULT_BIND_ADDRESS = "127.0.0.1";
+	public static final int DEFAULT_TIMEOUT = 1000;
+
+	/**
+	 * Default constructor
+	 * @param max_size
+	 * @param idle_timeout
+	 */
+	public SessionCache(int max_size, long idle_timeout) {
+		this.max_size = max_size;
+		this.idle_timeout = idle_timeout;
+	}
+
+	/**
+	 * Default constructor without parameters
+	 */
+	public SessionCache() {
+
+	}
+
+	/**
+	 * @return the max_size, default 2000
+	 */
+	public final int getMax_size() {
+		if(max_size <= 0) {
+			return DEFAULT_MAX_SIZE;
+		}
+		return max_size;
+	}
+
+	/**
+	 * @return the idle_timeout in seconds, default 1800
+	 */
+	public final long getIdle_timeout() {
+		if(idle_timeout <= 0) {
+			return DEFAULT_IDLE_TIMEOUT;
+		}
+		return idle_timeout;
+	}
+
+	/**
+	 * @return the store, default memory
+	 */
+	public final String getStore() {
+		if(store == null
+				|| store.trim().length() == 0) {
+			return STORE_MEMORY;
+		}
+		return store;
+	}
+
+	/**
+	 * @return the port for peers, default 9465
+	 */
+	public final int getPort() {
+		if(port <= 0) {
+			return DEFAULT_PORT;
+		}
+		return port;
+	}
+
+	/**
+	 * @return the address for peers, default loopback (127.0.0.1)
+	 */
+	public final String getBind_address() {
+		if(bind_address == null
+				|| bind_address.trim().length() == 0) {
+			return DEFAULT_BIND_ADDRESS;
+		}
+		return bind_address.trim();
+	}
+
+	/**
+	 * @return the peers, never null
+	 */
+	public final List<String> getPeers() {
+		if(peers == null) {
+			peers = new ArrayList<>();
+		}
+		return peers;
+	}
+
+	/**
+	 * @return the secret
+	 */
+	public final String getSecret() {
+		return secret;
+	}
+
+	/**
+	 * @return the timeout in milliseconds, default 1000
+	 */
+	public final int getTimeout() {
+		if(timeout <= 0) {
+			return DEFAULT_TIMEOUT;
+		}
+		return timeout;
+	}
+
+	@Override
+	public String toString() {
+		return "SessionCache [max_size=" + max_size + ", idle_timeout=" + idle_timeout + ", store=" + store + ", port=" + port + ", bind_address=" + bind_address + ", peers=" + peers + ", timeout=" + timeout + "]";
+	}
+}
@@ -0,0 +1,81 @@
+/*************************************************************************************
+ * Product: ADempiere Bot                                                            *
+ * Copyright (C) 2012-2019 E.R.P. Consultores y Asociados, C.A.                      *
+ * Contributor(s): Yamel Senih ysenih@erpya.com                                      *
+ * This program is free software: you can redistribute it and/or modify              *
+ * it under the terms of the GNU General Public License as published by              *
+ * the Free Software Foundation, either version 3 of the License, or                 *
+ * (at your option) any later version.                                               *
+ * This program is distributed in the hope that it will be useful,                   *
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of                    *
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the                     *
+ * GNU General Public License for more details.                                      *
+ * You should have received a copy of the GNU General Public License                 *
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.            *
+ ************************************************************************************/
+package org.spin.base.setup;
+
+/**
+ * Signed session tokens: login return a token signed with HMAC that can be used as session,
+ * it is verified without access to database
+ * @author Yamel Senih
+ */
+public class SessionToken {
+	/**	Is enabled	*/
+	private boolean enabled;
+	/**	Secret for sign, must be same for all nodes	*/
+	private String secret;
+	/**	Time of token (seconds), 0 is default	*/
+	private long expiration;
+
+	/**	Default values	*/
+	public static final long DEFAULT_EXPIRATION = 28800;
+
+	/**
+	 * Default constructor
+	 * @param enabled
+	 * @param secret
+	 * @param expiration
+	 */
+	public SessionToken(boolean enabled, String secret, long expiration) {
+		this.enabled = enabled;
+		this.secret = secret;
+		this.expiration = expiration;
+	}
+
+	/**
+	 * Default constructor without parameters
+	 */
+	public SessionToken() {
+
+	}
+
+	/**
+	 * @return the enabled
+	 */
+	public final boolean isEnabled() {
+		return enabled;
+	}
+
+	/**
+	 * @return the secret
+	 */
+	public final String getSecret() {
+		return secret;
+	}
+
+	/**
+	 * @return the expiration in seconds, default 28800 (8 hours)
+	 */
+	public final long getExpiration() {
+		if(expiration <= 0) {
+			return DEFAULT_EXPIRATION;
+		}
+		return expiration;
+	}
+
+	@Override
+	public String toString() {
+		return "SessionToken [enabled=" + enabled + ", expiration=" + expiration + "]";
+	}
+}
@@ -17,6 +17,9 @@ package org.spin.base.setup;
 
 import java.io.File;
 import java.io.IOException;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
 import java.util.logging.Level;
 
 import org.compiere.db.CConnection;
@@ -37,6 +40,11 @@ public class SetupLoader {
 	private static SetupLoader instance;
 	/**	Setup	*/
 	private SetupWrapper setup;
+	/**	Min length of secrets	*/
+	public static final int MINIMUM_SECRET_LENGTH = 32;
+	/**	Values of examples that are not valid as secret	*/
+	private static final Set<String> PLACEHOLDER_SECRETS = new HashSet<>(Arrays.asList(
+			"change-me", "changeme", "change_me", "secret", "password", "default", "test", "example"));
 	/**
 	 * Private constructor
 	 * @param filePath
@@ -84,6 +92,16 @@ public class SetupLoader {
 		if(setup.getDatabase().getPassword() == null) {
 			throw new Exception("Database Password Not Found");
 		}
+		//	Secret of peers of session store
+		if(SessionCache.STORE_PEER.equals(setup.getServer().getSession_cache().getStore())
+				&& !isValidSecret(setup.getServer().getSession_cache().getSecret())) {
+			throw new Exception("Session Store Secret Not Valid (it must have " + MINIMUM_SECRET_LENGTH + " characters or more and it can not be a placeholder)");
+		}
+		//	Secret of signed session tokens
+		if(setup.getServer().getSession_token().isEnabled()
+				&& !isValidSecret(setup.getServer().getSession_token().getSecret())) {
+			throw new Exception("Session Token Secret Not Valid (it must have " + MINIMUM_SECRET_LENGTH + " characters or more and it can not be a placeholder)");
+		}
 		CConnection connection = CConnection.get(setup.getDatabase().getType(),
 				setup.getDatabase().getHost(), setup.getDatabase().getPort(), setup.getDatabase().getName(),
 				setup.getDatabase().getUser(), setup.getDatabase().getPassword());
@@ -115,6 +133,21 @@ public class SetupLoader {
 		return setup.getServer();
 	}
 
+	/**
+	 * Verify if a secret of setup can be used: it is defined, it is not a placeholder
+	 * (as change-me) and it has {@link #MINIMUM_SECRET_LENGTH} characters or more
+	 * @param secret
+	 * @return
+	 */
+	public static boolean isValidSecret(String secret) {
+		if(secret == null) {
+			return false;
+		}
+		String value = secret.trim();
+		return value.length() >= MINIMUM_SECRET_LENGTH
+				&& !PLACEHOLDER_SECRETS.contains(value.toLowerCase());
+	}
+	
 	/**
 	 * Get current instance
 	 * @return
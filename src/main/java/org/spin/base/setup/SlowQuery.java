@@ -0,0 +1,97 @@
+/*************************************************************************************
+ * Product: ADempiere Bot                                                            *
+ * Copyright (C) 2012-2019 E.R.P. Consultores y Asociados, C.A.                      *
+ * Contributor(s): Yamel Senih ysenih@erpya.com                                      *
+ * This program is free software: you can redistribute it and/or modify              *
+ * it under the terms of the GNU General Public License as published by              *
+ * the Free Software Foundation, either version 3 of the License, or                 *
+ * (at your option) any later version.                                               *
+ * This program is distributed in the hope that it will be useful,                   *
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of                    *
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the                     *
+ * GNU General Public License for more details.                                      *
+ * You should have received a copy of the GNU General Public License                 *
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.            *
+ ************************************************************************************/
+package org.spin.base.setup;
+
+/**
+ * Slow query recorder: queries over threshold are kept on a ring buffer
+ * and can be listed by administration service
+ * @author Yamel Senih
+ */
+public class SlowQuery {
+	/**	Is Enabled	*/
+	private boolean enabled;
+	/**	Minimum elapsed time for record a query (milliseconds)	*/
+	private long threshold;
+	/**	Queries kept on memory	*/
+	private int buffer_size;
+	/**	Run EXPLAIN (ANALYZE, BUFFERS) for slow SELECT on PostgreSQL	*/
+	private boolean explain;
+
+	/**	Default values	*/
+	public static final long DEFAULT_THRESHOLD = 1000;
+	public static final int DEFAULT_BUFFER_SIZE = 200;
+
+	/**
+	 * Default constructor
+	 * @param enabled
+	 * @param threshold
+	 * @param buffer_size
+	 * @param explain
+	 */
+	public SlowQuery(boolean enabled, long threshold, int buffer_size, boolean explain) {
+		this.enabled = enabled;
+		this.threshold = threshold;
+		this.buffer_size = buffer_size;
+		this.explain = explain;
+	}
+
+	/**
+	 * Default constructor without parameters
+	 */
+	public SlowQuery() {
+
+	}
+
+	/**
+	 * @return the enabled
+	 */
+	public final boolean isEnabled() {
+		return enabled;
+	}
+
+	/**
+	 * @return the threshold in milliseconds, default 1000
+	 */
+	public final long getThreshold() {
+		if(threshold <= 0) {
+			return DEFAULT_THRESHOLD;
+		}
+		return threshold;
+	}
+
+	/**
+	 * @return the buffer_size, default 200
+	 */
+	public final int getBuffer_size() {
+		if(buffer_size <= 0) {
+			return DEFAULT_BUFFER_SIZE;
+		}
+		return buffer_size;
+	}
+
+	/**
+	 * @return the explain
+	 */
+	public final boolean isExplain() {
+		return explain;
+	}
+
+	@Override
+	public String toString() {
+		return "SlowQuery [enabled=" + enabled + ", threshold=" + threshold + ", buffer_size=" + buffer_size
+				+ ", explain=" + explain + "]";
+	}
+}
@@ -0,0 +1,167 @@
+/*************************************************************************************
+ * Product: ADempiere Bot                                                            *
+ * Copyright (C) 2012-2019 E.R.P. Consultores y Asociados, C.A.                      *
+ * Contributor(s): Yamel Senih ysenih@erpya.com                                      *
+ * This program is free software: you can redistribute it and/or modify              *
+ * it under the terms of the GNU General Public License as published by              *
+ * the Free Software Foundation, either version 3 of the License, or                 *
+ * (at your option) any later version.                                               *
+ * This program is distributed in the hope that it will be useful,                   *
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of                    *
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the                     *
+ * GNU General Public License for more details.                                      *
+ * You should have received a copy of the GNU General Public License                 *
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.            *
+ ************************************************************************************/
+package org.spin.base.setup;
+
+/**
+ * Netty transport tuning, all values are optional and 0 means the grpc-netty default
+ * @author Yamel Senih
+ */
+public class Transport {
+	/**	Use native epoll transport when is available (Linux)	*/
+	private boolean use_epoll;
+	/**	Threads for accept connections	*/
+	private int boss_threads;
+	/**	Threads for I/O	*/
+	private int worker_threads;
+	/**	HTTP/2 initial flow control window (bytes)	*/
+	private int flow_control_window;
+	/**	Max inbound message size (bytes)	*/
+	private int max_inbound_message_size;
+	/**	Max concurrent calls per connection	*/
+	private int max_concurrent_calls_per_connection;
+	/**	Keep alive ping time (seconds)	*/
+	private long keep_alive_time;
+	/**	Keep alive ping timeout (seconds)	*/
+	private long keep_alive_timeout;
+	/**	Minimum keep alive time allowed to clients (seconds)	*/
+	private long permit_keep_alive_time;
+	/**	Allow clients keep alive without calls	*/
+	private boolean permit_keep_alive_without_calls;
+	/**	Send records of lists encoded while result set is read (without build entities)	*/
+	private boolean encoded_records;
+
+	/**
+	 * Default constructor
+	 * @param use_epoll
+	 * @param boss_threads
+	 * @param worker_threads
+	 * @param flow_control_window
+	 * @param max_inbound_message_size
+	 * @param max_concurrent_calls_per_connection
+	 * @param keep_alive_time
+	 * @param keep_alive_timeout
+	 * @param permit_keep_alive_time
+	 * @param permit_keep_alive_without_calls
+	 */
+	public Transport(boolean use_epoll, int boss_threads, int worker_threads, int flow_control_window,
+			int max_inbound_message_size, int max_concurrent_calls_per_connection, long keep_alive_time,
+			long keep_alive_timeout, long permit_keep_alive_time, boolean permit_keep_alive_without_calls) {
+		this.use_epoll = use_epoll;
+		this.boss_threads = boss_threads;
+		this.worker_threads = worker_threads;
+		this.flow_control_window = flow_control_window;
+		this.max_inbound_message_size = max_inbound_message_size;
+		this.max_concurrent_calls_per_connection = max_concurrent_calls_per_connection;
+		this.keep_alive_time = keep_alive_time;
+		this.keep_alive_timeout = keep_alive_timeout;
+		this.permit_keep_alive_time = permit_keep_alive_time;
+		this.permit_keep_alive_without_calls = permit_keep_alive_without_calls;
+	}
+
+	/**
+	 * Default constructor without parameters
+	 */
+	public Transport() {
+
+	}
+
+	/**
+	 * @return the use_epoll
+	 */
+	public final boolean isUse_epoll() {
+		return use_epoll;
+	}
+
+	/**
+	 * @return the boss_threads
+	 */
+	public final int getBoss_threads() {
+		return boss_threads;
+	}
+
+	/**
+	 * @return the worker_threads
+	 */
+	public final int getWorker_threads() {
+		return worker_threads;
+	}
+
+	/**
+	 * @return the flow_control_window
+	 */
+	public final int getFlow_control_window() {
+		return flow_control_window;
+	}
+
+	/**
+	 * @return the max_inbound_message_size
+	 */
+	public final int getMax_inbound_message_size() {
+		return max_inbound_message_size;
+	}
+
+	/**
+	 * @return the max_concurrent_calls_per_connection
+	 */
+	public final int getMax_concurrent_calls_per_connection() {
+		return max_concurrent_calls_per_connection;
+	}
+
+	/**
+	 * @return the keep_alive_time
+	 */
+	public final long getKeep_alive_time() {
+		return keep_alive_time;
+	}
+
+	/**
+	 * @return the keep_alive_timeout
+	 */
+	public final long getKeep_alive_timeout() {
+		return keep_alive_timeout;
+	}
+
+	/**
+	 * @return the permit_keep_alive_time
+	 */
+	public final long getPermit_keep_alive_time() {
+		return permit_keep_alive_time;
+	}
+
+	/**
+	 * @return the permit_keep_alive_without_calls
+	 */
+	public final boolean isPermit_keep_alive_without_calls() {
+		return permit_keep_alive_without_calls;
+	}
+
+	/**
+	 * @return the encoded_records, default false
+	 */
+	public final boolean isEncoded_records() {
+		return encoded_records;
+	}
+
+	@Override
+	public String toString() {
+		return "Transport [use_epoll=" + use_epoll + ", boss_threads=" + boss_threads + ", worker_threads="
+				+ worker_threads + ", flow_control_window=" + flow_control_window + ", max_inbound_message_size="
+				+ max_inbound_message_size + ", max_concurrent_calls_per_connection="
+				+ max_concurrent_calls_per_connection + ", keep_alive_time=" + keep_alive_time
+				+ ", keep_alive_timeout=" + keep_alive_timeout + ", permit_keep_alive_time=" + permit_keep_alive_time
+				+ ", permit_keep_alive_without_calls=" + permit_keep_alive_without_calls + ", encoded_records=" + encoded_records + "]";
+	}
+}
@@ -0,0 +1,66 @@
+/*************************************************************************************
+ * Product: Adempiere ERP & CRM Smart Business Solution                              *
+ * This program is free software; you can redistribute it and/or modify it    		 *
+ * under the terms version 2 or later of the GNU General Public License as published *
+ * by the Free Software Foundation. This program is distributed in the hope   		 *
+ * that it will be useful, but WITHOUT ANY WARRANTY; without even the implied 		 *
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.           		 *
+ * See the GNU General Public License for more details.                       		 *
+ * You should have received a copy of the GNU General Public License along    		 *
+ * with this program; if not, write to the Free Software Foundation, Inc.,    		 *
+ * 59 Temple Place, Suite 330, Boston, MA 02111-1307 USA.                     		 *
+ * For the text or an alternative of this public license, you may reach us    		 *
+ * Copyright (C) 2012-2018 E.R.P. Consultores y Asociados, S.A. All Rights Reserved. *
+ * Contributor(s): Yamel Senih www.erpya.com				  		                 *
+ *************************************************************************************/
+package org.spin.base.store;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
+
+import org.spin.base.setup.SessionCache;
+import org.spin.base.util.LRUCache;
+import org.spin.base.util.SessionContext;
+
+/**
+ * Store on memory of node (default), it is also used as local stand-in of shared stores
+ * @author Yamel Senih, ysenih@erpya.com , http://www.erpya.com
+ */
+public class MemorySessionStore implements SessionStore {
+	/**	Cache	*/
+	private final LRUCache<String, SessionContext> cache;
+	
+	/**
+	 * Default constructor
+	 * @param setup
+	 */
+	public MemorySessionStore(SessionCache setup) {
+		cache = new LRUCache<String, SessionContext>("session_context", setup.getMax_size(), setup.getIdle_timeout(), TimeUnit.SECONDS);
+	}
+	
+	@Override
+	public SessionContext get(String key) {
+		return cache.get(key);
+	}
+	
+	@Override
+	public void put(String key, SessionContext sessionContext) {
+		cache.put(key, sessionContext);
+	}
+	
+	@Override
+	public void remove(String key) {
+		cache.remove(key);
+	}
+	
+	@Override
+	public Map<String, SessionContext> getAll() {
+		return cache.getAll();
+	}
+	
+	@Override
+	public void removeIf(Predicate<SessionContext> filter) {
+		cache.removeIf(filter);
+	}
+}
@@ -0,0 +1,565 @@
+/*************************************************************************************
+ * Product: Adempiere ERP & CRM Smart Business Solution                              *
+ * This program is free software; you can redistribute it and/or modify it    		 *
+ * under the terms version 2 or later of the GNU General Public License as published *
+ * by the Free Software Foundation. This program is distributed in the hope   		 *
+ * that it will be useful, but WITHOUT ANY WARRANTY; without even the implied 		 *
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.           		 *
+ * See the GNU General Public License for more details.                       		 *
+ * You should have received a copy of the GNU General Public License along    		 *
+ * with this program; if not, write to the Free Software Foundation, Inc.,    		 *
+ * 59 Temple Place, Suite 330, Boston, MA 02111-1307 USA.                     		 *
+ * For the text or an alternative of this public license, you may reach us    		 *
+ * Copyright (C) 2012-2018 E.R.P. Consultores y Asociados, S.A. All Rights Reserved. *
+ * Contributor(s): Yamel Senih www.erpya.com				  		                 *
+ *************************************************************************************/
+package org.spin.base.store;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.InetSocketAddress;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+
+import org.compiere.util.Util;
+import org.spin.base.metrics.MetricsRegistry;
+import org.spin.base.metrics.MetricsRegistry.Counter;
+import org.spin.base.setup.SessionCache;
+import org.spin.base.setup.SetupLoader;
+import org.spin.base.util.SessionContext;
+import org.spin.base.util.SignedSessionToken;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * Store shared between nodes behind a load balancer. Each node keep the contexts on memory
+ * and send the new contexts and the invalidations (logout) to its peers with a small HTTP endpoint:
+ * <li>GET /sessions: all contexts of node, used for warm up a node when it start
+ * <li>PUT /sessions/{hash}: a context resolved by peer
+ * <li>DELETE /sessions/{hash}: a context of session closed on peer
+ * <li>PUT /sessions/revoked/{AD_Session_ID}: a session closed on peer, its signed tokens are revoked until
+ * expiration sent on body
+ * The session keys (UUID or token) never leave the node: the contexts are stored and sent by the
+ * SHA-256 of key and without session UUID, a node only can find it when a request have the key.
+ * Each request and the response of GET are signed (HMAC-SHA256) with the secret shared, the time
+ * of sign and a random nonce, a request without signature, with a signature not valid, too old or
+ * with a nonce already used (replay) is rejected.
+ * The endpoint is bound to loopback by default (see bind_address), the secret is mandatory.
+ * The replication is best effort: it run on background and it is discarded when the queue is full,
+ * a node without the context resolve it again from database.
+ * @author Yamel Senih, ysenih@erpya.com , http://www.erpya.com
+ */
+public class PeerSessionStore implements SessionStore {
+	/**	Logger			*/
+	private static final Logger logger = Logger.getLogger(PeerSessionStore.class.getName());
+	/**	Path	*/
+	private static final String PATH = "/sessions";
+	/**	Path of revocations	*/
+	private static final String REVOKED_PATH = PATH + "/revoked/";
+	/**	Header for signature: {time}.{nonce}.{signature}	*/
+	private static final String SIGNATURE_HEADER = "X-Session-Store-Signature";
+	/**	Method used for sign responses	*/
+	private static final String RESPONSE = "RESPONSE";
+	/**	Algorithm for signature	*/
+	private static final String ALGORITHM = "HmacSHA256";
+	/**	Max difference of time for a signature (milliseconds)	*/
+	private static final long MAX_CLOCK_SKEW = TimeUnit.SECONDS.toMillis(60);
+	/**	Length of nonce (bytes)	*/
+	private static final int NONCE_LENGTH = 16;
+	/**	Random for nonces	*/
+	private static final SecureRandom random = new SecureRandom();
+	/**	Max size of a context sent by peer	*/
+	private static final int MAX_BODY_SIZE = 1024 * 1024;
+	/**	Encoder	*/
+	private static final Base64.Encoder encoder = Base64.getUrlEncoder().withoutPadding();
+	/**	Content type	*/
+	private static final String CONTENT_TYPE = "application/octet-stream";
+	/**	Max replications waiting	*/
+	private static final int QUEUE_SIZE = 1000;
+	/**	Setup	*/
+	private final SessionCache setup;
+	/**	Contexts of node	*/
+	private final MemorySessionStore local;
+	/**	HTTP Server	*/
+	private HttpServer server;
+	/**	Thread for attend peers	*/
+	private ExecutorService serverExecutor;
+	/**	Nonces of requests received with time of request, kept while the time is valid	*/
+	private final Map<String, Long> usedNonces = new ConcurrentHashMap<>();
+	/**	Last clean of nonces	*/
+	private volatile long nonceCleanTime = 0;
+	/**	Thread for send to peers	*/
+	private final ThreadPoolExecutor replicationExecutor;
+	/**	Metrics	*/
+	private final Counter sentRequests;
+	private final Counter failedRequests;
+	private final Counter discardedRequests;
+	/**	Labels	*/
+	private static final String[] RESULT_LABELS = {"result"};
+	
+	/**
+	 * Default constructor
+	 * @param setup
+	 */
+	public PeerSessionStore(SessionCache setup) {
+		this.setup = setup;
+		this.local = new MemorySessionStore(setup);
+		MetricsRegistry registry = MetricsRegistry.getInstance();
+		sentRequests = registry.counter("session_store_peer_requests_total", "Requests sent to peers by result.", RESULT_LABELS, "success");
+		failedRequests = registry.counter("session_store_peer_requests_total", "Requests sent to peers by result.", RESULT_LABELS, "failure");
+		discardedRequests = registry.counter("session_store_peer_requests_total", "Requests sent to peers by result.", RESULT_LABELS, "discarded");
+		replicationExecutor = new ThreadPoolExecutor(1, 1, 0, TimeUnit.SECONDS,
+				new ArrayBlockingQueue<Runnable>(QUEUE_SIZE),
+				runnable -> {
+					Thread thread = new Thread(runnable, "session-store-replication");
+					thread.setDaemon(true);
+					return thread;
+				},
+				(runnable, executor) -> discardedRequests.increment());
+	}
+	
+	@Override
+	public SessionContext get(String key) {
+		String hash = hash(key);
+		SessionContext sessionContext = local.get(hash);
+		//	Context sent by peer, it is kept with key from now
+		if(sessionContext != null
+				&& !key.equals(sessionContext.getSessionUuid())) {
+			sessionContext = sessionContext.withSessionUuid(key);
+			local.put(hash, sessionContext);
+		}
+		return sessionContext;
+	}
+	
+	@Override
+	public void put(String key, SessionContext sessionContext) {
+		String hash = hash(key);
+		local.put(hash, sessionContext);
+		byte[] body;
+		try {
+			ByteArrayOutputStream output = new ByteArrayOutputStream(1024);
+			try (DataOutputStream data = new DataOutputStream(output)) {
+				sessionContext.withSessionUuid("").write(data);
+			}
+			body = output.toByteArray();
+		} catch (IOException e) {
+			logger.log(Level.WARNING, e.getLocalizedMessage());
+			return;
+		}
+		replicate("PUT", PATH + "/" + hash, body);
+	}
+	
+	@Override
+	public void remove(String key) {
+		String hash = hash(key);
+		local.remove(hash);
+		replicate("DELETE", PATH + "/" + hash, null);
+	}
+	
+	@Override
+	public void removeIf(Predicate<SessionContext> filter) {
+		local.getAll().forEach((hash, sessionContext) -> {
+			if(filter.test(sessionContext)) {
+				local.remove(hash);
+				replicate("DELETE", PATH + "/" + hash, null);
+			}
+		});
+	}
+	
+	@Override
+	public void revoke(int sessionId, long expiration) {
+		ByteArrayOutputStream output = new ByteArrayOutputStream(8);
+		try (DataOutputStream data = new DataOutputStream(output)) {
+			data.writeLong(expiration);
+		} catch (IOException e) {
+			logger.log(Level.WARNING, e.getLocalizedMessage());
+			return;
+		}
+		replicate("PUT", REVOKED_PATH + sessionId, output.toByteArray());
+	}
+	
+	/**
+	 * Get all contexts of node, the keys are the SHA-256 of session keys
+	 */
+	@Override
+	public Map<String, SessionContext> getAll() {
+		return local.getAll();
+	}
+	
+	@Override
+	public void start() throws IOException {
+		if(!SetupLoader.isValidSecret(setup.getSecret())) {
+			throw new IOException("Session Store Secret Not Valid, the store for peers can not be started");
+		}
+		InetSocketAddress address = new InetSocketAddress(setup.getBind_address(), setup.getPort());
+		server = HttpServer.create(address, 0);
+		server.createContext(PATH, this::handle);
+		serverExecutor = Executors.newSingleThreadExecutor(runnable -> {
+			Thread thread = new Thread(runnable, "session-store-http");
+			thread.setDaemon(true);
+			return thread;
+		});
+		server.setExecutor(serverExecutor);
+		server.start();
+		logger.info("Session store for peers on " + address + PATH + ", peers: " + setup.getPeers());
+		warmUp();
+	}
+	
+	@Override
+	public void stop() {
+		if(server != null) {
+			server.stop(0);
+		}
+		if(serverExecutor != null) {
+			serverExecutor.shutdown();
+		}
+		replicationExecutor.shutdown();
+	}
+	
+	/**
+	 * Load contexts from first peer that answer
+	 */
+	private void warmUp() {
+		for(String peer : setup.getPeers()) {
+			HttpURLConnection connection = null;
+			try {
+				connection = openConnection(peer + PATH, PATH, "GET", null);
+				if(connection.getResponseCode() != HttpURLConnection.HTTP_OK) {
+					failedRequests.increment();
+					continue;
+				}
+				byte[] body;
+				try (InputStream input = connection.getInputStream()) {
+					body = readAll(input, Integer.MAX_VALUE);
+				}
+				if(!isValidSignature(connection.getHeaderField(SIGNATURE_HEADER), RESPONSE, PATH, body, false)) {
+					failedRequests.increment();
+					logger.warning("Peer " + peer + " answer with a signature not valid for warm up");
+					continue;
+				}
+				int size;
+				try (DataInputStream data = new DataInputStream(new ByteArrayInputStream(body))) {
+					size = data.readInt();
+					for(int index = 0; index < size; index++) {
+						String hash = data.readUTF();
+						local.put(hash, SessionContext.read(data));
+					}
+				}
+				sentRequests.increment();
+				logger.info("Session store warm up with " + size + " sessions from " + peer);
+				return;
+			} catch (IOException e) {
+				failedRequests.increment();
+				logger.warning("Peer " + peer + " is not available for warm up: " + e.getLocalizedMessage());
+			} finally {
+				if(connection != null) {
+					connection.disconnect();
+				}
+			}
+		}
+	}
+	
+	/**
+	 * Send a change to all peers on background
+	 * @param method
+	 * @param path
+	 * @param body
+	 */
+	private void replicate(String method, String path, byte[] body) {
+		if(setup.getPeers().isEmpty()
+				|| replicationExecutor.isShutdown()) {
+			return;
+		}
+		replicationExecutor.execute(() -> {
+			for(String peer : setup.getPeers()) {
+				send(peer, path, method, body);
+			}
+		});
+	}
+	
+	/**
+	 * Send a request to peer
+	 * @param peer
+	 * @param path
+	 * @param method
+	 * @param body
+	 */
+	private void send(String peer, String path, String method, byte[] body) {
+		String url = peer + path;
+		HttpURLConnection connection = null;
+		try {
+			connection = openConnection(url, path, method, body);
+			if(body != null) {
+				connection.setDoOutput(true);
+				connection.setFixedLengthStreamingMode(body.length);
+				try (OutputStream output = connection.getOutputStream()) {
+					output.write(body);
+				}
+			}
+			int responseCode = connection.getResponseCode();
+			if(responseCode == HttpURLConnection.HTTP_NO_CONTENT
+					|| responseCode == HttpURLConnection.HTTP_OK) {
+				sentRequests.increment();
+			} else {
+				failedRequests.increment();
+				logger.fine("Peer " + url + " answer " + responseCode);
+			}
+		} catch (IOException e) {
+			failedRequests.increment();
+			logger.fine("Peer " + url + " is not available: " + e.getLocalizedMessage());
+		} finally {
+			if(connection != null) {
+				connection.disconnect();
+			}
+		}
+	}
+	
+	/**
+	 * Open connection to peer, the request is signed
+	 * @param url
+	 * @param path
+	 * @param method
+	 * @param body
+	 * @return
+	 * @throws IOException
+	 */
+	private HttpURLConnection openConnection(String url, String path, String method, byte[] body) throws IOException {
+		HttpURLConnection connection = (HttpURLConnection) new URL(url).openConnection();
+		connection.setRequestMethod(method);
+		connection.setConnectTimeout(setup.getTimeout());
+		connection.setReadTimeout(setup.getTimeout());
+		connection.setRequestProperty("Content-Type", CONTENT_TYPE);
+		connection.setRequestProperty(SIGNATURE_HEADER, getSignature(method, path, body));
+		return connection;
+	}
+	
+	/**
+	 * Attend request of peer
+	 * @param exchange
+	 * @throws IOException
+	 */
+	private void handle(HttpExchange exchange) throws IOException {
+		try {
+			String path = exchange.getRequestURI().getRawPath();
+			String method = exchange.getRequestMethod();
+			byte[] body;
+			try (InputStream input = exchange.getRequestBody()) {
+				body = readAll(input, MAX_BODY_SIZE);
+			}
+			if(!isValidSignature(exchange.getRequestHeaders().getFirst(SIGNATURE_HEADER), method, path, body, true)) {
+				exchange.sendResponseHeaders(HttpURLConnection.HTTP_FORBIDDEN, -1);
+				return;
+			}
+			if(path.startsWith(REVOKED_PATH)) {
+				if(!"PUT".equals(method)) {
+					exchange.sendResponseHeaders(HttpURLConnection.HTTP_BAD_METHOD, -1);
+					return;
+				}
+				int sessionId = Integer.parseInt(path.substring(REVOKED_PATH.length()));
+				try (DataInputStream data = new DataInputStream(new ByteArrayInputStream(body))) {
+					SignedSessionToken.revoke(sessionId, data.readLong());
+				}
+				//	Contexts of session
+				String sessionIdValue = String.valueOf(sessionId);
+				local.removeIf(sessionContext -> sessionIdValue.equals(sessionContext.getValue("#AD_Session_ID")));
+				exchange.sendResponseHeaders(HttpURLConnection.HTTP_NO_CONTENT, -1);
+				return;
+			}
+			String hash = path.length() > PATH.length() + 1? path.substring(PATH.length() + 1): null;
+			if("GET".equals(method)
+					&& hash == null) {
+				writeAll(exchange);
+			} else if("PUT".equals(method)
+					&& hash != null) {
+				try (DataInputStream data = new DataInputStream(new ByteArrayInputStream(body))) {
+					local.put(hash, SessionContext.read(data));
+				}
+				exchange.sendResponseHeaders(HttpURLConnection.HTTP_NO_CONTENT, -1);
+			} else if("DELETE".equals(method)
+					&& hash != null) {
+				local.remove(hash);
+				exchange.sendResponseHeaders(HttpURLConnection.HTTP_NO_CONTENT, -1);
+			} else {
+				exchange.sendResponseHeaders(HttpURLConnection.HTTP_BAD_METHOD, -1);
+			}
+		} catch (IOException | RuntimeException e) {
+			logger.log(Level.WARNING, e.getLocalizedMessage(), e);
+			exchange.sendResponseHeaders(HttpURLConnection.HTTP_BAD_REQUEST, -1);
+		} finally {
+			exchange.close();
+		}
+	}
+	
+	/**
+	 * Write all contexts of node
+	 * @param exchange
+	 * @throws IOException
+	 */
+	private void writeAll(HttpExchange exchange) throws IOException {
+		Map<String, SessionContext> contexts = new HashMap<>(local.getAll());
+		ByteArrayOutputStream output = new ByteArrayOutputStream(contexts.size() * 1024 + 4);
+		try (DataOutputStream data = new DataOutputStream(output)) {
+			data.writeInt(contexts.size());
+			for(Map.Entry<String, SessionContext> entry : contexts.entrySet()) {
+				data.writeUTF(entry.getKey());
+				entry.getValue().withSessionUuid("").write(data);
+			}
+		}
+		exchange.getResponseHeaders().set("Content-Type", CONTENT_TYPE);
+		exchange.getResponseHeaders().set(SIGNATURE_HEADER, getSignature(RESPONSE, PATH, output.toByteArray()));
+		exchange.sendResponseHeaders(HttpURLConnection.HTTP_OK, output.size());
+		try (OutputStream response = exchange.getResponseBody()) {
+			output.writeTo(response);
+		}
+	}
+	
+	/**
+	 * Get signature for a request or response: {time}.{nonce}.{HMAC of method, path, time, nonce and body}
+	 * @param method
+	 * @param path
+	 * @param body
+	 * @return
+	 */
+	private String getSignature(String method, String path, byte[] body) {
+		long time = System.currentTimeMillis();
+		byte[] nonceBytes = new byte[NONCE_LENGTH];
+		random.nextBytes(nonceBytes);
+		String nonce = encoder.encodeToString(nonceBytes);
+		return time + "." + nonce + "." + encoder.encodeToString(sign(method, path, time, nonce, body));
+	}
+	
+	/**
+	 * Verify signature of peer, it must be valid and recent
+	 * @param signature
+	 * @param method
+	 * @param path
+	 * @param body
+	 * @param isNonceChecked reject a nonce already used (requests)
+	 * @return
+	 */
+	private boolean isValidSignature(String signature, String method, String path, byte[] body, boolean isNonceChecked) {
+		if(Util.isEmpty(signature)) {
+			return false;
+		}
+		String[] parts = signature.split("\\.", -1);
+		if(parts.length != 3
+				|| parts[1].isEmpty()) {
+			return false;
+		}
+		long time;
+		try {
+			time = Long.parseLong(parts[0]);
+		} catch (NumberFormatException e) {
+			return false;
+		}
+		long now = System.currentTimeMillis();
+		if(Math.abs(now - time) > MAX_CLOCK_SKEW) {
+			return false;
+		}
+		String nonce = parts[1];
+		byte[] expected = encoder.encode(sign(method, path, time, nonce, body));
+		if(!MessageDigest.isEqual(expected, parts[2].getBytes(StandardCharsets.US_ASCII))) {
+			return false;
+		}
+		if(!isNonceChecked) {
+			return true;
+		}
+		cleanNonces(now);
+		//	Replay of a request already received
+		return usedNonces.putIfAbsent(nonce, time) == null;
+	}
+	
+	/**
+	 * Remove nonces that can not be used again (time out of window), at most once by second
+	 * @param now
+	 */
+	private void cleanNonces(long now) {
+		if(now - nonceCleanTime < 1000) {
+			return;
+		}
+		nonceCleanTime = now;
+		usedNonces.values().removeIf(time -> now - time > MAX_CLOCK_SKEW);
+	}
+	
+	/**
+	 * Sign with secret shared
+	 * @param method
+	 * @param path
+	 * @param time
+	 * @param nonce
+	 * @param body
+	 * @return
+	 */
+	private byte[] sign(String method, String path, long time, String nonce, byte[] body) {
+		try {
+			Mac mac = Mac.getInstance(ALGORITHM);
+			mac.init(new SecretKeySpec(setup.getSecret().getBytes(StandardCharsets.UTF_8), ALGORITHM));
+			mac.update((method + "\n" + path + "\n" + time + "\n" + nonce + "\n").getBytes(StandardCharsets.UTF_8));
+			if(body != null) {
+				mac.update(body);
+			}
+			return mac.doFinal();
+		} catch (GeneralSecurityException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+	
+	/**
+	 * Get key for store: SHA-256 of session key, it is safe for send to peers
+	 * @param key
+	 * @return
+	 */
+	private static String hash(String key) {
+		try {
+			MessageDigest digest = MessageDigest.getInstance("SHA-256");
+			return encoder.encodeToString(digest.digest(key.getBytes(StandardCharsets.UTF_8)));
+		} catch (GeneralSecurityException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+	
+	/**
+	 * Read all bytes of stream
+	 * @param input
+	 * @param maxSize
+	 * @return
+	 * @throws IOException
+	 */
+	private static byte[] readAll(InputStream input, int maxSize) throws IOException {
+		ByteArrayOutputStream output = new ByteArrayOutputStream(1024);
+		byte[] buffer = new byte[8192];
+		int length;
+		while((length = input.read(buffer)) != -1) {
+			if(output.size() + length > maxSize) {
+				throw new IOException("Body too large");
+			}
+			output.write(buffer, 0, length);
+		}
+		return output.toByteArray();
+	}
+}
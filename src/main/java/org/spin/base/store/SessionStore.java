@@ -0,0 +1,118 @@
+/*************************************************************************************
+ * Product: Adempiere ERP & CRM Smart Business Solution                              *
+ * This program is free software; you can redistribute it and/or modify it    		 *
+ * under the terms version 2 or later of the GNU General Public License as published *
+ * by the Free Software Foundation. This program is distributed in the hope   		 *
+ * that it will be useful, but WITHOUT ANY WARRANTY; without even the implied 		 *
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.           		 *
+ * See the GNU General Public License for more details.                       		 *
+ * You should have received a copy of the GNU General Public License along    		 *
+ * with this program; if not, write to the Free Software Foundation, Inc.,    		 *
+ * 59 Temple Place, Suite 330, Boston, MA 02111-1307 USA.                     		 *
+ * For the text or an alternative of this public license, you may reach us    		 *
+ * Copyright (C) 2012-2018 E.R.P. Consultores y Asociados, S.A. All Rights Reserved. *
+ * Contributor(s): Yamel Senih www.erpya.com				  		                 *
+ *************************************************************************************/
+package org.spin.base.store;
+
+import java.lang.reflect.Constructor;
+import java.util.Map;
+import java.util.function.Predicate;
+
+import org.spin.base.setup.SessionCache;
+import org.spin.base.util.SessionContext;
+
+/**
+ * Store of resolved session contexts. The default store is the memory of node, other stores
+ * can share the contexts and the invalidations (logout) between nodes.
+ * A custom store is defined on setup with the class name, it must have a public constructor
+ * with {@link SessionCache} as parameter.
+ * @author Yamel Senih, ysenih@erpya.com , http://www.erpya.com
+ */
+public interface SessionStore {
+	
+	/**
+	 * Get context of session
+	 * @param key session UUID or token
+	 * @return null if it is not stored
+	 */
+	public SessionContext get(String key);
+	
+	/**
+	 * Store context of session
+	 * @param key session UUID or token
+	 * @param sessionContext
+	 */
+	public void put(String key, SessionContext sessionContext);
+	
+	/**
+	 * Remove context of a closed session
+	 * @param key session UUID or token
+	 */
+	public void remove(String key);
+	
+	/**
+	 * Get all contexts stored (a copy)
+	 * @return
+	 */
+	public Map<String, SessionContext> getAll();
+	
+	/**
+	 * Remove all contexts that match with filter (all keys of a closed session)
+	 * @param filter
+	 */
+	public default void removeIf(Predicate<SessionContext> filter) {
+		getAll().forEach((key, sessionContext) -> {
+			if(filter.test(sessionContext)) {
+				remove(key);
+			}
+		});
+	}
+	
+	/**
+	 * Send revocation of signed tokens of a closed session to other nodes, the memory store
+	 * does not have other nodes (each node verify the session on database, see ContextManager)
+	 * @param sessionId AD_Session_ID
+	 * @param expiration of revocation (milliseconds since epoch)
+	 */
+	public default void revoke(int sessionId, long expiration) {
+		//	Local only
+	}
+	
+	/**
+	 * Start store (connections, endpoints, warm up)
+	 * @throws Exception
+	 */
+	public default void start() throws Exception {
+		//	Nothing by default
+	}
+	
+	/**
+	 * Stop store
+	 */
+	public default void stop() {
+		//	Nothing by default
+	}
+	
+	/**
+	 * Create store from setup
+	 * @param setup
+	 * @return
+	 */
+	public static SessionStore newInstance(SessionCache setup) {
+		String store = setup.getStore();
+		if(SessionCache.STORE_MEMORY.equals(store)) {
+			return new MemorySessionStore(setup);
+		}
+		if(SessionCache.STORE_PEER.equals(store)) {
+			return new PeerSessionStore(setup);
+		}
+		try {
+			Class<?> storeClass = Class.forName(store);
+			Constructor<?> constructor = storeClass.getConstructor(SessionCache.class);
+			return (SessionStore) constructor.newInstance(setup);
+		} catch (ReflectiveOperationException | ClassCastException e) {
+			throw new IllegalArgumentException("Invalid session store: " + store, e);
+		}
+	}
+}
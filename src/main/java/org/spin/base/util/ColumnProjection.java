@@ -0,0 +1,213 @@
+/*************************************************************************************
+ * Product: Adempiere ERP & CRM Smart Business Solution                              *
+ * This program is free software; you can redistribute it and/or modify it    		 *
+ * under the terms version 2 or later of the GNU General Public License as published *
+ * by the Free Software Foundation. This program is distributed in the hope   		 *
+ * that it will be useful, but WITHOUT ANY WARRANTY; without even the implied 		 *
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.           		 *
+ * See the GNU General Public License for more details.                       		 *
+ * You should have received a copy of the GNU General Public License along    		 *
+ * with this program; if not, write to the Free Software Foundation, Inc.,    		 *
+ * 59 Temple Place, Suite 330, Boston, MA 02111-1307 USA.                     		 *
+ * For the text or an alternative of this public license, you may reach us    		 *
+ * Copyright (C) 2012-2018 E.R.P. Consultores y Asociados, S.A. All Rights Reserved. *
+ * Contributor(s): Yamel Senih www.erpya.com				  		                 *
+ *************************************************************************************/
+package org.spin.base.util;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.adempiere.exceptions.AdempiereException;
+import org.compiere.model.I_AD_Element;
+import org.compiere.model.MColumn;
+import org.compiere.model.MTable;
+import org.compiere.util.Util;
+
+/**
+ * Columns requested of a table (projection), it is used for both the select list of query and
+ * the conversion of records, then only the requested columns are read and sent.
+ * The key columns and UUID are always read (identifier of entity), the columns of sort are read
+ * but not sent (needed for page token). A projection without columns has all columns of table.
+ * <pre>
+ * ColumnProjection projection = ColumnProjection.forTable(table, request.getColumnsList());
+ * String sql = "SELECT " + projection.getSelectList(tableName) + " FROM " + tableName;
+ * </pre>
+ * The columns are validated with dictionary, a column that is not of table is an error.
+ * @author Yamel Senih, ysenih@erpya.com , http://www.erpya.com
+ */
+public final class ColumnProjection {
+	/**	Sort column: [alias.]column [ASC|DESC]	*/
+	private static final Pattern SORT_COLUMN = Pattern.compile("^(?:[A-Za-z_][A-Za-z0-9_]*\\.)?([A-Za-z_][A-Za-z0-9_]*)(?:\\s+(?:ASC|DESC))?$", Pattern.CASE_INSENSITIVE);
+	
+	/**	Table	*/
+	private final MTable table;
+	/**	Columns sent (upper case name), empty for all	*/
+	private final Map<String, MColumn> columns = new LinkedHashMap<>();
+	/**	Columns only read (upper case name)	*/
+	private final Map<String, MColumn> readColumns = new LinkedHashMap<>();
+	
+	private ColumnProjection(MTable table) {
+		this.table = table;
+	}
+	
+	/**
+	 * Get projection of table from requested columns
+	 * @param table
+	 * @param columnNames requested columns, empty for all columns
+	 * @return
+	 */
+	public static ColumnProjection forTable(MTable table, Collection<String> columnNames) {
+		ColumnProjection projection = new ColumnProjection(table);
+		if(columnNames == null
+				|| columnNames.isEmpty()) {
+			return projection;
+		}
+		for(String columnName : columnNames) {
+			if(Util.isEmpty(columnName, true)) {
+				continue;
+			}
+			MColumn column = table.getColumn(columnName.trim());
+			if(column == null) {
+				throw new AdempiereException("@AD_Column_ID@ @NotFound@ (" + table.getTableName() + "." + columnName.trim() + ")");
+			}
+			projection.columns.put(column.getColumnName().toUpperCase(), column);
+		}
+		//	Identifier of record
+		for(String keyColumnName : table.getKeyColumns()) {
+			projection.addColumn(keyColumnName);
+		}
+		projection.addColumn(I_AD_Element.COLUMNNAME_UUID);
+		return projection;
+	}
+	
+	/**
+	 * Read columns of a order by clause (needed for page token), the expressions are ignored
+	 * @param orderByClause
+	 * @return
+	 */
+	public ColumnProjection addOrderByColumns(String orderByClause) {
+		if(isAll()
+				|| Util.isEmpty(orderByClause, true)) {
+			return this;
+		}
+		for(String sortColumn : orderByClause.split(",")) {
+			Matcher matcher = SORT_COLUMN.matcher(sortColumn.trim());
+			if(matcher.matches()) {
+				addColumn(matcher.group(1));
+			}
+		}
+		return this;
+	}
+	
+	/**
+	 * Add a column only for read, it is ignored if it is not of table
+	 * @param columnName
+	 */
+	private void addColumn(String columnName) {
+		MColumn column = table.getColumn(columnName);
+		if(column == null) {
+			return;
+		}
+		String key = column.getColumnName().toUpperCase();
+		if(!columns.containsKey(key)) {
+			readColumns.put(key, column);
+		}
+	}
+	
+	/**
+	 * Projection has all columns of table
+	 * @return
+	 */
+	public boolean isAll() {
+		return columns.isEmpty();
+	}
+	
+	/**
+	 * Verify if a column must be sent (requested, key or UUID)
+	 * @param columnName
+	 * @return
+	 */
+	public boolean isIncluded(String columnName) {
+		if(isAll()) {
+			return true;
+		}
+		String key = columnName.toUpperCase();
+		if(columns.containsKey(key)) {
+			return true;
+		}
+		return readColumns.containsKey(key)
+				&& (I_AD_Element.COLUMNNAME_UUID.equalsIgnoreCase(columnName)
+						|| isKeyColumn(columnName));
+	}
+	
+	/**
+	 * Is a key column of table
+	 * @param columnName
+	 * @return
+	 */
+	private boolean isKeyColumn(String columnName) {
+		for(String keyColumnName : table.getKeyColumns()) {
+			if(keyColumnName.equalsIgnoreCase(columnName)) {
+				return true;
+			}
+		}
+		return false;
+	}
+	
+	/**
+	 * Get columns read (sent and only read)
+	 * @return columns of table without virtual columns (alias.*) for all columns
+	 */
+	public List<MColumn> getColumns() {
+		if(isAll()) {
+			List<MColumn> columnsList = new ArrayList<>();
+			for(MColumn column : table.getColumnsAsList()) {
+				if(!column.isVirtualColumn()) {
+					columnsList.add(column);
+				}
+			}
+			return columnsList;
+		}
+		List<MColumn> columnsList = new ArrayList<>(columns.values());
+		columnsList.addAll(readColumns.values());
+		return columnsList;
+	}
+	
+	/**
+	 * Get select list of query, the virtual columns are read with its SQL
+	 * @param tableAlias alias of table on query
+	 * @return alias.* for all columns
+	 */
+	public String getSelectList(String tableAlias) {
+		String prefix = Util.isEmpty(tableAlias)? "": tableAlias + ".";
+		if(isAll()) {
+			return prefix + "*";
+		}
+		StringBuilder selectList = new StringBuilder();
+		for(MColumn column : getColumns()) {
+			if(selectList.length() > 0) {
+				selectList.append(", ");
+			}
+			if(column.isVirtualColumn()) {
+				selectList.append("(").append(column.getColumnSQL()).append(") AS ").append(column.getColumnName());
+			} else {
+				selectList.append(prefix).append(column.getColumnName());
+			}
+		}
+		return selectList.toString();
+	}
+	
+	/**
+	 * Get table of projection
+	 * @return
+	 */
+	public MTable getTable() {
+		return table;
+	}
+}
@@ -0,0 +1,275 @@
+/*************************************************************************************
+ * Product: Adempiere ERP & CRM Smart Business Solution                              *
+ * This program is free software; you can redistribute it and/or modify it    		 *
+ * under the terms version 2 or later of the GNU General Public License as published *
+ * by the Free Software Foundation. This program is distributed in the hope   		 *
+ * that it will be useful, but WITHOUT ANY WARRANTY; without even the implied 		 *
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.           		 *
+ * See the GNU General Public License for more details.                       		 *
+ * You should have received a copy of the GNU General Public License along    		 *
+ * with this program; if not, write to the Free Software Foundation, Inc.,    		 *
+ * 59 Temple Place, Suite 330, Boston, MA 02111-1307 USA.                     		 *
+ * For the text or an alternative of this public license, you may reach us    		 *
+ * Copyright (C) 2012-2018 E.R.P. Consultores y Asociados, S.A. All Rights Reserved. *
+ * Contributor(s): Yamel Senih www.erpya.com				  		                 *
+ *************************************************************************************/
+package org.spin.base.util;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.compiere.util.DisplayType;
+import org.spin.grpc.util.ColumnValues;
+import org.spin.grpc.util.ColumnarRecords;
+import org.spin.grpc.util.Value.ValueType;
+
+import com.google.protobuf.ByteString;
+
+/**
+ * Writer of records as columns (RecordFormat.COLUMNAR). The name and type of each column is sent once
+ * and the values are packed by column: numbers, dates and booleans as long values, decimals as unscaled
+ * long with scale of column and text with a dictionary by column. The types are same of
+ * {@link ValueUtil#getValueFromReference(Object, int)}.
+ * <pre>
+ * ColumnarRecordsWriter writer = new ColumnarRecordsWriter();
+ * while(resultSet.next()) {
+ *     writer.addRecord();
+ *     writer.setValue("DocumentNo", resultSet.getString("DocumentNo"), DisplayType.String);
+ * }
+ * builder.setColumnarRecords(writer.build());
+ * </pre>
+ * @author Yamel Senih, ysenih@erpya.com , http://www.erpya.com
+ */
+public final class ColumnarRecordsWriter implements RecordWriter {
+	/**	Columns by name	*/
+	private final Map<String, Column> columns = new LinkedHashMap<>();
+	/**	Records added	*/
+	private int recordCount = 0;
+	
+	/**
+	 * Start a new record, the values set after it are of this record
+	 */
+	public void addRecord() {
+		recordCount++;
+	}
+	
+	/**
+	 * Get records added
+	 * @return
+	 */
+	public int getRecordCount() {
+		return recordCount;
+	}
+	
+	@Override
+	public void setValue(String columnName, Object value, int referenceId) {
+		if(value == null) {
+			return;
+		}
+		if(ValueUtil.isLookup(referenceId)
+				|| DisplayType.isID(referenceId)) {
+			setObject(columnName, value);
+		} else if(DisplayType.Integer == referenceId) {
+			if(value instanceof Number) {
+				set(columnName, ValueType.INTEGER, ((Number) value).longValue());
+			}
+		} else if(DisplayType.isNumeric(referenceId)) {
+			BigDecimal decimal = getDecimal(value);
+			if(decimal != null) {
+				set(columnName, ValueType.DECIMAL, decimal);
+			}
+		} else if(DisplayType.YesNo == referenceId) {
+			boolean isTrue = value instanceof String
+					? "Y".equals(value)
+					: (Boolean) value;
+			set(columnName, ValueType.BOOLEAN, isTrue? 1L: 0L);
+		} else if(DisplayType.isDate(referenceId)) {
+			set(columnName, ValueType.DATE, ((Timestamp) value).getTime());
+		} else if(DisplayType.isText(referenceId)) {
+			set(columnName, ValueType.STRING, value);
+		}
+	}
+	
+	@Override
+	public void setString(String columnName, String value) {
+		if(value == null) {
+			return;
+		}
+		set(columnName, ValueType.STRING, value);
+	}
+	
+	/**
+	 * Set value from type of object
+	 * @param columnName
+	 * @param value
+	 */
+	private void setObject(String columnName, Object value) {
+		if(value instanceof BigDecimal) {
+			set(columnName, ValueType.DECIMAL, value);
+		} else if(value instanceof Integer
+				|| value instanceof Long) {
+			set(columnName, ValueType.INTEGER, ((Number) value).longValue());
+		} else if(value instanceof String) {
+			set(columnName, ValueType.STRING, value);
+		} else if(value instanceof Boolean) {
+			set(columnName, ValueType.BOOLEAN, ((Boolean) value)? 1L: 0L);
+		} else if(value instanceof Timestamp) {
+			set(columnName, ValueType.DATE, ((Timestamp) value).getTime());
+		}
+	}
+	
+	/**
+	 * Get decimal of a number, the columns of decimals are packed as BigDecimal
+	 * @param value
+	 * @return null if it is not a number
+	 */
+	private static BigDecimal getDecimal(Object value) {
+		if(value instanceof BigDecimal) {
+			return (BigDecimal) value;
+		} else if(value instanceof BigInteger) {
+			return new BigDecimal((BigInteger) value);
+		} else if(value instanceof Double
+				|| value instanceof Float) {
+			return BigDecimal.valueOf(((Number) value).doubleValue());
+		} else if(value instanceof Number) {
+			return BigDecimal.valueOf(((Number) value).longValue());
+		}
+		return null;
+	}
+	
+	/**
+	 * Set value of current record
+	 * @param columnName
+	 * @param valueType
+	 * @param value
+	 */
+	private void set(String columnName, ValueType valueType, Object value) {
+		if(recordCount == 0) {
+			addRecord();
+		}
+		Column column = columns.get(columnName);
+		if(column == null) {
+			column = new Column(columnName);
+			columns.put(columnName, column);
+		}
+		column.set(recordCount - 1, valueType, value);
+	}
+	
+	/**
+	 * Build columns of all records
+	 * @return
+	 */
+	public ColumnarRecords.Builder build() {
+		ColumnarRecords.Builder builder = ColumnarRecords.newBuilder()
+				.setRecordCount(recordCount);
+		for(Column column : columns.values()) {
+			builder.addColumns(column.build(recordCount));
+		}
+		return builder;
+	}
+	
+	/**
+	 * Values of a column
+	 */
+	private static final class Column {
+		private final String columnName;
+		/**	Values by record, null values are not packed	*/
+		private final List<Object> values = new ArrayList<>();
+		private ValueType valueType;
+		/**	Column has values of different types, it is sent as text	*/
+		private boolean isMixed = false;
+		
+		private Column(String columnName) {
+			this.columnName = columnName;
+		}
+		
+		/**
+		 * Set value of a record
+		 * @param record index of record
+		 * @param type
+		 * @param value
+		 */
+		private void set(int record, ValueType type, Object value) {
+			while(values.size() <= record) {
+				values.add(null);
+			}
+			values.set(record, value);
+			if(valueType == null) {
+				valueType = type;
+			} else if(valueType != type) {
+				isMixed = true;
+			}
+		}
+		
+		/**
+		 * Pack values
+		 * @param recordCount
+		 * @return
+		 */
+		private ColumnValues.Builder build(int recordCount) {
+			ValueType type = isMixed? ValueType.STRING: valueType;
+			ColumnValues.Builder builder = ColumnValues.newBuilder()
+					.setColumnName(columnName)
+					.setValueType(type);
+			byte[] nullBitmap = new byte[(recordCount + 7) / 8];
+			boolean hasNull = false;
+			//	Decimals are unscaled with greater scale, as text when it does not fit on long
+			int scale = 0;
+			boolean isText = type == ValueType.STRING;
+			if(type == ValueType.DECIMAL) {
+				for(Object value : values) {
+					if(value != null) {
+						scale = Math.max(scale, ((BigDecimal) value).scale());
+					}
+				}
+				for(Object value : values) {
+					if(value != null
+							&& ((BigDecimal) value).setScale(scale).unscaledValue().bitLength() > 63) {
+						isText = true;
+						break;
+					}
+				}
+				if(!isText) {
+					builder.setScale(scale);
+				}
+			}
+			Map<String, Integer> dictionary = new LinkedHashMap<>();
+			for(int record = 0; record < recordCount; record++) {
+				Object value = record < values.size()? values.get(record): null;
+				if(value == null) {
+					hasNull = true;
+					nullBitmap[record >> 3] |= 1 << (record & 7);
+				}
+				if(isText) {
+					int index = 0;
+					if(value != null) {
+						String text = value instanceof BigDecimal
+								? ((BigDecimal) value).toPlainString()
+								: String.valueOf(value);
+						Integer dictionaryIndex = dictionary.get(text);
+						if(dictionaryIndex == null) {
+							dictionaryIndex = dictionary.size();
+							dictionary.put(text, dictionaryIndex);
+						}
+						index = dictionaryIndex;
+					}
+					builder.addDictionaryIndexes(index);
+				} else if(type == ValueType.DECIMAL) {
+					builder.addLongValues(value == null? 0: ((BigDecimal) value).setScale(scale).unscaledValue().longValue());
+				} else {
+					builder.addLongValues(value == null? 0: (Long) value);
+				}
+			}
+			builder.addAllDictionary(dictionary.keySet());
+			if(hasNull) {
+				builder.setNullBitmap(ByteString.copyFrom(nullBitmap));
+			}
+			return builder;
+		}
+	}
+}
@@ -18,7 +18,6 @@ package org.spin.base.util;
 import java.sql.Timestamp;
 import java.util.Properties;
 
-import org.adempiere.exceptions.AdempiereException;
 import org.compiere.model.I_AD_Org;
 import org.compiere.model.I_AD_Session;
 import org.compiere.model.I_M_Warehouse;
@@ -34,6 +33,14 @@ import org.compiere.util.DB;
 import org.compiere.util.Env;
 import org.compiere.util.Language;
 import org.compiere.util.Util;
+import org.spin.base.metrics.CallTiming;
+import org.spin.base.metrics.CallTiming.Phase;
+import org.spin.base.setup.SessionCache;
+import org.spin.base.setup.SetupLoader;
+import org.spin.base.store.SessionStore;
+
+import io.grpc.Status;
+import io.grpc.StatusRuntimeException;
 
 /**
  * Class for handle Context
@@ -42,13 +49,49 @@ import org.compiere.util.Util;
 public class ContextManager {
 	
 	/**	Session Context	*/
-	private static CCache<String, Properties> sessionsContext = new CCache<String, Properties>("Session-gRPC-Service", 30, 0);	//	no time-out
+	private static SessionStore sessionsContext = SessionStore.newInstance(SetupLoader.getInstance() == null
+			? new SessionCache()
+			: SetupLoader.getInstance().getServer().getSession_cache());
 	/**	Language */
 	private static CCache<String, String> languageCache = new CCache<String, String>("Language-gRPC-Service", 30, 0);	//	no time-out
 	/**	Organization Cache	*/
 	private static CCache<String, MOrg> organizationCache = new CCache<String, MOrg>(I_AD_Org.Table_Name + "-gRPC-Service", 30, 0);	//	no time-out
 	/**	Warehouse Cache	*/
 	private static CCache<String, MWarehouse> warehouseCache = new CCache<String, MWarehouse>(I_M_Warehouse.Table_Name + "-gRPC-Service", 30, 0);	//	no time-out
+	/**	Sessions verified on database (open or closed), a logout on other node is known after 1 minute	*/
+	private static CCache<Integer, Boolean> openSessions = new CCache<Integer, Boolean>(I_AD_Session.Table_Name + "_Open-gRPC-Service", 100, 1);
+	
+	/**
+	 * Get store of session contexts
+	 * @return
+	 */
+	public static SessionStore getSessionStore() {
+		return sessionsContext;
+	}
+	
+	/**
+	 * Remove contexts of a closed session from cache (logout): the key sent by client and the other keys
+	 * of same session (session UUID and signed tokens)
+	 * @param sessionUuid session UUID or token sent by client
+	 * @param session
+	 */
+	public static void removeSessionContext(String sessionUuid, MSession session) {
+		if(!Util.isEmpty(sessionUuid)) {
+			sessionsContext.remove(sessionUuid);
+		}
+		if(session == null) {
+			return;
+		}
+		//	Signed tokens of session, the revocation is sent to other nodes
+		long expiration = SignedSessionToken.revoke(session.getAD_Session_ID());
+		sessionsContext.revoke(session.getAD_Session_ID(), expiration);
+		openSessions.put(session.getAD_Session_ID(), Boolean.FALSE);
+		if(!Util.isEmpty(session.getUUID())) {
+			sessionsContext.remove(session.getUUID());
+		}
+		String sessionId = String.valueOf(session.getAD_Session_ID());
+		sessionsContext.removeIf(sessionContext -> sessionId.equals(sessionContext.getValue("#AD_Session_ID")));
+	}
 	
 	/**
 	 * Get Context without organization and warehouse
@@ -69,72 +112,207 @@ public class ContextManager {
 	 * @return
 	 */
 	public static Properties getContext(String sessionUuid, String language, String organizationUuid, String warehouseUuid) {
-		Properties context = sessionsContext.get(sessionUuid);
-		if(context != null
-				&& context.size() > 0) {
-			Env.setContext(context, Env.LANGUAGE, getDefaultLanguage(language));
-			setDefault(context, Env.getAD_Org_ID(context), organizationUuid, warehouseUuid);
-			Env.setCtx((Properties) context.clone());
-			return context;
-		}
-		context = (Properties) Env.getCtx().clone();
+		Properties context;
+		try (CallTiming.Scope scope = CallTiming.start(Phase.CONTEXT)) {
+			context = resolveContext(sessionUuid, language, organizationUuid, warehouseUuid);
+		}
+		CallTiming timing = CallTiming.current();
+		if(timing != null) {
+			timing.setSessionId(Env.getContextAsInt(context, "#AD_Session_ID"));
+		}
+		return context;
+	}
+	
+	/**
+	 * Resolve context from session snapshot and values of request.
+	 * The snapshot is copied once to context of thread and the values of request are set over it,
+	 * the cached snapshot is never changed
+	 * @param sessionUuid
+	 * @param language
+	 * @param organizationUuid
+	 * @param warehouseUuid
+	 * @return
+	 */
+	private static Properties resolveContext(String sessionUuid, String language, String organizationUuid, String warehouseUuid) {
+		//	Already resolved for this call (session interceptor)
+		RequestContext current = RequestContext.current();
+		if(current != null
+				&& current.isSameRequest(sessionUuid, language, organizationUuid, warehouseUuid)) {
+			return current.apply();
+		}
+		SessionContext session = getSessionContext(sessionUuid);
+		Properties context = RequestContext.getThreadContext();
+		session.applyTo(context);
+		//	Values of request
+		String defaultLanguage = getDefaultLanguage(language);
+		int organizationId = getOrganizationId(context, session.getOrganizationId(), organizationUuid);
+		int warehouseId = getWarehouseId(context, warehouseUuid);
+		return new RequestContext(session, defaultLanguage, organizationId, warehouseId, language, organizationUuid, warehouseUuid).bind();
+	}
+	
+	/**
+	 * Get session snapshot from cache or load it from session
+	 * @param sessionUuid
+	 * @throws StatusRuntimeException UNAUTHENTICATED if session is not found
+	 * @return
+	 */
+	private static SessionContext getSessionContext(String sessionUuid) {
+		if(Util.isEmpty(sessionUuid)) {
+			throw Status.UNAUTHENTICATED.withDescription("@AD_Session_ID@ @NotFound@").asRuntimeException();
+		}
+		//	Signed token, verified without database (only when tokens are enabled)
+		if(SignedSessionToken.isToken(sessionUuid)) {
+			if(!SignedSessionToken.isEnabled()) {
+				throw Status.UNAUTHENTICATED.withDescription("@AD_Session_ID@ @NotFound@").asRuntimeException();
+			}
+			return getSessionContextFromToken(sessionUuid);
+		}
+		SessionContext sessionContext = sessionsContext.get(sessionUuid);
+		if(sessionContext != null) {
+			return verifySession(sessionUuid, sessionContext);
+		}
+		//	New snapshot, the context of thread has values of last session attended by thread
+		Properties context = new Properties();
 		DB.validateSupportedUUIDFromDB();
 		MSession session = new Query(context, I_AD_Session.Table_Name, I_AD_Session.COLUMNNAME_UUID + " = ?", null)
 				.setParameters(sessionUuid)
 				.first();
 		if(session == null
-				|| session.getAD_Session_ID() <= 0) {
-			throw new AdempiereException("@AD_Session_ID@ @NotFound@");
+				|| session.getAD_Session_ID() <= 0
+				|| session.isProcessed()) {
+			throw Status.UNAUTHENTICATED.withDescription("@AD_Session_ID@ @NotFound@").asRuntimeException();
 		}
 		Env.setContext (context, "#AD_Session_ID", session.getAD_Session_ID());
 		Env.setContext(context, "#AD_User_ID", session.getCreatedBy());
 		Env.setContext(context, "#AD_Role_ID", session.getAD_Role_ID());
 		Env.setContext(context, "#AD_Client_ID", session.getAD_Client_ID());
-		setDefault(context, session.getAD_Org_ID(), organizationUuid, warehouseUuid);
+		Env.setContext(context, "#AD_Org_ID", session.getAD_Org_ID());
 		Env.setContext(context, "#Date", new Timestamp(System.currentTimeMillis()));
-		Env.setContext(context, Env.LANGUAGE, getDefaultLanguage(language));
+		sessionContext = new SessionContext(sessionUuid, session.getAD_Org_ID(), context);
 		//	Save to Cache
-		sessionsContext.put(sessionUuid, context);
-		Env.setCtx((Properties) context.clone());
-		return context;
+		sessionsContext.put(sessionUuid, sessionContext);
+		return sessionContext;
 	}
 	
 	/**
-	 * Set Default warehouse and organization
+	 * Get session snapshot from values of a signed token, the token is verified always
+	 * (expiration and revocation) and the snapshot is taken from cache
+	 * @param token
+	 * @throws StatusRuntimeException UNAUTHENTICATED if token is not valid, expired or revoked
+	 * @return
+	 */
+	private static SessionContext getSessionContextFromToken(String token) {
+		SignedSessionToken sessionToken = SignedSessionToken.verify(token);
+		if(sessionToken == null) {
+			throw Status.UNAUTHENTICATED.withDescription("@AD_Session_ID@ @NotFound@").asRuntimeException();
+		}
+		//	The signature is not enough: the session can be closed on other node
+		if(!isSessionOpen(sessionToken.getSessionId())) {
+			SignedSessionToken.revoke(sessionToken.getSessionId());
+			sessionsContext.remove(token);
+			throw Status.UNAUTHENTICATED.withDescription("@AD_Session_ID@ @NotFound@").asRuntimeException();
+		}
+		SessionContext sessionContext = sessionsContext.get(token);
+		if(sessionContext != null) {
+			return sessionContext;
+		}
+		//	New snapshot, the context of thread has values of last session attended by thread
+		Properties context = new Properties();
+		Env.setContext (context, "#AD_Session_ID", sessionToken.getSessionId());
+		Env.setContext(context, "#AD_User_ID", sessionToken.getUserId());
+		Env.setContext(context, "#AD_Role_ID", sessionToken.getRoleId());
+		Env.setContext(context, "#AD_Client_ID", sessionToken.getClientId());
+		Env.setContext(context, "#AD_Org_ID", sessionToken.getOrganizationId());
+		Env.setContext(context, "#Date", new Timestamp(System.currentTimeMillis()));
+		sessionContext = new SessionContext(token, sessionToken.getOrganizationId(), context);
+		sessionsContext.put(token, sessionContext);
+		return sessionContext;
+	}
+	
+	/**
+	 * Verify that session of a context cached is not closed (logout on other node)
+	 * @param sessionUuid
+	 * @param sessionContext
+	 * @throws StatusRuntimeException UNAUTHENTICATED if session is closed
+	 * @return
+	 */
+	private static SessionContext verifySession(String sessionUuid, SessionContext sessionContext) {
+		String sessionId = sessionContext.getValue("#AD_Session_ID");
+		if(Util.isEmpty(sessionId)
+				|| isSessionOpen(Integer.parseInt(sessionId))) {
+			return sessionContext;
+		}
+		sessionsContext.remove(sessionUuid);
+		throw Status.UNAUTHENTICATED.withDescription("@AD_Session_ID@ @NotFound@").asRuntimeException();
+	}
+	
+	/**
+	 * Verify if session is open (not revoked and not processed on database), the result is kept
+	 * for 1 minute then a logout on other node is known without propagation of store
+	 * @param sessionId
+	 * @return
+	 */
+	private static boolean isSessionOpen(int sessionId) {
+		if(sessionId <= 0
+				|| SignedSessionToken.isRevoked(sessionId)) {
+			return false;
+		}
+		Boolean isOpen = openSessions.get(sessionId);
+		if(isOpen == null) {
+			String processed = DB.getSQLValueString(null, "SELECT Processed FROM " + I_AD_Session.Table_Name + " WHERE " + I_AD_Session.COLUMNNAME_AD_Session_ID + " = ?", sessionId);
+			isOpen = "N".equals(processed);
+			openSessions.put(sessionId, isOpen);
+		}
+		return isOpen;
+	}
+	
+	/**
+	 * Get organization of request
 	 * @param context
 	 * @param defaultOrganizationId
 	 * @param organizationUuid
+	 * @return
+	 */
+	private static int getOrganizationId(Properties context, int defaultOrganizationId, String organizationUuid) {
+		if(Util.isEmpty(organizationUuid)) {
+			return defaultOrganizationId;
+		}
+		MOrg organization = organizationCache.get(organizationUuid);
+		if(organization == null) {
+			organization = new Query(context, I_AD_Org.Table_Name, I_AD_Org.COLUMNNAME_UUID + " = ?", null)
+					.setParameters(organizationUuid)
+					.first();
+		}
+		//	
+		if(organization == null) {
+			return defaultOrganizationId;
+		}
+		organizationCache.put(organizationUuid, organization);
+		return organization.getAD_Org_ID();
+	}
+	
+	/**
+	 * Get warehouse of request
+	 * @param context
 	 * @param warehouseUuid
+	 * @return 0 if request has not warehouse
 	 */
-	private static void setDefault(Properties context, int defaultOrganizationId, String organizationUuid, String warehouseUuid) {
-		int organizationId = defaultOrganizationId;
-		if(!Util.isEmpty(organizationUuid)) {
-			MOrg organization = organizationCache.get(organizationUuid);
-			if(organization == null) {
-				organization = new Query(context, I_AD_Org.Table_Name, I_AD_Org.COLUMNNAME_UUID + " = ?", null)
-						.setParameters(organizationUuid)
-						.first();
-			}
-			//	
-			if(organization != null) {
-				organizationId = organization.getAD_Org_ID();
-				organizationCache.put(organizationUuid, organization);
-			}
+	private static int getWarehouseId(Properties context, String warehouseUuid) {
+		if(Util.isEmpty(warehouseUuid)) {
+			return 0;
 		}
-		if(!Util.isEmpty(warehouseUuid)) {
-			MWarehouse warehouse = warehouseCache.get(warehouseUuid);
-			if(warehouse == null) {
-				warehouse = new Query(context, I_M_Warehouse.Table_Name, I_M_Warehouse.COLUMNNAME_UUID + " = ?", null)
-						.setParameters(warehouseUuid)
-						.first();
-			}
-			//	
-			if(warehouse != null) {
-				warehouseCache.put(warehouseUuid, warehouse);
-				Env.setContext(context, "#M_Warehouse_ID", organizationId);
-			}
+		MWarehouse warehouse = warehouseCache.get(warehouseUuid);
+		if(warehouse == null) {
+			warehouse = new Query(context, I_M_Warehouse.Table_Name, I_M_Warehouse.COLUMNNAME_UUID + " = ?", null)
+					.setParameters(warehouseUuid)
+					.first();
+		}
+		//	
+		if(warehouse == null) {
+			return 0;
 		}
-		Env.setContext(context, "#AD_Org_ID", organizationId);
+		warehouseCache.put(warehouseUuid, warehouse);
+		return warehouse.getM_Warehouse_ID();
 	}
 	
 	/**
@@ -16,6 +16,8 @@
 package org.spin.base.util;
 
 import java.math.BigDecimal;
+import java.sql.ResultSet;
+import java.sql.SQLException;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
@@ -24,7 +26,6 @@ import java.util.Properties;
 import java.util.concurrent.atomic.AtomicReference;
 import java.util.stream.Collectors;
 
-import org.compiere.model.I_AD_Element;
 import org.compiere.model.I_AD_Ref_List;
 import org.compiere.model.I_AD_User;
 import org.compiere.model.I_C_Bank;
@@ -70,11 +71,12 @@ import org.compiere.model.MUOM;
 import org.compiere.model.MUser;
 import org.compiere.model.MWarehouse;
 import org.compiere.model.PO;
-import org.compiere.model.POInfo;
 import org.compiere.model.Query;
 import org.compiere.util.Env;
 import org.compiere.util.MimeType;
 import org.compiere.util.Util;
+import org.spin.base.metrics.CallTiming;
+import org.spin.base.metrics.CallTiming.Phase;
 import org.spin.grpc.util.Address;
 import org.spin.grpc.util.Attachment;
 import org.spin.grpc.util.AvailableSeller;
@@ -106,7 +108,6 @@ import org.spin.grpc.util.SalesRepresentative;
 import org.spin.grpc.util.Shipment;
 import org.spin.grpc.util.ShipmentLine;
 import org.spin.grpc.util.TaxRate;
-import org.spin.grpc.util.Value;
 import org.spin.grpc.util.Warehouse;
 import org.spin.grpc.util.ChatEntry.ModeratorStatus;
 import org.spin.model.I_C_PaymentMethod;
@@ -206,29 +207,48 @@ public class ConvertUtil {
 		if(entity == null) {
 			return builder;
 		}
-		builder.setUuid(ValueUtil.validateNull(entity.get_ValueAsString(I_AD_Element.COLUMNNAME_UUID)))
-			.setId(entity.get_ID());
-		//	Convert attributes
-		POInfo poInfo = POInfo.getPOInfo(Env.getCtx(), entity.get_Table_ID());
-		builder.setTableName(ValueUtil.validateNull(poInfo.getTableName()));
-		for(int index = 0; index < poInfo.getColumnCount(); index++) {
-			String columnName = poInfo.getColumnName(index);
-			int referenceId = poInfo.getColumnDisplayType(index);
-			Object value = entity.get_Value(index);
-			if(value == null) {
-				continue;
-			}
-			Value.Builder builderValue = ValueUtil.getValueFromReference(value, referenceId);
-			if(builderValue == null) {
-				continue;
-			}
-			//	Add
-			builder.putValues(columnName, builderValue.build());
+		try (CallTiming.Scope scope = CallTiming.start(Phase.CONVERSION)) {
+			return EntityConversionPlan.forTable(entity.get_Table_ID()).convert(entity);
+		}
+	}
+	
+	/**
+	 * Write identifier and values of entity
+	 * @param entity
+	 * @param writer entity or columns of list
+	 */
+	public static void writeEntity(PO entity, RecordWriter writer) {
+		EntityConversionPlan.forTable(entity.get_Table_ID()).write(entity, writer);
+	}
+	
+	/**
+	 * Convert current row of a projected query (see {@link ColumnProjection}) to Value Object,
+	 * only the columns included on projection are converted
+	 * @param resultSet
+	 * @param projection
+	 * @return
+	 * @throws SQLException
+	 */
+	public static Entity.Builder convertEntity(ResultSet resultSet, ColumnProjection projection) throws SQLException {
+		Entity.Builder builder = Entity.newBuilder();
+		try (CallTiming.Scope scope = CallTiming.start(Phase.CONVERSION)) {
+			writeEntity(resultSet, projection, RecordWriter.forEntity(builder));
 		}
 		//	
 		return builder;
 	}
 	
+	/**
+	 * Write identifier and values of current row of a projected query
+	 * @param resultSet
+	 * @param projection
+	 * @param writer entity or columns of list
+	 * @throws SQLException
+	 */
+	public static void writeEntity(ResultSet resultSet, ColumnProjection projection, RecordWriter writer) throws SQLException {
+		EntityConversionPlan.forProjection(resultSet.getMetaData(), projection).write(resultSet, writer);
+	}
+	
 	/**
 	 * Convert Document Action
 	 * @param value
@@ -324,14 +344,19 @@ public class ConvertUtil {
 		builder
 			.setUuid(ValueUtil.validateNull(conversionRate.getUUID()))
 			.setId(conversionRate.getC_Conversion_Rate_ID())
-			.setValidFrom(ValueUtil.validateNull(ValueUtil.convertDateToString(conversionRate.getValidFrom())))
 			.setConversionTypeUuid(ValueUtil.validateNull(RecordUtil.getUuidFromId(I_C_ConversionType.Table_Name, conversionRate.getC_ConversionType_ID())))
 			.setCurrencyFrom(convertCurrency(MCurrency.get(Env.getCtx(), conversionRate.getC_Currency_ID())))
 			.setCurrencyTo(convertCurrency(MCurrency.get(Env.getCtx(), conversionRate.getC_Currency_ID_To())))
 			.setMultiplyRate(ValueUtil.getDecimalFromBigDecimal(conversionRate.getMultiplyRate()))
 			.setDivideRate(ValueUtil.getDecimalFromBigDecimal(conversionRate.getDivideRate()));
-		if(conversionRate.getValidTo() != null) {
-			builder.setValidTo(ValueUtil.validateNull(ValueUtil.convertDateToString(conversionRate.getValidTo())));
+		if(ValueEncoding.isCompact()) {
+			builder.setValidFromMillis(ValueUtil.getLongFromDate(conversionRate.getValidFrom()))
+				.setValidToMillis(ValueUtil.getLongFromDate(conversionRate.getValidTo()));
+		} else {
+			builder.setValidFrom(ValueUtil.validateNull(ValueUtil.convertDateToString(conversionRate.getValidFrom())));
+			if(conversionRate.getValidTo() != null) {
+				builder.setValidTo(ValueUtil.validateNull(ValueUtil.convertDateToString(conversionRate.getValidTo())));
+			}
 		}
 		//	
 		return builder;
@@ -529,6 +554,19 @@ public class ConvertUtil {
 		if(order == null) {
 			return builder;
 		}
+		//	Lines and payments are loaded here, then it include the SQL of them
+		try (CallTiming.Scope scope = CallTiming.start(Phase.CONVERSION)) {
+			return convertOrder(builder, order);
+		}
+	}
+	
+	/**
+	 * Fill builder with values of order
+	 * @param builder
+	 * @param order
+	 * @return
+	 */
+	private static Order.Builder convertOrder(Order.Builder builder, MOrder order) {
 		MRefList reference = MRefList.get(Env.getCtx(), MOrder.DOCSTATUS_AD_REFERENCE_ID, order.getDocStatus(), null);
 		MPriceList priceList = MPriceList.get(Env.getCtx(), order.getM_PriceList_ID(), order.get_TrxName());
 		BigDecimal baseAmount = Arrays.asList(order.getLines()).stream().map(orderLine -> Optional.ofNullable(orderLine.getPriceList()).orElse(Env.ZERO)).reduce(BigDecimal.ZERO, BigDecimal::add);
@@ -554,6 +592,12 @@ public class ConvertUtil {
 		BigDecimal openAmount = (grandTotal.subtract(paymentAmount).compareTo(Env.ZERO) < 0? Env.ZERO: grandTotal.subtract(paymentAmount));
 		BigDecimal refundAmount = (grandTotal.subtract(paymentAmount).compareTo(Env.ZERO) > 0? Env.ZERO: grandTotal.subtract(paymentAmount).negate());
 		BigDecimal displayCurrencyRate = getDisplayConversionRateFromOrder(order);
+		//	Date as text or as epoch millis
+		if(ValueEncoding.isCompact()) {
+			builder.setDateOrderedMillis(ValueUtil.getLongFromDate(order.getDateOrdered()));
+		} else {
+			builder.setDateOrdered(ValueUtil.validateNull(ValueUtil.convertDateToString(order.getDateOrdered())));
+		}
 		//	Convert
 		return builder
 			.setUuid(ValueUtil.validateNull(order.getUUID()))
@@ -578,7 +622,6 @@ public class ConvertUtil {
 			.setPaymentAmount(ValueUtil.getDecimalFromBigDecimal(paymentAmount.setScale(priceList.getStandardPrecision(), BigDecimal.ROUND_HALF_UP)))
 			.setOpenAmount(ValueUtil.getDecimalFromBigDecimal(openAmount.setScale(priceList.getStandardPrecision(), BigDecimal.ROUND_HALF_UP)))
 			.setRefundAmount(ValueUtil.getDecimalFromBigDecimal(refundAmount.setScale(priceList.getStandardPrecision(), BigDecimal.ROUND_HALF_UP)))
-			.setDateOrdered(ValueUtil.convertDateToString(order.getDateOrdered()))
 			.setCustomer(convertCustomer((MBPartner) order.getC_BPartner()))
 			.setCampaignUuid(ValueUtil.validateNull(RecordUtil.getUuidFromId(I_C_Campaign.Table_Name, order.getC_Campaign_ID())));
 	}
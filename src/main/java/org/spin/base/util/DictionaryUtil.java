@@ -47,8 +47,19 @@ public class DictionaryUtil {
 	 * @return
 	 */
 	public static String getQueryWithReferencesFromTab(MTab tab) {
+		return getQueryWithReferencesFromTab(tab, ColumnProjection.forTable(MTable.get(Env.getCtx(), tab.getAD_Table_ID()), null));
+	}
+	
+	/**
+	 * Add references to query from tab, only columns of projection are read
+	 * (the references are joined only for these columns)
+	 * @param tab
+	 * @param projection
+	 * @return
+	 */
+	public static String getQueryWithReferencesFromTab(MTab tab, ColumnProjection projection) {
 		MTable table = MTable.get(Env.getCtx(), tab.getAD_Table_ID());
-		String originalQuery = "SELECT " + table.getTableName() + ".* FROM " + table.getTableName() + " AS " + table.getTableName() + " ";
+		String originalQuery = "SELECT " + projection.getSelectList(table.getTableName()) + " FROM " + table.getTableName() + " AS " + table.getTableName() + " ";
 		int fromIndex = originalQuery.toUpperCase().indexOf(" FROM ");
 		StringBuffer queryToAdd = new StringBuffer(originalQuery.substring(0, fromIndex));
 		StringBuffer joinsToAdd = new StringBuffer(originalQuery.substring(fromIndex, originalQuery.length() - 1));
@@ -58,6 +69,9 @@ public class DictionaryUtil {
 				continue;
 			}
 			MColumn column = MColumn.get(Env.getCtx(), field.getAD_Column_ID());
+			if(!projection.isIncluded(column.getColumnName())) {
+				continue;
+			}
 			int displayTypeId = field.getAD_Reference_ID();
 			if(displayTypeId == 0) {
 				displayTypeId = column.getAD_Reference_ID();
@@ -0,0 +1,148 @@
+/*************************************************************************************
+ * Product: Adempiere ERP & CRM Smart Business Solution                              *
+ * This program is free software; you can redistribute it and/or modify it    		 *
+ * under the terms version 2 or later of the GNU General Public License as published *
+ * by the Free Software Foundation. This program is distributed in the hope   		 *
+ * that it will be useful, but WITHOUT ANY WARRANTY; without even the implied 		 *
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.           		 *
+ * See the GNU General Public License for more details.                       		 *
+ * You should have received a copy of the GNU General Public License along    		 *
+ * with this program; if not, write to the Free Software Foundation, Inc.,    		 *
+ * 59 Temple Place, Suite 330, Boston, MA 02111-1307 USA.                     		 *
+ * For the text or an alternative of this public license, you may reach us    		 *
+ * Copyright (C) 2012-2018 E.R.P. Consultores y Asociados, S.A. All Rights Reserved. *
+ * Contributor(s): Yamel Senih www.erpya.com				  		                 *
+ *************************************************************************************/
+package org.spin.base.util;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+import com.google.protobuf.MessageLite;
+
+/**
+ * Records encoded by {@link EncodedRecordsWriter} for a response. The records are attached to the builder
+ * of response and then to the message built, the marshaller of server take them when the message is sent
+ * and write them after the bytes of message (a repeated field can be sent after other fields on wire format).
+ * The message and its records are sent on the same thread, then the pending records are kept by thread.
+ * @author Yamel Senih, ysenih@erpya.com , http://www.erpya.com
+ */
+public final class EncodedRecords {
+	/**	Pending records of thread	*/
+	private static final ThreadLocal<EncodedRecords> pending = new ThreadLocal<>();
+	/**	Buffers with records	*/
+	private final EncodedRecordsWriter.Buffers buffers;
+	/**	Quantity of records	*/
+	private final int recordCount;
+	/**	Builder or message of response	*/
+	private Object owner;
+	/**	Buffers are released	*/
+	private boolean isReleased = false;
+	
+	EncodedRecords(EncodedRecordsWriter.Buffers buffers, int recordCount) {
+		this.buffers = buffers;
+		this.recordCount = recordCount;
+	}
+	
+	/**
+	 * Attach records to builder of response, a previous response not sent is discarded
+	 * @param builder
+	 */
+	public void attachTo(MessageLite.Builder builder) {
+		EncodedRecords previous = pending.get();
+		if(previous != null
+				&& previous != this) {
+			previous.release();
+		}
+		owner = builder;
+		pending.set(this);
+	}
+	
+	/**
+	 * Build message of response and move the records attached to builder to message
+	 * @param builder
+	 * @return
+	 */
+	@SuppressWarnings("unchecked")
+	public static <M extends MessageLite> M build(MessageLite.Builder builder) {
+		M message = (M) builder.build();
+		EncodedRecords records = pending.get();
+		if(records != null
+				&& records.owner == builder) {
+			records.owner = message;
+		}
+		return message;
+	}
+	
+	/**
+	 * Take records of a message to send
+	 * @param message
+	 * @return null if message does not have records encoded
+	 */
+	public static EncodedRecords take(Object message) {
+		EncodedRecords records = pending.get();
+		if(records == null
+				|| records.owner != message) {
+			return null;
+		}
+		pending.remove();
+		return records;
+	}
+	
+	/**
+	 * Get quantity of records
+	 * @return
+	 */
+	public int getRecordCount() {
+		return recordCount;
+	}
+	
+	/**
+	 * Get size of records on bytes
+	 * @return
+	 */
+	public int getSize() {
+		return buffers.getSize();
+	}
+	
+	/**
+	 * Write records to stream
+	 * @param output
+	 * @throws IOException
+	 */
+	public void writeTo(OutputStream output) throws IOException {
+		output.write(buffers.getData(), 0, buffers.getSize());
+	}
+	
+	/**
+	 * Get byte of records
+	 * @param position
+	 * @return
+	 */
+	public int getByte(int position) {
+		return buffers.getData()[position] & 0xFF;
+	}
+	
+	/**
+	 * Copy records to array
+	 * @param position position on records
+	 * @param target
+	 * @param offset
+	 * @param length
+	 */
+	public void copyTo(int position, byte[] target, int offset, int length) {
+		System.arraycopy(buffers.getData(), position, target, offset, length);
+	}
+	
+	/**
+	 * Release buffers for next response of thread
+	 */
+	public void release() {
+		if(isReleased) {
+			return;
+		}
+		isReleased = true;
+		owner = null;
+		buffers.release();
+	}
+}
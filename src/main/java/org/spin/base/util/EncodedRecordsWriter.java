@@ -0,0 +1,524 @@
+/*************************************************************************************
+ * Product: Adempiere ERP & CRM Smart Business Solution                              *
+ * This program is free software; you can redistribute it and/or modify it    		 *
+ * under the terms version 2 or later of the GNU General Public License as published *
+ * by the Free Software Foundation. This program is distributed in the hope   		 *
+ * that it will be useful, but WITHOUT ANY WARRANTY; without even the implied 		 *
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.           		 *
+ * See the GNU General Public License for more details.                       		 *
+ * You should have received a copy of the GNU General Public License along    		 *
+ * with this program; if not, write to the Free Software Foundation, Inc.,    		 *
+ * 59 Temple Place, Suite 330, Boston, MA 02111-1307 USA.                     		 *
+ * For the text or an alternative of this public license, you may reach us    		 *
+ * Copyright (C) 2012-2018 E.R.P. Consultores y Asociados, S.A. All Rights Reserved. *
+ * Contributor(s): Yamel Senih www.erpya.com				  		                 *
+ *************************************************************************************/
+package org.spin.base.util;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.sql.Timestamp;
+import java.util.Arrays;
+
+import org.adempiere.exceptions.AdempiereException;
+import org.compiere.util.DisplayType;
+import org.spin.grpc.util.Value.ValueType;
+
+import com.google.protobuf.CodedOutputStream;
+import com.google.protobuf.WireFormat;
+
+import io.grpc.Context;
+
+/**
+ * Writer of records (Entity or LookupItem) encoded directly on wire format while the result set is read,
+ * without builders of entities and values. The records are written on buffers of thread (reused by calls)
+ * and sent after the other fields of response by the marshaller of server (see {@link EncodedRecords}):
+ * <pre>
+ * EncodedRecordsWriter writer = EncodedRecordsWriter.start(ListEntitiesResponse.RECORDS_FIELD_NUMBER);
+ * while(resultSet.next()) {
+ *     writer.addRecord();
+ *     plan.write(resultSet, writer);
+ * }
+ * writer.finish().attachTo(builder);
+ * ...
+ * responseObserver.onNext(EncodedRecords.build(builder));
+ * </pre>
+ * The values are same of {@link ValueUtil#getValueFromReference(Object, int)} and {@link RecordWriter#forEntity}.
+ * It is used only when the call support it ({@link #isEnabled()}), the server marks the calls that have the marshaller.
+ * @author Yamel Senih, ysenih@erpya.com , http://www.erpya.com
+ */
+public final class EncodedRecordsWriter implements RecordWriter {
+	/**	Key on gRPC context, true when the marshaller of call send encoded records	*/
+	public static final Context.Key<Boolean> ENABLED_KEY = Context.keyWithDefault("adempiere-encoded-records", Boolean.FALSE);
+	/**	Buffers of thread	*/
+	private static final ThreadLocal<Buffers> pool = ThreadLocal.withInitial(Buffers::new);
+	/**	Fields of record (Entity and LookupItem)	*/
+	private static final int ID_FIELD = 1;
+	private static final int UUID_FIELD = 2;
+	private static final int TABLE_NAME_FIELD = 3;
+	private static final int VALUES_FIELD = 4;
+	/**	Fields of map entry	*/
+	private static final int KEY_FIELD = 1;
+	private static final int VALUE_FIELD = 2;
+	
+	/**	Field of records on response	*/
+	private final int fieldNumber;
+	/**	Buffers used	*/
+	private final Buffers buffers;
+	/**	Decimals as unscaled value	*/
+	private final boolean isCompact;
+	/**	Value of current cell	*/
+	private final CellValue cell = new CellValue();
+	/**	A record is open	*/
+	private boolean isRecordOpen = false;
+	/**	Records written	*/
+	private int recordCount = 0;
+	
+	private EncodedRecordsWriter(int fieldNumber, Buffers buffers) {
+		this.fieldNumber = fieldNumber;
+		this.buffers = buffers;
+		this.isCompact = ValueEncoding.isCompact();
+	}
+	
+	/**
+	 * Verify if current call send encoded records
+	 * @return
+	 */
+	public static boolean isEnabled() {
+		return ENABLED_KEY.get();
+	}
+	
+	/**
+	 * Start a writer with buffers of thread
+	 * @param fieldNumber field of records on response
+	 * @return
+	 */
+	public static EncodedRecordsWriter start(int fieldNumber) {
+		Buffers buffers = pool.get();
+		if(buffers.isInUse) {
+			//	Records of previous response are not sent yet (or it failed), they keep its buffers
+			buffers = new Buffers();
+			pool.set(buffers);
+		}
+		buffers.acquire();
+		return new EncodedRecordsWriter(fieldNumber, buffers);
+	}
+	
+	/**
+	 * Start a new record, the values set after it are of this record
+	 */
+	public void addRecord() {
+		closeRecord();
+		isRecordOpen = true;
+		recordCount++;
+	}
+	
+	/**
+	 * Get records added
+	 * @return
+	 */
+	public int getRecordCount() {
+		return recordCount;
+	}
+	
+	@Override
+	public void setIdentifier(int id, String uuid, String tableName) {
+		openRecord();
+		try {
+			CodedOutputStream output = buffers.recordOutput;
+			if(id != 0) {
+				output.writeInt32(ID_FIELD, id);
+			}
+			if(!isEmpty(uuid)) {
+				output.writeString(UUID_FIELD, uuid);
+			}
+			if(!isEmpty(tableName)) {
+				output.writeString(TABLE_NAME_FIELD, tableName);
+			}
+		} catch (IOException e) {
+			throw new AdempiereException(e);
+		}
+	}
+	
+	@Override
+	public void setValue(String columnName, Object value, int referenceId) {
+		cell.setFromReference(value, referenceId, isCompact);
+		writeCell(columnName);
+	}
+	
+	@Override
+	public void setString(String columnName, String value) {
+		cell.setString(value);
+		writeCell(columnName);
+	}
+	
+	/**
+	 * Finish records, the buffers are kept until the records are sent
+	 * @return
+	 */
+	public EncodedRecords finish() {
+		closeRecord();
+		try {
+			buffers.recordsOutput.flush();
+		} catch (IOException e) {
+			throw new AdempiereException(e);
+		}
+		return new EncodedRecords(buffers, recordCount);
+	}
+	
+	/**
+	 * Open a record when values are set without addRecord
+	 */
+	private void openRecord() {
+		if(!isRecordOpen) {
+			addRecord();
+		}
+	}
+	
+	/**
+	 * Copy current record to records with its tag and length
+	 */
+	private void closeRecord() {
+		if(!isRecordOpen) {
+			return;
+		}
+		isRecordOpen = false;
+		try {
+			buffers.recordOutput.flush();
+			Buffer record = buffers.record;
+			CodedOutputStream output = buffers.recordsOutput;
+			output.writeTag(fieldNumber, WireFormat.WIRETYPE_LENGTH_DELIMITED);
+			output.writeUInt32NoTag(record.size);
+			output.writeRawBytes(record.data, 0, record.size);
+			record.reset();
+		} catch (IOException e) {
+			throw new AdempiereException(e);
+		}
+	}
+	
+	/**
+	 * Write current cell as entry of values map
+	 * @param columnName
+	 */
+	private void writeCell(String columnName) {
+		openRecord();
+		try {
+			int valueSize = cell.getSerializedSize();
+			int entrySize = CodedOutputStream.computeStringSize(KEY_FIELD, columnName)
+					+ CodedOutputStream.computeTagSize(VALUE_FIELD)
+					+ CodedOutputStream.computeUInt32SizeNoTag(valueSize)
+					+ valueSize;
+			CodedOutputStream output = buffers.recordOutput;
+			output.writeTag(VALUES_FIELD, WireFormat.WIRETYPE_LENGTH_DELIMITED);
+			output.writeUInt32NoTag(entrySize);
+			output.writeString(KEY_FIELD, columnName);
+			output.writeTag(VALUE_FIELD, WireFormat.WIRETYPE_LENGTH_DELIMITED);
+			output.writeUInt32NoTag(valueSize);
+			cell.writeTo(output);
+		} catch (IOException e) {
+			throw new AdempiereException(e);
+		}
+	}
+	
+	private static boolean isEmpty(String value) {
+		return value == null
+				|| value.isEmpty();
+	}
+	
+	/**
+	 * Value of a cell, fields of Value (and Decimal) message
+	 */
+	private static final class CellValue {
+		private static final int INT_VALUE_FIELD = 1;
+		private static final int LONG_VALUE_FIELD = 2;
+		private static final int BOOLEAN_VALUE_FIELD = 3;
+		private static final int STRING_VALUE_FIELD = 4;
+		private static final int DECIMAL_VALUE_FIELD = 5;
+		private static final int VALUE_TYPE_FIELD = 6;
+		private static final int DECIMAL_TEXT_FIELD = 1;
+		private static final int DECIMAL_SCALE_FIELD = 2;
+		private static final int DECIMAL_UNSCALED_VALUE_FIELD = 3;
+		private static final int DECIMAL_UNSCALED_BYTES_FIELD = 4;
+		
+		private ValueType valueType;
+		private int intValue;
+		private long longValue;
+		private boolean booleanValue;
+		private String stringValue;
+		private boolean hasDecimal;
+		private String decimalText;
+		private int decimalScale;
+		private boolean hasUnscaledValue;
+		private long unscaledValue;
+		private byte[] unscaledBytes;
+		
+		private void clear() {
+			valueType = ValueType.UNKNOWN;
+			intValue = 0;
+			longValue = 0;
+			booleanValue = false;
+			stringValue = null;
+			hasDecimal = false;
+			decimalText = null;
+			decimalScale = 0;
+			hasUnscaledValue = false;
+			unscaledValue = 0;
+			unscaledBytes = null;
+		}
+		
+		/**
+		 * Set value as {@link ValueUtil#getValueFromReference(Object, int)}
+		 * @param value
+		 * @param referenceId
+		 * @param isCompact
+		 */
+		private void setFromReference(Object value, int referenceId, boolean isCompact) {
+			clear();
+			if(value == null) {
+				return;
+			}
+			if(ValueUtil.isLookup(referenceId)
+					|| DisplayType.isID(referenceId)) {
+				setFromObject(value, isCompact);
+			} else if(DisplayType.Integer == referenceId) {
+				valueType = ValueType.INTEGER;
+				if(value instanceof Integer) {
+					intValue = (Integer) value;
+				} else if(value instanceof BigDecimal) {
+					intValue = ((BigDecimal) value).intValue();
+				}
+			} else if(DisplayType.isNumeric(referenceId)) {
+				setDecimal((BigDecimal) value, isCompact);
+			} else if(DisplayType.YesNo == referenceId) {
+				valueType = ValueType.BOOLEAN;
+				booleanValue = value instanceof String
+						? "Y".equals(value)
+						: (Boolean) value;
+			} else if(DisplayType.isDate(referenceId)) {
+				valueType = ValueType.DATE;
+				longValue = ((Timestamp) value).getTime();
+			} else if(DisplayType.isText(referenceId)) {
+				setString((String) value);
+			}
+		}
+		
+		/**
+		 * Set value as {@link ValueUtil#getValueFromObject(Object)}
+		 * @param value
+		 * @param isCompact
+		 */
+		private void setFromObject(Object value, boolean isCompact) {
+			if(value instanceof BigDecimal) {
+				setDecimal((BigDecimal) value, isCompact);
+			} else if (value instanceof Integer) {
+				valueType = ValueType.INTEGER;
+				intValue = (Integer) value;
+			} else if (value instanceof String) {
+				setString((String) value);
+			} else if (value instanceof Boolean) {
+				valueType = ValueType.BOOLEAN;
+				booleanValue = (Boolean) value;
+			} else if(value instanceof Timestamp) {
+				valueType = ValueType.DATE;
+				longValue = ((Timestamp) value).getTime();
+			}
+		}
+		
+		/**
+		 * Set value as {@link ValueUtil#getValueFromString(String)}
+		 * @param value
+		 */
+		private void setString(String value) {
+			clear();
+			valueType = ValueType.STRING;
+			stringValue = value;
+		}
+		
+		/**
+		 * Set value as {@link ValueUtil#getValueFromDecimal(BigDecimal)}
+		 * @param value
+		 * @param isCompact
+		 */
+		private void setDecimal(BigDecimal value, boolean isCompact) {
+			valueType = ValueType.DECIMAL;
+			hasDecimal = true;
+			decimalScale = value.scale();
+			if(isCompact) {
+				BigInteger unscaled = value.unscaledValue();
+				if(unscaled.bitLength() <= 63) {
+					hasUnscaledValue = true;
+					unscaledValue = unscaled.longValue();
+				} else {
+					unscaledBytes = unscaled.toByteArray();
+				}
+			} else {
+				decimalText = value.toPlainString();
+			}
+		}
+		
+		private int getDecimalSize() {
+			int size = 0;
+			if(!isEmpty(decimalText)) {
+				size += CodedOutputStream.computeStringSize(DECIMAL_TEXT_FIELD, decimalText);
+			}
+			if(decimalScale != 0) {
+				size += CodedOutputStream.computeInt32Size(DECIMAL_SCALE_FIELD, decimalScale);
+			}
+			if(hasUnscaledValue) {
+				size += CodedOutputStream.computeInt64Size(DECIMAL_UNSCALED_VALUE_FIELD, unscaledValue);
+			}
+			if(unscaledBytes != null) {
+				size += CodedOutputStream.computeByteArraySize(DECIMAL_UNSCALED_BYTES_FIELD, unscaledBytes);
+			}
+			return size;
+		}
+		
+		private int getSerializedSize() {
+			int size = 0;
+			if(intValue != 0) {
+				size += CodedOutputStream.computeInt32Size(INT_VALUE_FIELD, intValue);
+			}
+			if(longValue != 0) {
+				size += CodedOutputStream.computeInt64Size(LONG_VALUE_FIELD, longValue);
+			}
+			if(booleanValue) {
+				size += CodedOutputStream.computeBoolSize(BOOLEAN_VALUE_FIELD, booleanValue);
+			}
+			if(!isEmpty(stringValue)) {
+				size += CodedOutputStream.computeStringSize(STRING_VALUE_FIELD, stringValue);
+			}
+			if(hasDecimal) {
+				int decimalSize = getDecimalSize();
+				size += CodedOutputStream.computeTagSize(DECIMAL_VALUE_FIELD)
+						+ CodedOutputStream.computeUInt32SizeNoTag(decimalSize)
+						+ decimalSize;
+			}
+			if(valueType != ValueType.UNKNOWN) {
+				size += CodedOutputStream.computeEnumSize(VALUE_TYPE_FIELD, valueType.getNumber());
+			}
+			return size;
+		}
+		
+		private void writeTo(CodedOutputStream output) throws IOException {
+			if(intValue != 0) {
+				output.writeInt32(INT_VALUE_FIELD, intValue);
+			}
+			if(longValue != 0) {
+				output.writeInt64(LONG_VALUE_FIELD, longValue);
+			}
+			if(booleanValue) {
+				output.writeBool(BOOLEAN_VALUE_FIELD, booleanValue);
+			}
+			if(!isEmpty(stringValue)) {
+				output.writeString(STRING_VALUE_FIELD, stringValue);
+			}
+			if(hasDecimal) {
+				output.writeTag(DECIMAL_VALUE_FIELD, WireFormat.WIRETYPE_LENGTH_DELIMITED);
+				output.writeUInt32NoTag(getDecimalSize());
+				if(!isEmpty(decimalText)) {
+					output.writeString(DECIMAL_TEXT_FIELD, decimalText);
+				}
+				if(decimalScale != 0) {
+					output.writeInt32(DECIMAL_SCALE_FIELD, decimalScale);
+				}
+				if(hasUnscaledValue) {
+					output.writeInt64(DECIMAL_UNSCALED_VALUE_FIELD, unscaledValue);
+				}
+				if(unscaledBytes != null) {
+					output.writeByteArray(DECIMAL_UNSCALED_BYTES_FIELD, unscaledBytes);
+				}
+			}
+			if(valueType != ValueType.UNKNOWN) {
+				output.writeEnum(VALUE_TYPE_FIELD, valueType.getNumber());
+			}
+		}
+	}
+	
+	/**
+	 * Buffers of a thread: the records and the current record (the length of record is needed before it)
+	 */
+	static final class Buffers {
+		/**	Buffers greater than it are not kept after a response	*/
+		private static final int MAX_KEPT_SIZE = 4 * 1024 * 1024;
+		private static final int OUTPUT_BUFFER_SIZE = 4096;
+		
+		private final Buffer records = new Buffer();
+		private final Buffer record = new Buffer();
+		private final CodedOutputStream recordsOutput = CodedOutputStream.newInstance(records, OUTPUT_BUFFER_SIZE);
+		private final CodedOutputStream recordOutput = CodedOutputStream.newInstance(record, OUTPUT_BUFFER_SIZE);
+		private boolean isInUse = false;
+		
+		/**
+		 * Clear buffers for a new response, the bytes pending of a failed response are discarded
+		 */
+		private void acquire() {
+			try {
+				recordsOutput.flush();
+				recordOutput.flush();
+			} catch (IOException e) {
+				//	Buffers of memory
+			}
+			records.reset();
+			record.reset();
+			isInUse = true;
+		}
+		
+		/**
+		 * Release buffers after records are sent
+		 */
+		void release() {
+			isInUse = false;
+			records.trim(MAX_KEPT_SIZE);
+			record.trim(MAX_KEPT_SIZE);
+		}
+		
+		byte[] getData() {
+			return records.data;
+		}
+		
+		int getSize() {
+			return records.size;
+		}
+	}
+	
+	/**
+	 * Growable buffer of bytes
+	 */
+	private static final class Buffer extends OutputStream {
+		private static final int INITIAL_SIZE = 8192;
+		private byte[] data = new byte[INITIAL_SIZE];
+		private int size = 0;
+		
+		@Override
+		public void write(int value) {
+			ensureCapacity(size + 1);
+			data[size++] = (byte) value;
+		}
+		
+		@Override
+		public void write(byte[] bytes, int offset, int length) {
+			ensureCapacity(size + length);
+			System.arraycopy(bytes, offset, data, size, length);
+			size += length;
+		}
+		
+		private void ensureCapacity(int capacity) {
+			if(capacity > data.length) {
+				data = Arrays.copyOf(data, Math.max(data.length << 1, capacity));
+			}
+		}
+		
+		private void reset() {
+			size = 0;
+		}
+		
+		private void trim(int maxSize) {
+			if(data.length > maxSize) {
+				data = new byte[INITIAL_SIZE];
+			}
+			size = 0;
+		}
+	}
+}
@@ -0,0 +1,391 @@
+/*************************************************************************************
+ * Product: Adempiere ERP & CRM Smart Business Solution                              *
+ * This program is free software; you can redistribute it and/or modify it    		 *
+ * under the terms version 2 or later of the GNU General Public License as published *
+ * by the Free Software Foundation. This program is distributed in the hope   		 *
+ * that it will be useful, but WITHOUT ANY WARRANTY; without even the implied 		 *
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.           		 *
+ * See the GNU General Public License for more details.                       		 *
+ * You should have received a copy of the GNU General Public License along    		 *
+ * with this program; if not, write to the Free Software Foundation, Inc.,    		 *
+ * 59 Temple Place, Suite 330, Boston, MA 02111-1307 USA.                     		 *
+ * For the text or an alternative of this public license, you may reach us    		 *
+ * Copyright (C) 2012-2018 E.R.P. Consultores y Asociados, S.A. All Rights Reserved. *
+ * Contributor(s): Yamel Senih www.erpya.com				  		                 *
+ *************************************************************************************/
+package org.spin.base.util;
+
+import java.math.BigDecimal;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.logging.Logger;
+
+import org.adempiere.model.MBrowseField;
+import org.compiere.model.I_AD_Element;
+import org.compiere.model.MColumn;
+import org.compiere.model.MTable;
+import org.compiere.model.PO;
+import org.compiere.model.POInfo;
+import org.compiere.util.CCache;
+import org.compiere.util.DisplayType;
+import org.compiere.util.Env;
+import org.compiere.util.Util;
+import org.spin.grpc.util.Entity;
+import org.spin.grpc.util.Value;
+
+/**
+ * Plan for convert records of a table or of a query to entities. The columns are resolved once:
+ * index of column, name on entity and a converter specialized by display type, then the conversion of
+ * each record does not look up dictionary, maps or display types.
+ * <ul>
+ * <li>Plan of table (PO): cached by table, it is reset with cache of server</li>
+ * <li>Plan of query (ResultSet): created from metadata of result set before read the first record</li>
+ * <li>Plan of projected query (ResultSet): as plan of query, with identifier of entity</li>
+ * </ul>
+ * The values are same of {@link ValueUtil#getValueFromReference(Object, int)}.
+ * @author Yamel Senih, ysenih@erpya.com , http://www.erpya.com
+ */
+public final class EntityConversionPlan {
+	/**	Logger			*/
+	private static final Logger logger = Logger.getLogger(EntityConversionPlan.class.getName());
+	/**	Plans of tables	*/
+	private static final CCache<Integer, EntityConversionPlan> tablePlans = new CCache<Integer, EntityConversionPlan>("EntityConversionPlan-gRPC-Service", 100, 0);	//	no time-out
+	/**	Reference of column without reference (display columns, sent as text)	*/
+	private static final int DISPLAY_COLUMN = -1;
+	
+	/**	Table name (plan of table or of projected query)	*/
+	private final String tableName;
+	/**	Columns	*/
+	private final ColumnPlan[] columns;
+	/**	Index of key column on result set, 0 without single key	*/
+	private int keyIndex = 0;
+	/**	Index of UUID column on result set, 0 without UUID	*/
+	private int uuidIndex = 0;
+	/**	Null values of query are not sent (same of PO)	*/
+	private boolean isNullSkipped = false;
+	
+	private EntityConversionPlan(String tableName, List<ColumnPlan> columns) {
+		this.tableName = tableName;
+		this.columns = columns.toArray(new ColumnPlan[columns.size()]);
+	}
+	
+	/**
+	 * Get plan of a table for convert PO
+	 * @param tableId
+	 * @return
+	 */
+	public static EntityConversionPlan forTable(int tableId) {
+		EntityConversionPlan plan = tablePlans.get(tableId);
+		if(plan != null) {
+			return plan;
+		}
+		POInfo poInfo = POInfo.getPOInfo(Env.getCtx(), tableId);
+		List<ColumnPlan> columns = new ArrayList<>();
+		for(int index = 0; index < poInfo.getColumnCount(); index++) {
+			columns.add(new ColumnPlan(index, poInfo.getColumnName(index), poInfo.getColumnDisplayType(index)));
+		}
+		plan = new EntityConversionPlan(poInfo.getTableName(), columns);
+		tablePlans.put(tableId, plan);
+		return plan;
+	}
+	
+	/**
+	 * Get plan of a projected query of table (see {@link ColumnProjection}), the identifier of entity is read from
+	 * key and UUID columns and the null values are not sent
+	 * @param metaData
+	 * @param projection
+	 * @return
+	 * @throws SQLException
+	 */
+	public static EntityConversionPlan forProjection(ResultSetMetaData metaData, ColumnProjection projection) throws SQLException {
+		MTable table = projection.getTable();
+		String[] keyColumns = table.getKeyColumns();
+		String keyColumnName = null;
+		if(keyColumns != null
+				&& keyColumns.length == 1) {
+			keyColumnName = keyColumns[0];
+		}
+		List<ColumnPlan> columns = new ArrayList<>();
+		int keyIndex = 0;
+		int uuidIndex = 0;
+		for (int index = 1; index <= metaData.getColumnCount(); index++) {
+			String columnName = metaData.getColumnName(index);
+			MColumn column = table.getColumn(columnName);
+			if(column == null) {
+				continue;
+			}
+			if(column.getColumnName().equalsIgnoreCase(keyColumnName)) {
+				keyIndex = index;
+			}
+			if(column.getColumnName().equalsIgnoreCase(I_AD_Element.COLUMNNAME_UUID)) {
+				uuidIndex = index;
+			}
+			if(projection.isIncluded(column.getColumnName())) {
+				columns.add(new ColumnPlan(index, column.getColumnName(), column.getAD_Reference_ID()));
+			}
+		}
+		EntityConversionPlan plan = new EntityConversionPlan(table.getTableName(), columns);
+		plan.keyIndex = keyIndex;
+		plan.uuidIndex = uuidIndex;
+		plan.isNullSkipped = true;
+		return plan;
+	}
+	
+	/**
+	 * Get plan of a query of table, the columns that are not of table are display columns
+	 * @param metaData
+	 * @param columnsMap columns of table by upper case name
+	 * @param projection columns of table that are sent
+	 * @return
+	 * @throws SQLException
+	 */
+	public static EntityConversionPlan forResultSet(ResultSetMetaData metaData, Map<String, MColumn> columnsMap, ColumnProjection projection) throws SQLException {
+		List<ColumnPlan> columns = new ArrayList<>();
+		for (int index = 1; index <= metaData.getColumnCount(); index++) {
+			String columnName = metaData.getColumnName(index);
+			if(RecordCount.isCountColumn(columnName)) {
+				continue;
+			}
+			MColumn column = columnsMap.get(columnName.toUpperCase());
+			if(column == null) {
+				columns.add(new ColumnPlan(index, columnName, DISPLAY_COLUMN));
+			} else if(projection.isIncluded(column.getColumnName())) {
+				columns.add(new ColumnPlan(index, column.getColumnName(), column.getAD_Reference_ID()));
+			}
+		}
+		return new EntityConversionPlan(null, columns);
+	}
+	
+	/**
+	 * Get plan of a query of browser, the columns that are not fields are display columns
+	 * @param metaData
+	 * @param fieldsMap fields of browser by upper case column name
+	 * @return
+	 * @throws SQLException
+	 */
+	public static EntityConversionPlan forBrowser(ResultSetMetaData metaData, Map<String, MBrowseField> fieldsMap) throws SQLException {
+		List<ColumnPlan> columns = new ArrayList<>();
+		for (int index = 1; index <= metaData.getColumnCount(); index++) {
+			String columnName = metaData.getColumnName(index);
+			if(RecordCount.isCountColumn(columnName)) {
+				continue;
+			}
+			MBrowseField field = fieldsMap.get(columnName.toUpperCase());
+			if(field == null) {
+				columns.add(new ColumnPlan(index, columnName, DISPLAY_COLUMN));
+			} else {
+				columns.add(new ColumnPlan(index, field.getAD_View_Column().getColumnName(), field.getAD_Reference_ID()));
+			}
+		}
+		return new EntityConversionPlan(null, columns);
+	}
+	
+	/**
+	 * Get plan of a query with references of columns instead of dictionary (used by benchmarks),
+	 * the columns without reference are display columns
+	 * @param metaData
+	 * @param referencesMap references of columns by upper case name
+	 * @return
+	 * @throws SQLException
+	 */
+	static EntityConversionPlan forReferences(ResultSetMetaData metaData, Map<String, Integer> referencesMap) throws SQLException {
+		List<ColumnPlan> columns = new ArrayList<>();
+		for (int index = 1; index <= metaData.getColumnCount(); index++) {
+			String columnName = metaData.getColumnName(index);
+			if(RecordCount.isCountColumn(columnName)) {
+				continue;
+			}
+			Integer referenceId = referencesMap.get(columnName.toUpperCase());
+			columns.add(new ColumnPlan(index, columnName, referenceId == null? DISPLAY_COLUMN: referenceId));
+		}
+		return new EntityConversionPlan(null, columns);
+	}
+	
+	/**
+	 * Convert entity (plan of table)
+	 * @param entity
+	 * @return
+	 */
+	public Entity.Builder convert(PO entity) {
+		Entity.Builder builder = Entity.newBuilder()
+				.setUuid(ValueUtil.validateNull(entity.get_ValueAsString(I_AD_Element.COLUMNNAME_UUID)))
+				.setId(entity.get_ID())
+				.setTableName(ValueUtil.validateNull(tableName));
+		for(ColumnPlan column : columns) {
+			Object value = entity.get_Value(column.index);
+			if(value == null) {
+				continue;
+			}
+			builder.putValues(column.columnName, column.converter.apply(value).build());
+		}
+		return builder;
+	}
+	
+	/**
+	 * Write entity (plan of table)
+	 * @param entity
+	 * @param writer
+	 */
+	public void write(PO entity, RecordWriter writer) {
+		writer.setIdentifier(entity.get_ID(), entity.get_ValueAsString(I_AD_Element.COLUMNNAME_UUID), tableName);
+		for(ColumnPlan column : columns) {
+			Object value = entity.get_Value(column.index);
+			if(value == null) {
+				continue;
+			}
+			writer.setValue(column.columnName, value, column.referenceId);
+		}
+	}
+	
+	/**
+	 * Convert current row (plan of query)
+	 * @param resultSet
+	 * @return
+	 * @throws SQLException
+	 */
+	public Entity.Builder convert(ResultSet resultSet) throws SQLException {
+		Entity.Builder builder = Entity.newBuilder();
+		if(tableName != null) {
+			builder.setId(keyIndex > 0? resultSet.getInt(keyIndex): 0)
+				.setUuid(ValueUtil.validateNull(uuidIndex > 0? resultSet.getString(uuidIndex): null))
+				.setTableName(tableName);
+		}
+		for(ColumnPlan column : columns) {
+			try {
+				if(column.referenceId == DISPLAY_COLUMN) {
+					String value = resultSet.getString(column.index);
+					if(!Util.isEmpty(value)) {
+						builder.putValues(column.columnName, ValueUtil.getValueFromString(value).build());
+					}
+					continue;
+				}
+				Object value = resultSet.getObject(column.index);
+				if(value == null
+						&& isNullSkipped) {
+					continue;
+				}
+				builder.putValues(column.columnName, value == null
+						? Value.newBuilder().build()
+						: column.converter.apply(value).build());
+			} catch (Exception e) {
+				logger.severe(e.getLocalizedMessage());
+			}
+		}
+		return builder;
+	}
+	
+	/**
+	 * Write current row (plan of query)
+	 * @param resultSet
+	 * @param writer
+	 * @throws SQLException
+	 */
+	public void write(ResultSet resultSet, RecordWriter writer) throws SQLException {
+		if(tableName != null) {
+			writer.setIdentifier(keyIndex > 0? resultSet.getInt(keyIndex): 0, uuidIndex > 0? resultSet.getString(uuidIndex): null, tableName);
+		}
+		for(ColumnPlan column : columns) {
+			try {
+				if(column.referenceId == DISPLAY_COLUMN) {
+					String value = resultSet.getString(column.index);
+					if(!Util.isEmpty(value)) {
+						writer.setString(column.columnName, value);
+					}
+					continue;
+				}
+				Object value = resultSet.getObject(column.index);
+				if(value == null
+						&& isNullSkipped) {
+					continue;
+				}
+				writer.setValue(column.columnName, value, column.referenceId);
+			} catch (Exception e) {
+				logger.severe(e.getLocalizedMessage());
+			}
+		}
+	}
+	
+	/**
+	 * Converter of rows for a stream (see {@link ResultSetStream}), the plan is created with metadata of first row
+	 * @param factory
+	 * @return
+	 */
+	public static ResultSetStream.RowConverter<Entity> toEntities(Factory factory) {
+		return new ResultSetStream.RowConverter<Entity>() {
+			private EntityConversionPlan plan;
+			
+			@Override
+			public Entity convert(ResultSet resultSet) throws SQLException {
+				if(plan == null) {
+					plan = factory.create(resultSet.getMetaData());
+				}
+				return plan.convert(resultSet).build();
+			}
+		};
+	}
+	
+	/**
+	 * Get converter of values by display type
+	 * @param referenceId
+	 * @return
+	 */
+	private static Function<Object, Value.Builder> getConverter(int referenceId) {
+		if(ValueUtil.isLookup(referenceId)
+				|| DisplayType.isID(referenceId)) {
+			return ValueUtil::getValueFromObject;
+		} else if(DisplayType.Integer == referenceId) {
+			return value -> {
+				if(value instanceof Integer) {
+					return ValueUtil.getValueFromInteger((Integer) value);
+				} else if(value instanceof BigDecimal) {
+					return ValueUtil.getValueFromInteger(((BigDecimal) value).intValue());
+				}
+				return ValueUtil.getValueFromInteger(null);
+			};
+		} else if(DisplayType.isNumeric(referenceId)) {
+			return value -> ValueUtil.getValueFromDecimal((BigDecimal) value);
+		} else if(DisplayType.YesNo == referenceId) {
+			return value -> ValueUtil.getValueFromBoolean(value instanceof String
+					? "Y".equals(value)
+					: (Boolean) value);
+		} else if(DisplayType.isDate(referenceId)) {
+			return value -> ValueUtil.getValueFromDate((Timestamp) value);
+		} else if(DisplayType.isText(referenceId)) {
+			return value -> ValueUtil.getValueFromString((String) value);
+		}
+		return value -> Value.newBuilder();
+	}
+	
+	/**
+	 * Create a plan from metadata of result set
+	 */
+	@FunctionalInterface
+	public interface Factory {
+		EntityConversionPlan create(ResultSetMetaData metaData) throws SQLException;
+	}
+	
+	/**
+	 * Column of plan
+	 */
+	private static final class ColumnPlan {
+		/**	Index of column on PO (0 based) or on result set (1 based)	*/
+		private final int index;
+		/**	Name on entity	*/
+		private final String columnName;
+		private final int referenceId;
+		private final Function<Object, Value.Builder> converter;
+		
+		private ColumnPlan(int index, String columnName, int referenceId) {
+			this.index = index;
+			this.columnName = columnName;
+			this.referenceId = referenceId;
+			this.converter = referenceId == DISPLAY_COLUMN? null: getConverter(referenceId);
+		}
+	}
+}
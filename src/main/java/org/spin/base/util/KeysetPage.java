@@ -0,0 +1,562 @@
+/*************************************************************************************
+ * Product: Adempiere ERP & CRM Smart Business Solution                              *
+ * This program is free software; you can redistribute it and/or modify it    		 *
+ * under the terms version 2 or later of the GNU General Public License as published *
+ * by the Free Software Foundation. This program is distributed in the hope   		 *
+ * that it will be useful, but WITHOUT ANY WARRANTY; without even the implied 		 *
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.           		 *
+ * See the GNU General Public License for more details.                       		 *
+ * You should have received a copy of the GNU General Public License along    		 *
+ * with this program; if not, write to the Free Software Foundation, Inc.,    		 *
+ * 59 Temple Place, Suite 330, Boston, MA 02111-1307 USA.                     		 *
+ * For the text or an alternative of this public license, you may reach us    		 *
+ * Copyright (C) 2012-2018 E.R.P. Consultores y Asociados, S.A. All Rights Reserved. *
+ * Contributor(s): Yamel Senih www.erpya.com				  		                 *
+ *************************************************************************************/
+package org.spin.base.util;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+
+import org.adempiere.exceptions.AdempiereException;
+import org.adempiere.model.MBrowse;
+import org.adempiere.model.MBrowseField;
+import org.adempiere.model.MViewColumn;
+import org.compiere.model.MColumn;
+import org.compiere.model.MTable;
+import org.compiere.model.PO;
+import org.compiere.util.Env;
+import org.compiere.util.Util;
+import org.spin.util.ASPUtil;
+
+/**
+ * Page of a list with cursor (keyset) paging. The page token is opaque and signed, it has the
+ * position of page and the sort values of last record sent (the record ID is always the last sort key),
+ * then the next page is read with a seek predicate instead of skip the previous records:
+ * <pre>
+ * WHERE ... AND ((DateOrdered &lt; ?) OR (DateOrdered = ? AND C_Order_ID &gt; ?)) ORDER BY DateOrdered DESC, C_Order_ID
+ * </pre>
+ * The seek is used only when all sort columns are mandatory columns of table (a NULL value can not be compared),
+ * in other case the page is read with offset. The token is valid only for same session and same query.
+ * The token is signed with its own key, derived from secret of session tokens when they are enabled
+ * (valid on all nodes), else it is a random key of node.
+ * @author Yamel Senih, ysenih@erpya.com , http://www.erpya.com
+ */
+public final class KeysetPage {
+	/**	Prefix of token	*/
+	private static final String PREFIX = "c1.";
+	/**	Length of signature on token	*/
+	private static final int SIGNATURE_LENGTH = 16;
+	/**	Algorithm	*/
+	private static final String ALGORITHM = "HmacSHA256";
+	/**	Key for sign, it is not the key of session tokens	*/
+	private static final SecretKeySpec key = new SecretKeySpec(SignedSessionToken.deriveKey("keyset-page"), ALGORITHM);
+	/**	Mac by thread	*/
+	private static final ThreadLocal<Mac> mac = ThreadLocal.withInitial(KeysetPage::createMac);
+	/**	Sort column: [alias.]column [ASC|DESC]	*/
+	private static final Pattern SORT_COLUMN = Pattern.compile("^(?:([A-Za-z_][A-Za-z0-9_]*)\\.)?([A-Za-z_][A-Za-z0-9_]*)(?:\\s+(ASC|DESC))?$", Pattern.CASE_INSENSITIVE);
+	/**	Value types on token	*/
+	private static final byte TYPE_NULL = 0;
+	private static final byte TYPE_INTEGER = 1;
+	private static final byte TYPE_LONG = 2;
+	private static final byte TYPE_DECIMAL = 3;
+	private static final byte TYPE_STRING = 4;
+	private static final byte TYPE_TIMESTAMP = 5;
+	/**	Base 64 without padding for URL and headers	*/
+	private static final Base64.Encoder encoder = Base64.getUrlEncoder().withoutPadding();
+	private static final Base64.Decoder decoder = Base64.getUrlDecoder();
+	
+	/**	Sort keys, null when seek can not be used	*/
+	private final List<SortKey> keys;
+	/**	Original order by	*/
+	private final String orderByClause;
+	/**	Query and session of page	*/
+	private final int fingerprint;
+	/**	Records before this page	*/
+	private final int offset;
+	/**	Records by page	*/
+	private final int limit;
+	/**	Sort values of last record of previous page	*/
+	private final Object[] previousValues;
+	/**	Sort values of last record of this page	*/
+	private Object[] lastValues;
+	/**	Records read on this page	*/
+	private int recordCount = 0;
+	
+	private KeysetPage(List<SortKey> keys, String orderByClause, int fingerprint, String pageToken, String sessionUuid, int limit) {
+		this.keys = keys;
+		this.orderByClause = orderByClause;
+		this.fingerprint = fingerprint;
+		this.limit = limit;
+		//	Decode token
+		int pageOffset = 0;
+		Object[] values = null;
+		if(!Util.isEmpty(pageToken)) {
+			if(pageToken.startsWith(PREFIX)) {
+				DataInputStream data = new DataInputStream(new ByteArrayInputStream(decode(pageToken)));
+				try {
+					if(data.readInt() != fingerprint) {
+						throw new AdempiereException("@PageToken@ @Invalid@");
+					}
+					pageOffset = data.readInt();
+					int size = data.readByte();
+					if(size > 0) {
+						values = new Object[size];
+						for(int index = 0; index < size; index++) {
+							values[index] = readValue(data);
+						}
+					}
+				} catch (IOException e) {
+					throw new AdempiereException("@PageToken@ @Invalid@");
+				}
+			} else {
+				//	Token of previous versions
+				pageOffset = RecordUtil.getPageNumber(sessionUuid, pageToken) * limit;
+			}
+		}
+		this.offset = pageOffset;
+		//	Values are valid only for same keys
+		this.previousValues = keys != null
+				&& values != null
+				&& values.length == keys.size()? values: null;
+	}
+	
+	/**
+	 * Page of a table list
+	 * @param pageToken
+	 * @param sessionUuid
+	 * @param table
+	 * @param tableAlias alias of table on query
+	 * @param orderByClause order by of request, it can be empty
+	 * @param query query without paging (for validate token)
+	 * @param parameters parameters of query
+	 * @param limit
+	 * @return
+	 */
+	public static KeysetPage forTable(String pageToken, String sessionUuid, MTable table, String tableAlias, String orderByClause, String query, List<Object> parameters, int limit) {
+		List<SortKey> keys = getTableKeys(table, tableAlias, orderByClause);
+		return new KeysetPage(keys, orderByClause, getFingerprint(sessionUuid, query, orderByClause, parameters), pageToken, sessionUuid, limit);
+	}
+	
+	/**
+	 * Page of a free query, the columns of query are unknown then it is read with offset
+	 * @param pageToken
+	 * @param sessionUuid
+	 * @param orderByClause
+	 * @param query query without paging (for validate token)
+	 * @param parameters parameters of query
+	 * @param limit
+	 * @return
+	 */
+	public static KeysetPage forQuery(String pageToken, String sessionUuid, String orderByClause, String query, List<Object> parameters, int limit) {
+		return new KeysetPage(null, orderByClause, getFingerprint(sessionUuid, query, orderByClause, parameters), pageToken, sessionUuid, limit);
+	}
+	
+	/**
+	 * Page of a browser list
+	 * @param pageToken
+	 * @param sessionUuid
+	 * @param browser
+	 * @param orderByClause order by of browser (positions)
+	 * @param query query without paging (for validate token)
+	 * @param parameters parameters of query
+	 * @param limit
+	 * @return
+	 */
+	public static KeysetPage forBrowser(String pageToken, String sessionUuid, MBrowse browser, String orderByClause, String query, List<Object> parameters, int limit) {
+		List<SortKey> keys = getBrowserKeys(browser);
+		return new KeysetPage(keys, orderByClause, getFingerprint(sessionUuid, query, orderByClause, parameters), pageToken, sessionUuid, limit);
+	}
+	
+	/**
+	 * Get sort keys from order by of a table
+	 * @param table
+	 * @param tableAlias
+	 * @param orderByClause
+	 * @return null if seek can not be used
+	 */
+	private static List<SortKey> getTableKeys(MTable table, String tableAlias, String orderByClause) {
+		String[] keyColumns = table.getKeyColumns();
+		if(keyColumns == null
+				|| keyColumns.length != 1) {
+			return null;
+		}
+		String keyColumnName = keyColumns[0];
+		String alias = Util.isEmpty(tableAlias)? "": tableAlias + ".";
+		List<SortKey> keys = new ArrayList<>();
+		if(!Util.isEmpty(orderByClause)) {
+			for(String sortColumn : orderByClause.split(",")) {
+				Matcher matcher = SORT_COLUMN.matcher(sortColumn.trim());
+				if(!matcher.matches()) {
+					return null;
+				}
+				if(matcher.group(1) != null
+						&& !matcher.group(1).equalsIgnoreCase(tableAlias)) {
+					return null;
+				}
+				MColumn column = table.getColumn(matcher.group(2));
+				if(column == null
+						|| (!column.isMandatory() && !column.isKey())) {
+					return null;
+				}
+				boolean isDescending = "DESC".equalsIgnoreCase(matcher.group(3));
+				keys.add(new SortKey(alias + column.getColumnName(), column.getColumnName(), isDescending));
+				//	Record ID is unique
+				if(column.getColumnName().equalsIgnoreCase(keyColumnName)) {
+					return keys;
+				}
+			}
+		}
+		keys.add(new SortKey(alias + keyColumnName, keyColumnName, false));
+		return keys;
+	}
+	
+	/**
+	 * Get sort keys from order fields of browser
+	 * @param browser
+	 * @return null if seek can not be used
+	 */
+	private static List<SortKey> getBrowserKeys(MBrowse browser) {
+		MBrowseField keyField = browser.getFieldKey();
+		if(keyField == null) {
+			return null;
+		}
+		List<SortKey> keys = new ArrayList<>();
+		for(MBrowseField field : ASPUtil.getInstance().getBrowseOrderByFields(browser.getAD_Browse_ID())) {
+			if(!field.isOrderBy()
+					|| DictionaryUtil.getOrderByPosition(browser, field) <= 0) {
+				continue;
+			}
+			MViewColumn viewColumn = field.getAD_View_Column();
+			if(viewColumn.getAD_Column_ID() <= 0
+					|| !MColumn.get(Env.getCtx(), viewColumn.getAD_Column_ID()).isMandatory()) {
+				return null;
+			}
+			keys.add(new SortKey(viewColumn.getColumnSQL(), viewColumn.getColumnName(), false));
+			if(field.getAD_Browse_Field_ID() == keyField.getAD_Browse_Field_ID()) {
+				return keys;
+			}
+		}
+		MViewColumn keyColumn = keyField.getAD_View_Column();
+		keys.add(new SortKey(keyColumn.getColumnSQL(), keyColumn.getColumnName(), false));
+		return keys;
+	}
+	
+	/**
+	 * Hash of session, query and parameters, a token is valid only for them
+	 * @param sessionUuid
+	 * @param query
+	 * @param orderByClause
+	 * @param parameters
+	 * @return
+	 */
+	private static int getFingerprint(String sessionUuid, String query, String orderByClause, List<Object> parameters) {
+		return Arrays.deepHashCode(new Object[] {sessionUuid, query, orderByClause, parameters == null? null: parameters.toArray()});
+	}
+	
+	/**
+	 * Is paged with seek predicate
+	 * @return
+	 */
+	public boolean isKeyset() {
+		return keys != null
+				&& (offset == 0 || previousValues != null);
+	}
+	
+	/**
+	 * Get records to skip, it is 0 when seek is used
+	 * @return
+	 */
+	public int getQueryOffset() {
+		return isKeyset()? 0: offset;
+	}
+	
+	/**
+	 * Get records before this page
+	 * @return
+	 */
+	public int getOffset() {
+		return offset;
+	}
+	
+	/**
+	 * Get records by page
+	 * @return
+	 */
+	public int getLimit() {
+		return limit;
+	}
+	
+	/**
+	 * Get seek predicate for records after previous page
+	 * @param parameters the values are added here
+	 * @return empty for first page or when seek is not used
+	 */
+	public String getSeekPredicate(List<Object> parameters) {
+		if(!isKeyset()
+				|| previousValues == null) {
+			return "";
+		}
+		StringBuilder predicate = new StringBuilder("(");
+		for(int index = 0; index < keys.size(); index++) {
+			if(index > 0) {
+				predicate.append(" OR ");
+			}
+			predicate.append("(");
+			for(int equalIndex = 0; equalIndex < index; equalIndex++) {
+				predicate.append(keys.get(equalIndex).expression).append(" = ? AND ");
+				parameters.add(previousValues[equalIndex]);
+			}
+			SortKey key = keys.get(index);
+			predicate.append(key.expression).append(key.isDescending? " < ?": " > ?");
+			parameters.add(previousValues[index]);
+			predicate.append(")");
+		}
+		return predicate.append(")").toString();
+	}
+	
+	/**
+	 * Get order by for page (record ID is added when seek is used)
+	 * @return empty if the list is not sorted
+	 */
+	public String getOrderByClause() {
+		if(keys == null) {
+			return Util.isEmpty(orderByClause)? "": orderByClause;
+		}
+		StringBuilder clause = new StringBuilder();
+		for(SortKey key : keys) {
+			if(clause.length() > 0) {
+				clause.append(", ");
+			}
+			clause.append(key.expression);
+			if(key.isDescending) {
+				clause.append(" DESC");
+			}
+		}
+		return clause.toString();
+	}
+	
+	/**
+	 * Add a record read from result set
+	 * @param resultSet
+	 */
+	public void addRecord(ResultSet resultSet) {
+		recordCount++;
+		if(keys == null) {
+			return;
+		}
+		try {
+			Object[] values = new Object[keys.size()];
+			for(int index = 0; index < values.length; index++) {
+				values[index] = resultSet.getObject(keys.get(index).columnName);
+			}
+			lastValues = values;
+		} catch (SQLException e) {
+			//	Query has not sort columns
+			lastValues = null;
+		}
+	}
+	
+	/**
+	 * Add a record read as entity
+	 * @param entity
+	 */
+	public void addRecord(PO entity) {
+		recordCount++;
+		if(keys == null) {
+			return;
+		}
+		Object[] values = new Object[keys.size()];
+		for(int index = 0; index < values.length; index++) {
+			values[index] = entity.get_Value(keys.get(index).columnName);
+		}
+		lastValues = values;
+	}
+	
+	/**
+	 * Get token of next page
+	 * @param count all records of list, {@link RecordCount#UNKNOWN} if it is not known (a full page has next page)
+	 * @return empty if it is the last page
+	 */
+	public String getNextPageToken(int count) {
+		if(count == RecordCount.UNKNOWN) {
+			if(recordCount < limit) {
+				return "";
+			}
+		} else if(!RecordUtil.isValidNextPageToken(count, offset, limit)) {
+			return "";
+		}
+		ByteArrayOutputStream output = new ByteArrayOutputStream(64);
+		try (DataOutputStream data = new DataOutputStream(output)) {
+			data.writeInt(fingerprint);
+			data.writeInt(offset + limit);
+			Object[] values = recordCount == limit? lastValues: null;
+			if(values == null
+					|| !isSupported(values)) {
+				data.writeByte(0);
+			} else {
+				data.writeByte(values.length);
+				for(Object value : values) {
+					writeValue(data, value);
+				}
+			}
+		} catch (IOException e) {
+			throw new IllegalStateException(e);
+		}
+		String payload = encoder.encodeToString(output.toByteArray());
+		return PREFIX + payload + "." + encoder.encodeToString(sign(payload));
+	}
+	
+	/**
+	 * Sign payload of token
+	 * @param payload
+	 * @return
+	 */
+	private static byte[] sign(String payload) {
+		return Arrays.copyOf(mac.get().doFinal(payload.getBytes(StandardCharsets.US_ASCII)), SIGNATURE_LENGTH);
+	}
+	
+	/**
+	 * Create mac for thread
+	 * @return
+	 */
+	private static Mac createMac() {
+		try {
+			Mac instance = Mac.getInstance(ALGORITHM);
+			instance.init(key);
+			return instance;
+		} catch (GeneralSecurityException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+	
+	/**
+	 * Verify and decode token
+	 * @param pageToken
+	 * @return
+	 */
+	private static byte[] decode(String pageToken) {
+		int separator = pageToken.indexOf('.', PREFIX.length());
+		if(separator < 0) {
+			throw new AdempiereException("@PageToken@ @Invalid@");
+		}
+		String payload = pageToken.substring(PREFIX.length(), separator);
+		try {
+			byte[] signature = decoder.decode(pageToken.substring(separator + 1));
+			if(!MessageDigest.isEqual(sign(payload), signature)) {
+				throw new AdempiereException("@PageToken@ @Invalid@");
+			}
+			return decoder.decode(payload);
+		} catch (IllegalArgumentException e) {
+			throw new AdempiereException("@PageToken@ @Invalid@");
+		}
+	}
+	
+	/**
+	 * Verify if values can be written on token and compared
+	 * @param values
+	 * @return
+	 */
+	private static boolean isSupported(Object[] values) {
+		for(Object value : values) {
+			if(!(value instanceof Integer
+					|| value instanceof Long
+					|| value instanceof BigDecimal
+					|| value instanceof String
+					|| value instanceof Timestamp)) {
+				return false;
+			}
+		}
+		return true;
+	}
+	
+	/**
+	 * Write a sort value
+	 * @param data
+	 * @param value
+	 * @throws IOException
+	 */
+	private static void writeValue(DataOutputStream data, Object value) throws IOException {
+		if(value instanceof Integer) {
+			data.writeByte(TYPE_INTEGER);
+			data.writeInt((Integer) value);
+		} else if(value instanceof Long) {
+			data.writeByte(TYPE_LONG);
+			data.writeLong((Long) value);
+		} else if(value instanceof BigDecimal) {
+			data.writeByte(TYPE_DECIMAL);
+			data.writeUTF(((BigDecimal) value).toString());
+		} else if(value instanceof String) {
+			data.writeByte(TYPE_STRING);
+			data.writeUTF((String) value);
+		} else if(value instanceof Timestamp) {
+			data.writeByte(TYPE_TIMESTAMP);
+			data.writeLong(((Timestamp) value).getTime());
+			data.writeInt(((Timestamp) value).getNanos());
+		} else {
+			data.writeByte(TYPE_NULL);
+		}
+	}
+	
+	/**
+	 * Read a sort value
+	 * @param data
+	 * @return
+	 * @throws IOException
+	 */
+	private static Object readValue(DataInputStream data) throws IOException {
+		byte type = data.readByte();
+		switch (type) {
+			case TYPE_INTEGER:
+				return data.readInt();
+			case TYPE_LONG:
+				return data.readLong();
+			case TYPE_DECIMAL:
+				return new BigDecimal(data.readUTF());
+			case TYPE_STRING:
+				return data.readUTF();
+			case TYPE_TIMESTAMP:
+				Timestamp timestamp = new Timestamp(data.readLong());
+				timestamp.setNanos(data.readInt());
+				return timestamp;
+			default:
+				return null;
+		}
+	}
+	
+	/**
+	 * Column used for sort
+	 */
+	private static final class SortKey {
+		/**	SQL expression	*/
+		private final String expression;
+		/**	Column name on result	*/
+		private final String columnName;
+		private final boolean isDescending;
+		
+		private SortKey(String expression, String columnName, boolean isDescending) {
+			this.expression = expression;
+			this.columnName = columnName;
+			this.isDescending = isDescending;
+		}
+	}
+}
@@ -0,0 +1,267 @@
+/*************************************************************************************
+ * Product: Adempiere ERP & CRM Smart Business Solution                              *
+ * This program is free software; you can redistribute it and/or modify it    		 *
+ * under the terms version 2 or later of the GNU General Public License as published *
+ * by the Free Software Foundation. This program is distributed in the hope   		 *
+ * that it will be useful, but WITHOUT ANY WARRANTY; without even the implied 		 *
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.           		 *
+ * See the GNU General Public License for more details.                       		 *
+ * You should have received a copy of the GNU General Public License along    		 *
+ * with this program; if not, write to the Free Software Foundation, Inc.,    		 *
+ * 59 Temple Place, Suite 330, Boston, MA 02111-1307 USA.                     		 *
+ * For the text or an alternative of this public license, you may reach us    		 *
+ * Copyright (C) 2012-2018 E.R.P. Consultores y Asociados, S.A. All Rights Reserved. *
+ * Contributor(s): Yamel Senih www.erpya.com				  		                 *
+ *************************************************************************************/
+package org.spin.base.util;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
+
+import org.spin.base.metrics.MetricsRegistry;
+import org.spin.base.metrics.MetricsRegistry.Counter;
+
+/**
+ * Cache with limit of entries (least recently used is removed) and idle timeout.
+ * The hits, misses, evictions and size are exported as metrics with label cache.
+ * The critical section is only a map access, then a simple lock is used.
+ * The expired entries are removed when they are read and by a periodic cleaner of all caches with idle timeout.
+ * @author Yamel Senih, ysenih@erpya.com , http://www.erpya.com
+ */
+public class LRUCache<K, V> {
+	/**	Name	*/
+	private final String name;
+	/**	Max entries	*/
+	private final int maxSize;
+	/**	Idle timeout (nanoseconds), 0 is no timeout	*/
+	private final long idleTimeout;
+	/**	Entries on access order	*/
+	private final LinkedHashMap<K, Entry<V>> entries;
+	/**	Metrics	*/
+	private final Counter hits;
+	private final Counter misses;
+	private final Counter sizeEvictions;
+	private final Counter idleEvictions;
+	private final Counter invalidations;
+	/**	Labels	*/
+	private static final String[] CACHE_LABELS = {"cache"};
+	private static final String[] RESULT_LABELS = {"cache", "result"};
+	private static final String[] REASON_LABELS = {"cache", "reason"};
+	/**	Max period of cleaner (seconds)	*/
+	private static final long MAX_CLEANER_PERIOD = 60;
+	/**	Cleaner of expired entries	*/
+	private static final ScheduledExecutorService cleaner = Executors.newSingleThreadScheduledExecutor(runnable -> {
+		Thread thread = new Thread(runnable, "lru-cache-cleaner");
+		thread.setDaemon(true);
+		return thread;
+	});
+	
+	/**
+	 * Default constructor
+	 * @param name
+	 * @param maxSize
+	 * @param idleTimeout
+	 * @param unit
+	 */
+	public LRUCache(String name, int maxSize, long idleTimeout, TimeUnit unit) {
+		this.name = name;
+		this.maxSize = maxSize;
+		this.idleTimeout = unit.toNanos(Math.max(0, idleTimeout));
+		this.entries = new LinkedHashMap<K, Entry<V>>(Math.min(maxSize, 1024), 0.75f, true) {
+			private static final long serialVersionUID = 1L;
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<K, Entry<V>> eldest) {
+				if(size() > LRUCache.this.maxSize) {
+					LRUCache.this.sizeEvictions.increment();
+					return true;
+				}
+				return false;
+			}
+		};
+		MetricsRegistry registry = MetricsRegistry.getInstance();
+		hits = registry.counter("cache_requests_total", "Requests to cache by result.", RESULT_LABELS, name, "hit");
+		misses = registry.counter("cache_requests_total", "Requests to cache by result.", RESULT_LABELS, name, "miss");
+		sizeEvictions = registry.counter("cache_evictions_total", "Entries removed from cache by reason.", REASON_LABELS, name, "size");
+		idleEvictions = registry.counter("cache_evictions_total", "Entries removed from cache by reason.", REASON_LABELS, name, "idle");
+		invalidations = registry.counter("cache_evictions_total", "Entries removed from cache by reason.", REASON_LABELS, name, "invalidate");
+		registry.gauge("cache_size", "Entries on cache.", () -> size(), CACHE_LABELS, name);
+		//	Expired entries that are not read again
+		if(this.idleTimeout > 0) {
+			long period = Math.max(1, Math.min(MAX_CLEANER_PERIOD, unit.toSeconds(idleTimeout)));
+			cleaner.scheduleWithFixedDelay(this::removeExpired, period, period, TimeUnit.SECONDS);
+		}
+	}
+	
+	/**
+	 * Get value
+	 * @param key
+	 * @return null if it is not cached or it is expired
+	 */
+	public V get(K key) {
+		long now = System.nanoTime();
+		synchronized (entries) {
+			Entry<V> entry = entries.get(key);
+			if(entry == null) {
+				misses.increment();
+				return null;
+			}
+			if(isExpired(entry, now)) {
+				entries.remove(key);
+				idleEvictions.increment();
+				misses.increment();
+				return null;
+			}
+			entry.lastAccess = now;
+			hits.increment();
+			return entry.value;
+		}
+	}
+	
+	/**
+	 * Put value
+	 * @param key
+	 * @param value
+	 */
+	public void put(K key, V value) {
+		Entry<V> entry = new Entry<>(value, System.nanoTime());
+		synchronized (entries) {
+			entries.put(key, entry);
+		}
+	}
+	
+	/**
+	 * Remove a key
+	 * @param key
+	 * @return removed value
+	 */
+	public V remove(K key) {
+		Entry<V> entry;
+		synchronized (entries) {
+			entry = entries.remove(key);
+		}
+		if(entry == null) {
+			return null;
+		}
+		invalidations.increment();
+		return entry.value;
+	}
+	
+	/**
+	 * Remove all values that match with filter
+	 * @param filter
+	 * @return removed entries
+	 */
+	public int removeIf(Predicate<V> filter) {
+		int removed = 0;
+		synchronized (entries) {
+			Iterator<Entry<V>> iterator = entries.values().iterator();
+			while(iterator.hasNext()) {
+				if(filter.test(iterator.next().value)) {
+					iterator.remove();
+					removed++;
+				}
+			}
+		}
+		invalidations.add(removed);
+		return removed;
+	}
+	
+	/**
+	 * Remove expired entries
+	 * @return removed entries
+	 */
+	public int removeExpired() {
+		if(idleTimeout <= 0) {
+			return 0;
+		}
+		long now = System.nanoTime();
+		int removed = 0;
+		synchronized (entries) {
+			Iterator<Entry<V>> iterator = entries.values().iterator();
+			while(iterator.hasNext()) {
+				if(isExpired(iterator.next(), now)) {
+					iterator.remove();
+					removed++;
+				}
+			}
+		}
+		idleEvictions.add(removed);
+		return removed;
+	}
+	
+	/**
+	 * Clear cache
+	 */
+	public void clear() {
+		int removed;
+		synchronized (entries) {
+			removed = entries.size();
+			entries.clear();
+		}
+		invalidations.add(removed);
+	}
+	
+	/**
+	 * Get a copy of values not expired, it does not change the access order
+	 * @return
+	 */
+	public Map<K, V> getAll() {
+		long now = System.nanoTime();
+		Map<K, V> values = new LinkedHashMap<>();
+		synchronized (entries) {
+			entries.forEach((key, entry) -> {
+				if(!isExpired(entry, now)) {
+					values.put(key, entry.value);
+				}
+			});
+		}
+		return values;
+	}
+	
+	/**
+	 * Get size
+	 * @return
+	 */
+	public int size() {
+		synchronized (entries) {
+			return entries.size();
+		}
+	}
+	
+	/**
+	 * Get Name
+	 * @return
+	 */
+	public String getName() {
+		return name;
+	}
+	
+	/**
+	 * Is expired
+	 * @param entry
+	 * @param now
+	 * @return
+	 */
+	private boolean isExpired(Entry<V> entry, long now) {
+		return idleTimeout > 0
+				&& now - entry.lastAccess > idleTimeout;
+	}
+	
+	/**
+	 * Value and last access
+	 */
+	private static class Entry<V> {
+		private final V value;
+		private long lastAccess;
+		
+		private Entry(V value, long lastAccess) {
+			this.value = value;
+			this.lastAccess = lastAccess;
+		}
+	}
+}
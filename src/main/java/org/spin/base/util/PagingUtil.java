@@ -0,0 +1,93 @@
+/*************************************************************************************
+ * Product: Adempiere ERP & CRM Smart Business Solution                              *
+ * This program is free software; you can redistribute it and/or modify it    		 *
+ * under the terms version 2 or later of the GNU General Public License as published *
+ * by the Free Software Foundation. This program is distributed in the hope   		 *
+ * that it will be useful, but WITHOUT ANY WARRANTY; without even the implied 		 *
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.           		 *
+ * See the GNU General Public License for more details.                       		 *
+ * You should have received a copy of the GNU General Public License along    		 *
+ * with this program; if not, write to the Free Software Foundation, Inc.,    		 *
+ * 59 Temple Place, Suite 330, Boston, MA 02111-1307 USA.                     		 *
+ * For the text or an alternative of this public license, you may reach us    		 *
+ * Copyright (C) 2012-2018 E.R.P. Consultores y Asociados, S.A. All Rights Reserved. *
+ * Contributor(s): Yamel Senih www.erpya.com				  		                 *
+ *************************************************************************************/
+package org.spin.base.util;
+
+import org.compiere.util.DB;
+import org.spin.base.setup.SetupLoader;
+
+/**
+ * Paging of SQL statements with native clause of database, it is added after ORDER BY
+ * then the database can stop the read when the limit is reached:
+ * <pre>
+ * PostgreSQL: SELECT ... ORDER BY ... LIMIT 50 OFFSET 100
+ * Oracle: SELECT ... ORDER BY ... OFFSET 100 ROWS FETCH NEXT 50 ROWS ONLY
+ * </pre>
+ * @author Yamel Senih, ysenih@erpya.com , http://www.erpya.com
+ */
+public final class PagingUtil {
+	/**	Is Oracle, else PostgreSQL	*/
+	private static final boolean isOracle = isOracle();
+	
+	private PagingUtil() {
+		
+	}
+	
+	/**
+	 * Add order by and paging to a query
+	 * @param sql query with where clause
+	 * @param orderByClause order by without ORDER BY keyword, it can be empty
+	 * @param offset records to skip
+	 * @param limit records to read, 0 or less for all
+	 * @return
+	 */
+	public static String getPagedQuery(String sql, String orderByClause, int offset, int limit) {
+		StringBuilder pagedQuery = new StringBuilder(sql);
+		if(orderByClause != null
+				&& !orderByClause.trim().isEmpty()) {
+			pagedQuery.append(" ORDER BY ").append(orderByClause);
+		}
+		return pagedQuery.append(getPagingClause(offset, limit)).toString();
+	}
+	
+	/**
+	 * Get native paging clause of database, it must be after ORDER BY
+	 * @param offset records to skip
+	 * @param limit records to read, 0 or less for all
+	 * @return empty if there are not paging
+	 */
+	public static String getPagingClause(int offset, int limit) {
+		offset = Math.max(offset, 0);
+		StringBuilder clause = new StringBuilder();
+		if(isOracle) {
+			if(offset > 0) {
+				clause.append(" OFFSET ").append(offset).append(" ROWS");
+			}
+			if(limit > 0) {
+				clause.append(" FETCH NEXT ").append(limit).append(" ROWS ONLY");
+			}
+		} else {
+			if(limit > 0) {
+				clause.append(" LIMIT ").append(limit);
+			}
+			if(offset > 0) {
+				clause.append(" OFFSET ").append(offset);
+			}
+		}
+		return clause.toString();
+	}
+	
+	/**
+	 * Get database type from setup or from connection
+	 * @return
+	 */
+	private static boolean isOracle() {
+		if(SetupLoader.getInstance() != null
+				&& SetupLoader.getInstance().getDatabase().getType() != null) {
+			return org.compiere.db.Database.DB_ORACLE.equals(SetupLoader.getInstance().getDatabase().getType());
+		}
+		return DB.isOracle();
+	}
+}
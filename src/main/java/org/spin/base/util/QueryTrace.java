@@ -0,0 +1,222 @@
+/*************************************************************************************
+ * Product: Adempiere ERP & CRM Smart Business Solution                              *
+ * This program is free software; you can redistribute it and/or modify it    		 *
+ * under the terms version 2 or later of the GNU General Public License as published *
+ * by the Free Software Foundation. This program is distributed in the hope   		 *
+ * that it will be useful, but WITHOUT ANY WARRANTY; without even the implied 		 *
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.           		 *
+ * See the GNU General Public License for more details.                       		 *
+ * You should have received a copy of the GNU General Public License along    		 *
+ * with this program; if not, write to the Free Software Foundation, Inc.,    		 *
+ * 59 Temple Place, Suite 330, Boston, MA 02111-1307 USA.                     		 *
+ * For the text or an alternative of this public license, you may reach us    		 *
+ * Copyright (C) 2012-2018 E.R.P. Consultores y Asociados, S.A. All Rights Reserved. *
+ * Contributor(s): Yamel Senih www.erpya.com				  		                 *
+ *************************************************************************************/
+package org.spin.base.util;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import org.spin.base.metrics.CallTiming;
+import org.spin.base.metrics.CallTiming.Phase;
+import org.spin.base.metrics.SlowQueryLog;
+
+import io.grpc.Context;
+import io.grpc.Deadline;
+import io.grpc.Status;
+
+/**
+ * Trace of a SQL statement: report the SQL phase to call timing and record
+ * the statement on slow query log when it is over threshold.
+ * The statement is bound to gRPC call: the deadline is used as query timeout,
+ * a cancel of call cancel the statement and the read of rows stop.
+ * <pre>
+ * QueryTrace trace = QueryTrace.start(sql, parameters);
+ * try {
+ * 	rs = trace.executeQuery(pstmt);
+ * 	while(trace.next(rs)) {
+ * 		...
+ * 	}
+ * } finally {
+ * 	trace.finish(recordCount);
+ * }
+ * </pre>
+ * @author Yamel Senih, ysenih@erpya.com , http://www.erpya.com
+ */
+public class QueryTrace implements AutoCloseable {
+	/**	Logger			*/
+	private static final Logger logger = Logger.getLogger(QueryTrace.class.getName());
+	/**	Thread for cancel statements, a cancel can open a connection then it is not run on transport threads	*/
+	private static final ExecutorService cancelExecutor = Executors.newSingleThreadExecutor(runnable -> {
+		Thread thread = new Thread(runnable, "sql-cancel");
+		thread.setDaemon(true);
+		return thread;
+	});
+	/**	SQL	*/
+	private final String sql;
+	/**	Parameters	*/
+	private final List<Object> parameters;
+	/**	Time on database (nanoseconds)	*/
+	private long elapsed = 0;
+	/**	Rows, -1 is unknown	*/
+	private long rowCount = -1;
+	/**	Finished	*/
+	private boolean finished = false;
+
+	/**
+	 * Private constructor
+	 * @param sql
+	 * @param parameters
+	 */
+	private QueryTrace(String sql, List<Object> parameters) {
+		this.sql = sql;
+		this.parameters = parameters;
+	}
+
+	/**
+	 * Start trace of statement
+	 * @param sql
+	 * @param parameters
+	 * @return
+	 */
+	public static QueryTrace start(String sql, List<Object> parameters) {
+		return new QueryTrace(sql, parameters);
+	}
+
+	/**
+	 * Execute query
+	 * @param statement
+	 * @return
+	 * @throws SQLException
+	 */
+	public ResultSet executeQuery(PreparedStatement statement) throws SQLException {
+		Context context = Context.current();
+		validateCall(context);
+		//	Deadline as timeout
+		Deadline deadline = context.getDeadline();
+		if(deadline != null) {
+			long remaining = deadline.timeRemaining(TimeUnit.MILLISECONDS);
+			statement.setQueryTimeout((int) Math.max(1, (remaining + 999) / 1000));
+		}
+		//	Cancel statement when call is cancelled
+		Context.CancellationListener cancellationListener = cancelledContext -> {
+			try {
+				statement.cancel();
+			} catch (SQLException e) {
+				logger.log(Level.WARNING, "Cancel statement failed: " + e.getLocalizedMessage());
+			}
+		};
+		context.addListener(cancellationListener, cancelExecutor);
+		long startTime = System.nanoTime();
+		try (CallTiming.Scope scope = CallTiming.start(Phase.SQL)) {
+			return statement.executeQuery();
+		} finally {
+			elapsed += System.nanoTime() - startTime;
+			context.removeListener(cancellationListener);
+		}
+	}
+	
+	/**
+	 * Move to next row, return false when call is cancelled for stop the read
+	 * @param resultSet
+	 * @return
+	 * @throws SQLException
+	 */
+	public boolean next(ResultSet resultSet) throws SQLException {
+		if(isCancelled()) {
+			logger.fine("Call cancelled, stop read of rows: " + sql);
+			return false;
+		}
+		return resultSet.next();
+	}
+	
+	/**
+	 * Is gRPC call cancelled (client cancel or deadline exceeded)
+	 * @return
+	 */
+	public static boolean isCancelled() {
+		return Context.current().isCancelled();
+	}
+	
+	/**
+	 * Validate that call is alive before run a statement
+	 * @param context
+	 */
+	private static void validateCall(Context context) {
+		if(!context.isCancelled()) {
+			return;
+		}
+		Deadline deadline = context.getDeadline();
+		if(deadline != null
+				&& deadline.isExpired()) {
+			throw Status.DEADLINE_EXCEEDED.withDescription("Deadline exceeded before run statement").asRuntimeException();
+		}
+		throw Status.CANCELLED.withDescription("Call cancelled before run statement").asRuntimeException();
+	}
+
+	/**
+	 * Execute a statement from ADempiere API (Query, DB), when result is a collection the rows are the size.
+	 * The statement is not accessible, then only a cancelled call is validated before run it
+	 * @param statement
+	 * @return
+	 */
+	public <T> T execute(Supplier<T> statement) {
+		validateCall(Context.current());
+		long startTime = System.nanoTime();
+		try (CallTiming.Scope scope = CallTiming.start(Phase.SQL)) {
+			T result = statement.get();
+			if(result instanceof Collection) {
+				rowCount = ((Collection<?>) result).size();
+			} else if(result != null) {
+				rowCount = 1;
+			}
+			return result;
+		} finally {
+			elapsed += System.nanoTime() - startTime;
+		}
+	}
+
+	/**
+	 * Set rows read
+	 * @param rowCount
+	 */
+	public void setRowCount(long rowCount) {
+		this.rowCount = rowCount;
+	}
+
+	/**
+	 * Finish trace with rows read
+	 * @param rowCount
+	 */
+	public void finish(long rowCount) {
+		setRowCount(rowCount);
+		close();
+	}
+
+	/**
+	 * Get SQL
+	 * @return
+	 */
+	public String getSql() {
+		return sql;
+	}
+
+	@Override
+	public void close() {
+		if(finished) {
+			return;
+		}
+		finished = true;
+		SlowQueryLog.getInstance().record(sql, parameters, rowCount, elapsed);
+	}
+}
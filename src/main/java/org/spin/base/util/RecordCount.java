@@ -0,0 +1,314 @@
+/*************************************************************************************
+ * Product: Adempiere ERP & CRM Smart Business Solution                              *
+ * This program is free software; you can redistribute it and/or modify it    		 *
+ * under the terms version 2 or later of the GNU General Public License as published *
+ * by the Free Software Foundation. This program is distributed in the hope   		 *
+ * that it will be useful, but WITHOUT ANY WARRANTY; without even the implied 		 *
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.           		 *
+ * See the GNU General Public License for more details.                       		 *
+ * You should have received a copy of the GNU General Public License along    		 *
+ * with this program; if not, write to the Free Software Foundation, Inc.,    		 *
+ * 59 Temple Place, Suite 330, Boston, MA 02111-1307 USA.                     		 *
+ * For the text or an alternative of this public license, you may reach us    		 *
+ * Copyright (C) 2012-2018 E.R.P. Consultores y Asociados, S.A. All Rights Reserved. *
+ * Contributor(s): Yamel Senih www.erpya.com				  		                 *
+ *************************************************************************************/
+package org.spin.base.util;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.adempiere.exceptions.DBException;
+import org.compiere.util.DB;
+import org.compiere.util.Env;
+import org.spin.base.setup.CountCache;
+import org.spin.base.setup.SetupLoader;
+import org.spin.grpc.util.CountMode;
+
+/**
+ * Record count of a list by count mode of request:
+ * <ul>
+ * <li>EXACT: COUNT(*) of query, or COUNT(*) OVER() read from same query when it is added with {@link #addCountColumn(String)}</li>
+ * <li>ESTIMATED: rows estimated by planner (PostgreSQL), else as CACHED</li>
+ * <li>CACHED: exact count kept by query and parameters until time to live</li>
+ * <li>NONE: {@link #UNKNOWN}</li>
+ * </ul>
+ * The exact counts are also saved on cache.
+ * @author Yamel Senih, ysenih@erpya.com , http://www.erpya.com
+ */
+public final class RecordCount {
+	/**	Logger			*/
+	private static final Logger logger = Logger.getLogger(RecordCount.class.getName());
+	/**	Count is not known	*/
+	public static final int UNKNOWN = -1;
+	/**	Column of COUNT(*) OVER()	*/
+	public static final String COLUMN_NAME = "GRPC_RECORD_COUNT";
+	/**	Setup	*/
+	private static final CountCache setup = SetupLoader.getInstance() == null
+			? new CountCache()
+			: SetupLoader.getInstance().getServer().getCount_cache();
+	/**	Time to live (nanoseconds)	*/
+	private static final long timeToLive = TimeUnit.SECONDS.toNanos(setup.getTime_to_live());
+	/**	Counts by client, role, query and parameters	*/
+	private static final LRUCache<String, CachedCount> cache = new LRUCache<>("record_count", setup.getMax_size(), setup.getTime_to_live(), TimeUnit.SECONDS);
+	/**	Pattern of FROM clause by table	*/
+	private static final Map<String, Pattern> fromPatterns = new ConcurrentHashMap<>();
+	/**	Rows of plan	*/
+	private static final Pattern PLAN_ROWS = Pattern.compile("rows=(\\d+)");
+	/**	Spaces for normalize query	*/
+	private static final Pattern SPACES = Pattern.compile("\\s+");
+	
+	/**	Mode	*/
+	private final CountMode mode;
+	/**	FROM ... WHERE ... of query, null if it is unknown	*/
+	private final String fromClause;
+	/**	Parameters of query	*/
+	private final List<Object> parameters;
+	/**	Count is read from COUNT(*) OVER()	*/
+	private boolean isWindowCount = false;
+	/**	Value of COUNT(*) OVER()	*/
+	private int windowCount = UNKNOWN;
+	
+	private RecordCount(CountMode mode, String fromClause, List<Object> parameters) {
+		this.mode = mode == null
+				|| mode == CountMode.UNRECOGNIZED? CountMode.EXACT: mode;
+		this.fromClause = fromClause;
+		this.parameters = parameters;
+	}
+	
+	/**
+	 * Count of a SQL query, the FROM clause is found by table name (FROM TableName AS TableName)
+	 * @param mode
+	 * @param sql query without order by and paging
+	 * @param tableName
+	 * @param parameters
+	 * @return
+	 */
+	public static RecordCount forQuery(CountMode mode, String sql, String tableName, List<Object> parameters) {
+		Pattern fromPattern = fromPatterns.computeIfAbsent(tableName, 
+				key -> Pattern.compile("\\b(?:FROM+)+\\s+" + Pattern.quote(key) + " AS " + Pattern.quote(key), Pattern.CASE_INSENSITIVE | Pattern.DOTALL));
+		Matcher matcher = fromPattern.matcher(sql);
+		String fromClause = null;
+		if(matcher.find()) {
+			fromClause = sql.substring(matcher.start());
+		}
+		return new RecordCount(mode, fromClause, parameters);
+	}
+	
+	/**
+	 * Count of a table
+	 * @param mode
+	 * @param tableName
+	 * @param whereClause it can be empty
+	 * @param parameters
+	 * @return
+	 */
+	public static RecordCount forTable(CountMode mode, String tableName, String whereClause, List<Object> parameters) {
+		String fromClause = "FROM " + tableName;
+		if(whereClause != null
+				&& !whereClause.trim().isEmpty()) {
+			fromClause = fromClause + " WHERE " + whereClause;
+		}
+		return new RecordCount(mode, fromClause, parameters);
+	}
+	
+	/**
+	 * Add COUNT(*) OVER() to select of query when count is exact, then a separated count is not needed.
+	 * It must not be used when the query has a seek predicate (the rows of previous pages are not counted)
+	 * @param sql
+	 * @return query with count column
+	 */
+	public String addCountColumn(String sql) {
+		if(mode != CountMode.EXACT
+				|| !sql.regionMatches(true, 0, "SELECT ", 0, 7)
+				|| sql.regionMatches(true, 7, "DISTINCT ", 0, 9)) {
+			return sql;
+		}
+		isWindowCount = true;
+		return "SELECT COUNT(*) OVER() AS " + COLUMN_NAME + ", " + sql.substring(7);
+	}
+	
+	/**
+	 * Verify if it is the column of COUNT(*) OVER(), it is not a value of record
+	 * @param columnName
+	 * @return
+	 */
+	public static boolean isCountColumn(String columnName) {
+		return COLUMN_NAME.equalsIgnoreCase(columnName);
+	}
+	
+	/**
+	 * Read count from a record of query
+	 * @param resultSet
+	 */
+	public void addRecord(ResultSet resultSet) {
+		if(!isWindowCount
+				|| windowCount != UNKNOWN) {
+			return;
+		}
+		try {
+			windowCount = resultSet.getInt(COLUMN_NAME);
+		} catch (SQLException e) {
+			isWindowCount = false;
+		}
+	}
+	
+	/**
+	 * Is exact count (it can be used for next page)
+	 * @return
+	 */
+	public boolean isExact() {
+		return mode == CountMode.EXACT;
+	}
+	
+	/**
+	 * Get count by mode
+	 * @return {@link #UNKNOWN} for mode NONE
+	 */
+	public int getCount() {
+		//	Known from COUNT(*) OVER() of same query
+		if(isExact()
+				&& windowCount != UNKNOWN) {
+			if(fromClause != null) {
+				cache.put(getKey(), new CachedCount(windowCount));
+			}
+			return windowCount;
+		}
+		if(fromClause == null) {
+			return 0;
+		}
+		switch (mode) {
+			case NONE:
+				return UNKNOWN;
+			case ESTIMATED:
+				int estimated = getEstimatedCount();
+				if(estimated != UNKNOWN) {
+					return estimated;
+				}
+				return getCachedCount();
+			case CACHED:
+				return getCachedCount();
+			default:
+				int count = getExactCount();
+				cache.put(getKey(), new CachedCount(count));
+				return count;
+		}
+	}
+	
+	/**
+	 * Get count from cache or count it
+	 * @return
+	 */
+	private int getCachedCount() {
+		String key = getKey();
+		CachedCount cachedCount = cache.get(key);
+		if(cachedCount != null
+				&& !cachedCount.isExpired()) {
+			return cachedCount.count;
+		}
+		int count = getExactCount();
+		cache.put(key, new CachedCount(count));
+		return count;
+	}
+	
+	/**
+	 * Run COUNT(*)
+	 * @return
+	 */
+	private int getExactCount() {
+		String queryCount = "SELECT COUNT(*) " + fromClause;
+		PreparedStatement pstmt = null;
+		ResultSet rs = null;
+		QueryTrace trace = QueryTrace.start(queryCount, parameters);
+		try {
+			pstmt = DB.prepareStatement(queryCount, null);
+			DB.setParameters(pstmt, parameters);
+			rs = trace.executeQuery(pstmt);
+			if(rs.next()) {
+				return rs.getInt(1);
+			}
+		} catch (SQLException e) {
+			throw new DBException(e, queryCount);
+		} finally {
+			DB.close(rs, pstmt);
+			trace.finish(1);
+		}
+		return UNKNOWN;
+	}
+	
+	/**
+	 * Get rows estimated by planner (PostgreSQL only)
+	 * @return {@link #UNKNOWN} if it can not be estimated
+	 */
+	private int getEstimatedCount() {
+		if(!DB.isPostgreSQL()) {
+			return UNKNOWN;
+		}
+		String queryPlan = "EXPLAIN SELECT 1 " + fromClause;
+		PreparedStatement pstmt = null;
+		ResultSet rs = null;
+		QueryTrace trace = QueryTrace.start(queryPlan, parameters);
+		try {
+			pstmt = DB.prepareStatement(queryPlan, null);
+			DB.setParameters(pstmt, parameters);
+			rs = trace.executeQuery(pstmt);
+			//	First node of plan has rows of query
+			if(rs.next()) {
+				Matcher matcher = PLAN_ROWS.matcher(rs.getString(1));
+				if(matcher.find()) {
+					return (int) Math.min(Long.parseLong(matcher.group(1)), Integer.MAX_VALUE);
+				}
+			}
+		} catch (SQLException | NumberFormatException e) {
+			logger.log(Level.WARNING, "Count estimate failed: " + e.getLocalizedMessage());
+		} finally {
+			DB.close(rs, pstmt);
+			trace.finish(1);
+		}
+		return UNKNOWN;
+	}
+	
+	/**
+	 * Key of cache: client, role, normalized query and parameters
+	 * @return
+	 */
+	private String getKey() {
+		StringBuilder key = new StringBuilder()
+				.append(Env.getAD_Client_ID(Env.getCtx())).append('|')
+				.append(Env.getAD_Role_ID(Env.getCtx())).append('|')
+				.append(SPACES.matcher(fromClause.trim()).replaceAll(" "));
+		if(parameters != null) {
+			for(Object parameter : parameters) {
+				key.append('|').append(parameter);
+			}
+		}
+		return key.toString();
+	}
+	
+	/**
+	 * Count with expiration
+	 */
+	private static final class CachedCount {
+		private final int count;
+		/**	Expiration (nanoseconds)	*/
+		private final long expiration;
+		
+		private CachedCount(int count) {
+			this.count = count;
+			this.expiration = System.nanoTime() + timeToLive;
+		}
+		
+		private boolean isExpired() {
+			return System.nanoTime() - expiration > 0;
+		}
+	}
+}
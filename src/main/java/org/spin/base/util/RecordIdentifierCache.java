@@ -0,0 +1,320 @@
+/*************************************************************************************
+ * Product: Adempiere ERP & CRM Smart Business Solution                              *
+ * This program is free software; you can redistribute it and/or modify it    		 *
+ * under the terms version 2 or later of the GNU General Public License as published *
+ * by the Free Software Foundation. This program is distributed in the hope   		 *
+ * that it will be useful, but WITHOUT ANY WARRANTY; without even the implied 		 *
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.           		 *
+ * See the GNU General Public License for more details.                       		 *
+ * You should have received a copy of the GNU General Public License along    		 *
+ * with this program; if not, write to the Free Software Foundation, Inc.,    		 *
+ * 59 Temple Place, Suite 330, Boston, MA 02111-1307 USA.                     		 *
+ * For the text or an alternative of this public license, you may reach us    		 *
+ * Copyright (C) 2012-2018 E.R.P. Consultores y Asociados, S.A. All Rights Reserved. *
+ * Contributor(s): Yamel Senih www.erpya.com				  		                 *
+ *************************************************************************************/
+package org.spin.base.util;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.IntSupplier;
+import java.util.function.Supplier;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import org.compiere.model.MClient;
+import org.compiere.model.MTable;
+import org.compiere.model.ModelValidationEngine;
+import org.compiere.model.ModelValidator;
+import org.compiere.model.PO;
+import org.compiere.util.Env;
+import org.spin.base.setup.IdentifierCache;
+import org.spin.base.setup.SetupLoader;
+
+/**
+ * Cache of record identifiers by table and client, on both directions (UUID to ID and ID to UUID).
+ * The records not found are also kept for a short time, but they are not used inside of a transaction
+ * because the record can be created on it. The records of a table are removed from cache when
+ * they are deleted (global model validator registered for each table cached, it listen all clients).
+ * The hits and misses are exported by table (cache record_uuid:TableName and record_id:TableName).
+ * The caches are only for tables of dictionary, by name of dictionary (the name sent by client is not
+ * trusted), a table not found is not cached.
+ * @author Yamel Senih, ysenih@erpya.com , http://www.erpya.com
+ */
+public final class RecordIdentifierCache {
+	/**	Logger			*/
+	private static final Logger logger = Logger.getLogger(RecordIdentifierCache.class.getName());
+	/**	Setup	*/
+	private static final IdentifierCache setup = SetupLoader.getInstance() == null
+			? new IdentifierCache()
+			: SetupLoader.getInstance().getServer().getIdentifier_cache();
+	/**	Time for keep records not found	*/
+	private static final long negativeTimeout = TimeUnit.SECONDS.toNanos(setup.getNegative_timeout());
+	/**	UUID column	*/
+	private static final String COLUMNNAME_UUID = "UUID";
+	/**	Caches by table	*/
+	private static final Map<String, TableCache> tables = new ConcurrentHashMap<>();
+	
+	private RecordIdentifierCache() {
+		
+	}
+	
+	/**
+	 * Get ID from UUID
+	 * @param tableName
+	 * @param clientId
+	 * @param uuid
+	 * @param transactionName
+	 * @param loader find ID on database
+	 * @return -1 if it is not found
+	 */
+	public static int getId(String tableName, int clientId, String uuid, String transactionName, IntSupplier loader) {
+		if(getTableCache(tableName) == null) {
+			int id = loader.getAsInt();
+			return id > 0? id: -1;
+		}
+		Integer cachedId = getCachedId(tableName, clientId, uuid, transactionName);
+		if(cachedId != null) {
+			return cachedId;
+		}
+		int id = loader.getAsInt();
+		putId(tableName, clientId, uuid, id, transactionName);
+		return id > 0? id: -1;
+	}
+	
+	/**
+	 * Get ID from cache only
+	 * @param tableName
+	 * @param clientId
+	 * @param uuid
+	 * @param transactionName
+	 * @return null if it is not cached, -1 if it is cached as not found
+	 */
+	public static Integer getCachedId(String tableName, int clientId, String uuid, String transactionName) {
+		TableCache cache = getTableCache(tableName);
+		if(cache == null) {
+			return null;
+		}
+		Identifier identifier = cache.byUuid.get(uuid);
+		if(identifier == null
+				|| identifier.clientId != clientId) {
+			return null;
+		}
+		if(!identifier.isMissing()) {
+			return identifier.id;
+		}
+		if(transactionName == null
+				&& !identifier.isExpired()) {
+			return -1;
+		}
+		return null;
+	}
+	
+	/**
+	 * Put ID found for UUID
+	 * @param tableName
+	 * @param clientId
+	 * @param uuid
+	 * @param id 0 or less if it is not found
+	 * @param transactionName
+	 */
+	public static void putId(String tableName, int clientId, String uuid, int id, String transactionName) {
+		TableCache cache = getTableCache(tableName);
+		if(cache == null) {
+			return;
+		}
+		if(id > 0) {
+			cache.put(new Identifier(clientId, id, uuid, 0), transactionName);
+		} else if(transactionName == null) {
+			cache.byUuid.put(uuid, new Identifier(clientId, -1, uuid, System.nanoTime() + negativeTimeout));
+		}
+	}
+	
+	/**
+	 * Get UUID from ID
+	 * @param tableName
+	 * @param clientId
+	 * @param id
+	 * @param transactionName
+	 * @param loader find UUID on database
+	 * @return null if it is not found
+	 */
+	public static String getUuid(String tableName, int clientId, int id, String transactionName, Supplier<String> loader) {
+		TableCache cache = getTableCache(tableName);
+		if(cache == null) {
+			String uuid = loader.get();
+			return uuid != null && !uuid.isEmpty()? uuid: null;
+		}
+		long key = getKey(clientId, id);
+		Identifier identifier = cache.byId.get(key);
+		if(identifier != null) {
+			if(!identifier.isMissing()) {
+				return identifier.uuid;
+			}
+			if(transactionName == null
+					&& !identifier.isExpired()) {
+				return null;
+			}
+		}
+		String uuid = loader.get();
+		if(uuid != null
+				&& !uuid.isEmpty()) {
+			cache.put(new Identifier(clientId, id, uuid, 0), transactionName);
+			return uuid;
+		}
+		if(transactionName == null) {
+			cache.byId.put(key, new Identifier(clientId, id, null, System.nanoTime() + negativeTimeout));
+		}
+		return null;
+	}
+	
+	/**
+	 * Remove a record of cache
+	 * @param tableName
+	 * @param clientId
+	 * @param id
+	 * @param uuid
+	 */
+	public static void remove(String tableName, int clientId, int id, String uuid) {
+		TableCache cache = tables.get(tableName);
+		if(cache == null) {
+			return;
+		}
+		if(uuid != null) {
+			cache.byUuid.remove(uuid);
+		}
+		cache.byId.remove(getKey(clientId, id));
+	}
+	
+	/**
+	 * Client and ID as a single key
+	 * @param clientId
+	 * @param id
+	 * @return
+	 */
+	private static long getKey(int clientId, int id) {
+		return ((long) clientId << 32) | (id & 0xFFFFFFFFL);
+	}
+	
+	/**
+	 * Get cache of table, it is created and registered for delete of records the first time.
+	 * The name is validated with dictionary and the cache is by name of dictionary (case of name sent is ignored)
+	 * @param tableName
+	 * @return null if table is not found on dictionary
+	 */
+	private static TableCache getTableCache(String tableName) {
+		if(tableName == null
+				|| tableName.isEmpty()) {
+			return null;
+		}
+		TableCache cache = tables.get(tableName);
+		if(cache != null) {
+			return cache;
+		}
+		MTable table = MTable.get(Env.getCtx(), tableName);
+		if(table == null
+				|| table.getAD_Table_ID() <= 0) {
+			return null;
+		}
+		return tables.computeIfAbsent(table.getTableName(), TableCache::new);
+	}
+	
+	/**
+	 * Identifier of a record, a missing record has expiration
+	 */
+	private static final class Identifier {
+		private final int clientId;
+		private final int id;
+		private final String uuid;
+		/**	Expiration of missing record (nanoseconds), 0 for found records	*/
+		private final long expiration;
+		
+		private Identifier(int clientId, int id, String uuid, long expiration) {
+			this.clientId = clientId;
+			this.id = id;
+			this.uuid = uuid;
+			this.expiration = expiration;
+		}
+		
+		private boolean isMissing() {
+			return expiration != 0;
+		}
+		
+		private boolean isExpired() {
+			return System.nanoTime() - expiration > 0;
+		}
+	}
+	
+	/**
+	 * Caches of a table and listener for changes
+	 */
+	private static final class TableCache implements ModelValidator {
+		private final String tableName;
+		private final LRUCache<String, Identifier> byUuid;
+		private final LRUCache<Long, Identifier> byId;
+		
+		private TableCache(String tableName) {
+			this.tableName = tableName;
+			byUuid = new LRUCache<>("record_uuid:" + tableName, setup.getMax_size(), setup.getIdle_timeout(), TimeUnit.SECONDS);
+			byId = new LRUCache<>("record_id:" + tableName, setup.getMax_size(), setup.getIdle_timeout(), TimeUnit.SECONDS);
+			try {
+				//	Global validator (without client), the changes of all clients are listened
+				ModelValidationEngine.get().addModelValidator(this, null);
+			} catch (Exception e) {
+				logger.log(Level.WARNING, "Delete of " + tableName + " is not listened: " + e.getLocalizedMessage());
+			}
+		}
+		
+		/**
+		 * Put a found record on both directions, a record found inside of a
+		 * transaction is not cached because it can be rolled back
+		 * @param identifier
+		 * @param transactionName
+		 */
+		private void put(Identifier identifier, String transactionName) {
+			if(transactionName != null) {
+				return;
+			}
+			byUuid.put(identifier.uuid, identifier);
+			byId.put(getKey(identifier.clientId, identifier.id), identifier);
+		}
+		
+		@Override
+		public void initialize(ModelValidationEngine engine, MClient client) {
+			engine.addModelChange(tableName, this);
+		}
+		
+		@Override
+		public int getAD_Client_ID() {
+			//	Global validator
+			return 0;
+		}
+		
+		@Override
+		public String login(int AD_Org_ID, int AD_Role_ID, int AD_User_ID) {
+			return null;
+		}
+		
+		@Override
+		public String modelChange(PO entity, int type) throws Exception {
+			if(type == TYPE_AFTER_DELETE) {
+				remove(tableName, entity.getAD_Client_ID(), entity.get_ID(), entity.get_ValueAsString(COLUMNNAME_UUID));
+			} else if(type == TYPE_AFTER_NEW) {
+				//	Remove record cached as missing
+				byUuid.remove(entity.get_ValueAsString(COLUMNNAME_UUID));
+				byId.remove(getKey(entity.getAD_Client_ID(), entity.get_ID()));
+			} else if(type == TYPE_AFTER_CHANGE
+					&& entity.is_ValueChanged(COLUMNNAME_UUID)) {
+				Object oldUuid = entity.get_ValueOld(COLUMNNAME_UUID);
+				remove(tableName, entity.getAD_Client_ID(), entity.get_ID(), oldUuid == null? null: oldUuid.toString());
+			}
+			return null;
+		}
+		
+		@Override
+		public String docValidate(PO entity, int timing) {
+			return null;
+		}
+	}
+}
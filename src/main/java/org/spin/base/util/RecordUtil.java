@@ -15,25 +15,37 @@
  *************************************************************************************/
 package org.spin.base.util;
 
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
 import java.sql.Timestamp;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.Properties;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 
 import org.adempiere.exceptions.AdempiereException;
+import org.adempiere.exceptions.DBException;
 import org.adempiere.pipo.IDFinder;
 import org.compiere.model.I_AD_Element;
 import org.compiere.model.MClientInfo;
 import org.compiere.model.MConversionRate;
+import org.compiere.model.MTable;
 import org.compiere.model.PO;
 import org.compiere.model.Query;
 import org.compiere.util.DB;
 import org.compiere.util.Env;
 import org.compiere.util.TimeUtil;
 import org.compiere.util.Util;
+import org.spin.base.metrics.CallTiming;
+import org.spin.base.setup.Paging;
+import org.spin.base.setup.SetupLoader;
+import org.spin.grpc.util.CountMode;
 import org.spin.model.MADAttachmentReference;
 import org.spin.util.AttachmentUtil;
 
@@ -42,8 +54,33 @@ import org.spin.util.AttachmentUtil;
  * @author Yamel Senih, ysenih@erpya.com , http://www.erpya.com
  */
 public class RecordUtil {
-	/**	Page Size	*/
-	public static final int PAGE_SIZE = 50;
+	/**	Page size setup	*/
+	private static final Paging paging = SetupLoader.getInstance() == null
+			? new Paging()
+			: SetupLoader.getInstance().getServer().getPaging();
+	/**	Max values on a IN clause (Oracle limit)	*/
+	public static final int MAX_IN_VALUES = 1000;
+	
+	/**
+	 * Get page size requested by client, limited by maximum of current method (also the default size)
+	 * @param pageSize page size of request, 0 for default
+	 * @return
+	 */
+	public static int getPageSize(int pageSize) {
+		if(pageSize <= 0) {
+			pageSize = paging.getDefault_size();
+		}
+		return Math.min(pageSize, getMaximumPageSize());
+	}
+	
+	/**
+	 * Get maximum of records by request for current method (page size or values of a list)
+	 * @return
+	 */
+	public static int getMaximumPageSize() {
+		CallTiming timing = CallTiming.current();
+		return paging.getMethodMaximum(timing == null? null: timing.getMethodName());
+	}
 	
 	/**
 	 * Get Page Number
@@ -157,7 +194,112 @@ public class RecordUtil {
 			return -1;
 		}
 		//	Get
-		return IDFinder.getIdFromUUID(Env.getCtx(), tableName, uuid, Env.getAD_Client_ID(Env.getCtx()), transactionName);
+		int clientId = Env.getAD_Client_ID(Env.getCtx());
+		return RecordIdentifierCache.getId(tableName, clientId, uuid, transactionName,
+				() -> IDFinder.getIdFromUUID(Env.getCtx(), tableName, uuid, clientId, transactionName));
+	}
+	
+	/**
+	 * Get IDs for many UUIDs of a table, the UUIDs not cached are resolved
+	 * with a single query for each block of {@link #MAX_IN_VALUES} values
+	 * @param tableName
+	 * @param uuids
+	 * @param transactionName
+	 * @return IDs by UUID on same order of request, the UUIDs not found are not included
+	 */
+	public static Map<String, Integer> getIdsFromUuids(String tableName, Collection<String> uuids, String transactionName) {
+		Map<String, Integer> ids = new LinkedHashMap<>();
+		if(Util.isEmpty(tableName)
+				|| uuids == null
+				|| uuids.isEmpty()) {
+			return ids;
+		}
+		MTable table = MTable.get(Env.getCtx(), tableName);
+		if(table == null
+				|| table.getAD_Table_ID() <= 0) {
+			throw new AdempiereException("@AD_Table_ID@ @NotFound@");
+		}
+		String[] keyColumns = table.getKeyColumns();
+		if(keyColumns == null
+				|| keyColumns.length != 1) {
+			throw new AdempiereException("@AD_Table_ID@ " + tableName + " @KeyColumn@ @NotFound@");
+		}
+		int clientId = Env.getAD_Client_ID(Env.getCtx());
+		Map<String, Integer> resolvedIds = new HashMap<>();
+		List<String> uuidsToLoad = new ArrayList<>();
+		for(String uuid : new LinkedHashSet<>(uuids)) {
+			if(Util.isEmpty(uuid)) {
+				continue;
+			}
+			Integer cachedId = RecordIdentifierCache.getCachedId(table.getTableName(), clientId, uuid, transactionName);
+			if(cachedId == null) {
+				uuidsToLoad.add(uuid);
+			} else {
+				resolvedIds.put(uuid, cachedId);
+			}
+		}
+		//	Load by blocks
+		for(int from = 0; from < uuidsToLoad.size(); from += MAX_IN_VALUES) {
+			List<String> block = uuidsToLoad.subList(from, Math.min(uuidsToLoad.size(), from + MAX_IN_VALUES));
+			Map<String, Integer> loadedIds = loadIdsFromUuids(table.getTableName(), keyColumns[0], clientId, block, transactionName);
+			for(String uuid : block) {
+				int id = loadedIds.getOrDefault(uuid, -1);
+				RecordIdentifierCache.putId(table.getTableName(), clientId, uuid, id, transactionName);
+				resolvedIds.put(uuid, id);
+			}
+		}
+		//	Same order of request
+		for(String uuid : uuids) {
+			Integer id = resolvedIds.get(uuid);
+			if(id != null
+					&& id > 0) {
+				ids.put(uuid, id);
+			}
+		}
+		return ids;
+	}
+	
+	/**
+	 * Load IDs with a single query
+	 * @param tableName
+	 * @param keyColumnName
+	 * @param clientId
+	 * @param uuids
+	 * @param transactionName
+	 * @return
+	 */
+	private static Map<String, Integer> loadIdsFromUuids(String tableName, String keyColumnName, int clientId, List<String> uuids, String transactionName) {
+		StringBuilder sql = new StringBuilder("SELECT UUID, ").append(keyColumnName)
+				.append(" FROM ").append(tableName)
+				.append(" WHERE AD_Client_ID IN (0, ?) AND UUID IN (");
+		List<Object> parameters = new ArrayList<>(uuids.size() + 1);
+		parameters.add(clientId);
+		for(String uuid : uuids) {
+			if(parameters.size() > 1) {
+				sql.append(", ");
+			}
+			sql.append("?");
+			parameters.add(uuid);
+		}
+		sql.append(")");
+		Map<String, Integer> ids = new HashMap<>(uuids.size() * 2);
+		PreparedStatement pstmt = null;
+		ResultSet rs = null;
+		QueryTrace trace = QueryTrace.start(sql.toString(), parameters);
+		try {
+			pstmt = DB.prepareStatement(sql.toString(), transactionName);
+			DB.setParameters(pstmt, parameters);
+			rs = trace.executeQuery(pstmt);
+			while(rs.next()) {
+				ids.put(rs.getString(1), rs.getInt(2));
+			}
+		} catch (SQLException e) {
+			throw new DBException(e, sql.toString());
+		} finally {
+			DB.close(rs, pstmt);
+			trace.finish(ids.size());
+		}
+		return ids;
 	}
 	
 	/**
@@ -171,7 +313,7 @@ public class RecordUtil {
 			return null;
 		}
 		//	Get
-		return IDFinder.getUUIDFromId(tableName, id, Env.getAD_Client_ID(Env.getCtx()), null);
+		return getUuidFromId(tableName, id, null);
 	}
 	
 	/**
@@ -185,7 +327,9 @@ public class RecordUtil {
 			return null;
 		}
 		//	Get
-		return IDFinder.getUUIDFromId(tableName, id, Env.getAD_Client_ID(Env.getCtx()), transactionName);
+		int clientId = Env.getAD_Client_ID(Env.getCtx());
+		return RecordIdentifierCache.getUuid(tableName, clientId, id, transactionName,
+				() -> IDFinder.getUUIDFromId(tableName, id, clientId, transactionName));
 	}
 	
 	/**
@@ -252,15 +396,7 @@ public class RecordUtil {
 	 * @return
 	 */
 	public static int countRecords(String sql, String tableName, List<Object> parameters) {
-		Matcher matcher = Pattern.compile("\\b(?:FROM+)+\\s+" + tableName + " AS " + tableName, Pattern.CASE_INSENSITIVE | Pattern.DOTALL).matcher(sql);
-		int positionFrom = -1;
-		if(matcher.find()) {
-			positionFrom = matcher.start();
-		} else {
-			return 0;
-		}
-		String queryCount = "SELECT COUNT(*) " + sql.substring(positionFrom, sql.length());
-		return DB.getSQLValueEx(null, queryCount, parameters);
+		return RecordCount.forQuery(CountMode.EXACT, sql, tableName, parameters).getCount();
 	}
 	
 	/**
@@ -0,0 +1,110 @@
+/*************************************************************************************
+ * Product: Adempiere ERP & CRM Smart Business Solution                              *
+ * This program is free software; you can redistribute it and/or modify it    		 *
+ * under the terms version 2 or later of the GNU General Public License as published *
+ * by the Free Software Foundation. This program is distributed in the hope   		 *
+ * that it will be useful, but WITHOUT ANY WARRANTY; without even the implied 		 *
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.           		 *
+ * See the GNU General Public License for more details.                       		 *
+ * You should have received a copy of the GNU General Public License along    		 *
+ * with this program; if not, write to the Free Software Foundation, Inc.,    		 *
+ * 59 Temple Place, Suite 330, Boston, MA 02111-1307 USA.                     		 *
+ * For the text or an alternative of this public license, you may reach us    		 *
+ * Copyright (C) 2012-2018 E.R.P. Consultores y Asociados, S.A. All Rights Reserved. *
+ * Contributor(s): Yamel Senih www.erpya.com				  		                 *
+ *************************************************************************************/
+package org.spin.base.util;
+
+import org.spin.grpc.util.Entity;
+import org.spin.grpc.util.LookupItem;
+import org.spin.grpc.util.Value;
+
+/**
+ * Target of values of a record, the same conversion of a row is written on an entity
+ * or on columns of a list (see {@link ColumnarRecordsWriter}) or encoded (see {@link EncodedRecordsWriter})
+ * @author Yamel Senih, ysenih@erpya.com , http://www.erpya.com
+ */
+public interface RecordWriter {
+	
+	/**
+	 * Set identifier of record
+	 * @param id
+	 * @param uuid
+	 * @param tableName
+	 */
+	default void setIdentifier(int id, String uuid, String tableName) {
+		//	Only for entity
+	}
+	
+	/**
+	 * Set value of a column with reference of column
+	 * @param columnName
+	 * @param value
+	 * @param referenceId
+	 */
+	void setValue(String columnName, Object value, int referenceId);
+	
+	/**
+	 * Set value of a column without reference (display columns)
+	 * @param columnName
+	 * @param value
+	 */
+	void setString(String columnName, String value);
+	
+	/**
+	 * Writer of values of an entity
+	 * @param builder
+	 * @return
+	 */
+	static RecordWriter forEntity(Entity.Builder builder) {
+		return new RecordWriter() {
+			@Override
+			public void setIdentifier(int id, String uuid, String tableName) {
+				builder.setId(id)
+					.setUuid(ValueUtil.validateNull(uuid))
+					.setTableName(ValueUtil.validateNull(tableName));
+			}
+			
+			@Override
+			public void setValue(String columnName, Object value, int referenceId) {
+				Value.Builder valueBuilder = ValueUtil.getValueFromReference(value, referenceId);
+				if(valueBuilder == null
+						|| valueBuilder.getValueType().equals(Value.ValueType.UNRECOGNIZED)) {
+					return;
+				}
+				builder.putValues(columnName, valueBuilder.build());
+			}
+			
+			@Override
+			public void setString(String columnName, String value) {
+				builder.putValues(columnName, ValueUtil.getValueFromString(value).build());
+			}
+		};
+	}
+	
+	/**
+	 * Writer of values of a lookup item
+	 * @param builder
+	 * @return
+	 */
+	static RecordWriter forLookupItem(LookupItem.Builder builder) {
+		return new RecordWriter() {
+			@Override
+			public void setIdentifier(int id, String uuid, String tableName) {
+				builder.setId(id)
+					.setUuid(ValueUtil.validateNull(uuid))
+					.setTableName(ValueUtil.validateNull(tableName));
+			}
+			
+			@Override
+			public void setValue(String columnName, Object value, int referenceId) {
+				builder.putValues(columnName, ValueUtil.getValueFromReference(value, referenceId).build());
+			}
+			
+			@Override
+			public void setString(String columnName, String value) {
+				builder.putValues(columnName, ValueUtil.getValueFromString(value).build());
+			}
+		};
+	}
+}
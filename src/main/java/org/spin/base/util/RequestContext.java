@@ -0,0 +1,223 @@
+/*************************************************************************************
+ * Product: Adempiere ERP & CRM Smart Business Solution                              *
+ * This program is free software; you can redistribute it and/or modify it    		 *
+ * under the terms version 2 or later of the GNU General Public License as published *
+ * by the Free Software Foundation. This program is distributed in the hope   		 *
+ * that it will be useful, but WITHOUT ANY WARRANTY; without even the implied 		 *
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.           		 *
+ * See the GNU General Public License for more details.                       		 *
+ * You should have received a copy of the GNU General Public License along    		 *
+ * with this program; if not, write to the Free Software Foundation, Inc.,    		 *
+ * 59 Temple Place, Suite 330, Boston, MA 02111-1307 USA.                     		 *
+ * For the text or an alternative of this public license, you may reach us    		 *
+ * Copyright (C) 2012-2018 E.R.P. Consultores y Asociados, S.A. All Rights Reserved. *
+ * Contributor(s): Yamel Senih www.erpya.com				  		                 *
+ *************************************************************************************/
+package org.spin.base.util;
+
+import java.util.Properties;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.compiere.util.Env;
+
+import io.grpc.Context;
+
+/**
+ * Context of a request: the session snapshot and a thin overlay with values of request
+ * (language, organization and warehouse). ADempiere read the context from a Properties
+ * for each thread ({@link Env#getCtx()}), then the request context is copied once to the
+ * Properties of thread and it is applied again only when the call continue on other thread.
+ * Each thread has its own Properties (see {@link #getThreadContext()}), a thread of a pool can inherit
+ * the Properties of the thread that created it and the calls of other sessions must not change it.
+ * It is bound to gRPC call with {@link #KEY}, the holder is added by context interceptor.
+ * @author Yamel Senih, ysenih@erpya.com , http://www.erpya.com
+ */
+public final class RequestContext {
+	/**	Key on gRPC context	*/
+	public static final Context.Key<AtomicReference<RequestContext>> KEY = Context.key("adempiere-request-context");
+	/**	Request context applied on Properties of thread	*/
+	private static final ThreadLocal<RequestContext> applied = new ThreadLocal<>();
+	/**	Properties created for current thread	*/
+	private static final ThreadLocal<Properties> threadContext = new ThreadLocal<>();
+	/**	Session	*/
+	private final SessionContext session;
+	/**	Language	*/
+	private final String language;
+	/**	Organization	*/
+	private final int organizationId;
+	/**	Warehouse, 0 use value of session	*/
+	private final int warehouseId;
+	/**	Values sent by client, used for know if a request is same	*/
+	private final String requestLanguage;
+	private final String organizationUuid;
+	private final String warehouseUuid;
+	
+	/**
+	 * Default constructor
+	 * @param session
+	 * @param language
+	 * @param organizationId
+	 * @param warehouseId
+	 * @param requestLanguage
+	 * @param organizationUuid
+	 * @param warehouseUuid
+	 */
+	public RequestContext(SessionContext session, String language, int organizationId, int warehouseId,
+			String requestLanguage, String organizationUuid, String warehouseUuid) {
+		this.session = session;
+		this.language = language;
+		this.organizationId = organizationId;
+		this.warehouseId = warehouseId;
+		this.requestLanguage = requestLanguage;
+		this.organizationUuid = organizationUuid;
+		this.warehouseUuid = warehouseUuid;
+	}
+	
+	/**
+	 * Get request context of current call
+	 * @return null if it is not resolved yet
+	 */
+	public static RequestContext current() {
+		AtomicReference<RequestContext> holder = KEY.get();
+		if(holder == null) {
+			return null;
+		}
+		return holder.get();
+	}
+	
+	/**
+	 * Verify if it was resolved from same values
+	 * @param sessionUuid
+	 * @param language
+	 * @param organizationUuid
+	 * @param warehouseUuid
+	 * @return
+	 */
+	public boolean isSameRequest(String sessionUuid, String language, String organizationUuid, String warehouseUuid) {
+		return session.getSessionUuid().equals(sessionUuid)
+				&& isSameValue(requestLanguage, language)
+				&& isSameValue(this.organizationUuid, organizationUuid)
+				&& isSameValue(this.warehouseUuid, warehouseUuid);
+	}
+	
+	/**
+	 * Compare values, null is same that empty
+	 * @param value
+	 * @param otherValue
+	 * @return
+	 */
+	private static boolean isSameValue(String value, String otherValue) {
+		if(value == null
+				|| value.isEmpty()) {
+			return otherValue == null
+					|| otherValue.isEmpty();
+		}
+		return value.equals(otherValue);
+	}
+	
+	/**
+	 * Bind to current thread and to current call. The session snapshot must be
+	 * applied on context of thread before, then only the overlay is set here
+	 * @return context of thread
+	 */
+	public Properties bind() {
+		Properties context = getThreadContext();
+		applyOverlay(context);
+		applied.set(this);
+		AtomicReference<RequestContext> holder = KEY.get();
+		if(holder != null) {
+			holder.set(this);
+		}
+		return context;
+	}
+	
+	/**
+	 * Apply on context of current thread, if it is not applied yet
+	 * @return context of thread
+	 */
+	public Properties apply() {
+		Properties context = getThreadContext();
+		if(applied.get() == this) {
+			return context;
+		}
+		session.applyTo(context);
+		applyOverlay(context);
+		applied.set(this);
+		return context;
+	}
+	
+	/**
+	 * Get Properties of current thread for ADempiere context, it is created and set on
+	 * {@link Env} the first time that a thread use it (the Properties inherited are not changed)
+	 * @return
+	 */
+	public static Properties getThreadContext() {
+		Properties context = threadContext.get();
+		if(context == null
+				|| context != Env.getCtx()) {
+			context = new Properties();
+			Env.setCtx(context);
+			threadContext.set(context);
+			applied.remove();
+		}
+		return context;
+	}
+	
+	/**
+	 * Set values of request
+	 * @param context
+	 */
+	private void applyOverlay(Properties context) {
+		Env.setContext(context, Env.LANGUAGE, language);
+		Env.setContext(context, "#AD_Org_ID", organizationId);
+		if(warehouseId > 0) {
+			Env.setContext(context, "#M_Warehouse_ID", warehouseId);
+		}
+	}
+	
+	/**
+	 * Apply request context of a call on current thread. When the call has not context yet
+	 * the thread is marked as changed, because the call can change the context of thread
+	 * @param holder
+	 */
+	public static void apply(AtomicReference<RequestContext> holder) {
+		RequestContext requestContext = holder.get();
+		if(requestContext == null) {
+			applied.remove();
+			return;
+		}
+		requestContext.apply();
+	}
+	
+	/**
+	 * Get Session
+	 * @return
+	 */
+	public SessionContext getSession() {
+		return session;
+	}
+	
+	/**
+	 * Get Language
+	 * @return
+	 */
+	public String getLanguage() {
+		return language;
+	}
+	
+	/**
+	 * Get Organization
+	 * @return
+	 */
+	public int getOrganizationId() {
+		return organizationId;
+	}
+	
+	/**
+	 * Get Warehouse
+	 * @return
+	 */
+	public int getWarehouseId() {
+		return warehouseId;
+	}
+}
@@ -0,0 +1,153 @@
+/*************************************************************************************
+ * Product: Adempiere ERP & CRM Smart Business Solution                              *
+ * This program is free software; you can redistribute it and/or modify it    		 *
+ * under the terms version 2 or later of the GNU General Public License as published *
+ * by the Free Software Foundation. This program is distributed in the hope   		 *
+ * that it will be useful, but WITHOUT ANY WARRANTY; without even the implied 		 *
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.           		 *
+ * See the GNU General Public License for more details.                       		 *
+ * You should have received a copy of the GNU General Public License along    		 *
+ * with this program; if not, write to the Free Software Foundation, Inc.,    		 *
+ * 59 Temple Place, Suite 330, Boston, MA 02111-1307 USA.                     		 *
+ * For the text or an alternative of this public license, you may reach us    		 *
+ * Copyright (C) 2012-2018 E.R.P. Consultores y Asociados, S.A. All Rights Reserved. *
+ * Contributor(s): Yamel Senih www.erpya.com				  		                 *
+ *************************************************************************************/
+package org.spin.base.util;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.compiere.util.Util;
+import org.spin.grpc.util.ClientRequest;
+
+import com.google.protobuf.Descriptors.Descriptor;
+import com.google.protobuf.Descriptors.FieldDescriptor;
+import com.google.protobuf.Message;
+
+/**
+ * Read common values from gRPC request messages without know the type.
+ * The session is a string field session_uuid on request or on a first level message
+ * like ClientRequest or ApplicationRequest. The path is resolved once for each type.
+ * @author Yamel Senih, ysenih@erpya.com , http://www.erpya.com
+ */
+public class RequestUtil {
+	/**	Field names	*/
+	private static final String SESSION_UUID = "session_uuid";
+	private static final String LANGUAGE = "language";
+	private static final String ORGANIZATION_UUID = "organization_uuid";
+	private static final String WAREHOUSE_UUID = "warehouse_uuid";
+	/**	Path to session by type, empty when type has not session	*/
+	private static final Map<Descriptor, FieldDescriptor[]> sessionPaths = new ConcurrentHashMap<>();
+	
+	/**
+	 * Get session uuid from request
+	 * @param request
+	 * @return null if request has not session
+	 */
+	public static String getSessionUuid(Object request) {
+		if(!(request instanceof Message)) {
+			return null;
+		}
+		Message message = (Message) request;
+		FieldDescriptor[] path = sessionPaths.computeIfAbsent(message.getDescriptorForType(), RequestUtil::getSessionPath);
+		if(path.length == 0) {
+			return null;
+		}
+		Object value = message;
+		for(FieldDescriptor field : path) {
+			value = ((Message) value).getField(field);
+		}
+		String sessionUuid = (String) value;
+		if(Util.isEmpty(sessionUuid)) {
+			return null;
+		}
+		return sessionUuid;
+	}
+	
+	/**
+	 * Get client values (session, language, organization and warehouse) from request
+	 * @param request
+	 * @return null if request has not session
+	 */
+	public static ClientRequest getClientRequest(Object request) {
+		if(!(request instanceof Message)) {
+			return null;
+		}
+		Message message = (Message) request;
+		if(message instanceof ClientRequest) {
+			return (ClientRequest) message;
+		}
+		FieldDescriptor[] path = sessionPaths.computeIfAbsent(message.getDescriptorForType(), RequestUtil::getSessionPath);
+		if(path.length == 0) {
+			return null;
+		}
+		//	Message with session
+		for(int index = 0; index < path.length - 1; index++) {
+			message = (Message) message.getField(path[index]);
+		}
+		if(message instanceof ClientRequest) {
+			return (ClientRequest) message;
+		}
+		return ClientRequest.newBuilder()
+				.setSessionUuid(getString(message, SESSION_UUID))
+				.setLanguage(getString(message, LANGUAGE))
+				.setOrganizationUuid(getString(message, ORGANIZATION_UUID))
+				.setWarehouseUuid(getString(message, WAREHOUSE_UUID))
+				.build();
+	}
+	
+	/**
+	 * Get string field by name
+	 * @param message
+	 * @param fieldName
+	 * @return empty if it is not found
+	 */
+	private static String getString(Message message, String fieldName) {
+		FieldDescriptor field = message.getDescriptorForType().findFieldByName(fieldName);
+		if(field == null
+				|| field.isRepeated()
+				|| field.getJavaType() != FieldDescriptor.JavaType.STRING) {
+			return "";
+		}
+		return (String) message.getField(field);
+	}
+	
+	/**
+	 * Get path of session on type
+	 * @param descriptor
+	 * @return
+	 */
+	private static FieldDescriptor[] getSessionPath(Descriptor descriptor) {
+		FieldDescriptor sessionField = getSessionField(descriptor);
+		if(sessionField != null) {
+			return new FieldDescriptor[] {sessionField};
+		}
+		for(FieldDescriptor field : descriptor.getFields()) {
+			if(field.getJavaType() != FieldDescriptor.JavaType.MESSAGE
+					|| field.isRepeated()) {
+				continue;
+			}
+			sessionField = getSessionField(field.getMessageType());
+			if(sessionField != null) {
+				return new FieldDescriptor[] {field, sessionField};
+			}
+		}
+		return new FieldDescriptor[0];
+	}
+	
+	/**
+	 * Get session field of type
+	 * @param descriptor
+	 * @return
+	 */
+	private static FieldDescriptor getSessionField(Descriptor descriptor) {
+		FieldDescriptor field = descriptor.findFieldByName(SESSION_UUID);
+		if(field == null
+				|| field.isRepeated()
+				|| field.getJavaType() != FieldDescriptor.JavaType.STRING) {
+			return null;
+		}
+		return field;
+	}
+}
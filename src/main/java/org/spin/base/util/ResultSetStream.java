@@ -0,0 +1,256 @@
+/*************************************************************************************
+ * Product: Adempiere ERP & CRM Smart Business Solution                              *
+ * This program is free software; you can redistribute it and/or modify it    		 *
+ * under the terms version 2 or later of the GNU General Public License as published *
+ * by the Free Software Foundation. This program is distributed in the hope   		 *
+ * that it will be useful, but WITHOUT ANY WARRANTY; without even the implied 		 *
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.           		 *
+ * See the GNU General Public License for more details.                       		 *
+ * You should have received a copy of the GNU General Public License along    		 *
+ * with this program; if not, write to the Free Software Foundation, Inc.,    		 *
+ * 59 Temple Place, Suite 330, Boston, MA 02111-1307 USA.                     		 *
+ * For the text or an alternative of this public license, you may reach us    		 *
+ * Copyright (C) 2012-2018 E.R.P. Consultores y Asociados, S.A. All Rights Reserved. *
+ * Contributor(s): Yamel Senih www.erpya.com				  		                 *
+ *************************************************************************************/
+package org.spin.base.util;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import org.compiere.util.DB;
+import org.compiere.util.Trx;
+import org.spin.base.metrics.CallTiming;
+import org.spin.base.metrics.CallTiming.Phase;
+
+import io.grpc.Status;
+import io.grpc.stub.ServerCallStreamObserver;
+import io.grpc.stub.StreamObserver;
+
+/**
+ * Send the rows of a query as a stream of messages while the client can receive them.
+ * The rows are sent only when the call is ready (flow control of transport), when it is not ready the
+ * read of rows stop until the call is ready again (on ready handler), then only a window of rows is on memory.
+ * The statement run on a read only transaction with fetch size, then the database driver use a cursor
+ * instead of read all rows (PostgreSQL need a transaction for it).
+ * The stream keep a connection while it is open, then it is finished with error (deadline exceeded) when
+ * the client does not receive rows for {@link #IDLE_TIMEOUT} seconds or it is open for more than
+ * {@link #MAX_DURATION} seconds, a client stalled can not keep the connection.
+ * <pre>
+ * ResultSetStream.start(responseObserver, sql, parameters, resultSet -> convertEntity(resultSet));
+ * </pre>
+ * It must be started on the service method (the handlers of call can not be changed later).
+ * @author Yamel Senih, ysenih@erpya.com , http://www.erpya.com
+ */
+public final class ResultSetStream<T> implements Runnable {
+	/**	Logger			*/
+	private static final Logger logger = Logger.getLogger(ResultSetStream.class.getName());
+	/**	Rows fetched by round trip to database	*/
+	public static final int FETCH_SIZE = 200;
+	/**	Max time without send rows (seconds)	*/
+	public static final int IDLE_TIMEOUT = 60;
+	/**	Max time of stream (seconds)	*/
+	public static final int MAX_DURATION = 1800;
+	/**	Check of streams open	*/
+	private static final ScheduledExecutorService watchdog = Executors.newSingleThreadScheduledExecutor(runnable -> {
+		Thread thread = new Thread(runnable, "result-set-stream-watchdog");
+		thread.setDaemon(true);
+		return thread;
+	});
+	
+	/**
+	 * Convert a row to message
+	 */
+	@FunctionalInterface
+	public interface RowConverter<T> {
+		/**
+		 * Convert current row
+		 * @param resultSet
+		 * @return message or null for skip row
+		 * @throws SQLException
+		 */
+		T convert(ResultSet resultSet) throws SQLException;
+	}
+	
+	/**	Call	*/
+	private final ServerCallStreamObserver<T> observer;
+	/**	Query	*/
+	private final String sql;
+	private final List<Object> parameters;
+	/**	Converter	*/
+	private final RowConverter<T> converter;
+	/**	Statement	*/
+	private Trx transaction;
+	private PreparedStatement statement;
+	private ResultSet resultSet;
+	private QueryTrace trace;
+	/**	Rows sent	*/
+	private long rowCount = 0;
+	/**	Stream is finished (completed, failed or cancelled)	*/
+	private boolean isFinished = false;
+	/**	Start and last row sent (nanoseconds)	*/
+	private long startTime;
+	private long lastSendTime;
+	/**	Check of time	*/
+	private ScheduledFuture<?> timeoutCheck;
+	
+	private ResultSetStream(ServerCallStreamObserver<T> observer, String sql, List<Object> parameters, RowConverter<T> converter) {
+		this.observer = observer;
+		this.sql = sql;
+		this.parameters = parameters;
+		this.converter = converter;
+	}
+	
+	/**
+	 * Start stream of query, the rows are sent when the call is ready
+	 * @param responseObserver observer of server call
+	 * @param sql
+	 * @param parameters
+	 * @param converter
+	 */
+	public static <T> void start(StreamObserver<T> responseObserver, String sql, List<Object> parameters, RowConverter<T> converter) {
+		ResultSetStream<T> stream = new ResultSetStream<>((ServerCallStreamObserver<T>) responseObserver, sql, parameters, converter);
+		stream.observer.setOnCancelHandler(stream::cancel);
+		stream.observer.setOnReadyHandler(stream);
+		stream.run();
+	}
+	
+	/**
+	 * Send rows while call is ready
+	 */
+	@Override
+	public synchronized void run() {
+		if(isFinished) {
+			return;
+		}
+		try {
+			if(resultSet == null) {
+				open();
+			}
+			while(observer.isReady()) {
+				if(!trace.next(resultSet)) {
+					finish();
+					if(QueryTrace.isCancelled()) {
+						observer.onError(Status.CANCELLED.withDescription("Call cancelled").asRuntimeException());
+					} else {
+						observer.onCompleted();
+					}
+					return;
+				}
+				T message;
+				try (CallTiming.Scope scope = CallTiming.start(Phase.CONVERSION)) {
+					message = converter.convert(resultSet);
+				}
+				if(message != null) {
+					observer.onNext(message);
+					rowCount++;
+					lastSendTime = System.nanoTime();
+				}
+			}
+		} catch (Exception e) {
+			logger.log(Level.SEVERE, e.getLocalizedMessage(), e);
+			finish();
+			observer.onError(Status.INTERNAL
+					.withDescription(e.getLocalizedMessage())
+					.withCause(e)
+					.asRuntimeException());
+		}
+	}
+	
+	/**
+	 * Run query on a read only transaction
+	 * @throws SQLException
+	 */
+	private void open() throws SQLException {
+		startTime = System.nanoTime();
+		lastSendTime = startTime;
+		timeoutCheck = watchdog.scheduleWithFixedDelay(this::checkTimeout, 10, 10, TimeUnit.SECONDS);
+		transaction = Trx.get(Trx.createTrxName("Stream"), true);
+		//	Before first statement, the transaction is started as read only
+		transaction.getConnection().setReadOnly(true);
+		trace = QueryTrace.start(sql, parameters);
+		statement = DB.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY, transaction.getTrxName());
+		statement.setFetchSize(FETCH_SIZE);
+		int parameterIndex = 1;
+		for(Object value : parameters) {
+			ValueUtil.setParameterFromObject(statement, value, parameterIndex++);
+		}
+		resultSet = trace.executeQuery(statement);
+	}
+	
+	/**
+	 * Finish stream when client does not receive rows or it is open for long time
+	 */
+	private synchronized void checkTimeout() {
+		if(isFinished) {
+			return;
+		}
+		long now = System.nanoTime();
+		boolean isIdle = now - lastSendTime > TimeUnit.SECONDS.toNanos(IDLE_TIMEOUT);
+		if(!isIdle
+				&& now - startTime <= TimeUnit.SECONDS.toNanos(MAX_DURATION)) {
+			return;
+		}
+		logger.warning("Stream finished by " + (isIdle? "idle timeout": "max duration") + " after " + rowCount + " rows");
+		finish();
+		try {
+			observer.onError(Status.DEADLINE_EXCEEDED
+					.withDescription(isIdle? "Stream idle for " + IDLE_TIMEOUT + " seconds": "Stream open for " + MAX_DURATION + " seconds")
+					.asRuntimeException());
+		} catch (RuntimeException e) {
+			//	Call closed on transport
+			logger.fine(e.getLocalizedMessage());
+		}
+	}
+	
+	/**
+	 * Call is cancelled by client
+	 */
+	private synchronized void cancel() {
+		finish();
+	}
+	
+	/**
+	 * Close statement and transaction
+	 */
+	private void finish() {
+		if(isFinished) {
+			return;
+		}
+		isFinished = true;
+		if(timeoutCheck != null) {
+			timeoutCheck.cancel(false);
+			timeoutCheck = null;
+		}
+		DB.close(resultSet, statement);
+		resultSet = null;
+		statement = null;
+		if(trace != null) {
+			trace.finish(rowCount);
+		}
+		if(transaction != null) {
+			transaction.rollback();
+			//	The connection is returned to pool
+			Connection connection = transaction.getConnection();
+			try {
+				if(connection != null
+						&& connection.isReadOnly()) {
+					connection.setReadOnly(false);
+				}
+			} catch (SQLException e) {
+				logger.log(Level.WARNING, e.getLocalizedMessage());
+			}
+			transaction.close();
+			transaction = null;
+		}
+	}
+}
@@ -0,0 +1,88 @@
+/*************************************************************************************
+ * Product: Adempiere ERP & CRM Smart Business Solution                              *
+ * This program is free software; you can redistribute it and/or modify it    		 *
+ * under the terms version 2 or later of the GNU General Public License as published *
+ * by the Free Software Foundation. This program is distributed in the hope   		 *
+ * that it will be useful, but WITHOUT ANY WARRANTY; without even the implied 		 *
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.           		 *
+ * See the GNU General Public License for more details.                       		 *
+ * You should have received a copy of the GNU General Public License along    		 *
+ * with this program; if not, write to the Free Software Foundation, Inc.,    		 *
+ * 59 Temple Place, Suite 330, Boston, MA 02111-1307 USA.                     		 *
+ * For the text or an alternative of this public license, you may reach us    		 *
+ * Copyright (C) 2012-2018 E.R.P. Consultores y Asociados, S.A. All Rights Reserved. *
+ * Contributor(s): Yamel Senih www.erpya.com				  		                 *
+ *************************************************************************************/
+package org.spin.base.util;
+
+import com.google.protobuf.ByteString;
+import com.google.protobuf.MessageLite;
+
+/**
+ * A response message with its bytes serialized once, see {@link SerializedResponseCache}.
+ * When the message is sent, the marshaller of server write the bytes kept instead of serialize the message again.
+ * The message and its bytes are sent on the same thread of service, then the pending response is kept by thread.
+ * @author Yamel Senih, ysenih@erpya.com , http://www.erpya.com
+ */
+public final class SerializedResponse<M extends MessageLite> {
+	/**	Pending response of thread	*/
+	private static final ThreadLocal<SerializedResponse<?>> pending = new ThreadLocal<>();
+	/**	Message	*/
+	private final M message;
+	/**	Bytes of message	*/
+	private final ByteString bytes;
+	
+	private SerializedResponse(M message) {
+		this.message = message;
+		this.bytes = message.toByteString();
+	}
+	
+	/**
+	 * Serialize a message
+	 * @param message
+	 * @return
+	 */
+	public static <M extends MessageLite> SerializedResponse<M> of(M message) {
+		return new SerializedResponse<M>(message);
+	}
+	
+	/**
+	 * Get message for send it, the next send of this message on thread use the bytes kept
+	 * @return
+	 */
+	public M send() {
+		pending.set(this);
+		return message;
+	}
+	
+	/**
+	 * Take serialized response of a message to send
+	 * @param message
+	 * @return null if message is not a serialized response
+	 */
+	public static SerializedResponse<?> take(Object message) {
+		SerializedResponse<?> response = pending.get();
+		if(response == null
+				|| response.message != message) {
+			return null;
+		}
+		pending.remove();
+		return response;
+	}
+	
+	/**
+	 * Get message
+	 * @return
+	 */
+	public M getMessage() {
+		return message;
+	}
+	
+	/**
+	 * Get bytes of message
+	 * @return
+	 */
+	public ByteString getBytes() {
+		return bytes;
+	}
+}
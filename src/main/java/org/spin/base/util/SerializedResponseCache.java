@@ -0,0 +1,108 @@
+/*************************************************************************************
+ * Product: Adempiere ERP & CRM Smart Business Solution                              *
+ * This program is free software; you can redistribute it and/or modify it    		 *
+ * under the terms version 2 or later of the GNU General Public License as published *
+ * by the Free Software Foundation. This program is distributed in the hope   		 *
+ * that it will be useful, but WITHOUT ANY WARRANTY; without even the implied 		 *
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.           		 *
+ * See the GNU General Public License for more details.                       		 *
+ * You should have received a copy of the GNU General Public License along    		 *
+ * with this program; if not, write to the Free Software Foundation, Inc.,    		 *
+ * 59 Temple Place, Suite 330, Boston, MA 02111-1307 USA.                     		 *
+ * For the text or an alternative of this public license, you may reach us    		 *
+ * Copyright (C) 2012-2018 E.R.P. Consultores y Asociados, S.A. All Rights Reserved. *
+ * Contributor(s): Yamel Senih www.erpya.com				  		                 *
+ *************************************************************************************/
+package org.spin.base.util;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+import org.compiere.util.CCache;
+
+import com.google.protobuf.MessageLite;
+
+/**
+ * Cache of responses serialized once (see {@link SerializedResponse}), for responses that are the same
+ * for many calls (dictionary, menu by role, lists of setup). A call found on cache does not convert
+ * or serialize the response, the marshaller of server only copy the bytes kept to transport.
+ * It is a {@link CCache}, then it is reset with cache of server (and with changes of table when the
+ * name of cache start with table name, or with changes of the dependent tables, for example the fields of a window).
+ * The key must have all values used for build the response
+ * (client, role, user, language and {@link ValueEncoding} when it has decimals or dates).
+ * @author Yamel Senih, ysenih@erpya.com , http://www.erpya.com
+ */
+public final class SerializedResponseCache<K, M extends MessageLite> {
+	/**	Responses	*/
+	private final CCache<K, SerializedResponse<M>> responses;
+	
+	/**	Listeners of dependent tables, kept for the life of cache	*/
+	private final List<DependentTable> dependencies = new ArrayList<>();
+	
+	/**
+	 * Default constructor
+	 * @param name name of cache
+	 * @param initialCapacity
+	 * @param expireMinutes 0 for no time-out
+	 * @param dependentTables tables used for build the response, a change of them also reset the cache
+	 */
+	public SerializedResponseCache(String name, int initialCapacity, int expireMinutes, String... dependentTables) {
+		responses = new CCache<K, SerializedResponse<M>>(name, initialCapacity, expireMinutes);
+		for(String tableName : dependentTables) {
+			dependencies.add(new DependentTable(tableName + "_" + name, responses));
+		}
+	}
+	
+	/**
+	 * Get response for send it, it is converted and serialized when it is not on cache
+	 * @param key
+	 * @param loader
+	 * @return
+	 */
+	public M get(K key, Supplier<M> loader) {
+		return get(key, loader, message -> true);
+	}
+	
+	/**
+	 * Get response for send it, it is converted and serialized when it is not on cache
+	 * @param key
+	 * @param loader
+	 * @param isCacheable the response loaded is kept only when it is true
+	 * @return
+	 */
+	public M get(K key, Supplier<M> loader, Predicate<M> isCacheable) {
+		SerializedResponse<M> response = responses.get(key);
+		if(response != null) {
+			return response.send();
+		}
+		M message = loader.get();
+		if(!isCacheable.test(message)) {
+			return message;
+		}
+		response = SerializedResponse.of(message);
+		responses.put(key, response);
+		return response.send();
+	}
+	
+	/**
+	 * Empty cache named with a dependent table, the cache management reset it with
+	 * changes of table (name start with table name) and it reset the responses
+	 */
+	private static final class DependentTable extends CCache<Object, Object> {
+		private static final long serialVersionUID = 1L;
+		/**	Responses	*/
+		private final CCache<?, ?> responses;
+		
+		private DependentTable(String name, CCache<?, ?> responses) {
+			super(name, 1, 0);
+			this.responses = responses;
+		}
+		
+		@Override
+		public int reset() {
+			return responses.reset() + super.reset();
+		}
+	}
+}
@@ -31,6 +31,7 @@ public enum Services {
     STORE("store"),
     POS("pos"),
     UPDATER("updater"),
+    ADMIN("admin"),
     EXTENSION("extension");
 
 	/**	Service Name	*/
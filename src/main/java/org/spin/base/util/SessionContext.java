@@ -0,0 +1,148 @@
+/*************************************************************************************
+ * Product: Adempiere ERP & CRM Smart Business Solution                              *
+ * This program is free software; you can redistribute it and/or modify it    		 *
+ * under the terms version 2 or later of the GNU General Public License as published *
+ * by the Free Software Foundation. This program is distributed in the hope   		 *
+ * that it will be useful, but WITHOUT ANY WARRANTY; without even the implied 		 *
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.           		 *
+ * See the GNU General Public License for more details.                       		 *
+ * You should have received a copy of the GNU General Public License along    		 *
+ * with this program; if not, write to the Free Software Foundation, Inc.,    		 *
+ * 59 Temple Place, Suite 330, Boston, MA 02111-1307 USA.                     		 *
+ * For the text or an alternative of this public license, you may reach us    		 *
+ * Copyright (C) 2012-2018 E.R.P. Consultores y Asociados, S.A. All Rights Reserved. *
+ * Contributor(s): Yamel Senih www.erpya.com				  		                 *
+ *************************************************************************************/
+package org.spin.base.util;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Properties;
+
+/**
+ * Immutable snapshot of a session context (client, role, user, default organization...).
+ * It is loaded once for session and shared by all calls of session, the values for each
+ * request (language, organization, warehouse) are a overlay on {@link RequestContext}
+ * then the snapshot is never changed after it is cached.
+ * @author Yamel Senih, ysenih@erpya.com , http://www.erpya.com
+ */
+public final class SessionContext {
+	/**	Session UUID	*/
+	private final String sessionUuid;
+	/**	Default organization of session	*/
+	private final int organizationId;
+	/**	Values	*/
+	private final Map<Object, Object> values;
+	
+	/**
+	 * Create snapshot from context
+	 * @param sessionUuid
+	 * @param organizationId
+	 * @param context
+	 */
+	public SessionContext(String sessionUuid, int organizationId, Properties context) {
+		this(sessionUuid, organizationId, new HashMap<>(context));
+	}
+	
+	/**
+	 * Create snapshot from values
+	 * @param sessionUuid
+	 * @param organizationId
+	 * @param values
+	 */
+	private SessionContext(String sessionUuid, int organizationId, Map<Object, Object> values) {
+		this.sessionUuid = sessionUuid;
+		this.organizationId = organizationId;
+		this.values = Collections.unmodifiableMap(values);
+	}
+	
+	/**
+	 * Write snapshot for share it with other nodes, only text values are written
+	 * @param output
+	 * @throws IOException
+	 */
+	public void write(DataOutput output) throws IOException {
+		output.writeUTF(sessionUuid);
+		output.writeInt(organizationId);
+		int size = 0;
+		for(Map.Entry<Object, Object> entry : values.entrySet()) {
+			if(entry.getKey() instanceof String
+					&& entry.getValue() instanceof String) {
+				size++;
+			}
+		}
+		output.writeInt(size);
+		for(Map.Entry<Object, Object> entry : values.entrySet()) {
+			if(entry.getKey() instanceof String
+					&& entry.getValue() instanceof String) {
+				output.writeUTF((String) entry.getKey());
+				output.writeUTF((String) entry.getValue());
+			}
+		}
+	}
+	
+	/**
+	 * Read snapshot written by {@link #write(DataOutput)}
+	 * @param input
+	 * @return
+	 * @throws IOException
+	 */
+	public static SessionContext read(DataInput input) throws IOException {
+		String sessionUuid = input.readUTF();
+		int organizationId = input.readInt();
+		int size = input.readInt();
+		Map<Object, Object> values = new HashMap<>(Math.max(16, size * 2));
+		for(int index = 0; index < size; index++) {
+			values.put(input.readUTF(), input.readUTF());
+		}
+		return new SessionContext(sessionUuid, organizationId, values);
+	}
+	
+	/**
+	 * Replace values of context with values of session
+	 * @param context Properties of current thread only (see {@link RequestContext#getThreadContext()})
+	 */
+	public void applyTo(Properties context) {
+		context.clear();
+		context.putAll(values);
+	}
+	
+	/**
+	 * Get a copy of snapshot for other key of session (the values are shared)
+	 * @param sessionUuid session UUID or token, empty when it is sent to other nodes without key
+	 * @return
+	 */
+	public SessionContext withSessionUuid(String sessionUuid) {
+		return new SessionContext(sessionUuid, organizationId, values);
+	}
+	
+	/**
+	 * Get Session UUID
+	 * @return
+	 */
+	public String getSessionUuid() {
+		return sessionUuid;
+	}
+	
+	/**
+	 * Get default organization of session
+	 * @return
+	 */
+	public int getOrganizationId() {
+		return organizationId;
+	}
+	
+	/**
+	 * Get a value of snapshot
+	 * @param key
+	 * @return
+	 */
+	public String getValue(String key) {
+		Object value = values.get(key);
+		return value == null? null: value.toString();
+	}
+}
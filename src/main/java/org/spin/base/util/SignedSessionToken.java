@@ -0,0 +1,323 @@
+/*************************************************************************************
+ * Product: Adempiere ERP & CRM Smart Business Solution                              *
+ * This program is free software; you can redistribute it and/or modify it    		 *
+ * under the terms version 2 or later of the GNU General Public License as published *
+ * by the Free Software Foundation. This program is distributed in the hope   		 *
+ * that it will be useful, but WITHOUT ANY WARRANTY; without even the implied 		 *
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.           		 *
+ * See the GNU General Public License for more details.                       		 *
+ * You should have received a copy of the GNU General Public License along    		 *
+ * with this program; if not, write to the Free Software Foundation, Inc.,    		 *
+ * 59 Temple Place, Suite 330, Boston, MA 02111-1307 USA.                     		 *
+ * For the text or an alternative of this public license, you may reach us    		 *
+ * Copyright (C) 2012-2018 E.R.P. Consultores y Asociados, S.A. All Rights Reserved. *
+ * Contributor(s): Yamel Senih www.erpya.com				  		                 *
+ *************************************************************************************/
+package org.spin.base.util;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.Base64;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Logger;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+
+import org.spin.base.setup.SessionToken;
+import org.spin.base.setup.SetupLoader;
+
+/**
+ * Compact session token signed with HMAC-SHA256. The token has the session, user, role,
+ * client, organization and expiration, then any node with same secret can verify it
+ * without access to database:
+ * <pre>
+ * v1.&lt;base64url(values)&gt;.&lt;base64url(signature)&gt;
+ * </pre>
+ * The tokens of closed sessions (logout) are kept on a revocation list until they expire.
+ * The tokens are accepted only when they are enabled on setup, the secret is validated when the server start
+ * (see {@link SetupLoader#isValidSecret(String)}).
+ * @author Yamel Senih, ysenih@erpya.com , http://www.erpya.com
+ */
+public final class SignedSessionToken {
+	/**	Logger			*/
+	private static final Logger logger = Logger.getLogger(SignedSessionToken.class.getName());
+	/**	Prefix of token	*/
+	private static final String PREFIX = "v1.";
+	/**	Algorithm	*/
+	private static final String ALGORITHM = "HmacSHA256";
+	/**	Setup	*/
+	private static final SessionToken setup = SetupLoader.getInstance() == null
+			? new SessionToken()
+			: SetupLoader.getInstance().getServer().getSession_token();
+	/**	Key for sign	*/
+	private static final SecretKeySpec key = createKey();
+	/**	Mac by thread	*/
+	private static final ThreadLocal<Mac> mac = ThreadLocal.withInitial(SignedSessionToken::createMac);
+	/**	Revoked sessions (AD_Session_ID) with expiration of last token	*/
+	private static final Map<Integer, Long> revokedSessions = new ConcurrentHashMap<>();
+	/**	Base 64 without padding for URL and headers	*/
+	private static final Base64.Encoder encoder = Base64.getUrlEncoder().withoutPadding();
+	private static final Base64.Decoder decoder = Base64.getUrlDecoder();
+	
+	/**	Values of token	*/
+	private final int sessionId;
+	private final String sessionUuid;
+	private final int userId;
+	private final int roleId;
+	private final int clientId;
+	private final int organizationId;
+	/**	Expiration (milliseconds since epoch)	*/
+	private final long expiration;
+	
+	private SignedSessionToken(int sessionId, String sessionUuid, int userId, int roleId, int clientId, int organizationId, long expiration) {
+		this.sessionId = sessionId;
+		this.sessionUuid = sessionUuid;
+		this.userId = userId;
+		this.roleId = roleId;
+		this.clientId = clientId;
+		this.organizationId = organizationId;
+		this.expiration = expiration;
+	}
+	
+	/**
+	 * Is enabled on setup
+	 * @return
+	 */
+	public static boolean isEnabled() {
+		return setup.isEnabled();
+	}
+	
+	/**
+	 * Verify if a value has format of token
+	 * @param value
+	 * @return
+	 */
+	public static boolean isToken(String value) {
+		return value != null
+				&& value.startsWith(PREFIX);
+	}
+	
+	/**
+	 * Create a signed token for session
+	 * @param sessionId
+	 * @param sessionUuid
+	 * @param userId
+	 * @param roleId
+	 * @param clientId
+	 * @param organizationId
+	 * @return
+	 */
+	public static String create(int sessionId, String sessionUuid, int userId, int roleId, int clientId, int organizationId) {
+		long expiration = System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(setup.getExpiration());
+		ByteArrayOutputStream output = new ByteArrayOutputStream(64);
+		try (DataOutputStream data = new DataOutputStream(output)) {
+			data.writeInt(sessionId);
+			data.writeInt(userId);
+			data.writeInt(roleId);
+			data.writeInt(clientId);
+			data.writeInt(organizationId);
+			data.writeLong(expiration);
+			data.writeUTF(sessionUuid);
+		} catch (IOException e) {
+			throw new IllegalStateException(e);
+		}
+		String payload = encoder.encodeToString(output.toByteArray());
+		return PREFIX + payload + "." + encoder.encodeToString(sign(payload));
+	}
+	
+	/**
+	 * Verify signature, expiration and revocation of token
+	 * @param token
+	 * @return null if token is not valid
+	 */
+	public static SignedSessionToken verify(String token) {
+		if(!isEnabled()
+				|| !isToken(token)) {
+			return null;
+		}
+		int separator = token.indexOf('.', PREFIX.length());
+		if(separator < 0) {
+			return null;
+		}
+		String payload = token.substring(PREFIX.length(), separator);
+		try {
+			byte[] signature = decoder.decode(token.substring(separator + 1));
+			if(!MessageDigest.isEqual(sign(payload), signature)) {
+				return null;
+			}
+			SignedSessionToken sessionToken;
+			try (DataInputStream data = new DataInputStream(new ByteArrayInputStream(decoder.decode(payload)))) {
+				int sessionId = data.readInt();
+				int userId = data.readInt();
+				int roleId = data.readInt();
+				int clientId = data.readInt();
+				int organizationId = data.readInt();
+				long expiration = data.readLong();
+				sessionToken = new SignedSessionToken(sessionId, data.readUTF(), userId, roleId, clientId, organizationId, expiration);
+			}
+			if(sessionToken.isExpired()
+					|| revokedSessions.containsKey(sessionToken.getSessionId())) {
+				return null;
+			}
+			return sessionToken;
+		} catch (IllegalArgumentException | IOException e) {
+			return null;
+		}
+	}
+	
+	/**
+	 * Get session UUID from a token or return the value when it is not a token
+	 * @param value
+	 * @return
+	 */
+	public static String getSessionUuid(String value) {
+		if(!isToken(value)) {
+			return value;
+		}
+		SignedSessionToken sessionToken = verify(value);
+		if(sessionToken == null) {
+			return null;
+		}
+		return sessionToken.getSessionUuid();
+	}
+	
+	/**
+	 * Revoke all tokens of session (logout)
+	 * @param sessionId AD_Session_ID
+	 * @return expiration of revocation (milliseconds since epoch), the tokens created before it expire before it
+	 */
+	public static long revoke(int sessionId) {
+		long expiration = System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(setup.getExpiration());
+		revoke(sessionId, expiration);
+		return expiration;
+	}
+	
+	/**
+	 * Revoke all tokens of session until expiration, used for revocations of other nodes
+	 * @param sessionId AD_Session_ID
+	 * @param expiration milliseconds since epoch
+	 */
+	public static void revoke(int sessionId, long expiration) {
+		long now = System.currentTimeMillis();
+		if(sessionId <= 0
+				|| expiration < now) {
+			return;
+		}
+		//	Expired tokens are not valid, then they are not needed on list
+		revokedSessions.values().removeIf(revokedUntil -> revokedUntil < now);
+		revokedSessions.merge(sessionId, expiration, Math::max);
+	}
+	
+	/**
+	 * Verify if tokens of session are revoked
+	 * @param sessionId
+	 * @return
+	 */
+	public static boolean isRevoked(int sessionId) {
+		Long expiration = revokedSessions.get(sessionId);
+		return expiration != null
+				&& expiration >= System.currentTimeMillis();
+	}
+	
+	/**
+	 * Sign payload with secret of server
+	 * @param payload
+	 * @return
+	 */
+	private static byte[] sign(String payload) {
+		return mac.get().doFinal(payload.getBytes(StandardCharsets.US_ASCII));
+	}
+	
+	/**
+	 * Derive a key for other tokens (pages) from key of session tokens, each purpose has its own key.
+	 * It is shared by nodes only when tokens are enabled with a valid secret, else it is random by process
+	 * @param purpose
+	 * @return
+	 */
+	static byte[] deriveKey(String purpose) {
+		return sign("key:" + purpose);
+	}
+	
+	/**
+	 * Create key from secret of setup, a random key is used when tokens are not enabled
+	 * or the secret is not valid (the server does not start with it)
+	 * @return
+	 */
+	private static SecretKeySpec createKey() {
+		byte[] secret;
+		if(setup.isEnabled()
+				&& SetupLoader.isValidSecret(setup.getSecret())) {
+			secret = setup.getSecret().trim().getBytes(StandardCharsets.UTF_8);
+		} else {
+			secret = new byte[32];
+			new SecureRandom().nextBytes(secret);
+			if(setup.isEnabled()) {
+				logger.warning("Secret of session token is not valid, using a random secret (tokens are valid only on this node)");
+			}
+		}
+		return new SecretKeySpec(secret, ALGORITHM);
+	}
+	
+	/**
+	 * Create mac for thread
+	 * @return
+	 */
+	private static Mac createMac() {
+		try {
+			Mac instance = Mac.getInstance(ALGORITHM);
+			instance.init(key);
+			return instance;
+		} catch (GeneralSecurityException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+	
+	/**
+	 * Is expired
+	 * @return
+	 */
+	public boolean isExpired() {
+		return expiration < System.currentTimeMillis();
+	}
+	
+	public int getSessionId() {
+		return sessionId;
+	}
+	
+	public String getSessionUuid() {
+		return sessionUuid;
+	}
+	
+	public int getUserId() {
+		return userId;
+	}
+	
+	public int getRoleId() {
+		return roleId;
+	}
+	
+	public int getClientId() {
+		return clientId;
+	}
+	
+	public int getOrganizationId() {
+		return organizationId;
+	}
+	
+	/**
+	 * @return expiration in milliseconds since epoch
+	 */
+	public long getExpiration() {
+		return expiration;
+	}
+}
@@ -0,0 +1,65 @@
+/*************************************************************************************
+ * Product: Adempiere ERP & CRM Smart Business Solution                              *
+ * This program is free software; you can redistribute it and/or modify it    		 *
+ * under the terms version 2 or later of the GNU General Public License as published *
+ * by the Free Software Foundation. This program is distributed in the hope   		 *
+ * that it will be useful, but WITHOUT ANY WARRANTY; without even the implied 		 *
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.           		 *
+ * See the GNU General Public License for more details.                       		 *
+ * You should have received a copy of the GNU General Public License along    		 *
+ * with this program; if not, write to the Free Software Foundation, Inc.,    		 *
+ * 59 Temple Place, Suite 330, Boston, MA 02111-1307 USA.                     		 *
+ * For the text or an alternative of this public license, you may reach us    		 *
+ * Copyright (C) 2012-2018 E.R.P. Consultores y Asociados, S.A. All Rights Reserved. *
+ * Contributor(s): Yamel Senih www.erpya.com				  		                 *
+ *************************************************************************************/
+package org.spin.base.util;
+
+import io.grpc.Context;
+
+/**
+ * Encoding of decimals and dates sent to client. It is a capability of client, sent on header
+ * x-value-encoding of each call and attached to the gRPC context by context interceptor:
+ * <ul>
+ * <li>TEXT (default): decimals as plain text and dates as text (yyyy-MM-dd hh:mm:ss)</li>
+ * <li>COMPACT: decimals as unscaled long (bytes when it does not fit) with scale and dates as epoch millis</li>
+ * </ul>
+ * The values of client are read on both encodings.
+ * @author Yamel Senih, ysenih@erpya.com , http://www.erpya.com
+ */
+public enum ValueEncoding {
+	TEXT,
+	COMPACT;
+	
+	/**	Key on gRPC context	*/
+	public static final Context.Key<ValueEncoding> KEY = Context.keyWithDefault("adempiere-value-encoding", TEXT);
+	
+	/**
+	 * Get encoding from value of header
+	 * @param headerValue
+	 * @return TEXT for empty or unknown values
+	 */
+	public static ValueEncoding fromHeader(String headerValue) {
+		if(headerValue != null
+				&& COMPACT.name().equalsIgnoreCase(headerValue.trim())) {
+			return COMPACT;
+		}
+		return TEXT;
+	}
+	
+	/**
+	 * Get encoding of current call
+	 * @return TEXT outside of a call
+	 */
+	public static ValueEncoding current() {
+		return KEY.get();
+	}
+	
+	/**
+	 * Verify if current call use compact encoding
+	 * @return
+	 */
+	public static boolean isCompact() {
+		return current() == COMPACT;
+	}
+}
@@ -16,11 +16,17 @@
 package org.spin.base.util;
 
 import java.math.BigDecimal;
+import java.math.BigInteger;
 import java.sql.PreparedStatement;
 import java.sql.SQLException;
 import java.sql.Timestamp;
 import java.text.ParseException;
-import java.text.SimpleDateFormat;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeFormatterBuilder;
+import java.time.format.ResolverStyle;
+import java.time.temporal.ChronoField;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.List;
@@ -41,6 +47,8 @@ import org.spin.grpc.util.Value;
 import org.spin.grpc.util.Condition.Operator;
 import org.spin.grpc.util.Value.ValueType;
 
+import com.google.protobuf.ByteString;
+
 /**
  * Class for handle Values from and to client
  * @author Yamel Senih, ysenih@erpya.com , http://www.erpya.com
@@ -50,6 +58,14 @@ public class ValueUtil {
 	/**	Date format	*/
 	private static final String TIME_FORMAT = "yyyy-MM-dd hh:mm:ss";
 	private static final String DATE_FORMAT = "yyyy-MM-dd";
+	/**	Date formatters (thread safe), lenient as SimpleDateFormat	*/
+	private static final DateTimeFormatter TIME_FORMATTER = new DateTimeFormatterBuilder()
+			.appendPattern(TIME_FORMAT)
+			.parseDefaulting(ChronoField.AMPM_OF_DAY, 0)
+			.toFormatter()
+			.withResolverStyle(ResolverStyle.LENIENT);
+	private static final DateTimeFormatter DATE_FORMATTER = DateTimeFormatter.ofPattern(DATE_FORMAT)
+			.withResolverStyle(ResolverStyle.LENIENT);
 	
 	/**
 	 * Get Value 
@@ -124,11 +140,11 @@ public class ValueUtil {
 	 * @return
 	 */
 	public static Value.Builder getValueFromDecimal(BigDecimal value) {
-		return Value.newBuilder().setDecimalValue(Decimal.newBuilder().setDecimalValue(value.toPlainString()).setScale(value.scale())).setValueType(ValueType.DECIMAL);
+		return Value.newBuilder().setDecimalValue(getDecimalFromBigDecimal(value)).setValueType(ValueType.DECIMAL);
 	}
 	
 	/**
-	 * Get decimal from big decimal
+	 * Get decimal from big decimal, with encoding of current call (see {@link ValueEncoding})
 	 * @param value
 	 * @return
 	 */
@@ -136,6 +152,16 @@ public class ValueUtil {
 		if(value == null) {
 			return Decimal.newBuilder();
 		}
+		if(ValueEncoding.isCompact()) {
+			Decimal.Builder builder = Decimal.newBuilder().setScale(value.scale());
+			BigInteger unscaledValue = value.unscaledValue();
+			if(unscaledValue.bitLength() <= 63) {
+				builder.setUnscaledValue(unscaledValue.longValue());
+			} else {
+				builder.setUnscaledBytes(ByteString.copyFrom(unscaledValue.toByteArray()));
+			}
+			return builder;
+		}
 		return Decimal.newBuilder().setDecimalValue(value.toPlainString()).setScale(value.scale());
 	}
 	
@@ -145,23 +171,29 @@ public class ValueUtil {
 	 * @return
 	 */
 	public static BigDecimal getDecimalFromValue(Value value) {
-		if(Util.isEmpty(value.getDecimalValue().getDecimalValue())) {
-			return null;
-		}
-		return new BigDecimal(value.getDecimalValue().getDecimalValue());
+		return getBigDecimalFromDecimal(value.getDecimalValue());
 	}
 	
 	/**
-	 * Get BigDecimal object from decimal
+	 * Get BigDecimal object from decimal, as text or as unscaled value
 	 * @param decimalValue
-	 * @return
+	 * @return null when decimal is empty
 	 */
 	public static BigDecimal getBigDecimalFromDecimal(Decimal decimalValue) {
-		if(decimalValue == null 
-				|| Util.isEmpty(decimalValue.getDecimalValue())) {
+		if(decimalValue == null) {
 			return null;
 		}
-		return new BigDecimal(decimalValue.getDecimalValue());
+		if(!Util.isEmpty(decimalValue.getDecimalValue())) {
+			return new BigDecimal(decimalValue.getDecimalValue());
+		}
+		switch (decimalValue.getUnscaledCase()) {
+			case UNSCALED_VALUE:
+				return BigDecimal.valueOf(decimalValue.getUnscaledValue(), decimalValue.getScale());
+			case UNSCALED_BYTES:
+				return new BigDecimal(new BigInteger(decimalValue.getUnscaledBytes().toByteArray()), decimalValue.getScale());
+			default:
+				return null;
+		}
 	}
 	
 	/**
@@ -660,7 +692,8 @@ public class ValueUtil {
 	}
 	
 	/**
-	 * Convert string to dates
+	 * Convert string to dates, the epoch millis are only accepted when client negotiated the compact encoding,
+	 * on text encoding a date of only digits (like 20200101) is validated as text
 	 * @param date
 	 * @return
 	 */
@@ -668,21 +701,40 @@ public class ValueUtil {
 		if(Util.isEmpty(date)) {
 			return null;
 		}
-		String format = DATE_FORMAT;
+		if(ValueEncoding.isCompact()
+				&& isEpochMillis(date)) {
+			return new Timestamp(Long.parseLong(date));
+		}
+		boolean isTime = false;
 		if(date.length() == TIME_FORMAT.length()) {
-			format = TIME_FORMAT;
+			isTime = true;
 		} else if(date.length() != DATE_FORMAT.length()) {
 			throw new AdempiereException("Invalid date format, please use some like this: \"" + DATE_FORMAT + "\" or \"" + TIME_FORMAT + "\"");
 		}
-		SimpleDateFormat dateConverter = new SimpleDateFormat(format);
 		try {
-			Date validFromParameter = dateConverter.parse(date);
-			return new Timestamp(validFromParameter.getTime());
+			if(isTime) {
+				return Timestamp.valueOf(LocalDateTime.parse(date, TIME_FORMATTER));
+			}
+			return Timestamp.valueOf(LocalDate.parse(date, DATE_FORMATTER).atStartOfDay());
 		} catch (Exception e) {
 			throw new AdempiereException(e);
 		}
 	}
 	
+	/**
+	 * Verify if a date is sent as epoch millis (only digits)
+	 * @param date
+	 * @return
+	 */
+	private static boolean isEpochMillis(String date) {
+		for(int index = 0; index < date.length(); index++) {
+			if(!Character.isDigit(date.charAt(index))) {
+				return false;
+			}
+		}
+		return true;
+	}
+	
 	/**
 	 * Convert Timestamp to String
 	 * @param date
@@ -692,7 +744,19 @@ public class ValueUtil {
 		if(date == null) {
 			return null;
 		}
-		return new SimpleDateFormat(TIME_FORMAT).format(date);
+		return date.toLocalDateTime().format(TIME_FORMATTER);
+	}
+	
+	/**
+	 * Get epoch millis of a date (compact encoding)
+	 * @param date
+	 * @return 0 for null date
+	 */
+	public static long getLongFromDate(Timestamp date) {
+		if(date == null) {
+			return 0;
+		}
+		return date.getTime();
 	}
 
 }
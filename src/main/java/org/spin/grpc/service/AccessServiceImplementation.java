@@ -40,7 +40,6 @@ import org.compiere.model.MTreeNode;
 import org.compiere.model.MUser;
 import org.compiere.model.MWindow;
 import org.compiere.model.Query;
-import org.compiere.util.CCache;
 import org.compiere.util.CLogger;
 import org.compiere.util.DB;
 import org.compiere.util.Env;
@@ -49,7 +48,9 @@ import org.compiere.util.Msg;
 import org.compiere.util.Util;
 import org.spin.base.util.ContextManager;
 import org.spin.base.util.RecordUtil;
+import org.spin.base.util.SerializedResponseCache;
 import org.spin.base.util.SessionManager;
+import org.spin.base.util.SignedSessionToken;
 import org.spin.base.util.ValueUtil;
 import org.spin.grpc.util.ChangeRoleRequest;
 import org.spin.grpc.util.ContextValue;
@@ -89,7 +90,7 @@ public class AccessServiceImplementation extends SecurityImplBase {
 	/**	Logger			*/
 	private CLogger log = CLogger.getCLogger(AccessServiceImplementation.class);
 	/**	Menu */
-	private static CCache<String, Menu.Builder> menuCache = new CCache<String, Menu.Builder>("Menu_for_User", 30, 0);
+	private static SerializedResponseCache<String, Menu> menuCache = new SerializedResponseCache<String, Menu>("Menu_for_User", 30, 0);
 	
 	@Override
 	public void runLogin(LoginRequest request, StreamObserver<Session> responseObserver) {
@@ -182,8 +183,8 @@ public class AccessServiceImplementation extends SecurityImplBase {
 			}
 			log.fine("Menu Requested = " + request.getClientVersion());
 			ContextManager.getContext(request.getSessionUuid(), request.getLanguage());
-			Menu.Builder menuBuilder = convertMenu();
-			responseObserver.onNext(menuBuilder.build());
+			String menuKey = Env.getAD_Role_ID(Env.getCtx()) + "|" + Env.getAD_User_ID(Env.getCtx()) + "|" + Env.getAD_Language(Env.getCtx());
+			responseObserver.onNext(menuCache.get(menuKey, () -> convertMenu().build()));
 			responseObserver.onCompleted();
 		} catch (Exception e) {
 			log.severe(e.getLocalizedMessage());
@@ -254,8 +255,8 @@ public class AccessServiceImplementation extends SecurityImplBase {
 		//	Get page and count
 		String nexPageToken = null;
 		int pageNumber = RecordUtil.getPageNumber(request.getSessionUuid(), request.getPageToken());
-		int limit = RecordUtil.PAGE_SIZE;
-		int offset = pageNumber * RecordUtil.PAGE_SIZE;
+		int limit = RecordUtil.getPageSize(request.getPageSize());
+		int offset = pageNumber * limit;
 		Query query = new Query(Env.getCtx(), I_AD_Role.Table_Name, 
 				"EXISTS(SELECT 1 FROM AD_User_Roles ur WHERE ur.AD_Role_ID = AD_Role.AD_Role_ID AND ur.AD_User_ID = ?)", null)
 				.setParameters(session.getCreatedBy());
@@ -389,6 +390,7 @@ public class AccessServiceImplementation extends SecurityImplBase {
 		builder.setUuid(ValueUtil.validateNull(session.getUUID()));
 		builder.setName(ValueUtil.validateNull(session.getDescription()));
 		builder.setUserInfo(convertUserInfo(MUser.get(Env.getCtx(), userId)).build());
+		setSessionToken(builder, session, userId, roleId, client.getAD_Client_ID(), organizationId);
 		//	Set role
 		Role.Builder roleBuilder = convertRole(role, false);
 		builder.setRole(roleBuilder.build());
@@ -473,6 +475,7 @@ public class AccessServiceImplementation extends SecurityImplBase {
 		builder.setUuid(ValueUtil.validateNull(session.getUUID()));
 		builder.setName(ValueUtil.validateNull(session.getDescription()));
 		builder.setUserInfo(convertUserInfo(MUser.get(Env.getCtx(), userId)).build());
+		setSessionToken(builder, session, userId, roleId, role.getAD_Client_ID(), organizationId);
 		populateDefaultPreferences(builder);
 		//	Set role
 		Role.Builder roleBuilder = convertRole(role, false);
@@ -488,6 +491,35 @@ public class AccessServiceImplementation extends SecurityImplBase {
 		return builder;
 	}
 	
+	/**
+	 * Set signed token of session when it is enabled
+	 * @param builder
+	 * @param session
+	 * @param userId
+	 * @param roleId
+	 * @param clientId
+	 * @param organizationId
+	 */
+	private void setSessionToken(Session.Builder builder, MSession session, int userId, int roleId, int clientId, int organizationId) {
+		if(!SignedSessionToken.isEnabled()) {
+			return;
+		}
+		builder.setToken(SignedSessionToken.create(session.getAD_Session_ID(), session.getUUID(), userId, roleId, clientId, organizationId));
+	}
+	
+	/**
+	 * Get session UUID from request, it can be a signed token
+	 * @param sessionUuid
+	 * @return
+	 */
+	private String getSessionUuid(String sessionUuid) {
+		String uuid = SignedSessionToken.getSessionUuid(sessionUuid);
+		if(Util.isEmpty(uuid)) {
+			throw new AdempiereException("@AD_Session_ID@ @NotFound@");
+		}
+		return uuid;
+	}
+	
 	/**
 	 * Populate default values and preferences for session
 	 * @param session
@@ -527,9 +559,11 @@ public class AccessServiceImplementation extends SecurityImplBase {
 			throw new AdempiereException("@AD_Session_ID@ @NotFound@");
 		}
 		Properties context = Env.getCtx();
-		MSession session = getSessionFromUUid(request.getSessionUuid());
+		MSession session = getSessionFromUUid(getSessionUuid(request.getSessionUuid()));
 		//	Logout
 		session.logout();
+		//	Revoke signed tokens and drop cached contexts of session (UUID and tokens), also on other nodes
+		ContextManager.removeSessionContext(request.getSessionUuid(), session);
 		//	Session values
 		builder.setId(session.getAD_Session_ID());
 		builder.setUuid(ValueUtil.validateNull(session.getUUID()));
@@ -551,7 +585,7 @@ public class AccessServiceImplementation extends SecurityImplBase {
 			throw new AdempiereException("@AD_Session_ID@ @NotFound@");
 		}
 		Properties context = Env.getCtx();
-		MSession session = getSessionFromUUid(request.getSessionUuid());
+		MSession session = getSessionFromUUid(getSessionUuid(request.getSessionUuid()));
 		//	Load default preference values
 		SessionManager.loadDefaultSessionValues(context, null);
 		//	Session values
@@ -621,7 +655,7 @@ public class AccessServiceImplementation extends SecurityImplBase {
 		if(Util.isEmpty(request.getSessionUuid())) {
 			throw new AdempiereException("@AD_Session_ID@ @NotFound@");
 		}
-		MSession session = getSessionFromUUid(request.getSessionUuid());
+		MSession session = getSessionFromUUid(getSessionUuid(request.getSessionUuid()));
 		List<MRole> roleList = new Query(Env.getCtx(), I_AD_Role.Table_Name, 
 				"EXISTS(SELECT 1 FROM AD_User_Roles ur "
 				+ "WHERE ur.AD_Role_ID = AD_Role.AD_Role_ID "
@@ -855,13 +889,7 @@ public class AccessServiceImplementation extends SecurityImplBase {
 	 */
 	private Menu.Builder convertMenu() {
 		int roleId = Env.getAD_Role_ID(Env.getCtx());
-		int userId = Env.getAD_User_ID(Env.getCtx());
-		String menuKey = roleId + "|" + userId + "|" + Env.getAD_Language(Env.getCtx());
-		Menu.Builder builder = menuCache.get(menuKey);
-		if(builder != null) {
-			return builder;
-		}
-		builder = Menu.newBuilder();
+		Menu.Builder builder = Menu.newBuilder();
 		MMenu menu = new MMenu(Env.getCtx(), 0, null);
 		menu.setName(Msg.getMsg(Env.getCtx(), "Menu"));
 		//	Get Reference
@@ -888,8 +916,7 @@ public class AccessServiceImplementation extends SecurityImplBase {
 				builder.addChilds(childBuilder.build());
 			}
 		}
-		//	Set from DB
-		menuCache.put(menuKey, builder);
+		//	
 		return builder;
 	}
 	
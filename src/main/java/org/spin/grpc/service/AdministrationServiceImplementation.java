@@ -0,0 +1,113 @@
+/************************************************************************************
+ * Copyright (C) 2012-2018 E.R.P. Consultores y Asociados, C.A.                     *
+ * Contributor(s): Yamel Senih ysenih@erpya.com                                     *
+ * This program is free software: you can redistribute it and/or modify             *
+ * it under the terms of the GNU General Public License as published by             *
+ * the Free Software Foundation, either version 2 of the License, or                *
+ * (at your option) any later version.                                              *
+ * This program is distributed in the hope that it will be useful,                  *
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of                   *
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.	See the                     *
+ * GNU General Public License for more details.                                     *
+ * You should have received a copy of the GNU General Public License                *
+ * along with this program.	If not, see <https://www.gnu.org/licenses/>.            *
+ ************************************************************************************/
+package org.spin.grpc.service;
+
+import org.adempiere.exceptions.AdempiereException;
+import org.compiere.model.MRole;
+import org.compiere.util.CLogger;
+import org.compiere.util.Util;
+import org.spin.base.metrics.SlowQueryLog;
+import org.spin.base.util.ContextManager;
+import org.spin.base.util.ValueUtil;
+import org.spin.grpc.util.AdministrationGrpc.AdministrationImplBase;
+import org.spin.grpc.util.ListSlowQueriesRequest;
+import org.spin.grpc.util.ListSlowQueriesResponse;
+import org.spin.grpc.util.SlowQuery;
+
+import io.grpc.Status;
+import io.grpc.StatusRuntimeException;
+import io.grpc.stub.StreamObserver;
+
+/**
+ * Administration of server, only allowed for roles with system user level
+ * @author Yamel Senih, ysenih@erpya.com, ERPCyA http://www.erpya.com
+ */
+public class AdministrationServiceImplementation extends AdministrationImplBase {
+	/**	Logger			*/
+	private CLogger log = CLogger.getCLogger(AdministrationServiceImplementation.class);
+	/**	Max queries returned	*/
+	private static final int MAX_PAGE_SIZE = 1000;
+	
+	@Override
+	public void listSlowQueries(ListSlowQueriesRequest request, StreamObserver<ListSlowQueriesResponse> responseObserver) {
+		try {
+			if(request == null) {
+				throw new AdempiereException("Object Request Null");
+			}
+			log.fine("Slow Queries Requested = " + request);
+			ContextManager.getContext(request.getClientRequest().getSessionUuid(), 
+					request.getClientRequest().getLanguage(), 
+					request.getClientRequest().getOrganizationUuid(), 
+					request.getClientRequest().getWarehouseUuid());
+			validateSystemAccess();
+			ListSlowQueriesResponse.Builder slowQueries = convertSlowQueries(request);
+			responseObserver.onNext(slowQueries.build());
+			responseObserver.onCompleted();
+		} catch (StatusRuntimeException e) {
+			log.warning(e.getLocalizedMessage());
+			responseObserver.onError(e);
+		} catch (Exception e) {
+			log.severe(e.getLocalizedMessage());
+			responseObserver.onError(Status.INTERNAL
+					.withDescription(e.getLocalizedMessage())
+					.augmentDescription(e.getLocalizedMessage())
+					.withCause(e)
+					.asRuntimeException());
+		}
+	}
+	
+	/**
+	 * Validate that role of session can access to administration
+	 */
+	private void validateSystemAccess() {
+		MRole role = MRole.getDefault();
+		if(role == null
+				|| Util.isEmpty(role.getUserLevel())
+				|| !role.getUserLevel().contains("S")) {
+			throw Status.PERMISSION_DENIED
+				.withDescription("@AD_Role_ID@ @NotValid@")
+				.asRuntimeException();
+		}
+	}
+	
+	/**
+	 * Convert slow queries, newest first
+	 * @param request
+	 * @return
+	 */
+	private ListSlowQueriesResponse.Builder convertSlowQueries(ListSlowQueriesRequest request) {
+		ListSlowQueriesResponse.Builder builder = ListSlowQueriesResponse.newBuilder();
+		int pageSize = request.getPageSize() <= 0? MAX_PAGE_SIZE: Math.min(request.getPageSize(), MAX_PAGE_SIZE);
+		SlowQueryLog.getInstance().getEntries().stream()
+			.filter(entry -> Util.isEmpty(request.getMethodName())
+					|| (entry.getMethodName() != null && entry.getMethodName().contains(request.getMethodName())))
+			.filter(entry -> entry.getElapsed() >= request.getMinimumElapsed())
+			.limit(pageSize)
+			.forEach(entry -> {
+				SlowQuery.Builder slowQuery = SlowQuery.newBuilder()
+						.setSql(ValueUtil.validateNull(entry.getSql()))
+						.addAllParameters(entry.getParameters())
+						.setRowCount(entry.getRowCount())
+						.setElapsed(entry.getElapsed())
+						.setMethodName(ValueUtil.validateNull(entry.getMethodName()))
+						.setSessionId(entry.getSessionId())
+						.setLogDate(entry.getLogDate())
+						.setExecutionPlan(ValueUtil.validateNull(entry.getExecutionPlan()));
+				builder.addRecords(slowQuery);
+			});
+		builder.setRecordCount(builder.getRecordsCount());
+		return builder;
+	}
+}
@@ -20,16 +20,18 @@ import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
-import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
 import java.util.ArrayList;
 import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.Properties;
 import java.util.concurrent.atomic.AtomicInteger;
 
 import org.adempiere.exceptions.AdempiereException;
 import org.adempiere.model.I_AD_Browse;
+import org.compiere.model.I_AD_Element;
 import org.compiere.model.I_AD_Form;
 import org.compiere.model.I_AD_Menu;
 import org.compiere.model.I_AD_PInstance;
@@ -60,9 +62,21 @@ import org.compiere.util.Msg;
 import org.compiere.util.Trx;
 import org.compiere.util.Util;
 import org.eevolution.service.dsl.ProcessBuilder;
+import org.spin.base.metrics.CallTiming;
+import org.spin.base.metrics.CallTiming.Phase;
+import org.spin.base.util.ColumnProjection;
+import org.spin.base.util.ColumnarRecordsWriter;
 import org.spin.base.util.ContextManager;
 import org.spin.base.util.ConvertUtil;
+import org.spin.base.util.EncodedRecords;
+import org.spin.base.util.EncodedRecordsWriter;
+import org.spin.base.util.EntityConversionPlan;
+import org.spin.base.util.KeysetPage;
+import org.spin.base.util.PagingUtil;
+import org.spin.base.util.QueryTrace;
+import org.spin.base.util.RecordCount;
 import org.spin.base.util.RecordUtil;
+import org.spin.base.util.ResultSetStream;
 import org.spin.base.util.ValueUtil;
 import org.spin.grpc.util.BusinessDataGrpc.BusinessDataImplBase;
 import org.spin.grpc.util.CreateEntityRequest;
@@ -77,10 +91,13 @@ import org.spin.grpc.util.ListEntitiesRequest;
 import org.spin.grpc.util.ListEntitiesResponse;
 import org.spin.grpc.util.ProcessInfoLog;
 import org.spin.grpc.util.ProcessLog;
+import org.spin.grpc.util.RecordFormat;
+import org.spin.grpc.util.RecordIdentifier;
 import org.spin.grpc.util.ReportOutput;
+import org.spin.grpc.util.ResolveUuidsRequest;
+import org.spin.grpc.util.ResolveUuidsResponse;
 import org.spin.grpc.util.RunBusinessProcessRequest;
 import org.spin.grpc.util.UpdateEntityRequest;
-import org.spin.grpc.util.Value;
 
 import com.google.protobuf.ByteString;
 
@@ -190,7 +207,84 @@ public class BusinessDataServiceImplementation extends BusinessDataImplBase {
 			}
 			Properties context = ContextManager.getContext(request.getClientRequest().getSessionUuid(), request.getClientRequest().getLanguage(), request.getClientRequest().getOrganizationUuid(), request.getClientRequest().getWarehouseUuid());
 			ListEntitiesResponse.Builder entityValueList = convertEntitiesList(context, request);
-			responseObserver.onNext(entityValueList.build());
+			responseObserver.onNext(EncodedRecords.build(entityValueList));
+			responseObserver.onCompleted();
+		} catch (Exception e) {
+			log.severe(e.getLocalizedMessage());
+			responseObserver.onError(Status.INTERNAL
+					.withDescription(e.getLocalizedMessage())
+					.augmentDescription(e.getLocalizedMessage())
+					.withCause(e)
+					.asRuntimeException());
+		}
+	}
+	
+	@Override
+	public void streamEntities(ListEntitiesRequest request, StreamObserver<Entity> responseObserver) {
+		try {
+			if(request == null) {
+				throw new AdempiereException("Object Request Null");
+			}
+			Properties context = ContextManager.getContext(request.getClientRequest().getSessionUuid(), request.getClientRequest().getLanguage(), request.getClientRequest().getOrganizationUuid(), request.getClientRequest().getWarehouseUuid());
+			Criteria criteria = request.getCriteria();
+			MTable table = MTable.get(context, criteria.getTableName());
+			if(table == null) {
+				throw new AdempiereException("@AD_Table_ID@ @NotFound@");
+			}
+			List<Object> params = new ArrayList<>();
+			String whereClause = getEntitiesWhereClause(criteria, params);
+			ColumnProjection projection = ColumnProjection.forTable(table, request.getColumnsList());
+			if(Util.isEmpty(criteria.getQuery())) {
+				String sql = PagingUtil.getPagedQuery("SELECT " + projection.getSelectList(table.getTableName()) + " FROM " + table.getTableName()
+						+ (Util.isEmpty(whereClause)? "": " WHERE " + whereClause), criteria.getOrderByClause(), 0, 0);
+				if(projection.isAll()) {
+					//	Same records of Query, loaded as PO
+					ResultSetStream.start(responseObserver, sql, params, rs -> ConvertUtil.convertEntity(table.getPO(rs, null)).build());
+				} else {
+					ResultSetStream.start(responseObserver, sql, params, EntityConversionPlan.toEntities(metaData -> EntityConversionPlan.forProjection(metaData, projection)));
+				}
+			} else {
+				StringBuilder sql = new StringBuilder(criteria.getQuery());
+				if (!Util.isEmpty(whereClause)) {
+					sql.append(" WHERE ").append(whereClause); // includes first AND
+				}
+				//	
+				String parsedSQL = MRole.getDefault().addAccessSQL(sql.toString(),
+						null, MRole.SQL_FULLYQUALIFIED,
+						MRole.SQL_RO);
+				parsedSQL = PagingUtil.getPagedQuery(parsedSQL, criteria.getOrderByClause(), 0, 0);
+				Map<String, MColumn> columnsMap = getColumnsMap(table);
+				ResultSetStream.start(responseObserver, parsedSQL, params, EntityConversionPlan.toEntities(metaData -> EntityConversionPlan.forResultSet(metaData, columnsMap, projection)));
+			}
+		} catch (Exception e) {
+			log.severe(e.getLocalizedMessage());
+			responseObserver.onError(Status.INTERNAL
+					.withDescription(e.getLocalizedMessage())
+					.augmentDescription(e.getLocalizedMessage())
+					.withCause(e)
+					.asRuntimeException());
+		}
+	}
+	
+	@Override
+	public void resolveUuids(ResolveUuidsRequest request, StreamObserver<ResolveUuidsResponse> responseObserver) {
+		//	Same limit of a page
+		int maximum = RecordUtil.getMaximumPageSize();
+		if(request != null
+				&& request.getUuidsCount() > maximum) {
+			responseObserver.onError(Status.INVALID_ARGUMENT
+					.withDescription("Too many UUIDs: " + request.getUuidsCount() + " (maximum " + maximum + ")")
+					.asRuntimeException());
+			return;
+		}
+		try {
+			if(request == null
+					|| Util.isEmpty(request.getTableName())) {
+				throw new AdempiereException("Object Request Null");
+			}
+			Properties context = ContextManager.getContext(request.getClientRequest().getSessionUuid(), request.getClientRequest().getLanguage(), request.getClientRequest().getOrganizationUuid(), request.getClientRequest().getWarehouseUuid());
+			ResolveUuidsResponse.Builder response = resolveUuids(context, request);
+			responseObserver.onNext(response.build());
 			responseObserver.onCompleted();
 		} catch (Exception e) {
 			log.severe(e.getLocalizedMessage());
@@ -224,6 +318,29 @@ public class BusinessDataServiceImplementation extends BusinessDataImplBase {
 		}
 	}
 	
+	/**
+	 * Resolve UUIDs of a table with a single query
+	 * @param context
+	 * @param request
+	 * @return
+	 */
+	private ResolveUuidsResponse.Builder resolveUuids(Properties context, ResolveUuidsRequest request) {
+		MTable table = MTable.get(context, request.getTableName());
+		if(table == null
+				|| table.getAD_Table_ID() <= 0) {
+			throw new AdempiereException("@AD_Table_ID@ @NotFound@");
+		}
+		if(!MRole.getDefault().isTableAccess(table.getAD_Table_ID(), true)) {
+			throw new AdempiereException("@AccessTableNoView@");
+		}
+		ResolveUuidsResponse.Builder builder = ResolveUuidsResponse.newBuilder();
+		RecordUtil.getIdsFromUuids(table.getTableName(), request.getUuidsList(), null)
+			.forEach((uuid, id) -> builder.addRecords(RecordIdentifier.newBuilder()
+					.setUuid(uuid)
+					.setId(id)));
+		return builder;
+	}
+	
 	/**
 	 * Run a process from request
 	 * @param context
@@ -509,6 +626,10 @@ public class BusinessDataServiceImplementation extends BusinessDataImplBase {
 				tableName = request.getCriteria().getTableName();
 			}
 		}
+		//	Only requested columns
+		if(request.getColumnsCount() > 0) {
+			return getEntity(request, ColumnProjection.forTable(MTable.get(Env.getCtx(), tableName), request.getColumnsList()));
+		}
 		PO entity = null;
 		if(!Util.isEmpty(request.getUuid())
 				|| request.getId() != 0) {
@@ -522,6 +643,54 @@ public class BusinessDataServiceImplementation extends BusinessDataImplBase {
 		return ConvertUtil.convertEntity(entity);
 	}
 	
+	/**
+	 * Get entity reading only columns of projection
+	 * @param request
+	 * @param projection
+	 * @return
+	 */
+	private Entity.Builder getEntity(GetEntityRequest request, ColumnProjection projection) {
+		String tableName = projection.getTable().getTableName();
+		String whereClause = null;
+		List<Object> parameters = new ArrayList<Object>();
+		if(!Util.isEmpty(request.getUuid())) {
+			whereClause = I_AD_Element.COLUMNNAME_UUID + " = ?";
+			parameters.add(request.getUuid());
+		} else if(request.getId() > 0) {
+			whereClause = tableName + "_ID = ?";
+			parameters.add(request.getId());
+		} else if(request.getCriteria() != null) {
+			whereClause = ValueUtil.getWhereClauseFromCriteria(request.getCriteria(), parameters);
+		}
+		if(Util.isEmpty(whereClause)) {
+			throw new AdempiereException("@Record_ID@ @NotFound@");
+		}
+		String sql = PagingUtil.getPagedQuery("SELECT " + projection.getSelectList(tableName)
+				+ " FROM " + tableName + " WHERE " + whereClause, null, 0, 1);
+		PreparedStatement pstmt = null;
+		ResultSet rs = null;
+		QueryTrace trace = QueryTrace.start(sql, parameters);
+		long recordCount = 0;
+		try {
+			pstmt = DB.prepareStatement(sql, null);
+			AtomicInteger parameterIndex = new AtomicInteger(1);
+			for(Object value : parameters) {
+				ValueUtil.setParameterFromObject(pstmt, value, parameterIndex.getAndIncrement());
+			}
+			rs = trace.executeQuery(pstmt);
+			if(trace.next(rs)) {
+				recordCount++;
+				return ConvertUtil.convertEntity(rs, projection);
+			}
+		} catch (SQLException e) {
+			throw new AdempiereException(e);
+		} finally {
+			DB.close(rs, pstmt);
+			trace.finish(recordCount);
+		}
+		return Entity.newBuilder();
+	}
+	
 	/**
 	 * Delete a entity
 	 * @param context
@@ -622,8 +791,83 @@ public class BusinessDataServiceImplementation extends BusinessDataImplBase {
 	 */
 	private ListEntitiesResponse.Builder convertEntitiesList(Properties context, ListEntitiesRequest request) {
 		Criteria criteria = request.getCriteria();
-		StringBuffer whereClause = new StringBuffer();
 		List<Object> params = new ArrayList<>();
+		String whereClause = getEntitiesWhereClause(criteria, params);
+		//	Get page and count
+		int limit = RecordUtil.getPageSize(request.getPageSize());
+		ListEntitiesResponse.Builder builder = ListEntitiesResponse.newBuilder();
+		KeysetPage page = null;
+		RecordCount recordCount = null;
+		//	
+		if(Util.isEmpty(criteria.getQuery())) {
+			MTable table = MTable.get(context, criteria.getTableName());
+			page = KeysetPage.forTable(request.getPageToken(), request.getClientRequest().getSessionUuid(), table, null, criteria.getOrderByClause(), whereClause, params, limit);
+			recordCount = RecordCount.forTable(request.getCountMode(), criteria.getTableName(), whereClause, params);
+			//	Records after previous page
+			List<Object> pageParams = new ArrayList<>(params);
+			String seekPredicate = page.getSeekPredicate(pageParams);
+			StringBuffer pageWhereClause = new StringBuffer(whereClause);
+			if(!Util.isEmpty(seekPredicate)) {
+				if(pageWhereClause.length() > 0) {
+					pageWhereClause.append(" AND ");
+				}
+				pageWhereClause.append(seekPredicate);
+			}
+			//	Only requested columns read without PO, all columns are loaded as PO
+			ColumnProjection projection = ColumnProjection.forTable(table, request.getColumnsList())
+					.addOrderByColumns(page.getOrderByClause());
+			String sql = "SELECT " + projection.getSelectList(table.getTableName())
+					+ " FROM " + table.getTableName()
+					+ (pageWhereClause.length() > 0? " WHERE " + pageWhereClause: "");
+			if(Util.isEmpty(seekPredicate)) {
+				//	Count on same query
+				sql = recordCount.addCountColumn(sql);
+			}
+			sql = PagingUtil.getPagedQuery(sql, page.getOrderByClause(), page.getQueryOffset(), limit);
+			if(!projection.isAll()) {
+				builder = convertListEntitiesResult(sql, pageParams, page, recordCount, request.getRecordFormat(), metaData -> EntityConversionPlan.forProjection(metaData, projection));
+			} else {
+				//	Same records of Query, loaded as PO
+				builder = convertListEntitiesResult(table, sql, pageParams, page, recordCount, request.getRecordFormat());
+			}
+		} else {
+			StringBuilder sql = new StringBuilder(criteria.getQuery());
+			if (!Util.isEmpty(whereClause)) {
+				sql.append(" WHERE ").append(whereClause); // includes first AND
+			}
+			//	
+			String parsedSQL = MRole.getDefault().addAccessSQL(sql.toString(),
+					null, MRole.SQL_FULLYQUALIFIED,
+					MRole.SQL_RO);
+			page = KeysetPage.forQuery(request.getPageToken(), request.getClientRequest().getSessionUuid(), criteria.getOrderByClause(), parsedSQL, params, limit);
+			//	Count records, on same query
+			recordCount = RecordCount.forQuery(request.getCountMode(), parsedSQL, criteria.getTableName(), params);
+			parsedSQL = recordCount.addCountColumn(parsedSQL);
+			//	Add Order By and page
+			parsedSQL = PagingUtil.getPagedQuery(parsedSQL, page.getOrderByClause(), page.getQueryOffset(), limit);
+			//	Free query, the requested columns only filter the columns of table that are sent
+			MTable table = MTable.get(context, criteria.getTableName());
+			Map<String, MColumn> columnsMap = getColumnsMap(table);
+			ColumnProjection projection = ColumnProjection.forTable(table, request.getColumnsList());
+			builder = convertListEntitiesResult(parsedSQL, params, page, recordCount, request.getRecordFormat(), metaData -> EntityConversionPlan.forResultSet(metaData, columnsMap, projection));
+		}
+		//	
+		int count = recordCount.getCount();
+		builder.setRecordCount(count);
+		//	Set netxt page
+		builder.setNextPageToken(page.getNextPageToken(recordCount.isExact()? count: RecordCount.UNKNOWN));
+		//	Return
+		return builder;
+	}
+	
+	/**
+	 * Get where clause from criteria and reference of request
+	 * @param criteria
+	 * @param params parameters of where clause are added here
+	 * @return empty if there are not conditions
+	 */
+	private String getEntitiesWhereClause(Criteria criteria, List<Object> params) {
+		StringBuffer whereClause = new StringBuffer();
 		//	For dynamic condition
 		String dynamicWhere = ValueUtil.getWhereClauseFromCriteria(criteria, params);
 		if(!Util.isEmpty(dynamicWhere)) {
@@ -643,128 +887,137 @@ public class BusinessDataServiceImplementation extends BusinessDataImplBase {
 				whereClause.append("(").append(referenceWhereClause).append(")");
 			}
 		}
-		//	Get page and count
-		String nexPageToken = null;
-		int pageNumber = RecordUtil.getPageNumber(request.getClientRequest().getSessionUuid(), request.getPageToken());
-		int limit = RecordUtil.PAGE_SIZE;
-		int offset = pageNumber * RecordUtil.PAGE_SIZE;
-		int count = 0;
+		return whereClause.toString();
+	}
+	
+	/**
+	 * Convert Entities List
+	 * @param sql
+	 * @param params
+	 * @param page it keeps the last record for next page
+	 * @param counter it reads COUNT(*) OVER() of records
+	 * @param format records as entities or as columns
+	 * @param planFactory plan of conversion from metadata of query
+	 * @return
+	 */
+	private ListEntitiesResponse.Builder convertListEntitiesResult(String sql, List<Object> params, KeysetPage page, RecordCount counter, RecordFormat format, EntityConversionPlan.Factory planFactory) {
+		PreparedStatement pstmt = null;
+		ResultSet rs = null;
 		ListEntitiesResponse.Builder builder = ListEntitiesResponse.newBuilder();
-		//	
-		if(Util.isEmpty(criteria.getQuery())) {
-			Query query = new Query(context, criteria.getTableName(), whereClause.toString(), null)
-					.setParameters(params);
-			count = query.count();
-			if(!Util.isEmpty(criteria.getOrderByClause())) {
-				query.setOrderBy(criteria.getOrderByClause());
-			}
-			List<PO> entityList = query
-					.setLimit(limit, offset)
-					.<PO>list();
-			//	
-			for(PO entity : entityList) {
-				Entity.Builder valueObject = ConvertUtil.convertEntity(entity);
-				builder.addRecords(valueObject.build());
-			}
-		} else {
-			StringBuilder sql = new StringBuilder(criteria.getQuery());
-			if (whereClause.length() > 0) {
-				sql.append(" WHERE ").append(whereClause); // includes first AND
-			}
-			//	
-			String parsedSQL = MRole.getDefault().addAccessSQL(sql.toString(),
-					null, MRole.SQL_FULLYQUALIFIED,
-					MRole.SQL_RO);
-			String orderByClause = criteria.getOrderByClause();
-			if(Util.isEmpty(orderByClause)) {
-				orderByClause = "";
-			} else {
-				orderByClause = " ORDER BY " + orderByClause;
+		ColumnarRecordsWriter columnar = format == RecordFormat.COLUMNAR? new ColumnarRecordsWriter(): null;
+		EncodedRecordsWriter encoded = columnar == null && EncodedRecordsWriter.isEnabled()? EncodedRecordsWriter.start(ListEntitiesResponse.RECORDS_FIELD_NUMBER): null;
+		long recordCount = 0;
+		QueryTrace trace = QueryTrace.start(sql, params);
+		CallTiming.Scope conversionScope = CallTiming.start(Phase.CONVERSION);
+		try {
+			//	SELECT Key, Value, Name FROM ...
+			pstmt = DB.prepareStatement(sql, null);
+			AtomicInteger parameterIndex = new AtomicInteger(1);
+			for(Object value : params) {
+				ValueUtil.setParameterFromObject(pstmt, value, parameterIndex.getAndIncrement());
+			} 
+			//	Get from Query
+			rs = trace.executeQuery(pstmt);
+			//	Columns are resolved once by query
+			EntityConversionPlan plan = planFactory.create(rs.getMetaData());
+			while(trace.next(rs)) {
+				if(columnar != null) {
+					columnar.addRecord();
+					plan.write(rs, columnar);
+				} else if(encoded != null) {
+					encoded.addRecord();
+					plan.write(rs, encoded);
+				} else {
+					Entity.Builder valueObjectBuilder = plan.convert(rs);
+					//	
+					builder.addRecords(valueObjectBuilder.build());
+				}
+				page.addRecord(rs);
+				counter.addRecord(rs);
+				recordCount++;
 			}
-			//	Count records
-			count = RecordUtil.countRecords(parsedSQL, criteria.getTableName(), params);
-			//	Add Row Number
-			parsedSQL = parsedSQL + " AND ROWNUM >= " + offset + " AND ROWNUM <= " + limit;
-			//	Add Order By
-			parsedSQL = parsedSQL + orderByClause;
-			builder = convertListEntitiesResult(MTable.get(context, criteria.getTableName()), parsedSQL, params);
+		} catch (Exception e) {
+			log.severe(e.getLocalizedMessage());
+		} finally {
+			DB.close(rs, pstmt);
+			conversionScope.close();
+			trace.finish(recordCount);
 		}
-		//	
-		builder.setRecordCount(count);
-		//	Set page token
-		if(RecordUtil.isValidNextPageToken(count, offset, limit)) {
-			nexPageToken = RecordUtil.getPagePrefix(request.getClientRequest().getSessionUuid()) + (pageNumber + 1);
+		if(columnar != null) {
+			builder.setColumnarRecords(columnar.build());
+		} else if(encoded != null) {
+			encoded.finish().attachTo(builder);
 		}
-		//	Set netxt page
-		builder.setNextPageToken(ValueUtil.validateNull(nexPageToken));
+		//	Set record counts
+		builder.setRecordCount(recordCount);
 		//	Return
 		return builder;
 	}
 	
 	/**
-	 * Convert Entities List
+	 * Convert Entities List, the records are loaded as PO (all columns of table)
 	 * @param table
 	 * @param sql
+	 * @param params
+	 * @param page it keeps the last record for next page
+	 * @param counter it reads COUNT(*) OVER() of records
+	 * @param format records as entities or as columns
 	 * @return
 	 */
-	private ListEntitiesResponse.Builder convertListEntitiesResult(MTable table, String sql, List<Object> params) {
+	private ListEntitiesResponse.Builder convertListEntitiesResult(MTable table, String sql, List<Object> params, KeysetPage page, RecordCount counter, RecordFormat format) {
 		PreparedStatement pstmt = null;
 		ResultSet rs = null;
 		ListEntitiesResponse.Builder builder = ListEntitiesResponse.newBuilder();
+		ColumnarRecordsWriter columnar = format == RecordFormat.COLUMNAR? new ColumnarRecordsWriter(): null;
 		long recordCount = 0;
+		QueryTrace trace = QueryTrace.start(sql, params);
 		try {
-			LinkedHashMap<String, MColumn> columnsMap = new LinkedHashMap<>();
-			//	Add field to map
-			for(MColumn column: table.getColumnsAsList()) {
-				columnsMap.put(column.getColumnName().toUpperCase(), column);
-			}
-			//	SELECT Key, Value, Name FROM ...
 			pstmt = DB.prepareStatement(sql, null);
 			AtomicInteger parameterIndex = new AtomicInteger(1);
 			for(Object value : params) {
 				ValueUtil.setParameterFromObject(pstmt, value, parameterIndex.getAndIncrement());
 			} 
 			//	Get from Query
-			rs = pstmt.executeQuery();
-			while(rs.next()) {
-				Entity.Builder valueObjectBuilder = Entity.newBuilder();
-				ResultSetMetaData metaData = rs.getMetaData();
-				for (int index = 1; index <= metaData.getColumnCount(); index++) {
-					try {
-						String columnName = metaData.getColumnName (index);
-						MColumn field = columnsMap.get(columnName.toUpperCase());
-						Value.Builder valueBuilder = Value.newBuilder();
-						//	Display Columns
-						if(field == null) {
-							String value = rs.getString(index);
-							if(!Util.isEmpty(value)) {
-								valueBuilder = ValueUtil.getValueFromString(value);
-								valueObjectBuilder.putValues(columnName, valueBuilder.build());
-							}
-							continue;
-						}
-						//	From field
-						String fieldColumnName = field.getColumnName();
-						valueBuilder = ValueUtil.getValueFromReference(rs.getObject(index), field.getAD_Reference_ID());
-						if(!valueBuilder.getValueType().equals(Value.ValueType.UNRECOGNIZED)) {
-							valueObjectBuilder.putValues(fieldColumnName, valueBuilder.build());
-						}
-					} catch (Exception e) {
-						log.severe(e.getLocalizedMessage());
-					}
+			rs = trace.executeQuery(pstmt);
+			while(trace.next(rs)) {
+				PO entity = table.getPO(rs, null);
+				if(columnar != null) {
+					columnar.addRecord();
+					ConvertUtil.writeEntity(entity, columnar);
+				} else {
+					Entity.Builder valueObject = ConvertUtil.convertEntity(entity);
+					builder.addRecords(valueObject.build());
 				}
-				//	
-				builder.addRecords(valueObjectBuilder.build());
+				page.addRecord(entity);
+				counter.addRecord(rs);
 				recordCount++;
 			}
 		} catch (Exception e) {
 			log.severe(e.getLocalizedMessage());
 		} finally {
 			DB.close(rs, pstmt);
+			trace.finish(recordCount);
+		}
+		if(columnar != null) {
+			builder.setColumnarRecords(columnar.build());
 		}
 		//	Set record counts
 		builder.setRecordCount(recordCount);
 		//	Return
 		return builder;
 	}
+	
+	/**
+	 * Get columns of table by upper case name
+	 * @param table
+	 * @return
+	 */
+	private Map<String, MColumn> getColumnsMap(MTable table) {
+		LinkedHashMap<String, MColumn> columnsMap = new LinkedHashMap<>();
+		//	Add field to map
+		for(MColumn column: table.getColumnsAsList()) {
+			columnsMap.put(column.getColumnName().toUpperCase(), column);
+		}
+		return columnsMap;
+	}
 }
@@ -52,6 +52,7 @@ import org.compiere.util.Util;
 import org.spin.base.util.ContextManager;
 import org.spin.base.util.ConvertUtil;
 import org.spin.base.util.RecordUtil;
+import org.spin.base.util.SerializedResponseCache;
 import org.spin.base.util.ValueUtil;
 import org.spin.grpc.util.BusinessPartner;
 import org.spin.grpc.util.ConversionRate;
@@ -83,6 +84,8 @@ public class CoreFunctionalityImplementation extends CoreFunctionalityImplBase {
 	private CLogger log = CLogger.getCLogger(CoreFunctionalityImplementation.class);
 	/**	Country */
 	private static CCache<String, MCountry> countryCache = new CCache<String, MCountry>(I_C_Country.Table_Name + "_UUID", 30, 0);	//	no time-out
+	/**	Languages serialized by client	*/
+	private static SerializedResponseCache<Integer, ListLanguagesResponse> languagesCache = new SerializedResponseCache<Integer, ListLanguagesResponse>(I_AD_Language.Table_Name + "_Response", 30, 0);	//	no time-out
 	
 	@Override
 	public void listOrganizations(ListOrganizationsRequest request,
@@ -165,8 +168,7 @@ public class CoreFunctionalityImplementation extends CoreFunctionalityImplBase {
 					request.getClientRequest().getLanguage(), 
 					request.getClientRequest().getOrganizationUuid(), 
 					request.getClientRequest().getWarehouseUuid());
-			ListLanguagesResponse.Builder languagesList = convertLanguagesList(request);
-			responseObserver.onNext(languagesList.build());
+			responseObserver.onNext(languagesCache.get(Env.getAD_Client_ID(Env.getCtx()), () -> convertLanguagesList(request).build()));
 			responseObserver.onCompleted();
 		} catch (Exception e) {
 			log.severe(e.getLocalizedMessage());
@@ -315,8 +317,8 @@ public class CoreFunctionalityImplementation extends CoreFunctionalityImplBase {
 		ListBusinessPartnersResponse.Builder builder = ListBusinessPartnersResponse.newBuilder();
 		String nexPageToken = null;
 		int pageNumber = RecordUtil.getPageNumber(request.getClientRequest().getSessionUuid(), request.getPageToken());
-		int offset = pageNumber * RecordUtil.PAGE_SIZE;
-		int limit = (pageNumber + 1) * RecordUtil.PAGE_SIZE;
+		int limit = RecordUtil.getPageSize(request.getPageSize());
+		int offset = pageNumber * limit;
 		//	Get business partner list
 		//	Dynamic where clause
 		StringBuffer whereClause = new StringBuffer();
@@ -422,7 +424,7 @@ public class CoreFunctionalityImplementation extends CoreFunctionalityImplBase {
 		//	
 		builder.setRecordCount(count);
 		//	Set page token
-		if(count > limit) {
+		if(RecordUtil.isValidNextPageToken(count, offset, limit)) {
 			nexPageToken = RecordUtil.getPagePrefix(request.getClientRequest().getSessionUuid()) + (pageNumber + 1);
 		}
 		//	Set next page
@@ -764,8 +766,8 @@ public class CoreFunctionalityImplementation extends CoreFunctionalityImplBase {
 		//	Get page and count
 		String nexPageToken = null;
 		int pageNumber = RecordUtil.getPageNumber(request.getClientRequest().getSessionUuid(), request.getPageToken());
-		int offset = pageNumber * RecordUtil.PAGE_SIZE;
-		int limit = (pageNumber + 1) * RecordUtil.PAGE_SIZE;
+		int limit = RecordUtil.getPageSize(request.getPageSize());
+		int offset = pageNumber * limit;
 		Query query = new Query(Env.getCtx(), I_AD_Org.Table_Name, whereClause, null)
 				.setParameters(parameters)
 				.setOnlyActiveRecords(true)
@@ -780,7 +782,7 @@ public class CoreFunctionalityImplementation extends CoreFunctionalityImplBase {
 		//	
 		builder.setRecordCount(count);
 		//	Set page token
-		if(count > limit) {
+		if(RecordUtil.isValidNextPageToken(count, offset, limit)) {
 			nexPageToken = RecordUtil.getPagePrefix(request.getClientRequest().getSessionUuid()) + (pageNumber + 1);
 		}
 		//	Set netxt page
@@ -798,8 +800,8 @@ public class CoreFunctionalityImplementation extends CoreFunctionalityImplBase {
 		//	Get page and count
 		String nexPageToken = null;
 		int pageNumber = RecordUtil.getPageNumber(request.getClientRequest().getSessionUuid(), request.getPageToken());
-		int offset = pageNumber * RecordUtil.PAGE_SIZE;
-		int limit = (pageNumber + 1) * RecordUtil.PAGE_SIZE;
+		int limit = RecordUtil.getPageSize(request.getPageSize());
+		int offset = pageNumber * limit;
 		int id = request.getOrganizationId();
 		if(id <= 0) {
 			id = RecordUtil.getIdFromUuid(I_AD_Org.Table_Name, request.getOrganizationUuid(), null);
@@ -818,7 +820,7 @@ public class CoreFunctionalityImplementation extends CoreFunctionalityImplBase {
 		//	
 		builder.setRecordCount(count);
 		//	Set page token
-		if(count > limit) {
+		if(RecordUtil.isValidNextPageToken(count, offset, limit)) {
 			nexPageToken = RecordUtil.getPagePrefix(request.getClientRequest().getSessionUuid()) + (pageNumber + 1);
 		}
 		//	Set netxt page
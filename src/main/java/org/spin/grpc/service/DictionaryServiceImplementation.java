@@ -25,6 +25,7 @@ import java.util.stream.Collectors;
 
 import org.adempiere.exceptions.AdempiereException;
 import org.adempiere.model.I_AD_Browse;
+import org.adempiere.model.I_AD_Browse_Field;
 import org.adempiere.model.MBrowse;
 import org.adempiere.model.MBrowseField;
 import org.compiere.model.I_AD_Column;
@@ -35,6 +36,7 @@ import org.compiere.model.I_AD_Form;
 import org.compiere.model.I_AD_Menu;
 import org.compiere.model.I_AD_Message;
 import org.compiere.model.I_AD_Process;
+import org.compiere.model.I_AD_Process_Para;
 import org.compiere.model.I_AD_Reference;
 import org.compiere.model.I_AD_Tab;
 import org.compiere.model.I_AD_Val_Rule;
@@ -68,6 +70,7 @@ import org.compiere.util.Util;
 import org.spin.base.util.ContextManager;
 import org.spin.base.util.DictionaryUtil;
 import org.spin.base.util.RecordUtil;
+import org.spin.base.util.SerializedResponseCache;
 import org.spin.base.util.ValueUtil;
 import org.spin.grpc.util.ApplicationRequest;
 import org.spin.grpc.util.Browser;
@@ -107,6 +110,16 @@ import io.grpc.stub.StreamObserver;
 public class DictionaryServiceImplementation extends DictionaryImplBase {
 	/**	Logger			*/
 	private CLogger log = CLogger.getCLogger(DictionaryServiceImplementation.class);
+	/**	Responses serialized by client, role, user and language, reset with changes of child tables
+	 * 	(the other tables used, like references and translations, are refreshed by time-out of 60 minutes)	*/
+	private static SerializedResponseCache<String, Window> windowCache = new SerializedResponseCache<String, Window>(I_AD_Window.Table_Name + "_Response", 30, 60,
+			I_AD_Tab.Table_Name, I_AD_Field.Table_Name, I_AD_Column.Table_Name, I_AD_Process.Table_Name, I_AD_Process_Para.Table_Name);
+	private static SerializedResponseCache<String, Tab> tabCache = new SerializedResponseCache<String, Tab>(I_AD_Tab.Table_Name + "_Response", 30, 60,
+			I_AD_Field.Table_Name, I_AD_Column.Table_Name, I_AD_Process.Table_Name, I_AD_Process_Para.Table_Name);
+	private static SerializedResponseCache<String, Process> processCache = new SerializedResponseCache<String, Process>(I_AD_Process.Table_Name + "_Response", 30, 60,
+			I_AD_Process_Para.Table_Name);
+	private static SerializedResponseCache<String, Browser> browserCache = new SerializedResponseCache<String, Browser>(I_AD_Browse.Table_Name + "_Response", 30, 60,
+			I_AD_Browse_Field.Table_Name, I_AD_Process.Table_Name, I_AD_Process_Para.Table_Name);
 	
 	@Override
 	public void getWindow(EntityRequest request, StreamObserver<Window> responseObserver) {
@@ -209,8 +222,8 @@ public class DictionaryServiceImplementation extends DictionaryImplBase {
 				throw new AdempiereException("Object Request Null");
 			}
 			Properties context = ContextManager.getContext(request.getApplicationRequest().getSessionUuid(), request.getApplicationRequest().getLanguage());
-			Process.Builder processBuilder = convertProcess(context, request.getUuid(), request.getId(), true);
-			responseObserver.onNext(processBuilder.build());
+			String key = getResponseKey(context, request.getUuid(), request.getId());
+			responseObserver.onNext(processCache.get(key, () -> convertProcess(context, request.getUuid(), request.getId(), true).build()));
 			responseObserver.onCompleted();
 		} catch (Exception e) {
 			log.severe(e.getLocalizedMessage());
@@ -235,8 +248,8 @@ public class DictionaryServiceImplementation extends DictionaryImplBase {
 				throw new AdempiereException("Object Request Null");
 			}
 			Properties context = ContextManager.getContext(request.getApplicationRequest().getSessionUuid(), request.getApplicationRequest().getLanguage());
-			Browser.Builder browserBuilder = convertBrowser(context, request.getUuid(), true);
-			responseObserver.onNext(browserBuilder.build());
+			String key = getResponseKey(context, request.getUuid(), 0);
+			responseObserver.onNext(browserCache.get(key, () -> convertBrowser(context, request.getUuid(), true).build()));
 			responseObserver.onCompleted();
 		} catch (Exception e) {
 			log.severe(e.getLocalizedMessage());
@@ -291,8 +304,8 @@ public class DictionaryServiceImplementation extends DictionaryImplBase {
 				throw new AdempiereException("Object Request Null");
 			}
 			Properties context = ContextManager.getContext(request.getApplicationRequest().getSessionUuid(), request.getApplicationRequest().getLanguage());
-			Window.Builder windowBuilder = convertWindow(context, request.getUuid(), request.getId(), withTabs);
-			responseObserver.onNext(windowBuilder.build());
+			String key = getResponseKey(context, request.getUuid(), request.getId()) + "|" + withTabs;
+			responseObserver.onNext(windowCache.get(key, () -> convertWindow(context, request.getUuid(), request.getId(), withTabs).build()));
 			responseObserver.onCompleted();
 		} catch (Exception e) {
 			log.severe(e.getLocalizedMessage());
@@ -304,6 +317,18 @@ public class DictionaryServiceImplementation extends DictionaryImplBase {
 		}
 	}
 	
+	/**
+	 * Get key of a serialized response, the dictionary depends of client, role and user (ASP) and language
+	 * @param context
+	 * @param uuid
+	 * @param id
+	 * @return
+	 */
+	private String getResponseKey(Properties context, String uuid, int id) {
+		return Env.getAD_Client_ID(context) + "|" + Env.getAD_Role_ID(context) + "|" + Env.getAD_User_ID(context) 
+				+ "|" + Env.getAD_Language(context) + "|" + uuid + "|" + id;
+	}
+	
 	/**
 	 * Request with parameter
 	 * @param request
@@ -322,8 +347,8 @@ public class DictionaryServiceImplementation extends DictionaryImplBase {
 				throw new AdempiereException("Object Request Null");
 			}
 			Properties context = ContextManager.getContext(request.getApplicationRequest().getSessionUuid(), request.getApplicationRequest().getLanguage());
-			Tab.Builder tabBuilder = convertTab(context, request.getUuid(), withFields);
-			responseObserver.onNext(tabBuilder.build());
+			String key = getResponseKey(context, request.getUuid(), 0) + "|" + withFields;
+			responseObserver.onNext(tabCache.get(key, () -> convertTab(context, request.getUuid(), withFields).build()));
 			responseObserver.onCompleted();
 		} catch (Exception e) {
 			log.severe(e.getLocalizedMessage());
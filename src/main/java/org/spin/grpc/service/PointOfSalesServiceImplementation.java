@@ -107,6 +107,8 @@ import org.spin.base.util.ContextManager;
 import org.spin.base.util.ConvertUtil;
 import org.spin.base.util.DocumentUtil;
 import org.spin.base.util.RecordUtil;
+import org.spin.base.util.SerializedResponseCache;
+import org.spin.base.util.ValueEncoding;
 import org.spin.base.util.ValueUtil;
 import org.spin.grpc.util.AddressRequest;
 import org.spin.grpc.util.AllocateSellerRequest;
@@ -215,6 +217,8 @@ public class PointOfSalesServiceImplementation extends StoreImplBase {
 	private CLogger log = CLogger.getCLogger(PointOfSalesServiceImplementation.class);
 	/**	Product Cache	*/
 	private static CCache<String, MProduct> productCache = new CCache<String, MProduct>(I_M_Product.Table_Name, 30, 20);	//	no time-out
+	/**	Payment methods serialized by POS, only responses of one page (the page token is of session)	*/
+	private static SerializedResponseCache<String, ListAvailablePaymentMethodsResponse> paymentMethodsCache = new SerializedResponseCache<String, ListAvailablePaymentMethodsResponse>("C_POSPaymentTypeAllocation_Response", 30, 20);
 	
 	@Override
 	public void getProductPrice(GetProductPriceRequest request, StreamObserver<ProductPrice> responseObserver) {
@@ -840,8 +844,11 @@ public class PointOfSalesServiceImplementation extends StoreImplBase {
 					request.getClientRequest().getLanguage(), 
 					request.getClientRequest().getOrganizationUuid(), 
 					request.getClientRequest().getWarehouseUuid());
-			ListAvailablePaymentMethodsResponse.Builder tenderTypes = listPaymentMethods(request);
-			responseObserver.onNext(tenderTypes.build());
+			int pageNumber = RecordUtil.getPageNumber(request.getClientRequest().getSessionUuid(), request.getPageToken());
+			String key = Env.getAD_Client_ID(Env.getCtx()) + "|" + request.getPosUuid() + "|" + pageNumber 
+					+ "|" + RecordUtil.getPageSize(request.getPageSize()) + "|" + ValueEncoding.current();
+			responseObserver.onNext(paymentMethodsCache.get(key, () -> listPaymentMethods(request).build(), 
+					tenderTypes -> Util.isEmpty(tenderTypes.getNextPageToken())));
 			responseObserver.onCompleted();
 		} catch (Exception e) {
 			log.severe(e.getLocalizedMessage());
@@ -1208,8 +1215,8 @@ public class PointOfSalesServiceImplementation extends StoreImplBase {
 			int customerId = RecordUtil.getIdFromUuid(I_C_BPartner.Table_Name, request.getCustomerUuid(), null);
 			String nexPageToken = null;
 			int pageNumber = RecordUtil.getPageNumber(request.getClientRequest().getSessionUuid(), request.getPageToken());
-			int limit = RecordUtil.PAGE_SIZE;
-			int offset = pageNumber * RecordUtil.PAGE_SIZE;
+			int limit = RecordUtil.getPageSize(request.getPageSize());
+			int offset = pageNumber * limit;
 			//	Dynamic where clause
 			//	Get Product list
 			Query query = new Query(Env.getCtx(), I_C_BP_BankAccount.Table_Name, I_C_BP_BankAccount.COLUMNNAME_C_BPartner_ID + " = ?", null)
@@ -1644,8 +1651,8 @@ public class PointOfSalesServiceImplementation extends StoreImplBase {
 		ListAvailableSellersResponse.Builder builder = ListAvailableSellersResponse.newBuilder();
 		String nexPageToken = null;
 		int pageNumber = RecordUtil.getPageNumber(request.getClientRequest().getSessionUuid(), request.getPageToken());
-		int limit = RecordUtil.PAGE_SIZE;
-		int offset = pageNumber * RecordUtil.PAGE_SIZE;
+		int limit = RecordUtil.getPageSize(request.getPageSize());
+		int offset = pageNumber * limit;
 		int posId = RecordUtil.getIdFromUuid(I_C_POS.Table_Name, request.getPosUuid(), null);
 		//	
 		StringBuffer whereClause = new StringBuffer();
@@ -1789,8 +1796,8 @@ public class PointOfSalesServiceImplementation extends StoreImplBase {
 			.setUuid(ValueUtil.validateNull(cashClosing.getUUID()));
 		String nexPageToken = null;
 		int pageNumber = RecordUtil.getPageNumber(request.getClientRequest().getSessionUuid(), request.getPageToken());
-		int limit = RecordUtil.PAGE_SIZE;
-		int offset = pageNumber * RecordUtil.PAGE_SIZE;
+		int limit = RecordUtil.getPageSize(request.getPageSize());
+		int offset = pageNumber * limit;
 		int count = 0;
 		try {
 			String sql = "SELECT pm.UUID AS PaymentMethodUUID, pm.Name AS PaymentMethodName, pm.TenderType AS TenderTypeCode, p.C_Currency_ID, p.IsReceipt, (SUM(p.PayAmt) * CASE WHEN p.IsReceipt = 'Y' THEN 1 ELSE -1 END) AS PaymentAmount "
@@ -2136,8 +2143,8 @@ public class PointOfSalesServiceImplementation extends StoreImplBase {
 		ListShipmentLinesResponse.Builder builder = ListShipmentLinesResponse.newBuilder();
 		String nexPageToken = null;
 		int pageNumber = RecordUtil.getPageNumber(request.getClientRequest().getSessionUuid(), request.getPageToken());
-		int limit = RecordUtil.PAGE_SIZE;
-		int offset = pageNumber * RecordUtil.PAGE_SIZE;
+		int limit = RecordUtil.getPageSize(request.getPageSize());
+		int offset = pageNumber * limit;
 		int shipmentId = RecordUtil.getIdFromUuid(I_M_InOut.Table_Name, request.getShipmentUuid(), null);
 		//	Get Product list
 		Query query = new Query(Env.getCtx(), I_M_InOutLine.Table_Name, I_M_InOutLine.COLUMNNAME_M_InOut_ID + " = ?", null)
@@ -2178,8 +2185,8 @@ public class PointOfSalesServiceImplementation extends StoreImplBase {
 		}
 		String nexPageToken = null;
 		int pageNumber = RecordUtil.getPageNumber(request.getClientRequest().getSessionUuid(), request.getPageToken());
-		int limit = RecordUtil.PAGE_SIZE;
-		int offset = pageNumber * RecordUtil.PAGE_SIZE;
+		int limit = RecordUtil.getPageSize(request.getPageSize());
+		int offset = pageNumber * limit;
 		List<Object> parameters = new ArrayList<Object>();
 		StringBuffer whereClause = new StringBuffer("");
 		if(!Util.isEmpty(request.getOrderUuid())) {
@@ -2236,9 +2243,13 @@ public class PointOfSalesServiceImplementation extends StoreImplBase {
 			.setSalesRepresentative(ConvertUtil.convertSalesRepresentative(MUser.get(Env.getCtx(), refundReference.get_ValueAsInt("SalesRep_ID"))))
 			.setId(refundReference.get_ID())
 			.setUuid(ValueUtil.validateNull(refundReference.get_UUID()))
-			.setPaymentMethodUuid(ValueUtil.validateNull(RecordUtil.getUuidFromId(I_C_PaymentMethod.Table_Name, refundReference.get_ValueAsInt("C_PaymentMethod_ID"))))
-			.setPaymentDate(ValueUtil.validateNull(ValueUtil.convertDateToString((Timestamp) refundReference.get_Value("PayDate"))));
-			
+			.setPaymentMethodUuid(ValueUtil.validateNull(RecordUtil.getUuidFromId(I_C_PaymentMethod.Table_Name, refundReference.get_ValueAsInt("C_PaymentMethod_ID"))));
+			Timestamp paymentDate = (Timestamp) refundReference.get_Value("PayDate");
+			if(ValueEncoding.isCompact()) {
+				builder.setPaymentDateMillis(ValueUtil.getLongFromDate(paymentDate));
+			} else {
+				builder.setPaymentDate(ValueUtil.validateNull(ValueUtil.convertDateToString(paymentDate)));
+			}
 		}
 		//	
 		return builder;
@@ -2835,8 +2846,8 @@ public class PointOfSalesServiceImplementation extends StoreImplBase {
 		}
 		String nexPageToken = null;
 		int pageNumber = RecordUtil.getPageNumber(request.getClientRequest().getSessionUuid(), request.getPageToken());
-		int limit = RecordUtil.PAGE_SIZE;
-		int offset = pageNumber * RecordUtil.PAGE_SIZE;
+		int limit = RecordUtil.getPageSize(request.getPageSize());
+		int offset = pageNumber * limit;
 		//	Aisle Seller
 		int posId = RecordUtil.getIdFromUuid(I_C_POS.Table_Name, request.getPosUuid(), null);
 		//	Get Product list
@@ -2885,8 +2896,8 @@ public class PointOfSalesServiceImplementation extends StoreImplBase {
 		}
 		String nexPageToken = null;
 		int pageNumber = RecordUtil.getPageNumber(request.getClientRequest().getSessionUuid(), request.getPageToken());
-		int limit = RecordUtil.PAGE_SIZE;
-		int offset = pageNumber * RecordUtil.PAGE_SIZE;
+		int limit = RecordUtil.getPageSize(request.getPageSize());
+		int offset = pageNumber * limit;
 		//	Dynamic where clause
 		//	Aisle Seller
 		int posId = RecordUtil.getIdFromUuid(I_C_POS.Table_Name, request.getPosUuid(), null);
@@ -2942,8 +2953,8 @@ public class PointOfSalesServiceImplementation extends StoreImplBase {
 		}
 		String nexPageToken = null;
 		int pageNumber = RecordUtil.getPageNumber(request.getClientRequest().getSessionUuid(), request.getPageToken());
-		int limit = RecordUtil.PAGE_SIZE;
-		int offset = pageNumber * RecordUtil.PAGE_SIZE;
+		int limit = RecordUtil.getPageSize(request.getPageSize());
+		int offset = pageNumber * limit;
 		//	Dynamic where clause
 		//	Aisle Seller
 		int posId = RecordUtil.getIdFromUuid(I_C_POS.Table_Name, request.getPosUuid(), null);
@@ -3005,8 +3016,8 @@ public class PointOfSalesServiceImplementation extends StoreImplBase {
 		}
 		String nexPageToken = null;
 		int pageNumber = RecordUtil.getPageNumber(request.getClientRequest().getSessionUuid(), request.getPageToken());
-		int limit = RecordUtil.PAGE_SIZE;
-		int offset = pageNumber * RecordUtil.PAGE_SIZE;
+		int limit = RecordUtil.getPageSize(request.getPageSize());
+		int offset = pageNumber * limit;
 		//	Dynamic where clause
 		//	Aisle Seller
 		int posId = RecordUtil.getIdFromUuid(I_C_POS.Table_Name, request.getPosUuid(), null);
@@ -3052,8 +3063,8 @@ public class PointOfSalesServiceImplementation extends StoreImplBase {
 		ListAvailableCurrenciesResponse.Builder builder = ListAvailableCurrenciesResponse.newBuilder();
 		String nexPageToken = null;
 		int pageNumber = RecordUtil.getPageNumber(request.getClientRequest().getSessionUuid(), request.getPageToken());
-		int limit = RecordUtil.PAGE_SIZE;
-		int offset = pageNumber * RecordUtil.PAGE_SIZE;
+		int limit = RecordUtil.getPageSize(request.getPageSize());
+		int offset = pageNumber * limit;
 		//	Dynamic where clause
 		String whereClause = "EXISTS(SELECT 1 FROM C_Conversion_Rate cr "
 				+ "WHERE (cr.C_Currency_ID = C_Currency.C_Currency_ID  OR cr.C_Currency_ID_To = C_Currency.C_Currency_ID) "
@@ -3390,8 +3401,8 @@ public class PointOfSalesServiceImplementation extends StoreImplBase {
 		ListOrdersResponse.Builder builder = ListOrdersResponse.newBuilder();
 		String nexPageToken = null;
 		int pageNumber = RecordUtil.getPageNumber(request.getClientRequest().getSessionUuid(), request.getPageToken());
-		int limit = RecordUtil.PAGE_SIZE;
-		int offset = pageNumber * RecordUtil.PAGE_SIZE;
+		int limit = RecordUtil.getPageSize(request.getPageSize());
+		int offset = pageNumber * limit;
 		//	Dynamic where clause
 		int posId = RecordUtil.getIdFromUuid(I_C_POS.Table_Name, request.getPosUuid(), null);
 		int salesRepresentativeId = RecordUtil.getIdFromUuid(I_AD_User.Table_Name, request.getSalesRepresentativeUuid(), null);
@@ -3520,8 +3531,8 @@ public class PointOfSalesServiceImplementation extends StoreImplBase {
 		ListPaymentsResponse.Builder builder = ListPaymentsResponse.newBuilder();
 		String nexPageToken = null;
 		int pageNumber = RecordUtil.getPageNumber(request.getClientRequest().getSessionUuid(), request.getPageToken());
-		int limit = RecordUtil.PAGE_SIZE;
-		int offset = pageNumber * RecordUtil.PAGE_SIZE;
+		int limit = RecordUtil.getPageSize(request.getPageSize());
+		int offset = pageNumber * limit;
 		//	Dynamic where clause
 		StringBuffer whereClause = new StringBuffer();
 		//	Parameters
@@ -3585,8 +3596,8 @@ public class PointOfSalesServiceImplementation extends StoreImplBase {
 		ListOrderLinesResponse.Builder builder = ListOrderLinesResponse.newBuilder();
 		String nexPageToken = null;
 		int pageNumber = RecordUtil.getPageNumber(request.getClientRequest().getSessionUuid(), request.getPageToken());
-		int limit = RecordUtil.PAGE_SIZE;
-		int offset = pageNumber * RecordUtil.PAGE_SIZE;
+		int limit = RecordUtil.getPageSize(request.getPageSize());
+		int offset = pageNumber * limit;
 		//	Get Product list
 		int orderId = RecordUtil.getIdFromUuid(I_C_Order.Table_Name, request.getOrderUuid(), null);
 		Query query = new Query(Env.getCtx(), I_C_OrderLine.Table_Name, I_C_OrderLine.COLUMNNAME_C_Order_ID + " = ?", null)
@@ -4246,8 +4257,8 @@ public class PointOfSalesServiceImplementation extends StoreImplBase {
 		//	Get page and count
 		String nexPageToken = null;
 		int pageNumber = RecordUtil.getPageNumber(request.getClientRequest().getSessionUuid(), request.getPageToken());
-		int limit = RecordUtil.PAGE_SIZE;
-		int offset = pageNumber * RecordUtil.PAGE_SIZE;
+		int limit = RecordUtil.getPageSize(request.getPageSize());
+		int offset = pageNumber * limit;
 		//	Get POS List
 		boolean isAppliedNewFeaturesPOS = M_Element.get(Env.getCtx(), "IsSharedPOS") != null && M_Element.get(Env.getCtx(), "IsAllowsAllocateSeller") != null;
 		StringBuffer whereClause = new StringBuffer("SalesRep_ID = ? OR EXISTS(SELECT 1 FROM AD_User u WHERE u.AD_User_ID = ? AND IsPOSManager = 'Y')");
@@ -5051,8 +5062,8 @@ public class PointOfSalesServiceImplementation extends StoreImplBase {
 		}
 		String nexPageToken = null;
 		int pageNumber = RecordUtil.getPageNumber(request.getClientRequest().getSessionUuid(), request.getPageToken());
-		int limit = RecordUtil.PAGE_SIZE;
-		int offset = pageNumber * RecordUtil.PAGE_SIZE;
+		int limit = RecordUtil.getPageSize(request.getPageSize());
+		int offset = pageNumber * limit;
 		//	Dynamic where clause
 		StringBuffer whereClause = new StringBuffer();
 		//	Parameters
@@ -5166,7 +5177,11 @@ public class PointOfSalesServiceImplementation extends StoreImplBase {
 		builder.setCurrency(ConvertUtil.convertCurrency(MCurrency.get(Env.getCtx(), priceList.getC_Currency_ID())));
 		//	Price List Attributes
 		builder.setIsTaxIncluded(priceList.isTaxIncluded());
-		builder.setValidFrom(ValueUtil.validateNull(ValueUtil.convertDateToString(productPricing.getPriceDate())));
+		if(ValueEncoding.isCompact()) {
+			builder.setValidFromMillis(ValueUtil.getLongFromDate(productPricing.getPriceDate()));
+		} else {
+			builder.setValidFrom(ValueUtil.validateNull(ValueUtil.convertDateToString(productPricing.getPriceDate())));
+		}
 		builder.setPriceListName(ValueUtil.validateNull(priceList.getName()));
 		//	Pricing
 		builder.setPricePrecision(productPricing.getPrecision());
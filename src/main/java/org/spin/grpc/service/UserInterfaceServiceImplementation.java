@@ -107,10 +107,23 @@ import org.compiere.util.MimeType;
 import org.compiere.util.Msg;
 import org.compiere.util.Trx;
 import org.compiere.util.Util;
+import org.spin.base.metrics.CallTiming;
+import org.spin.base.metrics.CallTiming.Phase;
+import org.spin.base.util.ColumnProjection;
+import org.spin.base.util.ColumnarRecordsWriter;
 import org.spin.base.util.ContextManager;
 import org.spin.base.util.ConvertUtil;
 import org.spin.base.util.DictionaryUtil;
+import org.spin.base.util.EncodedRecords;
+import org.spin.base.util.EncodedRecordsWriter;
+import org.spin.base.util.EntityConversionPlan;
+import org.spin.base.util.KeysetPage;
+import org.spin.base.util.PagingUtil;
+import org.spin.base.util.QueryTrace;
+import org.spin.base.util.RecordCount;
 import org.spin.base.util.RecordUtil;
+import org.spin.base.util.RecordWriter;
+import org.spin.base.util.ResultSetStream;
 import org.spin.base.util.ValueUtil;
 import org.spin.grpc.util.Attachment;
 import org.spin.grpc.util.ChatEntry;
@@ -155,6 +168,7 @@ import org.spin.grpc.util.PrintFormat;
 import org.spin.grpc.util.PrivateAccess;
 import org.spin.grpc.util.RecordAccess;
 import org.spin.grpc.util.RecordAccessRole;
+import org.spin.grpc.util.RecordFormat;
 import org.spin.grpc.util.RecordReferenceInfo;
 import org.spin.grpc.util.ReportOutput;
 import org.spin.grpc.util.ReportView;
@@ -289,7 +303,7 @@ public class UserInterfaceServiceImplementation extends UserInterfaceImplBase {
 					request.getClientRequest().getOrganizationUuid(), 
 					request.getClientRequest().getWarehouseUuid());
 			ListLookupItemsResponse.Builder entityValueList = convertLookupItemsList(request);
-			responseObserver.onNext(entityValueList.build());
+			responseObserver.onNext(EncodedRecords.build(entityValueList));
 			responseObserver.onCompleted();
 		} catch (Exception e) {
 			log.severe(e.getLocalizedMessage());
@@ -301,6 +315,29 @@ public class UserInterfaceServiceImplementation extends UserInterfaceImplBase {
 		}
 	}
 	
+	@Override
+	public void streamLookupItems(ListLookupItemsRequest request, StreamObserver<LookupItem> responseObserver) {
+		try {
+			if(request == null) {
+				throw new AdempiereException("Lookup Request Null");
+			}
+			ContextManager.getContext(request.getClientRequest().getSessionUuid(), 
+					request.getClientRequest().getLanguage(), 
+					request.getClientRequest().getOrganizationUuid(), 
+					request.getClientRequest().getWarehouseUuid());
+			List<Object> params = new ArrayList<>();
+			String sql = getLookupItemsQuery(request, params);
+			ResultSetStream.start(responseObserver, sql, params, rs -> convertLookupItem(rs).build());
+		} catch (Exception e) {
+			log.severe(e.getLocalizedMessage());
+			responseObserver.onError(Status.INTERNAL
+					.withDescription(e.getLocalizedMessage())
+					.augmentDescription(e.getLocalizedMessage())
+					.withCause(e)
+					.asRuntimeException());
+		}
+	}
+	
 	@Override
 	public void listBrowserItems(ListBrowserItemsRequest request, StreamObserver<ListBrowserItemsResponse> responseObserver) {
 		try {
@@ -314,7 +351,7 @@ public class UserInterfaceServiceImplementation extends UserInterfaceImplBase {
 					request.getClientRequest().getOrganizationUuid(), 
 					request.getClientRequest().getWarehouseUuid());
 			ListBrowserItemsResponse.Builder entityValueList = convertBrowserList(request);
-			responseObserver.onNext(entityValueList.build());
+			responseObserver.onNext(EncodedRecords.build(entityValueList));
 			responseObserver.onCompleted();
 		} catch (Exception e) {
 			log.severe(e.getLocalizedMessage());
@@ -326,6 +363,36 @@ public class UserInterfaceServiceImplementation extends UserInterfaceImplBase {
 		}
 	}
 	
+	@Override
+	public void streamBrowserItems(ListBrowserItemsRequest request, StreamObserver<Entity> responseObserver) {
+		try {
+			if(request == null
+					|| Util.isEmpty(request.getUuid())) {
+				throw new AdempiereException("Browser Requested is Null");
+			}
+			ContextManager.getContext(request.getClientRequest().getSessionUuid(), 
+					request.getClientRequest().getLanguage(), 
+					request.getClientRequest().getOrganizationUuid(), 
+					request.getClientRequest().getWarehouseUuid());
+			MBrowse browser = getBrowser(request.getUuid());
+			if(browser == null) {
+				throw new AdempiereException("@AD_Browse_ID@ @NotFound@");
+			}
+			List<Object> values = new ArrayList<>();
+			String sql = getBrowserQuery(browser, request, values);
+			sql = PagingUtil.getPagedQuery(sql, DictionaryUtil.getSQLOrderBy(browser), 0, 0);
+			Map<String, MBrowseField> fieldsMap = getBrowserFieldsMap(browser);
+			ResultSetStream.start(responseObserver, sql, values, EntityConversionPlan.toEntities(metaData -> EntityConversionPlan.forBrowser(metaData, fieldsMap)));
+		} catch (Exception e) {
+			log.severe(e.getLocalizedMessage());
+			responseObserver.onError(Status.INTERNAL
+					.withDescription(e.getLocalizedMessage())
+					.augmentDescription(e.getLocalizedMessage())
+					.withCause(e)
+					.asRuntimeException());
+		}
+	}
+	
 	@Override
 	public void listReferences(ListReferencesRequest request, StreamObserver<ListReferencesResponse> responseObserver) {
 		try {
@@ -861,7 +928,7 @@ public class UserInterfaceServiceImplementation extends UserInterfaceImplBase {
 			}
 			Properties context = ContextManager.getContext(request.getClientRequest().getSessionUuid(), request.getClientRequest().getLanguage(), request.getClientRequest().getOrganizationUuid(), request.getClientRequest().getWarehouseUuid());
 			ListTabEntitiesResponse.Builder entityValueList = convertEntitiesList(context, request);
-			responseObserver.onNext(entityValueList.build());
+			responseObserver.onNext(EncodedRecords.build(entityValueList));
 			responseObserver.onCompleted();
 		} catch (Exception e) {
 			log.severe(e.getLocalizedMessage());
@@ -873,18 +940,98 @@ public class UserInterfaceServiceImplementation extends UserInterfaceImplBase {
 		}
 	}
 	
+	@Override
+	public void streamTabEntities(ListTabEntitiesRequest request, StreamObserver<Entity> responseObserver) {
+		try {
+			if(request == null) {
+				throw new AdempiereException("Object Request Null");
+			}
+			Properties context = ContextManager.getContext(request.getClientRequest().getSessionUuid(), request.getClientRequest().getLanguage(), request.getClientRequest().getOrganizationUuid(), request.getClientRequest().getWarehouseUuid());
+			MTab tab = getTab(context, request);
+			MTable table = MTable.get(context, tab.getAD_Table_ID());
+			ColumnProjection projection = ColumnProjection.forTable(table, request.getColumnsList());
+			List<Object> params = new ArrayList<>();
+			String sql = getTabEntitiesQuery(context, tab, request, projection, params);
+			sql = PagingUtil.getPagedQuery(sql, request.getFilters().getOrderByClause(), 0, 0);
+			Map<String, MColumn> columnsMap = getColumnsMap(table);
+			ResultSetStream.start(responseObserver, sql, params, EntityConversionPlan.toEntities(metaData -> EntityConversionPlan.forResultSet(metaData, columnsMap, projection)));
+		} catch (Exception e) {
+			log.severe(e.getLocalizedMessage());
+			responseObserver.onError(Status.INTERNAL
+					.withDescription(e.getLocalizedMessage())
+					.augmentDescription(e.getLocalizedMessage())
+					.withCause(e)
+					.asRuntimeException());
+		}
+	}
+	
 	/**
 	 * Convert Object to list
 	 * @param request
 	 * @return
 	 */
 	private ListTabEntitiesResponse.Builder convertEntitiesList(Properties context, ListTabEntitiesRequest request) {
+		MTab tab = getTab(context, request);
+		String tableName = MTable.getTableName(context, tab.getAD_Table_ID());
+		Criteria criteria = request.getFilters();
+		MTable table = MTable.get(context, tableName);
+		//	Only requested columns and columns of sort
+		ColumnProjection projection = ColumnProjection.forTable(table, request.getColumnsList())
+				.addOrderByColumns(criteria.getOrderByClause());
+		List<Object> params = new ArrayList<>();
+		String parsedSQL = getTabEntitiesQuery(context, tab, request, projection, params);
+		//	Get page and count
+		int limit = RecordUtil.getPageSize(request.getPageSize());
+		int count = 0;
+		ListTabEntitiesResponse.Builder builder = ListTabEntitiesResponse.newBuilder();
+		KeysetPage page = KeysetPage.forTable(request.getPageToken(), request.getClientRequest().getSessionUuid(), table, tableName, criteria.getOrderByClause(), parsedSQL, params, limit);
+		//	Count records
+		RecordCount recordCount = RecordCount.forQuery(request.getCountMode(), parsedSQL, tableName, params);
+		//	Records after previous page
+		List<Object> pageParams = new ArrayList<>(params);
+		String seekPredicate = page.getSeekPredicate(pageParams);
+		if(!Util.isEmpty(seekPredicate)) {
+			parsedSQL = parsedSQL + " AND " + seekPredicate;
+		} else {
+			//	Count on same query
+			parsedSQL = recordCount.addCountColumn(parsedSQL);
+		}
+		//	Add Order By and page
+		parsedSQL = PagingUtil.getPagedQuery(parsedSQL, page.getOrderByClause(), page.getQueryOffset(), limit);
+		builder = convertListEntitiesResult(table, projection, parsedSQL, pageParams, page, recordCount, request.getRecordFormat());
+		//	
+		count = recordCount.getCount();
+		builder.setRecordCount(count);
+		//	Set next page
+		builder.setNextPageToken(page.getNextPageToken(recordCount.isExact()? count: RecordCount.UNKNOWN));
+		//	Return
+		return builder;
+	}
+	
+	/**
+	 * Get tab of request
+	 * @param context
+	 * @param request
+	 * @return
+	 */
+	private MTab getTab(Properties context, ListTabEntitiesRequest request) {
 		int tabId = RecordUtil.getIdFromUuid(I_AD_Tab.Table_Name, request.getTabUuid(), null);
 		if(tabId <= 0) {
 			throw new AdempiereException("@AD_Tab_ID@ @NotFound@");
 		}
-		//	
-		MTab tab = MTab.get(context, tabId);
+		return MTab.get(context, tabId);
+	}
+	
+	/**
+	 * Get query of tab with where clause of tab, filters of request and access of role (without order and page)
+	 * @param context
+	 * @param tab
+	 * @param request
+	 * @param projection columns to read
+	 * @param params parameters of query are added here
+	 * @return
+	 */
+	private String getTabEntitiesQuery(Properties context, MTab tab, ListTabEntitiesRequest request, ColumnProjection projection, List<Object> params) {
 		String tableName = MTable.getTableName(context, tab.getAD_Table_ID());
 		Env.clearWinContext(request.getWindowNo());
 		Map<String, Object> attributes = ValueUtil.convertValuesToObjects(request.getContextAttributesList());
@@ -907,7 +1054,6 @@ public class UserInterfaceServiceImplementation extends UserInterfaceImplBase {
 		}
 		Criteria criteria = request.getFilters();
 		StringBuffer whereClause = new StringBuffer(where);
-		List<Object> params = new ArrayList<>();
 		//	For dynamic condition
 		String dynamicWhere = ValueUtil.getWhereClauseFromCriteria(criteria, tableName, params);
 		if(!Util.isEmpty(dynamicWhere)) {
@@ -927,64 +1073,37 @@ public class UserInterfaceServiceImplementation extends UserInterfaceImplBase {
 				whereClause.append("(").append(referenceWhereClause).append(")");
 			}
 		}
-		//	Get page and count
-		String nexPageToken = null;
-		int pageNumber = RecordUtil.getPageNumber(request.getClientRequest().getSessionUuid(), request.getPageToken());
-		int limit = RecordUtil.PAGE_SIZE;
-		int offset = pageNumber * RecordUtil.PAGE_SIZE;
-		int count = 0;
-		ListTabEntitiesResponse.Builder builder = ListTabEntitiesResponse.newBuilder();
-		//	
-		StringBuilder sql = new StringBuilder(DictionaryUtil.getQueryWithReferencesFromTab(tab));
+		StringBuilder sql = new StringBuilder(DictionaryUtil.getQueryWithReferencesFromTab(tab, projection));
 		if (whereClause.length() > 0) {
 			sql.append(" WHERE ").append(whereClause); // includes first AND
 		}
 		//	
-		String parsedSQL = MRole.getDefault().addAccessSQL(sql.toString(),
+		return MRole.getDefault().addAccessSQL(sql.toString(),
 				null, MRole.SQL_FULLYQUALIFIED,
 				MRole.SQL_RO);
-		String orderByClause = criteria.getOrderByClause();
-		if(Util.isEmpty(orderByClause)) {
-			orderByClause = "";
-		} else {
-			orderByClause = " ORDER BY " + orderByClause;
-		}
-		//	Count records
-		count = RecordUtil.countRecords(parsedSQL, tableName, params);
-		//	Add Row Number
-		parsedSQL = parsedSQL + " AND ROWNUM >= " + offset + " AND ROWNUM <= " + limit;
-		//	Add Order By
-		parsedSQL = parsedSQL + orderByClause;
-		builder = convertListEntitiesResult(MTable.get(context, tableName), parsedSQL, params);
-		//	
-		builder.setRecordCount(count);
-		//	Set page token
-		if(RecordUtil.isValidNextPageToken(count, offset, limit)) {
-			nexPageToken = RecordUtil.getPagePrefix(request.getClientRequest().getSessionUuid()) + (pageNumber + 1);
-		}
-		//	Set next page
-		builder.setNextPageToken(ValueUtil.validateNull(nexPageToken));
-		//	Return
-		return builder;
 	}
 	
 	/**
 	 * Convert Entities List
 	 * @param table
+	 * @param projection columns of table that are sent
 	 * @param sql
+	 * @param params
+	 * @param page it keeps the last record for next page
+	 * @param counter it reads COUNT(*) OVER() of records
+	 * @param format records as entities or as columns
 	 * @return
 	 */
-	private ListTabEntitiesResponse.Builder convertListEntitiesResult(MTable table, String sql, List<Object> params) {
+	private ListTabEntitiesResponse.Builder convertListEntitiesResult(MTable table, ColumnProjection projection, String sql, List<Object> params, KeysetPage page, RecordCount counter, RecordFormat format) {
 		PreparedStatement pstmt = null;
 		ResultSet rs = null;
 		ListTabEntitiesResponse.Builder builder = ListTabEntitiesResponse.newBuilder();
+		ColumnarRecordsWriter columnar = format == RecordFormat.COLUMNAR? new ColumnarRecordsWriter(): null;
+		EncodedRecordsWriter encoded = columnar == null && EncodedRecordsWriter.isEnabled()? EncodedRecordsWriter.start(ListTabEntitiesResponse.RECORDS_FIELD_NUMBER): null;
 		long recordCount = 0;
+		QueryTrace trace = QueryTrace.start(sql, params);
+		CallTiming.Scope conversionScope = CallTiming.start(Phase.CONVERSION);
 		try {
-			LinkedHashMap<String, MColumn> columnsMap = new LinkedHashMap<>();
-			//	Add field to map
-			for(MColumn column: table.getColumnsAsList()) {
-				columnsMap.put(column.getColumnName().toUpperCase(), column);
-			}
 			//	SELECT Key, Value, Name FROM ...
 			pstmt = DB.prepareStatement(sql, null);
 			AtomicInteger parameterIndex = new AtomicInteger(1);
@@ -992,42 +1111,36 @@ public class UserInterfaceServiceImplementation extends UserInterfaceImplBase {
 				ValueUtil.setParameterFromObject(pstmt, value, parameterIndex.getAndIncrement());
 			} 
 			//	Get from Query
-			rs = pstmt.executeQuery();
-			while(rs.next()) {
-				Entity.Builder valueObjectBuilder = Entity.newBuilder();
-				ResultSetMetaData metaData = rs.getMetaData();
-				for (int index = 1; index <= metaData.getColumnCount(); index++) {
-					try {
-						String columnName = metaData.getColumnName (index);
-						MColumn field = columnsMap.get(columnName.toUpperCase());
-						Value.Builder valueBuilder = Value.newBuilder();
-						//	Display Columns
-						if(field == null) {
-							String value = rs.getString(index);
-							if(!Util.isEmpty(value)) {
-								valueBuilder = ValueUtil.getValueFromString(value);
-								valueObjectBuilder.putValues(columnName, valueBuilder.build());
-							}
-							continue;
-						}
-						//	From field
-						String fieldColumnName = field.getColumnName();
-						valueBuilder = ValueUtil.getValueFromReference(rs.getObject(index), field.getAD_Reference_ID());
-						if(!valueBuilder.getValueType().equals(Value.ValueType.UNRECOGNIZED)) {
-							valueObjectBuilder.putValues(fieldColumnName, valueBuilder.build());
-						}
-					} catch (Exception e) {
-						log.severe(e.getLocalizedMessage());
-					}
+			rs = trace.executeQuery(pstmt);
+			//	Columns are resolved once by query
+			EntityConversionPlan plan = EntityConversionPlan.forResultSet(rs.getMetaData(), getColumnsMap(table), projection);
+			while(trace.next(rs)) {
+				if(columnar != null) {
+					columnar.addRecord();
+					plan.write(rs, columnar);
+				} else if(encoded != null) {
+					encoded.addRecord();
+					plan.write(rs, encoded);
+				} else {
+					Entity.Builder valueObjectBuilder = plan.convert(rs);
+					//	
+					builder.addRecords(valueObjectBuilder.build());
 				}
-				//	
-				builder.addRecords(valueObjectBuilder.build());
+				page.addRecord(rs);
+				counter.addRecord(rs);
 				recordCount++;
 			}
 		} catch (Exception e) {
 			log.severe(e.getLocalizedMessage());
 		} finally {
 			DB.close(rs, pstmt);
+			conversionScope.close();
+			trace.finish(recordCount);
+		}
+		if(columnar != null) {
+			builder.setColumnarRecords(columnar.build());
+		} else if(encoded != null) {
+			encoded.finish().attachTo(builder);
 		}
 		//	Set record counts
 		builder.setRecordCount(recordCount);
@@ -1035,6 +1148,20 @@ public class UserInterfaceServiceImplementation extends UserInterfaceImplBase {
 		return builder;
 	}
 	
+	/**
+	 * Get columns of table by upper case name
+	 * @param table
+	 * @return
+	 */
+	private Map<String, MColumn> getColumnsMap(MTable table) {
+		LinkedHashMap<String, MColumn> columnsMap = new LinkedHashMap<>();
+		//	Add field to map
+		for(MColumn column: table.getColumnsAsList()) {
+			columnsMap.put(column.getColumnName().toUpperCase(), column);
+		}
+		return columnsMap;
+	}
+	
 	/**
 	 * Convert Record Access
 	 * @param request
@@ -2023,12 +2150,10 @@ public class UserInterfaceServiceImplementation extends UserInterfaceImplBase {
 	 * @return
 	 */
 	private int getLastChangeLogId(int tableId, int recordId, String transactionName) {
-		return DB.getSQLValue(null, "SELECT AD_ChangeLog_ID "
+		return DB.getSQLValue(null, PagingUtil.getPagedQuery("SELECT AD_ChangeLog_ID "
 				+ "FROM AD_ChangeLog "
 				+ "WHERE AD_Table_ID = ? "
-				+ "AND Record_ID = ? "
-				+ "AND ROWNUM <= 1 "
-				+ "ORDER BY Updated DESC", tableId, recordId);
+				+ "AND Record_ID = ?", "Updated DESC", 0, 1), tableId, recordId);
 	}
 	
 	/**
@@ -2204,32 +2329,15 @@ public class UserInterfaceServiceImplementation extends UserInterfaceImplBase {
 	 * @return
 	 */
 	private ListLookupItemsResponse.Builder convertLookupItemsList(ListLookupItemsRequest request) {
-		Criteria criteria = request.getCriteria();
-		String sql = criteria.getQuery();
 		List<Object> params = new ArrayList<>();
-		criteria.getConditionsList().forEach(condition -> params.add(ValueUtil.getObjectFromValue(condition.getValue())));
-		//	For dynamic condition
-		String dynamicWhere = ValueUtil.getWhereClauseFromCriteria(criteria, params);
-		if(!Util.isEmpty(dynamicWhere)) {
-			int positionFrom = sql.lastIndexOf(" FROM ");
-			boolean hasWhereClause = sql.indexOf(" WHERE ", positionFrom) != -1;
-			//
-			int positionOrder = sql.lastIndexOf(" ORDER BY ");
-			if (positionOrder != -1) {
-				sql = sql.substring(0, positionOrder) 
-						+ (hasWhereClause ? " AND " : " WHERE ") 
-						+ dynamicWhere
-						+ sql.substring(positionOrder);
-			} else {			
-				sql += (hasWhereClause ? " AND " : " WHERE ") + dynamicWhere;
-			}
-		}
-		sql = MRole.getDefault(Env.getCtx(), false).addAccessSQL(sql,
-				criteria.getTableName(), MRole.SQL_FULLYQUALIFIED, MRole.SQL_RO);
+		String sql = getLookupItemsQuery(request, params);
 		ListLookupItemsResponse.Builder builder = ListLookupItemsResponse.newBuilder();
+		EncodedRecordsWriter encoded = EncodedRecordsWriter.isEnabled()? EncodedRecordsWriter.start(ListLookupItemsResponse.RECORDS_FIELD_NUMBER): null;
 		PreparedStatement pstmt = null;
 		ResultSet rs = null;
 		long recordCount = 0;
+		QueryTrace trace = QueryTrace.start(sql, params);
+		CallTiming.Scope conversionScope = CallTiming.start(Phase.CONVERSION);
 		try {
 			//	SELECT Key, Value, Name FROM ...
 			pstmt = DB.prepareStatement(sql, null);
@@ -2238,32 +2346,15 @@ public class UserInterfaceServiceImplementation extends UserInterfaceImplBase {
 				ValueUtil.setParameterFromObject(pstmt, value, parameterIndex.getAndIncrement());
 			}
 			//	Get from Query
-			rs = pstmt.executeQuery();
-			while(rs.next()) {
-				//	1 = Key Column
-				//	2 = Optional Value
-				//	3 = Display Value
-				ResultSetMetaData metaData = rs.getMetaData();
-				int keyValueType = metaData.getColumnType(1);
-				Object keyValue = null;
-				if(keyValueType == Types.VARCHAR
-						|| keyValueType == Types.NVARCHAR
-						|| keyValueType == Types.CHAR
-						|| keyValueType == Types.NCHAR
-						|| keyValueType == Types.OTHER) {
-					keyValue = rs.getString(2);
+			rs = trace.executeQuery(pstmt);
+			while(trace.next(rs)) {
+				if(encoded != null) {
+					encoded.addRecord();
+					writeLookupItem(rs, encoded);
 				} else {
-					keyValue = rs.getInt(1);
-				}
-				String uuid = null;
-				//	Validate if exist UUID
-				int uuidIndex = getColumnIndex(metaData, I_AD_Element.COLUMNNAME_UUID);
-				if(uuidIndex != -1) {
-					uuid = rs.getString(uuidIndex);
+					LookupItem.Builder valueObject = convertLookupItem(rs);
+					builder.addRecords(valueObject.build());
 				}
-				//	
-				LookupItem.Builder valueObject = convertObjectFromResult(keyValue, uuid, rs.getString(2), rs.getString(3));
-				builder.addRecords(valueObject.build());
 				recordCount++;
 			}
 		} catch (Exception e) {
@@ -2271,6 +2362,11 @@ public class UserInterfaceServiceImplementation extends UserInterfaceImplBase {
 			throw new AdempiereException(e);
 		} finally {
 			DB.close(rs, pstmt);
+			conversionScope.close();
+			trace.finish(recordCount);
+		}
+		if(encoded != null) {
+			encoded.finish().attachTo(builder);
 		}
 		//	Set record counts
 		builder.setRecordCount(recordCount);
@@ -2278,6 +2374,80 @@ public class UserInterfaceServiceImplementation extends UserInterfaceImplBase {
 		return builder;
 	}
 	
+	/**
+	 * Get query of lookup with filters of request and access of role
+	 * @param request
+	 * @param params parameters of query are added here
+	 * @return
+	 */
+	private String getLookupItemsQuery(ListLookupItemsRequest request, List<Object> params) {
+		Criteria criteria = request.getCriteria();
+		String sql = criteria.getQuery();
+		criteria.getConditionsList().forEach(condition -> params.add(ValueUtil.getObjectFromValue(condition.getValue())));
+		//	For dynamic condition
+		String dynamicWhere = ValueUtil.getWhereClauseFromCriteria(criteria, params);
+		if(!Util.isEmpty(dynamicWhere)) {
+			int positionFrom = sql.lastIndexOf(" FROM ");
+			boolean hasWhereClause = sql.indexOf(" WHERE ", positionFrom) != -1;
+			//
+			int positionOrder = sql.lastIndexOf(" ORDER BY ");
+			if (positionOrder != -1) {
+				sql = sql.substring(0, positionOrder) 
+						+ (hasWhereClause ? " AND " : " WHERE ") 
+						+ dynamicWhere
+						+ sql.substring(positionOrder);
+			} else {			
+				sql += (hasWhereClause ? " AND " : " WHERE ") + dynamicWhere;
+			}
+		}
+		return MRole.getDefault(Env.getCtx(), false).addAccessSQL(sql,
+				criteria.getTableName(), MRole.SQL_FULLYQUALIFIED, MRole.SQL_RO);
+	}
+	
+	/**
+	 * Convert current row of lookup query (Key, Value, Display Value and optional UUID)
+	 * @param rs
+	 * @return
+	 * @throws SQLException
+	 */
+	private LookupItem.Builder convertLookupItem(ResultSet rs) throws SQLException {
+		LookupItem.Builder builder = LookupItem.newBuilder();
+		writeLookupItem(rs, RecordWriter.forLookupItem(builder));
+		return builder;
+	}
+	
+	/**
+	 * Write current row of lookup query (Key, Value, Display Value and optional UUID)
+	 * @param rs
+	 * @param writer
+	 * @throws SQLException
+	 */
+	private void writeLookupItem(ResultSet rs, RecordWriter writer) throws SQLException {
+		//	1 = Key Column
+		//	2 = Optional Value
+		//	3 = Display Value
+		ResultSetMetaData metaData = rs.getMetaData();
+		int keyValueType = metaData.getColumnType(1);
+		Object keyValue = null;
+		if(keyValueType == Types.VARCHAR
+				|| keyValueType == Types.NVARCHAR
+				|| keyValueType == Types.CHAR
+				|| keyValueType == Types.NCHAR
+				|| keyValueType == Types.OTHER) {
+			keyValue = rs.getString(2);
+		} else {
+			keyValue = rs.getInt(1);
+		}
+		String uuid = null;
+		//	Validate if exist UUID
+		int uuidIndex = getColumnIndex(metaData, I_AD_Element.COLUMNNAME_UUID);
+		if(uuidIndex != -1) {
+			uuid = rs.getString(uuidIndex);
+		}
+		//	
+		writeObjectFromResult(writer, keyValue, uuid, rs.getString(2), rs.getString(3));
+	}
+	
 	/**
 	 * Verify if exist a column
 	 * @param metaData
@@ -2496,50 +2666,30 @@ public class UserInterfaceServiceImplementation extends UserInterfaceImplBase {
 		if(browser == null) {
 			return builder;
 		}
-		Criteria criteria = request.getCriteria();
-		HashMap<String, Object> parameterMap = new HashMap<>();
-		//	Populate map
-		criteria.getConditionsList().forEach(condition -> parameterMap.put(condition.getColumnName(), ValueUtil.getObjectFromValue(condition.getValue())));
 		List<Object> values = new ArrayList<Object>();
-		String whereClause = getBrowserWhereClause(browser, browser.getWhereClause(), request.getContextAttributesList(), parameterMap, values);
-		//	Page prefix
-		int page = RecordUtil.getPageNumber(request.getClientRequest().getSessionUuid(), request.getPageToken());
-		String query = DictionaryUtil.addQueryReferencesFromBrowser(browser);
+		String parsedSQL = getBrowserQuery(browser, request, values);
 		String orderByClause = DictionaryUtil.getSQLOrderBy(browser);
-		StringBuilder sql = new StringBuilder(query);
-		if (!Util.isEmpty(whereClause)) {
-			sql.append(" WHERE ").append(whereClause); // includes first AND
-		} else {
-			sql.append(" WHERE 1=1");
-		}
-		MView view = browser.getAD_View();
-		MViewDefinition parentDefinition = view.getParentViewDefinition();
-		String tableNameAlias = parentDefinition.getTableAlias();
-		String tableName = parentDefinition.getAD_Table().getTableName();
-		//	
-		String parsedSQL = MRole.getDefault().addAccessSQL(sql.toString(),
-				tableNameAlias, MRole.SQL_FULLYQUALIFIED,
-				MRole.SQL_RO);
-		if(Util.isEmpty(orderByClause)) {
-			orderByClause = "";
+		String tableName = browser.getAD_View().getParentViewDefinition().getAD_Table().getTableName();
+		int limit = RecordUtil.getPageSize(request.getPageSize());
+		KeysetPage page = KeysetPage.forBrowser(request.getPageToken(), request.getClientRequest().getSessionUuid(), browser, orderByClause, parsedSQL, values, limit);
+		//	Count records
+		RecordCount recordCount = RecordCount.forQuery(request.getCountMode(), parsedSQL, tableName, values);
+		//	Records after previous page
+		List<Object> pageValues = new ArrayList<>(values);
+		String seekPredicate = page.getSeekPredicate(pageValues);
+		if(!Util.isEmpty(seekPredicate)) {
+			parsedSQL = parsedSQL + " AND " + seekPredicate;
 		} else {
-			orderByClause = " ORDER BY " + orderByClause;
+			//	Count on same query
+			parsedSQL = recordCount.addCountColumn(parsedSQL);
 		}
-		//	Count records
-		int count = RecordUtil.countRecords(parsedSQL, tableName, values);
-		String nexPageToken = null;
-		int pageMultiplier = page == 0? 1: page;
-		if(count > (RecordUtil.PAGE_SIZE * pageMultiplier)) {
-			nexPageToken = RecordUtil.getPagePrefix(request.getClientRequest().getSessionUuid()) + (page + 1);
-		}
-		//	Add Row Number
-		parsedSQL = parsedSQL + " AND ROWNUM >= " + page + " AND ROWNUM <= " + RecordUtil.PAGE_SIZE;
-		//	Add Order By
-		parsedSQL = parsedSQL + orderByClause;
+		//	Add Order By and page
+		parsedSQL = PagingUtil.getPagedQuery(parsedSQL, page.getOrderByClause(), page.getQueryOffset(), limit);
 		//	Return
-		builder = convertBrowserResult(browser, parsedSQL, values);
+		builder = convertBrowserResult(browser, parsedSQL, pageValues, page, recordCount, request.getRecordFormat());
+		int count = recordCount.getCount();
 		//	Validate page token
-		builder.setNextPageToken(ValueUtil.validateNull(nexPageToken));
+		builder.setNextPageToken(page.getNextPageToken(recordCount.isExact()? count: RecordCount.UNKNOWN));
 		//	Return
 		return builder;
 	}
@@ -2550,19 +2700,21 @@ public class UserInterfaceServiceImplementation extends UserInterfaceImplBase {
 	 * @param browser
 	 * @param sql
 	 * @param values
+	 * @param page it keeps the last record for next page
+	 * @param counter it reads COUNT(*) OVER() of records
+	 * @param format records as entities or as columns
 	 * @return
 	 */
-	private ListBrowserItemsResponse.Builder convertBrowserResult(MBrowse browser, String sql, List<Object> values) {
+	private ListBrowserItemsResponse.Builder convertBrowserResult(MBrowse browser, String sql, List<Object> values, KeysetPage page, RecordCount counter, RecordFormat format) {
 		PreparedStatement pstmt = null;
 		ResultSet rs = null;
 		ListBrowserItemsResponse.Builder builder = ListBrowserItemsResponse.newBuilder();
+		ColumnarRecordsWriter columnar = format == RecordFormat.COLUMNAR? new ColumnarRecordsWriter(): null;
+		EncodedRecordsWriter encoded = columnar == null && EncodedRecordsWriter.isEnabled()? EncodedRecordsWriter.start(ListBrowserItemsResponse.RECORDS_FIELD_NUMBER): null;
 		long recordCount = 0;
+		QueryTrace trace = QueryTrace.start(sql, values);
+		CallTiming.Scope conversionScope = CallTiming.start(Phase.CONVERSION);
 		try {
-			LinkedHashMap<String, MBrowseField> fieldsMap = new LinkedHashMap<>();
-			//	Add field to map
-			for(MBrowseField field: ASPUtil.getInstance().getBrowseFields(browser.getAD_Browse_ID())) {
-				fieldsMap.put(field.getAD_View_Column().getColumnName().toUpperCase(), field);
-			}
 			//	SELECT Key, Value, Name FROM ...
 			pstmt = DB.prepareStatement(sql, null);
 			AtomicInteger parameterIndex = new AtomicInteger(1);
@@ -2570,42 +2722,36 @@ public class UserInterfaceServiceImplementation extends UserInterfaceImplBase {
 				setParameterFromObject(pstmt, value, parameterIndex.getAndIncrement());
 			} 
 			//	Get from Query
-			rs = pstmt.executeQuery();
-			while(rs.next()) {
-				Entity.Builder valueObjectBuilder = Entity.newBuilder();
-				ResultSetMetaData metaData = rs.getMetaData();
-				for (int index = 1; index <= metaData.getColumnCount(); index++) {
-					try {
-						String columnName = metaData.getColumnName (index);
-						MBrowseField field = fieldsMap.get(columnName.toUpperCase());
-						Value.Builder valueBuilder = null;
-						//	Display Columns
-						if(field == null) {
-							String value = rs.getString(index);
-							if(!Util.isEmpty(value)) {
-								valueBuilder = ValueUtil.getValueFromString(value);
-								valueObjectBuilder.putValues(columnName, valueBuilder.build());
-							}
-							continue;
-						}
-						//	From field
-						String fieldColumnName = field.getAD_View_Column().getColumnName();
-						valueBuilder = ValueUtil.getValueFromReference(rs.getObject(index), field.getAD_Reference_ID());
-						if(!valueBuilder.getValueType().equals(Value.ValueType.UNRECOGNIZED)) {
-							valueObjectBuilder.putValues(fieldColumnName, valueBuilder.build());
-						}
-					} catch (Exception e) {
-						log.severe(e.getLocalizedMessage());
-					}
+			rs = trace.executeQuery(pstmt);
+			//	Columns are resolved once by query
+			EntityConversionPlan plan = EntityConversionPlan.forBrowser(rs.getMetaData(), getBrowserFieldsMap(browser));
+			while(trace.next(rs)) {
+				if(columnar != null) {
+					columnar.addRecord();
+					plan.write(rs, columnar);
+				} else if(encoded != null) {
+					encoded.addRecord();
+					plan.write(rs, encoded);
+				} else {
+					Entity.Builder valueObjectBuilder = plan.convert(rs);
+					//	
+					builder.addRecords(valueObjectBuilder.build());
 				}
-				//	
-				builder.addRecords(valueObjectBuilder.build());
+				page.addRecord(rs);
+				counter.addRecord(rs);
 				recordCount++;
 			}
 		} catch (Exception e) {
 			log.severe(e.getLocalizedMessage());
 		} finally {
 			DB.close(rs, pstmt);
+			conversionScope.close();
+			trace.finish(recordCount);
+		}
+		if(columnar != null) {
+			builder.setColumnarRecords(columnar.build());
+		} else if(encoded != null) {
+			encoded.finish().attachTo(builder);
 		}
 		//	Set record counts
 		builder.setRecordCount(recordCount);
@@ -2613,6 +2759,49 @@ public class UserInterfaceServiceImplementation extends UserInterfaceImplBase {
 		return builder;
 	}
 	
+	/**
+	 * Get query of browser with where clause of browser, criteria of request and access of role (without order and page)
+	 * @param browser
+	 * @param request
+	 * @param values parameters of query are added here
+	 * @return
+	 */
+	private String getBrowserQuery(MBrowse browser, ListBrowserItemsRequest request, List<Object> values) {
+		Criteria criteria = request.getCriteria();
+		HashMap<String, Object> parameterMap = new HashMap<>();
+		//	Populate map
+		criteria.getConditionsList().forEach(condition -> parameterMap.put(condition.getColumnName(), ValueUtil.getObjectFromValue(condition.getValue())));
+		String whereClause = getBrowserWhereClause(browser, browser.getWhereClause(), request.getContextAttributesList(), parameterMap, values);
+		String query = DictionaryUtil.addQueryReferencesFromBrowser(browser);
+		StringBuilder sql = new StringBuilder(query);
+		if (!Util.isEmpty(whereClause)) {
+			sql.append(" WHERE ").append(whereClause); // includes first AND
+		} else {
+			sql.append(" WHERE 1=1");
+		}
+		MView view = browser.getAD_View();
+		MViewDefinition parentDefinition = view.getParentViewDefinition();
+		String tableNameAlias = parentDefinition.getTableAlias();
+		//	
+		return MRole.getDefault().addAccessSQL(sql.toString(),
+				tableNameAlias, MRole.SQL_FULLYQUALIFIED,
+				MRole.SQL_RO);
+	}
+	
+	/**
+	 * Get fields of browser by upper case column name
+	 * @param browser
+	 * @return
+	 */
+	private Map<String, MBrowseField> getBrowserFieldsMap(MBrowse browser) {
+		LinkedHashMap<String, MBrowseField> fieldsMap = new LinkedHashMap<>();
+		//	Add field to map
+		for(MBrowseField field: ASPUtil.getInstance().getBrowseFields(browser.getAD_Browse_ID())) {
+			fieldsMap.put(field.getAD_View_Column().getColumnName().toUpperCase(), field);
+		}
+		return fieldsMap;
+	}
+	
 	/**
 	 * get browser
 	 * @param context
@@ -2837,26 +3026,36 @@ public class UserInterfaceServiceImplementation extends UserInterfaceImplBase {
 	 */
 	private LookupItem.Builder convertObjectFromResult(Object keyValue, String uuidValue, String value, String displayValue) {
 		LookupItem.Builder builder = LookupItem.newBuilder();
+		writeObjectFromResult(RecordWriter.forLookupItem(builder), keyValue, uuidValue, value, displayValue);
+		return builder;
+	}
+	
+	/**
+	 * Write Values from result
+	 * @param writer
+	 * @param keyValue
+	 * @param uuidValue
+	 * @param value
+	 * @param displayValue
+	 */
+	private void writeObjectFromResult(RecordWriter writer, Object keyValue, String uuidValue, String value, String displayValue) {
 		if(keyValue == null) {
-			return builder;
+			return;
 		}
-		builder.setUuid(ValueUtil.validateNull(uuidValue));
-		
 		if(keyValue instanceof Integer) {
-			builder.setId((Integer) keyValue);
-			builder.putValues(KEY_COLUMN_KEY, ValueUtil.getValueFromInteger((Integer) keyValue).build());
+			writer.setIdentifier((Integer) keyValue, uuidValue, null);
+			writer.setValue(KEY_COLUMN_KEY, keyValue, DisplayType.Integer);
 		} else {
-			builder.putValues(KEY_COLUMN_KEY, ValueUtil.getValueFromString((String) keyValue).build());
+			writer.setIdentifier(0, uuidValue, null);
+			writer.setString(KEY_COLUMN_KEY, (String) keyValue);
 		}
 		//	Set Value
 		if(!Util.isEmpty(value)) {
-			builder.putValues(VALUE_COLUMN_KEY, ValueUtil.getValueFromString(value).build());
+			writer.setString(VALUE_COLUMN_KEY, value);
 		}
 		//	Display column
 		if(!Util.isEmpty(displayValue)) {
-			builder.putValues(DISPLAY_COLUMN_KEY, ValueUtil.getValueFromString(displayValue).build());
+			writer.setString(DISPLAY_COLUMN_KEY, displayValue);
 		}
-		//	
-		return builder;
 	}
 }
@@ -18,7 +18,6 @@ import java.io.InputStream;
 import java.math.BigDecimal;
 import java.math.MathContext;
 import java.sql.Timestamp;
-import java.text.SimpleDateFormat;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
@@ -170,10 +169,6 @@ import io.grpc.stub.StreamObserver;
 public class WebStoreServiceImplementation extends WebStoreImplBase {
 	/**	Logger			*/
 	private CLogger log = CLogger.getCLogger(WebStoreServiceImplementation.class);
-	/**	Date format	*/
-	private final String DATE_FORMAT = "yyyy-MM-dd hh:mm:ss";
-	/**	Date Converter	*/
-	private SimpleDateFormat dateConverter = new SimpleDateFormat(DATE_FORMAT);
 	/**	Product Cache	*/
 	private static CCache<String, MProduct> productCache = new CCache<String, MProduct>(I_M_Product.Table_Name, 30, 0);	//	no time-out
 	
@@ -961,9 +956,9 @@ public class WebStoreServiceImplementation extends WebStoreImplBase {
 		Order.Builder builder = Order.newBuilder();
 		builder.setId(salesOrder.getC_Order_ID())
 			.setDocumentNo(ValueUtil.validateNull(salesOrder.getDocumentNo()))
-			.setCreated(dateConverter.format(salesOrder.getCreated()))
-			.setUpdated(dateConverter.format(salesOrder.getUpdated()))
-			.setTransmited(dateConverter.format(salesOrder.getUpdated()))
+			.setCreated(ValueUtil.validateNull(ValueUtil.convertDateToString(salesOrder.getCreated())))
+			.setUpdated(ValueUtil.validateNull(ValueUtil.convertDateToString(salesOrder.getUpdated())))
+			.setTransmited(ValueUtil.validateNull(ValueUtil.convertDateToString(salesOrder.getUpdated())))
 			.setCarrierCode(request.getCarrierCode())
 			.setMethodCode(request.getMethodCode())
 			.setPaymentMethodCode(request.getPaymentMethodCode())
@@ -992,9 +987,9 @@ public class WebStoreServiceImplementation extends WebStoreImplBase {
 		Order.Builder builder = Order.newBuilder();
 		builder.setId(salesOrder.getC_Order_ID())
 			.setDocumentNo(ValueUtil.validateNull(salesOrder.getDocumentNo()))
-			.setCreated(dateConverter.format(salesOrder.getCreated()))
-			.setUpdated(dateConverter.format(salesOrder.getUpdated()))
-			.setTransmited(dateConverter.format(salesOrder.getUpdated()))
+			.setCreated(ValueUtil.validateNull(ValueUtil.convertDateToString(salesOrder.getCreated())))
+			.setUpdated(ValueUtil.validateNull(ValueUtil.convertDateToString(salesOrder.getUpdated())))
+			.setTransmited(ValueUtil.validateNull(ValueUtil.convertDateToString(salesOrder.getUpdated())))
 			.setShippingAddress(convertAddress(MUser.get(Env.getCtx(), salesOrder.getAD_User_ID()), ((MBPartnerLocation) salesOrder.getC_BPartner_Location()), transactionName))
 			.setShippingAddress(convertAddress(MUser.get(Env.getCtx(), salesOrder.getAD_User_ID()), ((MBPartnerLocation) salesOrder.getBill_Location()), transactionName));
 		//	Add Lines
@@ -1372,8 +1367,8 @@ public class WebStoreServiceImplementation extends WebStoreImplBase {
 		ListOrdersResponse.Builder builder = ListOrdersResponse.newBuilder();
 		String nexPageToken = null;
 		int pageNumber = RecordUtil.getPageNumber(request.getClientRequest().getSessionUuid(), request.getPageToken());
-		int limit = RecordUtil.PAGE_SIZE;
-		int offset = pageNumber * RecordUtil.PAGE_SIZE;
+		int limit = RecordUtil.getPageSize(request.getPageSize());
+		int offset = pageNumber * limit;
 		//	Get Orders list
 		Query query = new Query(Env.getCtx(), I_C_Order.Table_Name, "EXISTS(SELECT 1 FROM W_Basket b WHERE b.W_Basket_ID = C_Order.W_Basket_ID AND b.AD_User_ID = ?)", null)
 				.setParameters(Env.getAD_User_ID(Env.getCtx()))
@@ -1417,8 +1412,8 @@ public class WebStoreServiceImplementation extends WebStoreImplBase {
 		//	Validate Price List
 		String nexPageToken = null;
 		int pageNumber = RecordUtil.getPageNumber(request.getClientRequest().getSessionUuid(), request.getPageToken());
-		int limit = RecordUtil.PAGE_SIZE;
-		int offset = pageNumber * RecordUtil.PAGE_SIZE;
+		int limit = RecordUtil.getPageSize(request.getPageSize());
+		int offset = pageNumber * limit;
 		StringBuffer whereClause = new StringBuffer(I_M_Product.COLUMNNAME_SKU + " IN(");
 		whereClause.append(")");
 		Query query = new Query(Env.getCtx(), I_W_DeliveryViaRuleAllocation.Table_Name, I_W_DeliveryViaRuleAllocation.COLUMNNAME_W_Store_ID + " = ?", null)
@@ -1593,8 +1588,8 @@ public class WebStoreServiceImplementation extends WebStoreImplBase {
 		//	Validate Price List
 		String nexPageToken = null;
 		int pageNumber = RecordUtil.getPageNumber(request.getClientRequest().getSessionUuid(), request.getPageToken());
-		int limit = RecordUtil.PAGE_SIZE;
-		int offset = pageNumber * RecordUtil.PAGE_SIZE;
+		int limit = RecordUtil.getPageSize(request.getPageSize());
+		int offset = pageNumber * limit;
 		Query query = new Query(Env.getCtx(), I_C_PaymentMethod.Table_Name, "EXISTS(SELECT 1 FROM C_PaymentMethodAllocation a "
 				+ "WHERE a.C_PaymentMethod_ID = C_PaymentMethod.C_PaymentMethod_ID "
 				+ "AND a.W_Store_ID = ?)" , null)
@@ -1992,8 +1987,8 @@ public class WebStoreServiceImplementation extends WebStoreImplBase {
 			.setFirstName(ValueUtil.validateNull(customer.getName()))
 			.setLastName(ValueUtil.validateNull(customer.get_ValueAsString(MBPartner.COLUMNNAME_Name2)))
 			.setId(customer.getAD_User_ID())
-			.setCreated(dateConverter.format(customer.getCreated()))
-			.setUpdated(dateConverter.format(customer.getUpdated()))
+			.setCreated(ValueUtil.validateNull(ValueUtil.convertDateToString(customer.getCreated())))
+			.setUpdated(ValueUtil.validateNull(ValueUtil.convertDateToString(customer.getUpdated())))
 			.setOrganizationName(ValueUtil.validateNull(MOrg.get(Env.getCtx(), customer.getAD_Org_ID()).getName()));
 		//	TODO: Add Web Site ID and Web Store ID
 		if(customer.getC_BPartner_ID() > 0) {
@@ -2335,8 +2330,8 @@ public class WebStoreServiceImplementation extends WebStoreImplBase {
 		Timestamp validFrom = TimeUtil.getDay(System.currentTimeMillis());
 		String nexPageToken = null;
 		int pageNumber = RecordUtil.getPageNumber(request.getClientRequest().getSessionUuid(), request.getPageToken());
-		int limit = RecordUtil.PAGE_SIZE;
-		int offset = pageNumber * RecordUtil.PAGE_SIZE;
+		int limit = RecordUtil.getPageSize(request.getPageSize());
+		int offset = pageNumber * limit;
 		StringBuffer whereClause = new StringBuffer(I_M_Product.COLUMNNAME_SKU + " IN(");
 		AtomicBoolean first = new AtomicBoolean(true);
 		List<Object> parameters = new ArrayList<>();
@@ -2393,8 +2388,8 @@ public class WebStoreServiceImplementation extends WebStoreImplBase {
 		Timestamp validFrom = TimeUtil.getDay(System.currentTimeMillis());
 		String nexPageToken = null;
 		int pageNumber = RecordUtil.getPageNumber(request.getClientRequest().getSessionUuid(), request.getPageToken());
-		int limit = RecordUtil.PAGE_SIZE;
-		int offset = pageNumber * RecordUtil.PAGE_SIZE;
+		int limit = RecordUtil.getPageSize(request.getPageSize());
+		int offset = pageNumber * limit;
 		StringBuffer whereClause = new StringBuffer(I_M_Product.COLUMNNAME_SKU + " IN(");
 		AtomicBoolean first = new AtomicBoolean(true);
 		List<Object> parameters = new ArrayList<>();
@@ -2605,8 +2600,8 @@ public class WebStoreServiceImplementation extends WebStoreImplBase {
 			//	TODO: Add to product
 			.setVisibility(org.spin.grpc.store.Product.Visibility.BOTH)
 			.setProductGroupId(product.getM_Product_Group_ID())
-			.setCreated(dateConverter.format(product.getCreated()))
-			.setUpdated(dateConverter.format(product.getUpdated()))
+			.setCreated(ValueUtil.validateNull(ValueUtil.convertDateToString(product.getCreated())))
+			.setUpdated(ValueUtil.validateNull(ValueUtil.convertDateToString(product.getUpdated())))
 			//	Pricing
 			.setPrice(productPricing.getPriceStd().setScale(productPricing.getPrecision()).doubleValue())
 			//	TODO: Get Criteria
@@ -2627,8 +2622,8 @@ public class WebStoreServiceImplementation extends WebStoreImplBase {
 		ListStocksResponse.Builder builder = ListStocksResponse.newBuilder();
 		String nexPageToken = null;
 		int pageNumber = RecordUtil.getPageNumber(request.getClientRequest().getSessionUuid(), request.getPageToken());
-		int limit = RecordUtil.PAGE_SIZE;
-		int offset = pageNumber * RecordUtil.PAGE_SIZE;
+		int limit = RecordUtil.getPageSize(request.getPageSize());
+		int offset = pageNumber * limit;
 		Query query = new Query(Env.getCtx(), I_M_Storage.Table_Name, 
 				I_M_Storage.COLUMNNAME_M_Product_ID + " = ? "
 						+ "AND " + I_M_Storage.COLUMNNAME_QtyOnHand + " > 0", null)
@@ -183,8 +183,8 @@ public class WorkflowServiceImplementation extends WorkflowImplBase {
 		//	Get page and count
 		String nexPageToken = null;
 		int pageNumber = RecordUtil.getPageNumber(request.getClientRequest().getSessionUuid(), request.getPageToken());
-		int limit = RecordUtil.PAGE_SIZE;
-		int offset = pageNumber * RecordUtil.PAGE_SIZE;
+		int limit = RecordUtil.getPageSize(request.getPageSize());
+		int offset = pageNumber * limit;
 		Query query = new Query(context, I_AD_WF_Activity.Table_Name, whereClause, null)
 				.setParameters(userId, userId, userId, userId);
 		int count = query.count();
@@ -427,8 +427,8 @@ public class WorkflowServiceImplementation extends WorkflowImplBase {
 		//	Get page and count
 		String nexPageToken = null;
 		int pageNumber = RecordUtil.getPageNumber(request.getClientRequest().getSessionUuid(), request.getPageToken());
-		int limit = RecordUtil.PAGE_SIZE;
-		int offset = pageNumber * RecordUtil.PAGE_SIZE;
+		int limit = RecordUtil.getPageSize(request.getPageSize());
+		int offset = pageNumber * limit;
 		Query query = new Query(context, I_AD_Workflow.Table_Name, whereClause.toString(), null)
 				.setParameters(parameters);
 		int count = query.count();
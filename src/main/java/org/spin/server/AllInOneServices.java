@@ -16,11 +16,19 @@ package org.spin.server;
 
 import java.io.File;
 import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
 import java.util.logging.Logger;
 
+import org.spin.base.metrics.SlowQueryLog;
+import org.spin.base.setup.Executor;
 import org.spin.base.setup.SetupLoader;
+import org.spin.base.setup.Transport;
+import org.spin.base.util.ContextManager;
 import org.spin.base.util.Services;
 import org.spin.grpc.service.AccessServiceImplementation;
+import org.spin.grpc.service.AdministrationServiceImplementation;
 import org.spin.grpc.service.BusinessDataServiceImplementation;
 import org.spin.grpc.service.CoreFunctionalityImplementation;
 import org.spin.grpc.service.DashboardingServiceImplementation;
@@ -32,10 +40,25 @@ import org.spin.grpc.service.UpdateImplementation;
 import org.spin.grpc.service.UserInterfaceServiceImplementation;
 import org.spin.grpc.service.WebStoreServiceImplementation;
 import org.spin.grpc.service.WorkflowServiceImplementation;
+import org.spin.server.interceptor.AdmissionInterceptor;
+import org.spin.server.interceptor.ContextInterceptor;
+import org.spin.server.interceptor.EncodedResponseInterceptor;
+import org.spin.server.interceptor.ExecutorInterceptor;
+import org.spin.server.interceptor.MetricsInterceptor;
+import org.spin.server.interceptor.SessionInterceptor;
 
+import io.grpc.BindableService;
 import io.grpc.Server;
+import io.grpc.ServerInterceptors;
+import io.grpc.ServerServiceDefinition;
 import io.grpc.netty.GrpcSslContexts;
 import io.grpc.netty.NettyServerBuilder;
+import io.netty.channel.EventLoopGroup;
+import io.netty.channel.epoll.Epoll;
+import io.netty.channel.epoll.EpollEventLoopGroup;
+import io.netty.channel.epoll.EpollServerSocketChannel;
+import io.netty.channel.nio.NioEventLoopGroup;
+import io.netty.channel.socket.nio.NioServerSocketChannel;
 import io.netty.handler.ssl.ClientAuth;
 import io.netty.handler.ssl.SslContextBuilder;
 
@@ -43,6 +66,23 @@ public class AllInOneServices {
 	private static final Logger logger = Logger.getLogger(AllInOneServices.class.getName());
 
 	private Server server;
+	/**	Thread pools by name	*/
+	private Map<String, ExecutorInterceptor> executors = new HashMap<>();
+	/**	Event loop groups created for transport	*/
+	private EventLoopGroup bossEventLoopGroup;
+	private EventLoopGroup workerEventLoopGroup;
+	/**	Context of request for all services	*/
+	private ContextInterceptor contextInterceptor = new ContextInterceptor();
+	/**	Session of request for all services	*/
+	private SessionInterceptor sessionInterceptor = new SessionInterceptor();
+	/**	Metrics for all services	*/
+	private MetricsInterceptor metricsInterceptor = new MetricsInterceptor(SetupLoader.getInstance().getServer().getMetrics().isTiming_trailer());
+	/**	Metrics endpoint	*/
+	private MetricsServer metricsServer;
+	/**	Admission control for all services	*/
+	private AdmissionInterceptor admissionInterceptor = SetupLoader.getInstance().getServer().getAdmission().isEnabled()
+			? new AdmissionInterceptor(SetupLoader.getInstance().getServer().getAdmission())
+			: null;
 	/**
 	  * Get SSL / TLS context
 	  * @return
@@ -57,68 +97,160 @@ public class AllInOneServices {
 	        return GrpcSslContexts.configure(sslClientContextBuilder);
 	  }
 	  
+	  
+	  /**
+	   * Get service definition with the thread pool defined for it, admission control and metrics
+	   * @param service
+	   * @param implementation
+	   * @return
+	   */
+	  private ServerServiceDefinition getService(Services service, BindableService implementation) {
+		  //	Session and context of request are the inner interceptors, they run on thread of service
+		  //	Response marshallers send the records encoded by list services
+		  ServerServiceDefinition definition = ServerInterceptors.intercept(EncodedResponseInterceptor.wrap(implementation.bindService()), sessionInterceptor, contextInterceptor);
+		  Executor executorSetup = SetupLoader.getInstance().getServer().getExecutor(service.getServiceName());
+		  if(executorSetup != null) {
+			  ExecutorInterceptor executor = executors.computeIfAbsent(executorSetup.getName(), name -> new ExecutorInterceptor(executorSetup));
+			  definition = ServerInterceptors.intercept(definition, executor);
+			  logger.info("Service " + service.getServiceName() + " running on executor " + executor.getName());
+		  }
+		  //	Admission before executor, then a rejected call never wait on queue
+		  if(admissionInterceptor != null) {
+			  definition = ServerInterceptors.intercept(definition, admissionInterceptor);
+		  }
+		  //	Metrics is the outer interceptor, then it include the time on queue
+		  return ServerInterceptors.intercept(definition, metricsInterceptor);
+	  }
+	  
+	  /**
+	   * Apply transport setup to builder, values not defined keep the grpc-netty default
+	   * @param serverBuilder
+	   */
+	  private void configureTransport(NettyServerBuilder serverBuilder) {
+		  Transport transport = SetupLoader.getInstance().getServer().getTransport();
+		  //	Event loops
+		  if(transport.isUse_epoll()
+				  || transport.getBoss_threads() > 0
+				  || transport.getWorker_threads() > 0) {
+			  if(transport.isUse_epoll()
+					  && Epoll.isAvailable()) {
+				  bossEventLoopGroup = new EpollEventLoopGroup(Math.max(transport.getBoss_threads(), 1));
+				  workerEventLoopGroup = new EpollEventLoopGroup(transport.getWorker_threads());
+				  serverBuilder.channelType(EpollServerSocketChannel.class);
+				  logger.info("Transport: native epoll");
+			  } else {
+				  if(transport.isUse_epoll()) {
+					  logger.warning("Native epoll transport is not available, using NIO: " + Epoll.unavailabilityCause());
+				  }
+				  bossEventLoopGroup = new NioEventLoopGroup(Math.max(transport.getBoss_threads(), 1));
+				  workerEventLoopGroup = new NioEventLoopGroup(transport.getWorker_threads());
+				  serverBuilder.channelType(NioServerSocketChannel.class);
+			  }
+			  serverBuilder.bossEventLoopGroup(bossEventLoopGroup)
+			  	.workerEventLoopGroup(workerEventLoopGroup);
+		  }
+		  //	Flow Control
+		  if(transport.getFlow_control_window() > 0) {
+			  serverBuilder.flowControlWindow(transport.getFlow_control_window());
+		  }
+		  //	Message size
+		  if(transport.getMax_inbound_message_size() > 0) {
+			  serverBuilder.maxInboundMessageSize(transport.getMax_inbound_message_size());
+		  }
+		  //	Concurrent calls
+		  if(transport.getMax_concurrent_calls_per_connection() > 0) {
+			  serverBuilder.maxConcurrentCallsPerConnection(transport.getMax_concurrent_calls_per_connection());
+		  }
+		  //	Keep Alive
+		  if(transport.getKeep_alive_time() > 0) {
+			  serverBuilder.keepAliveTime(transport.getKeep_alive_time(), TimeUnit.SECONDS);
+		  }
+		  if(transport.getKeep_alive_timeout() > 0) {
+			  serverBuilder.keepAliveTimeout(transport.getKeep_alive_timeout(), TimeUnit.SECONDS);
+		  }
+		  if(transport.getPermit_keep_alive_time() > 0) {
+			  serverBuilder.permitKeepAliveTime(transport.getPermit_keep_alive_time(), TimeUnit.SECONDS);
+		  }
+		  serverBuilder.permitKeepAliveWithoutCalls(transport.isPermit_keep_alive_without_calls());
+		  logger.info(transport.toString());
+	  }
+	  
 	  private void start() throws IOException {
 		  NettyServerBuilder serverBuilder = NettyServerBuilder.forPort(SetupLoader.getInstance().getServer().getPort());
+		  configureTransport(serverBuilder);
 		  //	For Access
 		  if(SetupLoader.getInstance().getServer().isValidService(Services.ACCESS.getServiceName())) {
-			  serverBuilder.addService(new AccessServiceImplementation());
+			  serverBuilder.addService(getService(Services.ACCESS, new AccessServiceImplementation()));
 			  logger.info("Service " + Services.ACCESS.getServiceName() + " added on " + SetupLoader.getInstance().getServer().getPort());
 		  }
 		  //	Enrollment
 		  if(SetupLoader.getInstance().getServer().isValidService(Services.ENROLLMENT.getServiceName())) {
-			  serverBuilder.addService(new EnrollmentServiceImplementation());
+			  serverBuilder.addService(getService(Services.ENROLLMENT, new EnrollmentServiceImplementation()));
 			  logger.info("Service " + Services.ENROLLMENT.getServiceName() + " added on " + SetupLoader.getInstance().getServer().getPort());
 		  }
 		  //	Dictionary
 		  if(SetupLoader.getInstance().getServer().isValidService(Services.DICTIONARY.getServiceName())) {
-			  serverBuilder.addService(new DictionaryServiceImplementation());
+			  serverBuilder.addService(getService(Services.DICTIONARY, new DictionaryServiceImplementation()));
 			  logger.info("Service " + Services.DICTIONARY.getServiceName() + " added on " + SetupLoader.getInstance().getServer().getPort());
 		  }
 		  //	Business Logic
 		  if(SetupLoader.getInstance().getServer().isValidService(Services.BUSINESS.getServiceName())) {
-			  serverBuilder.addService(new BusinessDataServiceImplementation());
+			  serverBuilder.addService(getService(Services.BUSINESS, new BusinessDataServiceImplementation()));
 			  logger.info("Service " + Services.BUSINESS.getServiceName() + " added on " + SetupLoader.getInstance().getServer().getPort());
 		  }
 		  //	Core Implementation
 		  if(SetupLoader.getInstance().getServer().isValidService(Services.CORE.getServiceName())) {
-			  serverBuilder.addService(new CoreFunctionalityImplementation());
+			  serverBuilder.addService(getService(Services.CORE, new CoreFunctionalityImplementation()));
 			  logger.info("Service " + Services.CORE.getServiceName() + " added on " + SetupLoader.getInstance().getServer().getPort());
 		  }
 		  //	User Interface
 		  if(SetupLoader.getInstance().getServer().isValidService(Services.UI.getServiceName())) {
-			  serverBuilder.addService(new UserInterfaceServiceImplementation());
+			  serverBuilder.addService(getService(Services.UI, new UserInterfaceServiceImplementation()));
 			  logger.info("Service " + Services.UI.getServiceName() + " added on " + SetupLoader.getInstance().getServer().getPort());
 		  }
 		  //	Dashboarding
 		  if(SetupLoader.getInstance().getServer().isValidService(Services.DASHBOARDING.getServiceName())) {
-			  serverBuilder.addService(new DashboardingServiceImplementation());
+			  serverBuilder.addService(getService(Services.DASHBOARDING, new DashboardingServiceImplementation()));
 			  logger.info("Service " + Services.DASHBOARDING.getServiceName() + " added on " + SetupLoader.getInstance().getServer().getPort());
 		  }
 		  //	Workflow
 		  if(SetupLoader.getInstance().getServer().isValidService(Services.WORKFLOW.getServiceName())) {
-			  serverBuilder.addService(new WorkflowServiceImplementation());
+			  serverBuilder.addService(getService(Services.WORKFLOW, new WorkflowServiceImplementation()));
 			  logger.info("Service " + Services.WORKFLOW.getServiceName() + " added on " + SetupLoader.getInstance().getServer().getPort());
 		  }
 		  //	Log
 		  if(SetupLoader.getInstance().getServer().isValidService(Services.LOG.getServiceName())) {
-			  serverBuilder.addService(new LogsServiceImplementation());
+			  serverBuilder.addService(getService(Services.LOG, new LogsServiceImplementation()));
 			  logger.info("Service " + Services.LOG.getServiceName() + " added on " + SetupLoader.getInstance().getServer().getPort());
 		  }
 		  //	Store
 		  if(SetupLoader.getInstance().getServer().isValidService(Services.STORE.getServiceName())) {
-			  serverBuilder.addService(new WebStoreServiceImplementation());
+			  serverBuilder.addService(getService(Services.STORE, new WebStoreServiceImplementation()));
 			  logger.info("Service " + Services.STORE.getServiceName() + " added on " + SetupLoader.getInstance().getServer().getPort());
 		  }
 		  //	POS
 		  if(SetupLoader.getInstance().getServer().isValidService(Services.POS.getServiceName())) {
-			  serverBuilder.addService(new PointOfSalesServiceImplementation());
+			  serverBuilder.addService(getService(Services.POS, new PointOfSalesServiceImplementation()));
 			  logger.info("Service " + Services.POS.getServiceName() + " added on " + SetupLoader.getInstance().getServer().getPort());
 		  }
 		  //	Updater
 		  if(SetupLoader.getInstance().getServer().isValidService(Services.UPDATER.getServiceName())) {
-			  serverBuilder.addService(new UpdateImplementation());
+			  serverBuilder.addService(getService(Services.UPDATER, new UpdateImplementation()));
 			  logger.info("Service " + Services.UPDATER.getServiceName() + " added on " + SetupLoader.getInstance().getServer().getPort());
 		  }
+		  //	Administration
+		  if(SetupLoader.getInstance().getServer().isValidService(Services.ADMIN.getServiceName())) {
+			  serverBuilder.addService(getService(Services.ADMIN, new AdministrationServiceImplementation()));
+			  logger.info("Service " + Services.ADMIN.getServiceName() + " added on " + SetupLoader.getInstance().getServer().getPort());
+		  }
+		  //	Slow queries
+		  SlowQueryLog.getInstance().setup(SetupLoader.getInstance().getServer().getSlow_query());
+		  //	Sessions shared with peers, it warm up before attend calls
+		  try {
+			  ContextManager.getSessionStore().start();
+		  } catch (Exception e) {
+			  throw new IOException("Session store can not be started", e);
+		  }
 		  //	Add services
 		  if(SetupLoader.getInstance().getServer().isTlsEnabled()) {
 			  
@@ -130,6 +262,11 @@ public class AllInOneServices {
 				        .start();
 		  }
 		  logger.info("Server started, listening on " + SetupLoader.getInstance().getServer().getPort());
+		  //	Metrics
+		  if(SetupLoader.getInstance().getServer().getMetrics().isEnabled()) {
+			  metricsServer = new MetricsServer(SetupLoader.getInstance().getServer().getMetrics());
+			  metricsServer.start();
+		  }
 		    Runtime.getRuntime().addShutdownHook(new Thread() {
 		      @Override
 		      public void run() {
@@ -145,6 +282,17 @@ public class AllInOneServices {
 	    if (server != null) {
 	      server.shutdown();
 	    }
+	    if (metricsServer != null) {
+	      metricsServer.stop();
+	    }
+	    ContextManager.getSessionStore().stop();
+	    executors.values().forEach(executor -> executor.shutdown());
+	    if (bossEventLoopGroup != null) {
+	      bossEventLoopGroup.shutdownGracefully();
+	    }
+	    if (workerEventLoopGroup != null) {
+	      workerEventLoopGroup.shutdownGracefully();
+	    }
 	  }
 
 	  /**
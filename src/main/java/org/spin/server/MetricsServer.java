@@ -0,0 +1,108 @@
+/************************************************************************************
+ * Copyright (C) 2012-2018 E.R.P. Consultores y Asociados, C.A.                     *
+ * Contributor(s): Yamel Senih ysenih@erpya.com                                     *
+ * This program is free software: you can redistribute it and/or modify             *
+ * it under the terms of the GNU General Public License as published by             *
+ * the Free Software Foundation, either version 2 of the License, or                *
+ * (at your option) any later version.                                              *
+ * This program is distributed in the hope that it will be useful,                  *
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of                   *
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.	See the                     *
+ * GNU General Public License for more details.                                     *
+ * You should have received a copy of the GNU General Public License                *
+ * along with this program.	If not, see <https://www.gnu.org/licenses/>.            *
+ ************************************************************************************/
+package org.spin.server;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.logging.Logger;
+
+import org.spin.base.metrics.MetricsRegistry;
+import org.spin.base.setup.Metrics;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * Small embedded HTTP server for scrape metrics in Prometheus text format
+ * @author Yamel Senih, ysenih@erpya.com, ERPCyA http://www.erpya.com
+ */
+public class MetricsServer {
+	/**	Logger			*/
+	private static final Logger logger = Logger.getLogger(MetricsServer.class.getName());
+	/**	Content type for Prometheus	*/
+	private static final String CONTENT_TYPE = "text/plain; version=0.0.4; charset=utf-8";
+	/**	Setup	*/
+	private final Metrics setup;
+	/**	HTTP Server	*/
+	private HttpServer server;
+	/**	Single thread for attend scrapes	*/
+	private ExecutorService executor;
+
+	/**
+	 * Default constructor
+	 * @param setup
+	 */
+	public MetricsServer(Metrics setup) {
+		this.setup = setup;
+	}
+
+	/**
+	 * Start server
+	 * @throws IOException
+	 */
+	public void start() throws IOException {
+		InetSocketAddress address = setup.getHost() == null || setup.getHost().trim().length() == 0
+				? new InetSocketAddress(setup.getPort())
+				: new InetSocketAddress(setup.getHost(), setup.getPort());
+		server = HttpServer.create(address, 0);
+		server.createContext(setup.getPath(), this::scrape);
+		executor = Executors.newSingleThreadExecutor(runnable -> {
+			Thread thread = new Thread(runnable, "metrics-http");
+			thread.setDaemon(true);
+			return thread;
+		});
+		server.setExecutor(executor);
+		server.start();
+		logger.info("Metrics published on " + address + setup.getPath());
+	}
+
+	/**
+	 * Write metrics
+	 * @param exchange
+	 * @throws IOException
+	 */
+	private void scrape(HttpExchange exchange) throws IOException {
+		try {
+			if(!"GET".equals(exchange.getRequestMethod())) {
+				exchange.sendResponseHeaders(405, -1);
+				return;
+			}
+			byte[] response = MetricsRegistry.getInstance().scrape().getBytes(StandardCharsets.UTF_8);
+			exchange.getResponseHeaders().set("Content-Type", CONTENT_TYPE);
+			exchange.sendResponseHeaders(200, response.length);
+			try (OutputStream output = exchange.getResponseBody()) {
+				output.write(response);
+			}
+		} finally {
+			exchange.close();
+		}
+	}
+
+	/**
+	 * Stop server
+	 */
+	public void stop() {
+		if(server != null) {
+			server.stop(0);
+		}
+		if(executor != null) {
+			executor.shutdown();
+		}
+	}
+}
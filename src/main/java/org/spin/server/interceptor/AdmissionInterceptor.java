@@ -0,0 +1,359 @@
+/************************************************************************************
+ * Copyright (C) 2012-2018 E.R.P. Consultores y Asociados, C.A.                     *
+ * Contributor(s): Yamel Senih ysenih@erpya.com                                     *
+ * This program is free software: you can redistribute it and/or modify             *
+ * it under the terms of the GNU General Public License as published by             *
+ * the Free Software Foundation, either version 2 of the License, or                *
+ * (at your option) any later version.                                              *
+ * This program is distributed in the hope that it will be useful,                  *
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of                   *
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.	See the                     *
+ * GNU General Public License for more details.                                     *
+ * You should have received a copy of the GNU General Public License                *
+ * along with this program.	If not, see <https://www.gnu.org/licenses/>.            *
+ ************************************************************************************/
+package org.spin.server.interceptor;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Logger;
+
+import org.spin.base.metrics.MetricsRegistry;
+import org.spin.base.metrics.MetricsRegistry.Counter;
+import org.spin.base.setup.Admission;
+import org.spin.base.util.RequestUtil;
+
+import io.grpc.ForwardingServerCall.SimpleForwardingServerCall;
+import io.grpc.ForwardingServerCallListener.SimpleForwardingServerCallListener;
+import io.grpc.Metadata;
+import io.grpc.ServerCall;
+import io.grpc.ServerCall.Listener;
+import io.grpc.ServerCallHandler;
+import io.grpc.ServerInterceptor;
+import io.grpc.Status;
+
+/**
+ * Admission control and load shedding. A call is admitted when the request arrive if:
+ * <li>The session (header session-uuid or session_uuid of request) has less than max_calls_per_session calls running
+ * <li>The method has less calls running than its limit
+ * The limit of a method can be fixed (method_limits) or adaptive: it grow slowly while the
+ * latency is near of baseline and decrease fast (once for window) when the latency is over
+ * baseline * latency_tolerance or the call fail by overload (AIMD).
+ * The calls not admitted are closed with RESOURCE_EXHAUSTED.
+ * @author Yamel Senih, ysenih@erpya.com, ERPCyA http://www.erpya.com
+ */
+public class AdmissionInterceptor implements ServerInterceptor {
+	/**	Logger			*/
+	private static final Logger logger = Logger.getLogger(AdmissionInterceptor.class.getName());
+	/**	Setup	*/
+	private final Admission setup;
+	/**	Limits by method	*/
+	private final Map<String, MethodLimit> methodLimits = new ConcurrentHashMap<>();
+	/**	Calls running by session	*/
+	private final Map<String, AtomicInteger> sessionCalls = new ConcurrentHashMap<>();
+	/**	Labels	*/
+	private static final String[] METHOD_LABELS = {"service", "method"};
+	private static final String[] REJECTED_LABELS = {"service", "method", "reason"};
+	/**	Reasons	*/
+	private static final String REASON_SESSION = "session";
+	private static final String REASON_METHOD = "method";
+
+	/**
+	 * Default constructor
+	 * @param setup
+	 */
+	public AdmissionInterceptor(Admission setup) {
+		this.setup = setup;
+		MetricsRegistry.getInstance().gauge("grpc_admission_sessions", "Sessions with calls running.", () -> sessionCalls.size(), null);
+	}
+
+	@Override
+	public <ReqT, RespT> Listener<ReqT> interceptCall(ServerCall<ReqT, RespT> call, Metadata headers, ServerCallHandler<ReqT, RespT> next) {
+		AdmissionCall<ReqT, RespT> admissionCall = new AdmissionCall<>(call, getMethodLimit(call.getMethodDescriptor().getFullMethodName()));
+		//	Session of metadata is used before session of message
+		String headerSessionUuid = headers.get(SessionInterceptor.SESSION_UUID);
+		return new SimpleForwardingServerCallListener<ReqT>(next.startCall(admissionCall, headers)) {
+			/**	Call rejected	*/
+			private boolean rejected = false;
+
+			@Override
+			public void onMessage(ReqT message) {
+				if(rejected) {
+					return;
+				}
+				if(!admissionCall.isAdmitted()
+						&& !admissionCall.admit(headerSessionUuid != null && !headerSessionUuid.isEmpty()
+								? headerSessionUuid
+								: RequestUtil.getSessionUuid(message))) {
+					rejected = true;
+					return;
+				}
+				super.onMessage(message);
+			}
+
+			@Override
+			public void onHalfClose() {
+				if(rejected) {
+					return;
+				}
+				super.onHalfClose();
+			}
+
+			@Override
+			public void onReady() {
+				if(rejected) {
+					return;
+				}
+				super.onReady();
+			}
+
+			@Override
+			public void onCancel() {
+				admissionCall.release(Status.Code.CANCELLED);
+				super.onCancel();
+			}
+		};
+	}
+
+	/**
+	 * Get limit of method
+	 * @param fullMethodName
+	 * @return
+	 */
+	private MethodLimit getMethodLimit(String fullMethodName) {
+		MethodLimit limit = methodLimits.get(fullMethodName);
+		if(limit == null) {
+			limit = methodLimits.computeIfAbsent(fullMethodName, MethodLimit::new);
+		}
+		return limit;
+	}
+
+	/**
+	 * Call with admission
+	 */
+	private class AdmissionCall<ReqT, RespT> extends SimpleForwardingServerCall<ReqT, RespT> {
+		/**	Limit of method	*/
+		private final MethodLimit limit;
+		/**	Session of call	*/
+		private String sessionUuid;
+		/**	Time when it was admitted	*/
+		private long startTime;
+		/**	Admitted	*/
+		private volatile boolean admitted = false;
+		/**	Released	*/
+		private final AtomicBoolean released = new AtomicBoolean(false);
+
+		private AdmissionCall(ServerCall<ReqT, RespT> delegate, MethodLimit limit) {
+			super(delegate);
+			this.limit = limit;
+		}
+
+		/**
+		 * Is admitted
+		 * @return
+		 */
+		private boolean isAdmitted() {
+			return admitted;
+		}
+
+		/**
+		 * Admit call, close it when it is rejected
+		 * @param sessionUuid
+		 * @return
+		 */
+		private boolean admit(String sessionUuid) {
+			if(!limit.tryAcquire()) {
+				reject(REASON_METHOD, "Too many concurrent calls for method " + limit.method);
+				return false;
+			}
+			int maxCallsPerSession = setup.getMax_calls_per_session();
+			if(sessionUuid != null
+					&& maxCallsPerSession > 0) {
+				AtomicInteger calls = sessionCalls.compute(sessionUuid, (key, value) -> {
+					if(value == null) {
+						value = new AtomicInteger();
+					}
+					value.incrementAndGet();
+					return value;
+				});
+				if(calls.get() > maxCallsPerSession) {
+					releaseSession(sessionUuid);
+					limit.release();
+					reject(REASON_SESSION, "Too many concurrent calls for session");
+					return false;
+				}
+				this.sessionUuid = sessionUuid;
+			}
+			startTime = System.nanoTime();
+			admitted = true;
+			return true;
+		}
+
+		/**
+		 * Reject call
+		 * @param reason
+		 * @param message
+		 */
+		private void reject(String reason, String message) {
+			limit.getRejected(reason).increment();
+			logger.fine(message + ": " + getMethodDescriptor().getFullMethodName());
+			try {
+				super.close(Status.RESOURCE_EXHAUSTED.withDescription(message), new Metadata());
+			} catch (IllegalStateException e) {
+				//	Already closed
+			}
+		}
+
+		/**
+		 * Release admission
+		 * @param code
+		 */
+		private void release(Status.Code code) {
+			if(!admitted
+					|| !released.compareAndSet(false, true)) {
+				return;
+			}
+			if(sessionUuid != null) {
+				releaseSession(sessionUuid);
+			}
+			boolean isOverloaded = code == Status.Code.RESOURCE_EXHAUSTED
+					|| code == Status.Code.DEADLINE_EXCEEDED
+					|| code == Status.Code.UNAVAILABLE;
+			limit.release(System.nanoTime() - startTime, isOverloaded);
+		}
+
+		@Override
+		public void close(Status status, Metadata trailers) {
+			release(status.getCode());
+			super.close(status, trailers);
+		}
+	}
+
+	/**
+	 * Release a call of session
+	 * @param sessionUuid
+	 */
+	private void releaseSession(String sessionUuid) {
+		sessionCalls.computeIfPresent(sessionUuid, (key, value) -> value.decrementAndGet() <= 0? null: value);
+	}
+
+	/**
+	 * Concurrency limit of a method
+	 */
+	private class MethodLimit {
+		private final String service;
+		private final String method;
+		/**	Is adaptive	*/
+		private final boolean isAdaptive;
+		private final int minimumLimit;
+		private final int maximumLimit;
+		/**	Current limit	*/
+		private volatile double limit;
+		/**	Calls running	*/
+		private final AtomicInteger inFlight = new AtomicInteger();
+		/**	Latency baseline (nanoseconds)	*/
+		private double baseline = 0;
+		/**	Completed calls since last decrease	*/
+		private int samplesSinceDecrease;
+		/**	Rejected calls	*/
+		private final Counter rejectedByMethod;
+		private final Counter rejectedBySession;
+
+		private MethodLimit(String fullMethodName) {
+			int separator = fullMethodName.lastIndexOf('/');
+			service = separator > 0? fullMethodName.substring(0, separator): "";
+			method = fullMethodName.substring(separator + 1);
+			int methodLimit = setup.getMethodLimit(fullMethodName);
+			isAdaptive = setup.isAdaptive();
+			if(isAdaptive) {
+				maximumLimit = methodLimit > 0? methodLimit: setup.getMaximum_limit();
+				minimumLimit = Math.min(setup.getMinimum_limit(), maximumLimit);
+				limit = Math.max(minimumLimit, Math.min(setup.getInitial_limit(), maximumLimit));
+			} else {
+				maximumLimit = methodLimit > 0? methodLimit: Integer.MAX_VALUE;
+				minimumLimit = maximumLimit;
+				limit = maximumLimit;
+			}
+			samplesSinceDecrease = (int) limit;
+			MetricsRegistry registry = MetricsRegistry.getInstance();
+			if(isAdaptive
+					|| methodLimit > 0) {
+				registry.gauge("grpc_admission_limit", "Concurrent calls allowed for method.", () -> (long) limit, METHOD_LABELS, service, method);
+			}
+			registry.gauge("grpc_admission_in_flight", "Admitted calls running for method.", () -> inFlight.get(), METHOD_LABELS, service, method);
+			rejectedByMethod = registry.counter("grpc_admission_rejected_total", "Calls rejected by admission control.", REJECTED_LABELS, service, method, REASON_METHOD);
+			rejectedBySession = registry.counter("grpc_admission_rejected_total", "Calls rejected by admission control.", REJECTED_LABELS, service, method, REASON_SESSION);
+		}
+
+		/**
+		 * Get counter of rejected calls
+		 * @param reason
+		 * @return
+		 */
+		private Counter getRejected(String reason) {
+			if(REASON_SESSION.equals(reason)) {
+				return rejectedBySession;
+			}
+			return rejectedByMethod;
+		}
+
+		/**
+		 * Acquire a call
+		 * @return false if limit is reached
+		 */
+		private boolean tryAcquire() {
+			while(true) {
+				int current = inFlight.get();
+				if(current >= (int) limit) {
+					return false;
+				}
+				if(inFlight.compareAndSet(current, current + 1)) {
+					return true;
+				}
+			}
+		}
+
+		/**
+		 * Release a call without sample
+		 */
+		private void release() {
+			inFlight.decrementAndGet();
+		}
+
+		/**
+		 * Release a call and update limit
+		 * @param latency
+		 * @param isOverloaded
+		 */
+		private void release(long latency, boolean isOverloaded) {
+			int running = inFlight.getAndDecrement();
+			if(!isAdaptive) {
+				return;
+			}
+			synchronized (this) {
+				//	Baseline follow fast the improvements and slow the degradation
+				if(baseline <= 0) {
+					baseline = latency;
+				} else if(latency < baseline) {
+					baseline = baseline * 0.9 + latency * 0.1;
+				} else {
+					baseline = baseline * 0.995 + latency * 0.005;
+				}
+				samplesSinceDecrease++;
+				if(isOverloaded
+						|| latency > baseline * setup.getLatency_tolerance()) {
+					//	Multiplicative decrease, once for window
+					if(samplesSinceDecrease >= limit) {
+						limit = Math.max(minimumLimit, limit * 0.9);
+						samplesSinceDecrease = 0;
+					}
+				} else if(running >= limit / 2) {
+					//	Additive increase, near to one for window when it is used
+					limit = Math.min(maximumLimit, limit + 1.0 / limit);
+				}
+			}
+		}
+	}
+}
@@ -0,0 +1,81 @@
+/************************************************************************************
+ * Copyright (C) 2012-2018 E.R.P. Consultores y Asociados, C.A.                     *
+ * Contributor(s): Yamel Senih ysenih@erpya.com                                     *
+ * This program is free software: you can redistribute it and/or modify             *
+ * it under the terms of the GNU General Public License as published by             *
+ * the Free Software Foundation, either version 2 of the License, or                *
+ * (at your option) any later version.                                              *
+ * This program is distributed in the hope that it will be useful,                  *
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of                   *
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.	See the                     *
+ * GNU General Public License for more details.                                     *
+ * You should have received a copy of the GNU General Public License                *
+ * along with this program.	If not, see <https://www.gnu.org/licenses/>.            *
+ ************************************************************************************/
+package org.spin.server.interceptor;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.spin.base.util.RequestContext;
+import org.spin.base.util.ValueEncoding;
+
+import io.grpc.Context;
+import io.grpc.Contexts;
+import io.grpc.ForwardingServerCallListener.SimpleForwardingServerCallListener;
+import io.grpc.Metadata;
+import io.grpc.ServerCall;
+import io.grpc.ServerCall.Listener;
+import io.grpc.ServerCallHandler;
+import io.grpc.ServerInterceptor;
+
+/**
+ * Bind a holder of {@link RequestContext} to each call. The context is set by ContextManager
+ * when the service resolve the session and it is applied again to ADempiere context of thread
+ * when a event of call run on other thread (executor pools, streaming).
+ * It must be the inner interceptor, then it run on the thread of service.
+ * The encoding of values requested by client (header x-value-encoding) is also attached here, see {@link ValueEncoding}.
+ * @author Yamel Senih, ysenih@erpya.com, ERPCyA http://www.erpya.com
+ */
+public class ContextInterceptor implements ServerInterceptor {
+	/**	Header for encoding of decimals and dates	*/
+	public static final Metadata.Key<String> VALUE_ENCODING_HEADER = Metadata.Key.of("x-value-encoding", Metadata.ASCII_STRING_MARSHALLER);
+
+	@Override
+	public <ReqT, RespT> Listener<ReqT> interceptCall(ServerCall<ReqT, RespT> call, Metadata headers, ServerCallHandler<ReqT, RespT> next) {
+		AtomicReference<RequestContext> holder = new AtomicReference<>();
+		Context context = Context.current()
+				.withValue(RequestContext.KEY, holder)
+				.withValue(ValueEncoding.KEY, ValueEncoding.fromHeader(headers.get(VALUE_ENCODING_HEADER)));
+		return new SimpleForwardingServerCallListener<ReqT>(Contexts.interceptCall(context, call, headers, next)) {
+			@Override
+			public void onMessage(ReqT message) {
+				RequestContext.apply(holder);
+				super.onMessage(message);
+			}
+
+			@Override
+			public void onHalfClose() {
+				RequestContext.apply(holder);
+				super.onHalfClose();
+			}
+
+			@Override
+			public void onReady() {
+				RequestContext.apply(holder);
+				super.onReady();
+			}
+
+			@Override
+			public void onCancel() {
+				RequestContext.apply(holder);
+				super.onCancel();
+			}
+
+			@Override
+			public void onComplete() {
+				RequestContext.apply(holder);
+				super.onComplete();
+			}
+		};
+	}
+}
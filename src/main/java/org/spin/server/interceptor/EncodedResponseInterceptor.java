@@ -0,0 +1,293 @@
+/************************************************************************************
+ * Copyright (C) 2012-2018 E.R.P. Consultores y Asociados, C.A.                     *
+ * Contributor(s): Yamel Senih ysenih@erpya.com                                     *
+ * This program is free software: you can redistribute it and/or modify             *
+ * it under the terms of the GNU General Public License as published by             *
+ * the Free Software Foundation, either version 2 of the License, or                *
+ * (at your option) any later version.                                              *
+ * This program is distributed in the hope that it will be useful,                  *
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of                   *
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.	See the                     *
+ * GNU General Public License for more details.                                     *
+ * You should have received a copy of the GNU General Public License                *
+ * along with this program.	If not, see <https://www.gnu.org/licenses/>.            *
+ ************************************************************************************/
+package org.spin.server.interceptor;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.spin.base.setup.SetupLoader;
+import org.spin.base.util.EncodedRecords;
+import org.spin.base.util.EncodedRecordsWriter;
+import org.spin.base.util.SerializedResponse;
+
+import com.google.protobuf.ByteString;
+import com.google.protobuf.MessageLite;
+
+import io.grpc.Context;
+import io.grpc.Contexts;
+import io.grpc.Drainable;
+import io.grpc.KnownLength;
+import io.grpc.Metadata;
+import io.grpc.MethodDescriptor;
+import io.grpc.MethodDescriptor.Marshaller;
+import io.grpc.ServerCall;
+import io.grpc.ServerCall.Listener;
+import io.grpc.ServerCallHandler;
+import io.grpc.ServerInterceptor;
+import io.grpc.ServerInterceptors;
+import io.grpc.ServerMethodDefinition;
+import io.grpc.ServerServiceDefinition;
+import io.grpc.ServiceDescriptor;
+
+/**
+ * Send the records encoded while the result set is read (see {@link EncodedRecordsWriter}) without
+ * build entities of response. The response marshaller of each method is wrapped: when the message sent
+ * has records attached, the stream of message is the bytes of message followed by bytes of records,
+ * it is drained to transport on the thread of service and the buffers are released after it.
+ * The calls of wrapped services are marked on context when it is enabled on setup (transport.encoded_records),
+ * then the services only encode records when the marshaller can send them.
+ * The responses of {@link org.spin.base.util.SerializedResponseCache} are also sent here: the bytes kept are copied to transport
+ * without serialize the message again.
+ * @author Yamel Senih, ysenih@erpya.com, ERPCyA http://www.erpya.com
+ */
+public class EncodedResponseInterceptor implements ServerInterceptor {
+	/**	Mark calls for send encoded records	*/
+	private final boolean isEncodedRecords;
+	
+	private EncodedResponseInterceptor(boolean isEncodedRecords) {
+		this.isEncodedRecords = isEncodedRecords;
+	}
+	
+	/**
+	 * Wrap response marshallers of service, its calls are marked when encoded records are enabled on setup
+	 * @param definition
+	 * @return
+	 */
+	public static ServerServiceDefinition wrap(ServerServiceDefinition definition) {
+		return wrap(definition, SetupLoader.getInstance().getServer().getTransport().isEncoded_records());
+	}
+
+	/**
+	 * Wrap response marshallers of service and mark its calls
+	 * @param definition
+	 * @param isEncodedRecords send records encoded, else only the serialized responses are sent by marshaller
+	 * @return
+	 */
+	public static ServerServiceDefinition wrap(ServerServiceDefinition definition, boolean isEncodedRecords) {
+		ServiceDescriptor serviceDescriptor = definition.getServiceDescriptor();
+		ServiceDescriptor.Builder serviceBuilder = ServiceDescriptor.newBuilder(serviceDescriptor.getName())
+				.setSchemaDescriptor(serviceDescriptor.getSchemaDescriptor());
+		//	The service descriptor must have the same descriptors of methods
+		List<ServerMethodDefinition<?, ?>> methods = new ArrayList<>();
+		for(ServerMethodDefinition<?, ?> method : definition.getMethods()) {
+			ServerMethodDefinition<?, ?> wrappedMethod = wrapMethod(method);
+			serviceBuilder.addMethod(wrappedMethod.getMethodDescriptor());
+			methods.add(wrappedMethod);
+		}
+		ServerServiceDefinition.Builder builder = ServerServiceDefinition.builder(serviceBuilder.build());
+		for(ServerMethodDefinition<?, ?> method : methods) {
+			builder.addMethod(method);
+		}
+		return ServerInterceptors.intercept(builder.build(), new EncodedResponseInterceptor(isEncodedRecords));
+	}
+
+	/**
+	 * Wrap response marshaller of method
+	 * @param method
+	 * @return
+	 */
+	private static <ReqT, RespT> ServerMethodDefinition<ReqT, RespT> wrapMethod(ServerMethodDefinition<ReqT, RespT> method) {
+		MethodDescriptor<ReqT, RespT> descriptor = method.getMethodDescriptor();
+		MethodDescriptor<ReqT, RespT> wrappedDescriptor = descriptor.toBuilder(descriptor.getRequestMarshaller(), 
+				new EncodedResponseMarshaller<>(descriptor.getResponseMarshaller())).build();
+		return ServerMethodDefinition.create(wrappedDescriptor, method.getServerCallHandler());
+	}
+
+	@Override
+	public <ReqT, RespT> Listener<ReqT> interceptCall(ServerCall<ReqT, RespT> call, Metadata headers, ServerCallHandler<ReqT, RespT> next) {
+		if(!isEncodedRecords) {
+			return next.startCall(call, headers);
+		}
+		Context context = Context.current().withValue(EncodedRecordsWriter.ENABLED_KEY, Boolean.TRUE);
+		return Contexts.interceptCall(context, call, headers, next);
+	}
+
+	/**
+	 * Marshaller of response that append the encoded records of message or send bytes of a serialized response
+	 */
+	private static final class EncodedResponseMarshaller<T> implements Marshaller<T> {
+		/**	Marshaller of generated code	*/
+		private final Marshaller<T> delegate;
+
+		private EncodedResponseMarshaller(Marshaller<T> delegate) {
+			this.delegate = delegate;
+		}
+
+		@Override
+		public InputStream stream(T value) {
+			SerializedResponse<?> response = SerializedResponse.take(value);
+			if(response != null) {
+				return new SerializedResponseStream(response.getBytes());
+			}
+			EncodedRecords records = EncodedRecords.take(value);
+			if(records == null) {
+				return delegate.stream(value);
+			}
+			return new EncodedResponseStream((MessageLite) value, records);
+		}
+
+		@Override
+		public T parse(InputStream stream) {
+			return delegate.parse(stream);
+		}
+	}
+
+	/**
+	 * Stream of message and its records
+	 */
+	private static final class EncodedResponseStream extends InputStream implements KnownLength, Drainable {
+		/**	Message without records	*/
+		private final MessageLite message;
+		/**	Records	*/
+		private final EncodedRecords records;
+		/**	Size of message	*/
+		private final int messageSize;
+		/**	Bytes of message, only when it is read (not drained)	*/
+		private byte[] messageBytes;
+		/**	Bytes read	*/
+		private int position = 0;
+
+		private EncodedResponseStream(MessageLite message, EncodedRecords records) {
+			this.message = message;
+			this.records = records;
+			this.messageSize = message.getSerializedSize();
+		}
+
+		@Override
+		public int drainTo(OutputStream target) throws IOException {
+			int total = messageSize + records.getSize();
+			int drained = total - position;
+			if(position == 0) {
+				message.writeTo(target);
+				records.writeTo(target);
+			} else {
+				byte[] buffer = new byte[drained];
+				read(buffer, 0, drained);
+				target.write(buffer);
+			}
+			position = total;
+			return drained;
+		}
+
+		@Override
+		public int available() {
+			return messageSize + records.getSize() - position;
+		}
+
+		@Override
+		public int read() {
+			if(available() <= 0) {
+				return -1;
+			}
+			int value;
+			if(position < messageSize) {
+				value = getMessageBytes()[position] & 0xFF;
+			} else {
+				value = records.getByte(position - messageSize);
+			}
+			position++;
+			return value;
+		}
+
+		@Override
+		public int read(byte[] buffer, int offset, int length) {
+			int available = available();
+			if(available <= 0) {
+				return -1;
+			}
+			int remaining = Math.min(length, available);
+			int read = 0;
+			if(position < messageSize) {
+				int messageLength = Math.min(remaining, messageSize - position);
+				System.arraycopy(getMessageBytes(), position, buffer, offset, messageLength);
+				position += messageLength;
+				read += messageLength;
+			}
+			if(read < remaining) {
+				int recordsLength = remaining - read;
+				records.copyTo(position - messageSize, buffer, offset + read, recordsLength);
+				position += recordsLength;
+				read += recordsLength;
+			}
+			return read;
+		}
+
+		@Override
+		public void close() {
+			records.release();
+		}
+
+		private byte[] getMessageBytes() {
+			if(messageBytes == null) {
+				messageBytes = message.toByteArray();
+			}
+			return messageBytes;
+		}
+	}
+
+	/**
+	 * Stream of bytes kept of a serialized response
+	 */
+	private static final class SerializedResponseStream extends InputStream implements KnownLength, Drainable {
+		/**	Bytes of message	*/
+		private final ByteString bytes;
+		/**	Bytes read	*/
+		private int position = 0;
+
+		private SerializedResponseStream(ByteString bytes) {
+			this.bytes = bytes;
+		}
+
+		@Override
+		public int drainTo(OutputStream target) throws IOException {
+			int drained = available();
+			if(position == 0) {
+				bytes.writeTo(target);
+			} else {
+				bytes.substring(position).writeTo(target);
+			}
+			position = bytes.size();
+			return drained;
+		}
+
+		@Override
+		public int available() {
+			return bytes.size() - position;
+		}
+
+		@Override
+		public int read() {
+			if(available() <= 0) {
+				return -1;
+			}
+			return bytes.byteAt(position++) & 0xFF;
+		}
+
+		@Override
+		public int read(byte[] buffer, int offset, int length) {
+			int available = available();
+			if(available <= 0) {
+				return -1;
+			}
+			int read = Math.min(length, available);
+			bytes.copyTo(buffer, position, offset, read);
+			position += read;
+			return read;
+		}
+	}
+}
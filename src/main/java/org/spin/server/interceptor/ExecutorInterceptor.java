@@ -0,0 +1,235 @@
+/************************************************************************************
+ * Copyright (C) 2012-2018 E.R.P. Consultores y Asociados, C.A.                     *
+ * Contributor(s): Yamel Senih ysenih@erpya.com                                     *
+ * This program is free software: you can redistribute it and/or modify             *
+ * it under the terms of the GNU General Public License as published by             *
+ * the Free Software Foundation, either version 2 of the License, or                *
+ * (at your option) any later version.                                              *
+ * This program is distributed in the hope that it will be useful,                  *
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of                   *
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.	See the                     *
+ * GNU General Public License for more details.                                     *
+ * You should have received a copy of the GNU General Public License                *
+ * along with this program.	If not, see <https://www.gnu.org/licenses/>.            *
+ ************************************************************************************/
+package org.spin.server.interceptor;
+
+import java.util.Queue;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import org.spin.base.metrics.MetricsRegistry;
+import org.spin.base.metrics.MetricsRegistry.Counter;
+import org.spin.base.setup.Executor;
+
+import io.grpc.Context;
+import io.grpc.Metadata;
+import io.grpc.ServerCall;
+import io.grpc.ServerCall.Listener;
+import io.grpc.ServerCallHandler;
+import io.grpc.ServerInterceptor;
+import io.grpc.Status;
+
+/**
+ * Run all calls of a service group on a named and bounded thread pool (bulkhead).
+ * The pool is isolated from other groups, then a burst of heavy calls (processes, reports)
+ * can not starve the others. When the pool and the queue are full the call is closed
+ * with RESOURCE_EXHAUSTED instead of queuing forever.
+ * @author Yamel Senih, ysenih@erpya.com, ERPCyA http://www.erpya.com
+ */
+public class ExecutorInterceptor implements ServerInterceptor {
+	/**	Logger			*/
+	private static final Logger logger = Logger.getLogger(ExecutorInterceptor.class.getName());
+	/**	Pool name	*/
+	private final String name;
+	/**	Thread pool	*/
+	private final ThreadPoolExecutor executor;
+	/**	Rejected calls	*/
+	private final Counter rejectedCalls;
+	/**	Labels	*/
+	private static final String[] EXECUTOR_LABELS = {"executor"};
+
+	/**
+	 * Create pool from setup
+	 * @param setup
+	 */
+	public ExecutorInterceptor(Executor setup) {
+		this.name = setup.getName();
+		AtomicInteger threadNumber = new AtomicInteger(1);
+		ThreadFactory threadFactory = runnable -> {
+			Thread thread = new Thread(runnable, "grpc-" + name + "-" + threadNumber.getAndIncrement());
+			thread.setDaemon(true);
+			return thread;
+		};
+		executor = new ThreadPoolExecutor(setup.getCore_pool_size(),
+				setup.getMaximum_pool_size(),
+				setup.getKeep_alive_time(), TimeUnit.SECONDS,
+				new ArrayBlockingQueue<Runnable>(setup.getQueue_size()),
+				threadFactory,
+				new ThreadPoolExecutor.AbortPolicy());
+		//	Metrics
+		MetricsRegistry registry = MetricsRegistry.getInstance();
+		registry.gauge("grpc_executor_active_threads", "Threads running calls on executor.", () -> executor.getActiveCount(), EXECUTOR_LABELS, name);
+		registry.gauge("grpc_executor_pool_size", "Threads on executor.", () -> executor.getPoolSize(), EXECUTOR_LABELS, name);
+		registry.gauge("grpc_executor_queue_size", "Events waiting for a thread on executor.", () -> executor.getQueue().size(), EXECUTOR_LABELS, name);
+		rejectedCalls = registry.counter("grpc_executor_rejected_total", "Calls rejected because executor is saturated.", EXECUTOR_LABELS, name);
+	}
+
+	/**
+	 * Get Pool Name
+	 * @return
+	 */
+	public String getName() {
+		return name;
+	}
+
+	/**
+	 * Get thread pool
+	 * @return
+	 */
+	public ThreadPoolExecutor getExecutor() {
+		return executor;
+	}
+
+	/**
+	 * Shutdown pool
+	 */
+	public void shutdown() {
+		executor.shutdown();
+	}
+
+	@Override
+	public <ReqT, RespT> Listener<ReqT> interceptCall(ServerCall<ReqT, RespT> call, Metadata headers, ServerCallHandler<ReqT, RespT> next) {
+		return new BulkheadListener<ReqT>(call, next.startCall(call, headers));
+	}
+
+	/**
+	 * Listener that forward all events to pool keeping the order of each call
+	 */
+	private class BulkheadListener<ReqT> extends ServerCall.Listener<ReqT> implements Runnable {
+		/**	Call	*/
+		private final ServerCall<ReqT, ?> call;
+		/**	Listener of service	*/
+		private final ServerCall.Listener<ReqT> delegate;
+		/**	Events pending for run	*/
+		private final Queue<Runnable> pending = new ConcurrentLinkedQueue<>();
+		/**	Is running on pool	*/
+		private final AtomicBoolean running = new AtomicBoolean(false);
+		/**	Rejected by pool	*/
+		private volatile boolean rejected = false;
+
+		private BulkheadListener(ServerCall<ReqT, ?> call, ServerCall.Listener<ReqT> delegate) {
+			this.call = call;
+			this.delegate = delegate;
+		}
+
+		/**
+		 * Add event to queue and schedule it
+		 * @param event
+		 */
+		private void execute(Runnable event) {
+			if(rejected) {
+				return;
+			}
+			pending.add(Context.current().wrap(event));
+			schedule();
+		}
+
+		/**
+		 * Schedule on pool if it is not running
+		 */
+		private void schedule() {
+			if(!running.compareAndSet(false, true)) {
+				return;
+			}
+			try {
+				executor.execute(this);
+			} catch (RejectedExecutionException e) {
+				running.set(false);
+				reject();
+			}
+		}
+
+		/**
+		 * Reject call because pool is saturated
+		 */
+		private void reject() {
+			rejected = true;
+			pending.clear();
+			rejectedCalls.increment();
+			logger.warning("Executor " + name + " saturated, call rejected: " + call.getMethodDescriptor().getFullMethodName());
+			try {
+				call.close(Status.RESOURCE_EXHAUSTED
+						.withDescription("Executor " + name + " saturated"), new Metadata());
+			} catch (IllegalStateException e) {
+				//	Already closed
+			}
+		}
+
+		@Override
+		public void run() {
+			try {
+				Runnable event;
+				while((event = pending.poll()) != null) {
+					try {
+						event.run();
+					} catch (RuntimeException e) {
+						logger.log(Level.SEVERE, e.getLocalizedMessage(), e);
+						try {
+							call.close(Status.fromThrowable(e), new Metadata());
+						} catch (IllegalStateException closedException) {
+							//	Already closed
+						}
+					}
+				}
+			} finally {
+				running.set(false);
+			}
+			//	Events added while finishing
+			if(!pending.isEmpty()) {
+				schedule();
+			}
+		}
+
+		@Override
+		public void onMessage(ReqT message) {
+			execute(() -> delegate.onMessage(message));
+		}
+
+		@Override
+		public void onHalfClose() {
+			execute(() -> delegate.onHalfClose());
+		}
+
+		@Override
+		public void onReady() {
+			execute(() -> delegate.onReady());
+		}
+
+		@Override
+		public void onCancel() {
+			if(rejected) {
+				delegate.onCancel();
+				return;
+			}
+			execute(() -> delegate.onCancel());
+		}
+
+		@Override
+		public void onComplete() {
+			if(rejected) {
+				delegate.onComplete();
+				return;
+			}
+			execute(() -> delegate.onComplete());
+		}
+	}
+}
@@ -0,0 +1,179 @@
+/************************************************************************************
+ * Copyright (C) 2012-2018 E.R.P. Consultores y Asociados, C.A.                     *
+ * Contributor(s): Yamel Senih ysenih@erpya.com                                     *
+ * This program is free software: you can redistribute it and/or modify             *
+ * it under the terms of the GNU General Public License as published by             *
+ * the Free Software Foundation, either version 2 of the License, or                *
+ * (at your option) any later version.                                              *
+ * This program is distributed in the hope that it will be useful,                  *
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of                   *
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.	See the                     *
+ * GNU General Public License for more details.                                     *
+ * You should have received a copy of the GNU General Public License                *
+ * along with this program.	If not, see <https://www.gnu.org/licenses/>.            *
+ ************************************************************************************/
+package org.spin.server.interceptor;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.spin.base.metrics.CallTiming;
+import org.spin.base.metrics.CallTiming.Phase;
+import org.spin.base.metrics.LatencyHistogram;
+import org.spin.base.metrics.MetricsRegistry;
+import org.spin.base.metrics.MetricsRegistry.Counter;
+import org.spin.base.metrics.MetricsRegistry.Gauge;
+
+import io.grpc.Context;
+import io.grpc.Contexts;
+import io.grpc.ForwardingServerCall.SimpleForwardingServerCall;
+import io.grpc.ForwardingServerCallListener.SimpleForwardingServerCallListener;
+import io.grpc.Metadata;
+import io.grpc.ServerCall;
+import io.grpc.ServerCall.Listener;
+import io.grpc.ServerCallHandler;
+import io.grpc.ServerInterceptor;
+import io.grpc.Status;
+
+/**
+ * Record calls, status codes, calls in flight and latency for each method.
+ * Also attach a {@link CallTiming} to context of call, the utility layers report the
+ * time of each phase (context, SQL, conversion) and the serialization is measured here.
+ * When it is enabled on setup, a client can send the header x-debug-timing and get
+ * the phases on trailer x-call-timing.
+ * @author Yamel Senih, ysenih@erpya.com, ERPCyA http://www.erpya.com
+ */
+public class MetricsInterceptor implements ServerInterceptor {
+	/**	Metrics by method	*/
+	private static final Map<String, MethodMetrics> methodMetrics = new ConcurrentHashMap<>();
+	/**	Labels	*/
+	private static final String[] METHOD_LABELS = {"service", "method"};
+	private static final String[] STATUS_LABELS = {"service", "method", "code"};
+	private static final String[] PHASE_LABELS = {"service", "method", "phase"};
+	/**	Header for request timing	*/
+	public static final Metadata.Key<String> DEBUG_TIMING_HEADER = Metadata.Key.of("x-debug-timing", Metadata.ASCII_STRING_MARSHALLER);
+	/**	Trailer with timing	*/
+	public static final Metadata.Key<String> CALL_TIMING_TRAILER = Metadata.Key.of("x-call-timing", Metadata.ASCII_STRING_MARSHALLER);
+	/**	Allow timing trailer	*/
+	private final boolean isTimingTrailerAllowed;
+
+	/**
+	 * Default constructor
+	 * @param isTimingTrailerAllowed allow return x-call-timing trailer
+	 */
+	public MetricsInterceptor(boolean isTimingTrailerAllowed) {
+		this.isTimingTrailerAllowed = isTimingTrailerAllowed;
+	}
+
+	@Override
+	public <ReqT, RespT> Listener<ReqT> interceptCall(ServerCall<ReqT, RespT> call, Metadata headers, ServerCallHandler<ReqT, RespT> next) {
+		MethodMetrics metrics = getMethodMetrics(call.getMethodDescriptor().getFullMethodName());
+		CallTiming timing = new CallTiming(call.getMethodDescriptor().getFullMethodName());
+		boolean isTimingTrailer = isTimingTrailerAllowed && headers.containsKey(DEBUG_TIMING_HEADER);
+		AtomicBoolean finished = new AtomicBoolean(false);
+		metrics.started.increment();
+		metrics.inFlight.increment();
+		ServerCall<ReqT, RespT> monitoredCall = new SimpleForwardingServerCall<ReqT, RespT>(call) {
+			@Override
+			public void sendMessage(RespT message) {
+				//	Message is serialized and framed when it is sent
+				try (CallTiming.Scope scope = timing.begin(Phase.SERIALIZATION)) {
+					super.sendMessage(message);
+				}
+			}
+
+			@Override
+			public void close(Status status, Metadata trailers) {
+				if(finished.compareAndSet(false, true)) {
+					metrics.finish(status.getCode(), timing);
+				}
+				if(isTimingTrailer) {
+					trailers.put(CALL_TIMING_TRAILER, timing.getSummary());
+				}
+				super.close(status, trailers);
+			}
+		};
+		Context context = Context.current().withValue(CallTiming.KEY, timing);
+		Listener<ReqT> listener;
+		try {
+			listener = Contexts.interceptCall(context, monitoredCall, headers, next);
+		} catch (RuntimeException | Error e) {
+			//	Call is not started, it is not in flight
+			if(finished.compareAndSet(false, true)) {
+				metrics.finish(Status.fromThrowable(e).getCode(), timing);
+			}
+			throw e;
+		}
+		return new SimpleForwardingServerCallListener<ReqT>(listener) {
+			@Override
+			public void onCancel() {
+				//	Client cancel or deadline exceeded before close
+				if(finished.compareAndSet(false, true)) {
+					metrics.finish(Status.Code.CANCELLED, timing);
+				}
+				super.onCancel();
+			}
+		};
+	}
+
+	/**
+	 * Get metrics of method
+	 * @param fullMethodName
+	 * @return
+	 */
+	private static MethodMetrics getMethodMetrics(String fullMethodName) {
+		MethodMetrics metrics = methodMetrics.get(fullMethodName);
+		if(metrics == null) {
+			metrics = methodMetrics.computeIfAbsent(fullMethodName, MethodMetrics::new);
+		}
+		return metrics;
+	}
+
+	/**
+	 * Metrics of a method
+	 */
+	private static class MethodMetrics {
+		private final String service;
+		private final String method;
+		private final Counter started;
+		private final Gauge inFlight;
+		private final LatencyHistogram latency;
+		/**	Latency by phase	*/
+		private final LatencyHistogram[] phases = new LatencyHistogram[Phase.values().length];
+		/**	Counters by status code	*/
+		private final Counter[] handled = new Counter[Status.Code.values().length];
+
+		private MethodMetrics(String fullMethodName) {
+			int separator = fullMethodName.lastIndexOf('/');
+			service = separator > 0? fullMethodName.substring(0, separator): "";
+			method = fullMethodName.substring(separator + 1);
+			MetricsRegistry registry = MetricsRegistry.getInstance();
+			started = registry.counter("grpc_server_started_total", "Total number of RPCs started on the server.", METHOD_LABELS, service, method);
+			inFlight = registry.gauge("grpc_server_in_flight", "Number of RPCs currently running on the server.", METHOD_LABELS, service, method);
+			latency = registry.histogram("grpc_server_handling_seconds", "Latency of RPCs handled by the server.", METHOD_LABELS, service, method);
+			for(Phase phase : Phase.values()) {
+				phases[phase.ordinal()] = registry.histogram("grpc_server_phase_seconds", "Time spent by RPCs on each phase (context, sql, conversion, serialization).", PHASE_LABELS, service, method, phase.getPhaseName());
+			}
+		}
+
+		/**
+		 * Finish a call
+		 * @param code
+		 * @param timing
+		 */
+		private void finish(Status.Code code, CallTiming timing) {
+			inFlight.decrement();
+			latency.record(timing.getTotalElapsed());
+			for(Phase phase : Phase.values()) {
+				phases[phase.ordinal()].record(timing.getElapsed(phase));
+			}
+			Counter counter = handled[code.ordinal()];
+			if(counter == null) {
+				counter = MetricsRegistry.getInstance().counter("grpc_server_handled_total", "Total number of RPCs completed on the server by status code.", STATUS_LABELS, service, method, code.name());
+				handled[code.ordinal()] = counter;
+			}
+			counter.increment();
+		}
+	}
+}
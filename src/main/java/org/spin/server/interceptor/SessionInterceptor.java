@@ -0,0 +1,189 @@
+/************************************************************************************
+ * Copyright (C) 2012-2018 E.R.P. Consultores y Asociados, C.A.                     *
+ * Contributor(s): Yamel Senih ysenih@erpya.com                                     *
+ * This program is free software: you can redistribute it and/or modify             *
+ * it under the terms of the GNU General Public License as published by             *
+ * the Free Software Foundation, either version 2 of the License, or                *
+ * (at your option) any later version.                                              *
+ * This program is distributed in the hope that it will be useful,                  *
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of                   *
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.	See the                     *
+ * GNU General Public License for more details.                                     *
+ * You should have received a copy of the GNU General Public License                *
+ * along with this program.	If not, see <https://www.gnu.org/licenses/>.            *
+ ************************************************************************************/
+package org.spin.server.interceptor;
+
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Logger;
+
+import org.compiere.util.Util;
+import org.spin.base.metrics.MetricsRegistry;
+import org.spin.base.metrics.MetricsRegistry.Counter;
+import org.spin.base.util.ContextManager;
+import org.spin.base.util.LRUCache;
+import org.spin.base.util.RequestUtil;
+import org.spin.grpc.util.ClientRequest;
+
+import io.grpc.ForwardingServerCallListener.SimpleForwardingServerCallListener;
+import io.grpc.Metadata;
+import io.grpc.ServerCall;
+import io.grpc.ServerCall.Listener;
+import io.grpc.ServerCallHandler;
+import io.grpc.ServerInterceptor;
+import io.grpc.Status;
+import io.grpc.StatusRuntimeException;
+
+/**
+ * Resolve the session of call once. The values are read from metadata (session-uuid, language,
+ * organization-uuid and warehouse-uuid) or from ClientRequest of request when the metadata has not session.
+ * The context is resolved with first message and attached to call, then the service only read it
+ * (ContextManager return the context already resolved).
+ * The sessions not found are kept for a time, a call with a known invalid session on metadata is closed
+ * with UNAUTHENTICATED before the request is read and without access to database.
+ * It must be inside of context interceptor, then it run on the thread of service.
+ * @author Yamel Senih, ysenih@erpya.com, ERPCyA http://www.erpya.com
+ */
+public class SessionInterceptor implements ServerInterceptor {
+	/**	Logger			*/
+	private static final Logger logger = Logger.getLogger(SessionInterceptor.class.getName());
+	/**	Metadata keys	*/
+	public static final Metadata.Key<String> SESSION_UUID = Metadata.Key.of("session-uuid", Metadata.ASCII_STRING_MARSHALLER);
+	public static final Metadata.Key<String> LANGUAGE = Metadata.Key.of("language", Metadata.ASCII_STRING_MARSHALLER);
+	public static final Metadata.Key<String> ORGANIZATION_UUID = Metadata.Key.of("organization-uuid", Metadata.ASCII_STRING_MARSHALLER);
+	public static final Metadata.Key<String> WAREHOUSE_UUID = Metadata.Key.of("warehouse-uuid", Metadata.ASCII_STRING_MARSHALLER);
+	/**	Max invalid sessions kept	*/
+	private static final int INVALID_SESSIONS_SIZE = 10000;
+	/**	Time for keep a invalid session (seconds)	*/
+	private static final int INVALID_SESSIONS_TIMEOUT = 60;
+	/**	Sessions not found	*/
+	private final LRUCache<String, Boolean> invalidSessions = new LRUCache<>("invalid_session", INVALID_SESSIONS_SIZE, INVALID_SESSIONS_TIMEOUT, TimeUnit.SECONDS);
+	/**	Rejected calls	*/
+	private final Counter rejectedCalls = MetricsRegistry.getInstance().counter("grpc_session_rejected_total", "Calls rejected because session is not valid.", null);
+
+	@Override
+	public <ReqT, RespT> Listener<ReqT> interceptCall(ServerCall<ReqT, RespT> call, Metadata headers, ServerCallHandler<ReqT, RespT> next) {
+		ClientRequest metadataRequest = getClientRequest(headers);
+		if(metadataRequest != null
+				&& isInvalidSession(metadataRequest.getSessionUuid())) {
+			reject(call);
+			return new ServerCall.Listener<ReqT>() {};
+		}
+		return new SimpleForwardingServerCallListener<ReqT>(next.startCall(call, headers)) {
+			/**	Context resolved	*/
+			private boolean resolved = false;
+			/**	Call rejected	*/
+			private boolean rejected = false;
+
+			@Override
+			public void onMessage(ReqT message) {
+				if(rejected) {
+					return;
+				}
+				if(!resolved) {
+					resolved = true;
+					ClientRequest clientRequest = metadataRequest != null? metadataRequest: RequestUtil.getClientRequest(message);
+					if(!resolveContext(clientRequest)) {
+						rejected = true;
+						reject(call);
+						return;
+					}
+				}
+				super.onMessage(message);
+			}
+
+			@Override
+			public void onHalfClose() {
+				if(rejected) {
+					return;
+				}
+				super.onHalfClose();
+			}
+
+			@Override
+			public void onReady() {
+				if(rejected) {
+					return;
+				}
+				super.onReady();
+			}
+		};
+	}
+
+	/**
+	 * Get values of client from metadata
+	 * @param headers
+	 * @return null if metadata has not session
+	 */
+	private ClientRequest getClientRequest(Metadata headers) {
+		String sessionUuid = headers.get(SESSION_UUID);
+		if(Util.isEmpty(sessionUuid)) {
+			return null;
+		}
+		return ClientRequest.newBuilder()
+				.setSessionUuid(sessionUuid)
+				.setLanguage(getValueOrEmpty(headers.get(LANGUAGE)))
+				.setOrganizationUuid(getValueOrEmpty(headers.get(ORGANIZATION_UUID)))
+				.setWarehouseUuid(getValueOrEmpty(headers.get(WAREHOUSE_UUID)))
+				.build();
+	}
+
+	/**
+	 * Get empty for null values
+	 * @param value
+	 * @return
+	 */
+	private static String getValueOrEmpty(String value) {
+		return value == null? "": value;
+	}
+
+	/**
+	 * Verify if session is known as invalid
+	 * @param sessionUuid
+	 * @return
+	 */
+	private boolean isInvalidSession(String sessionUuid) {
+		return invalidSessions.get(sessionUuid) != null;
+	}
+
+	/**
+	 * Resolve context of call
+	 * @param clientRequest
+	 * @return false if session is not valid
+	 */
+	private boolean resolveContext(ClientRequest clientRequest) {
+		//	Request without session (login, public services)
+		if(clientRequest == null
+				|| Util.isEmpty(clientRequest.getSessionUuid())) {
+			return true;
+		}
+		String sessionUuid = clientRequest.getSessionUuid();
+		if(isInvalidSession(sessionUuid)) {
+			return false;
+		}
+		try {
+			ContextManager.getContext(sessionUuid, clientRequest.getLanguage(), clientRequest.getOrganizationUuid(), clientRequest.getWarehouseUuid());
+		} catch (StatusRuntimeException e) {
+			if(e.getStatus().getCode() != Status.Code.UNAUTHENTICATED) {
+				throw e;
+			}
+			invalidSessions.put(sessionUuid, Boolean.TRUE);
+			return false;
+		}
+		return true;
+	}
+
+	/**
+	 * Close call with UNAUTHENTICATED
+	 * @param call
+	 */
+	private void reject(ServerCall<?, ?> call) {
+		rejectedCalls.increment();
+		logger.fine("Invalid session: " + call.getMethodDescriptor().getFullMethodName());
+		try {
+			call.close(Status.UNAUTHENTICATED.withDescription("@AD_Session_ID@ @NotFound@"), new Metadata());
+		} catch (IllegalStateException e) {
+			//	Already closed
+		}
+	}
+}
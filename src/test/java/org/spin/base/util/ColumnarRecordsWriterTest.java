@@ -0,0 +1,89 @@
+/*************************************************************************************
+ * Product: Adempiere ERP & CRM Smart Business Solution                              *
+ * This program is free software; you can redistribute it and/or modify it    		 *
+ * under the terms version 2 or later of the GNU General Public License as published *
+ * by the Free Software Foundation. This program is distributed in the hope   		 *
+ * that it will be useful, but WITHOUT ANY WARRANTY; without even the implied 		 *
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.           		 *
+ * See the GNU General Public License for more details.                       		 *
+ * You should have received a copy of the GNU General Public License along    		 *
+ * with this program; if not, write to the Free Software Foundation, Inc.,    		 *
+ * 59 Temple Place, Suite 330, Boston, MA 02111-1307 USA.                     		 *
+ * For the text or an alternative of this public license, you may reach us    		 *
+ * Copyright (C) 2012-2018 E.R.P. Consultores y Asociados, S.A. All Rights Reserved. *
+ * Contributor(s): Yamel Senih www.erpya.com				  		                 *
+ *************************************************************************************/
+package org.spin.base.util;
+
+import static org.junit.Assert.assertEquals;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+
+import org.compiere.util.DisplayType;
+import org.junit.Test;
+import org.spin.grpc.util.ColumnValues;
+import org.spin.grpc.util.ColumnarRecords;
+import org.spin.grpc.util.Value.ValueType;
+
+/**
+ * Test of columns packed by {@link ColumnarRecordsWriter} with values of different numeric types,
+ * the result set or PO can return Integer, Long, BigDecimal or Double for the same column
+ * @author Yamel Senih, ysenih@erpya.com , http://www.erpya.com
+ */
+public class ColumnarRecordsWriterTest {
+	
+	@Test
+	public void testDecimalColumnWithMixedNumbers() {
+		ColumnarRecordsWriter writer = new ColumnarRecordsWriter();
+		Object[] values = new Object[] {new BigDecimal("1.25"), Integer.valueOf(2), Long.valueOf(3), Double.valueOf(4.5), new BigInteger("5"), null};
+		for(Object value : values) {
+			writer.addRecord();
+			writer.setValue("Amount", value, DisplayType.Amount);
+		}
+		ColumnarRecords records = writer.build().build();
+		assertEquals(values.length, records.getRecordCount());
+		ColumnValues column = records.getColumns(0);
+		assertEquals(ValueType.DECIMAL, column.getValueType());
+		assertEquals(2, column.getScale());
+		assertEquals(values.length, column.getLongValuesCount());
+		assertEquals(125, column.getLongValues(0));
+		assertEquals(200, column.getLongValues(1));
+		assertEquals(300, column.getLongValues(2));
+		assertEquals(450, column.getLongValues(3));
+		assertEquals(500, column.getLongValues(4));
+		//	Only last record is null
+		assertEquals(1 << 5, column.getNullBitmap().byteAt(0));
+	}
+	
+	@Test
+	public void testIntegerColumnWithMixedNumbers() {
+		ColumnarRecordsWriter writer = new ColumnarRecordsWriter();
+		Object[] values = new Object[] {Integer.valueOf(1), Long.valueOf(2), new BigDecimal("3")};
+		for(Object value : values) {
+			writer.addRecord();
+			writer.setValue("Qty", value, DisplayType.Integer);
+		}
+		ColumnValues column = writer.build().build().getColumns(0);
+		assertEquals(ValueType.INTEGER, column.getValueType());
+		assertEquals(values.length, column.getLongValuesCount());
+		assertEquals(1, column.getLongValues(0));
+		assertEquals(2, column.getLongValues(1));
+		assertEquals(3, column.getLongValues(2));
+		assertEquals(0, column.getNullBitmap().size());
+	}
+	
+	@Test
+	public void testIdentifierColumnWithLong() {
+		ColumnarRecordsWriter writer = new ColumnarRecordsWriter();
+		Object[] values = new Object[] {Integer.valueOf(100), Long.valueOf(101)};
+		for(Object value : values) {
+			writer.addRecord();
+			writer.setValue("C_BPartner_ID", value, DisplayType.ID);
+		}
+		ColumnValues column = writer.build().build().getColumns(0);
+		assertEquals(ValueType.INTEGER, column.getValueType());
+		assertEquals(100, column.getLongValues(0));
+		assertEquals(101, column.getLongValues(1));
+	}
+}
@@ -0,0 +1,182 @@
+/*************************************************************************************
+ * Product: Adempiere ERP & CRM Smart Business Solution                              *
+ * This program is free software; you can redistribute it and/or modify it    		 *
+ * under the terms version 2 or later of the GNU General Public License as published *
+ * by the Free Software Foundation. This program is distributed in the hope   		 *
+ * that it will be useful, but WITHOUT ANY WARRANTY; without even the implied 		 *
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.           		 *
+ * See the GNU General Public License for more details.                       		 *
+ * You should have received a copy of the GNU General Public License along    		 *
+ * with this program; if not, write to the Free Software Foundation, Inc.,    		 *
+ * 59 Temple Place, Suite 330, Boston, MA 02111-1307 USA.                     		 *
+ * For the text or an alternative of this public license, you may reach us    		 *
+ * Copyright (C) 2012-2018 E.R.P. Consultores y Asociados, S.A. All Rights Reserved. *
+ * Contributor(s): Yamel Senih www.erpya.com				  		                 *
+ *************************************************************************************/
+package org.spin.server.interceptor;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+
+import org.compiere.util.DisplayType;
+import org.junit.Rule;
+import org.junit.Test;
+import org.spin.base.util.EncodedRecords;
+import org.spin.base.util.EncodedRecordsWriter;
+import org.spin.base.util.RecordWriter;
+import org.spin.grpc.util.BusinessDataGrpc;
+import org.spin.grpc.util.BusinessDataGrpc.BusinessDataImplBase;
+import org.spin.grpc.util.Entity;
+import org.spin.grpc.util.ListEntitiesRequest;
+import org.spin.grpc.util.ListEntitiesResponse;
+
+import com.google.protobuf.ByteString;
+
+import io.grpc.CallOptions;
+import io.grpc.ManagedChannel;
+import io.grpc.MethodDescriptor;
+import io.grpc.MethodDescriptor.Marshaller;
+import io.grpc.inprocess.InProcessChannelBuilder;
+import io.grpc.inprocess.InProcessServerBuilder;
+import io.grpc.stub.ClientCalls;
+import io.grpc.stub.StreamObserver;
+import io.grpc.testing.GrpcCleanupRule;
+
+/**
+ * Round trip of records encoded by {@link EncodedRecordsWriter}: the bytes sent by marshaller of
+ * {@link EncodedResponseInterceptor} must be parsed as the response built with entities
+ * @author Yamel Senih, ysenih@erpya.com , http://www.erpya.com
+ */
+public class EncodedResponseInterceptorTest {
+	
+	@Rule
+	public final GrpcCleanupRule grpcCleanup = new GrpcCleanupRule();
+	
+	/**	Rows of list: identifier and values by column with reference	*/
+	private static final Object[][] ROWS = new Object[][] {
+		{1000000, "a4f0c5a2-9b61-4a5e-8e0c-2f0f3b9d1a01", "Standard", new BigDecimal("1250.50"), "Y", Timestamp.valueOf("2020-01-01 00:00:00"), 118, 3, "Joe Block"},
+		{1000001, "a4f0c5a2-9b61-4a5e-8e0c-2f0f3b9d1a02", "POS Order", new BigDecimal("-0.000001"), "N", Timestamp.valueOf("2021-06-30 13:45:10"), 119, 0, ""},
+		{1000002, null, "", BigDecimal.ZERO, "Y", null, null, null, null},
+	};
+	
+	@Test
+	public void testEncodedRecordsAreParsedAsEntities() throws Exception {
+		ListEntitiesResponse response = call(true);
+		assertEquals(getExpectedResponse(), response);
+	}
+	
+	@Test
+	public void testEntitiesWhenEncodedRecordsAreDisabled() throws Exception {
+		ListEntitiesResponse response = call(false);
+		assertEquals(getExpectedResponse(), response);
+	}
+	
+	/**
+	 * Call ListEntities on a server with interceptor, the response is read as bytes then parsed
+	 * @param isEncodedRecords
+	 * @return
+	 * @throws IOException
+	 */
+	private ListEntitiesResponse call(boolean isEncodedRecords) throws IOException {
+		String serverName = InProcessServerBuilder.generateName();
+		grpcCleanup.register(InProcessServerBuilder.forName(serverName)
+				.directExecutor()
+				.addService(EncodedResponseInterceptor.wrap(new ListService().bindService(), isEncodedRecords))
+				.build()
+				.start());
+		ManagedChannel channel = grpcCleanup.register(InProcessChannelBuilder.forName(serverName)
+				.directExecutor()
+				.build());
+		MethodDescriptor<ListEntitiesRequest, ListEntitiesResponse> method = BusinessDataGrpc.getListEntitiesMethod();
+		MethodDescriptor<ListEntitiesRequest, ByteString> bytesMethod = method.toBuilder(method.getRequestMarshaller(), new BytesMarshaller())
+				.build();
+		ByteString bytes = ClientCalls.blockingUnaryCall(channel, bytesMethod, CallOptions.DEFAULT, ListEntitiesRequest.getDefaultInstance());
+		return ListEntitiesResponse.parseFrom(bytes);
+	}
+	
+	/**
+	 * Response built with entities
+	 * @return
+	 */
+	private static ListEntitiesResponse getExpectedResponse() {
+		ListEntitiesResponse.Builder builder = ListEntitiesResponse.newBuilder()
+				.setRecordCount(ROWS.length)
+				.setNextPageToken("next");
+		for(Object[] row : ROWS) {
+			Entity.Builder entity = Entity.newBuilder();
+			write(row, RecordWriter.forEntity(entity));
+			builder.addRecords(entity);
+		}
+		return builder.build();
+	}
+	
+	/**
+	 * Write values of a row
+	 * @param row
+	 * @param writer
+	 */
+	private static void write(Object[] row, RecordWriter writer) {
+		writer.setIdentifier((Integer) row[0], (String) row[1], "C_Order");
+		writer.setValue("DocumentNo", row[2], DisplayType.String);
+		writer.setValue("GrandTotal", row[3], DisplayType.Amount);
+		writer.setValue("IsActive", row[4], DisplayType.YesNo);
+		writer.setValue("DateOrdered", row[5], DisplayType.Date);
+		writer.setValue("C_BPartner_ID", row[6], DisplayType.TableDir);
+		writer.setValue("Priority", row[7], DisplayType.Integer);
+		if(row[8] != null) {
+			writer.setString("DisplayColumn_C_BPartner_ID", (String) row[8]);
+		}
+	}
+	
+	/**
+	 * List of rows as the services of lists: encoded when the call support it
+	 */
+	private static final class ListService extends BusinessDataImplBase {
+		@Override
+		public void listEntities(ListEntitiesRequest request, StreamObserver<ListEntitiesResponse> responseObserver) {
+			ListEntitiesResponse.Builder builder = ListEntitiesResponse.newBuilder();
+			if(EncodedRecordsWriter.isEnabled()) {
+				EncodedRecordsWriter encoded = EncodedRecordsWriter.start(ListEntitiesResponse.RECORDS_FIELD_NUMBER);
+				for(Object[] row : ROWS) {
+					encoded.addRecord();
+					write(row, encoded);
+				}
+				encoded.finish().attachTo(builder);
+			} else {
+				for(Object[] row : ROWS) {
+					Entity.Builder entity = Entity.newBuilder();
+					write(row, RecordWriter.forEntity(entity));
+					builder.addRecords(entity);
+				}
+			}
+			builder.setRecordCount(ROWS.length)
+				.setNextPageToken("next");
+			responseObserver.onNext(EncodedRecords.build(builder));
+			responseObserver.onCompleted();
+		}
+	}
+	
+	/**
+	 * Read response as bytes sent by server
+	 */
+	private static final class BytesMarshaller implements Marshaller<ByteString> {
+		@Override
+		public InputStream stream(ByteString value) {
+			return new ByteArrayInputStream(value.toByteArray());
+		}
+		
+		@Override
+		public ByteString parse(InputStream stream) {
+			try {
+				return ByteString.readFrom(stream);
+			} catch (IOException e) {
+				throw new RuntimeException(e);
+			}
+		}
+	}
+}